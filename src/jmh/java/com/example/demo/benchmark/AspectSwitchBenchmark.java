@@ -0,0 +1,71 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.aspect.AspectBackend;
+import com.example.demo.aspect.AspectControl;
+import com.example.demo.aspect.TimedInterceptor;
+import com.example.demo.aspect.TraceLoggingInterceptor;
+import com.example.demo.aspect.TraceSampler;
+import io.avaje.inject.aop.Invocation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Overhead of {@code @Timed} and {@code @TraceLogged} interceptors switched off through
+ * {@link AspectControl}, compared with proceeding with the call directly. Both should be
+ * within noise of the direct call.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AspectSwitchBenchmark {
+
+    private TimedInterceptor timedOff;
+    private TraceLoggingInterceptor traceOff;
+    private Invocation invocation;
+
+    @Setup
+    public void setup() throws NoSuchMethodException {
+        Method method = Target.class.getMethod("handle", String.class);
+        AspectControl control = new AspectControl();
+        TimedInterceptor timed = new TimedInterceptor();
+        timedOff = timed.forMethod(method, AspectBackend.LOG, control.switchFor(AspectControl.TIMED, "Target.handle"));
+        traceOff = new TraceLoggingInterceptor().forMethod(method, TraceSampler.always())
+            .withSwitch(control.switchFor(AspectControl.TRACE, "Target.handle"));
+        control.disable("*", "Target.handle");
+        invocation = new Invocation.Run(() -> { }).with(new Target(), method, "event");
+    }
+
+    @Benchmark
+    public void direct() throws Throwable {
+        invocation.invoke();
+    }
+
+    @Benchmark
+    public void timedDisabled() throws Throwable {
+        timedOff.invoke(invocation);
+    }
+
+    @Benchmark
+    public void traceDisabled() throws Throwable {
+        traceOff.invoke(invocation);
+    }
+
+    public static class Target {
+        public void handle(String message) {
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.demo.benchmark;
+
+import io.avaje.inject.BeanScope;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to build (and close) the application's {@link BeanScope}, including proxy wiring
+ * and the aspect providers' per-method setup.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BeanScopeBenchmark {
+
+    @Setup(Level.Trial)
+    public void setup() {
+        BenchmarkSupport.configureLogging("info");
+    }
+
+    @Benchmark
+    public BeanScope buildAndClose() {
+        BeanScope beanScope = BeanScope.builder().build();
+        beanScope.close();
+        return beanScope;
+    }
+}
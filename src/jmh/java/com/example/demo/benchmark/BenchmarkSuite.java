@@ -0,0 +1,141 @@
+package com.example.demo.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Runs benchmarks with the GC/allocation profiler, saves the results as CSV and, given the
+ * CSV of an earlier run, prints the change of every score against that baseline:
+ * <pre>
+ * java -cp target/benchmarks.jar com.example.demo.benchmark.BenchmarkSuite EventPath \
+ *      -Dbenchmark.result=target/after.csv -Dbenchmark.baseline=target/before.csv
+ * </pre>
+ * The include pattern defaults to every benchmark in this package.
+ */
+public final class BenchmarkSuite {
+
+    private static final String ALLOCATION = "gc.alloc.rate.norm";
+
+    private BenchmarkSuite() {
+    }
+
+    public static void main(String[] args) throws RunnerException, IOException {
+        String include = args.length > 0 ? args[0] : BenchmarkSuite.class.getPackageName() + ".*";
+        String resultFile = System.getProperty("benchmark.result", "target/jmh-result.csv");
+        Options options = new OptionsBuilder()
+            .include(include)
+            .exclude(BenchmarkSuite.class.getSimpleName())
+            .addProfiler(GCProfiler.class)
+            .resultFormat(ResultFormatType.CSV)
+            .result(resultFile)
+            .build();
+        Collection<RunResult> results = new Runner(options).run();
+
+        String baseline = System.getProperty("benchmark.baseline");
+        if (baseline != null) {
+            compare(results, readCsv(Path.of(baseline)));
+        }
+    }
+
+    private static void compare(Collection<RunResult> results, Map<String, Double> baseline) {
+        System.out.printf(Locale.ROOT, "%n%-90s %14s %14s %9s%n", "Benchmark", "baseline", "current", "change");
+        for (RunResult run : results) {
+            String key = key(run.getParams().getBenchmark(), paramValues(run));
+            print(key, run.getPrimaryResult(), baseline);
+            Result<?> allocation = run.getSecondaryResults().get(ALLOCATION);
+            if (allocation != null) {
+                print(key + ":" + ALLOCATION, allocation, baseline);
+            }
+        }
+    }
+
+    private static void print(String key, Result<?> result, Map<String, Double> baseline) {
+        Double before = baseline.get(key);
+        String change = before == null || before == 0 ? "n/a"
+            : String.format(Locale.ROOT, "%+.1f%%", (result.getScore() - before) * 100 / before);
+        System.out.printf(Locale.ROOT, "%-90s %14s %14.3f %9s  %s%n", key,
+            before == null ? "-" : String.format(Locale.ROOT, "%.3f", before), result.getScore(), change,
+            result.getScoreUnit());
+    }
+
+    private static Map<String, String> paramValues(RunResult run) {
+        Map<String, String> values = new TreeMap<>();
+        for (String name : run.getParams().getParamsKeys()) {
+            values.put(name, run.getParams().getParam(name));
+        }
+        return values;
+    }
+
+    private static String key(String benchmark, Map<String, String> params) {
+        return params.isEmpty() ? benchmark : benchmark + params;
+    }
+
+    /**
+     * Scores of a JMH CSV result file by benchmark (with ":" and the secondary result label for
+     * profiler rows) and sorted parameters.
+     */
+    static Map<String, Double> readCsv(Path file) throws IOException {
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        Map<String, Double> scores = new HashMap<>();
+        if (lines.isEmpty()) {
+            return scores;
+        }
+        List<String> header = splitCsv(lines.get(0));
+        int scoreColumn = header.indexOf("Score");
+        for (String line : lines.subList(1, lines.size())) {
+            List<String> columns = splitCsv(line);
+            Map<String, String> params = new TreeMap<>();
+            for (int i = 0; i < header.size() && i < columns.size(); i++) {
+                if (header.get(i).startsWith("Param: ") && !columns.get(i).isEmpty()) {
+                    params.put(header.get(i).substring("Param: ".length()), columns.get(i));
+                }
+            }
+            String benchmark = columns.get(0);
+            String label = "";
+            int colon = benchmark.indexOf(':');
+            if (colon >= 0) {
+                label = ":" + benchmark.substring(colon + 1).replace("·", "");
+                benchmark = benchmark.substring(0, colon);
+            }
+            scores.put(key(benchmark, params) + label, Double.parseDouble(columns.get(scoreColumn)));
+        }
+        return scores;
+    }
+
+    private static List<String> splitCsv(String line) {
+        List<String> columns = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"') {
+                quoted = !quoted;
+            } else if (c == ',' && !quoted) {
+                columns.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        columns.add(current.toString());
+        return columns;
+    }
+}
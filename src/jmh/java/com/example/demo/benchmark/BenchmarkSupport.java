@@ -0,0 +1,67 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.EventListener;
+import com.example.demo.EventProducer;
+import com.example.demo.dispatch.SyncEventDispatcher;
+import io.avaje.inject.BeanScope;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Shared setup for the event path benchmarks.
+ */
+final class BenchmarkSupport {
+
+    private static final String ASPECT_LOG_LEVEL = "org.slf4j.simpleLogger.log.com.example.demo.aspect";
+
+    private BenchmarkSupport() {
+    }
+
+    /**
+     * Set the aspect log level and send all log output to a temporary file, so that DEBUG runs
+     * measure the cost of logging rather than of the console. Must be called before the first
+     * logger is created in the benchmark JVM.
+     */
+    static void configureLogging(String aspectLevel) {
+        try {
+            File logFile = File.createTempFile("benchmark", ".log");
+            logFile.deleteOnExit();
+            System.setProperty("org.slf4j.simpleLogger.logFile", logFile.getPath());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        System.setProperty(ASPECT_LOG_LEVEL, aspectLevel);
+        System.setProperty("demo.listener.echo", "false");
+    }
+
+    /**
+     * Producer wired to a listener without proxies.
+     */
+    static EventProducer rawProducer() {
+        return new EventProducer(new SyncEventDispatcher(new EventListener(1024, false)));
+    }
+
+    /**
+     * Bean scope whose producer and listener proxies have the given aspects switched on:
+     * {@code timed}, {@code trace} or {@code both}. The other aspect is switched off through
+     * {@code AspectControl}, leaving one branch per call in its place.
+     */
+    static BeanScope proxiedScope(String aspects) {
+        switch (aspects) {
+            case "timed":
+                System.setProperty("demo.aspects.disabled", "trace:*");
+                break;
+            case "trace":
+                System.setProperty("demo.aspects.disabled", "timed:*");
+                break;
+            case "both":
+                System.clearProperty("demo.aspects.disabled");
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown aspects " + aspects);
+        }
+        return BeanScope.builder().build();
+    }
+}
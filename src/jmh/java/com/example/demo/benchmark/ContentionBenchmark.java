@@ -0,0 +1,56 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.DemoEvent;
+import com.example.demo.EventListener;
+import com.example.demo.aspect.TimedInterceptor.TimingStat;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of one {@link EventListener} and one {@link TimingStat} shared by several threads.
+ * Runs with 4 threads by default; compare with {@code -t 1} to see how far contention
+ * keeps them from scaling.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class ContentionBenchmark {
+
+    private EventListener listener;
+    private TimingStat stat;
+    private DemoEvent event;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        BenchmarkSupport.configureLogging("info");
+        listener = new EventListener(1024, false);
+        stat = new TimingStat();
+        event = new DemoEvent("benchmark event", 1L);
+    }
+
+    @Benchmark
+    public void listenerOnEvent() {
+        listener.onEvent(event);
+    }
+
+    @Benchmark
+    public void timingStatRecord() {
+        stat.record(1_000, 1, false);
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.EventProducer;
+import io.avaje.inject.BeanScope;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of {@code EventProducer.produceEvent} through the synchronous dispatcher: without
+ * proxies ({@code raw}), and through the wired proxies with {@code @Timed}, {@code @TraceLogged}
+ * or both switched on, at INFO and at DEBUG for the aspect loggers. Every parameter combination
+ * runs in its own fork, since the log level is fixed when logging starts; {@code raw} does not
+ * depend on the level.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EventPathBenchmark {
+
+    @Param({"raw", "timed", "trace", "both"})
+    String aspects;
+
+    @Param({"info", "debug"})
+    String level;
+
+    private BeanScope beanScope;
+    private EventProducer producer;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        BenchmarkSupport.configureLogging(level);
+        if (aspects.equals("raw")) {
+            producer = BenchmarkSupport.rawProducer();
+        } else {
+            beanScope = BenchmarkSupport.proxiedScope(aspects);
+            producer = beanScope.get(EventProducer.class);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (beanScope != null) {
+            beanScope.close();
+        }
+    }
+
+    @Benchmark
+    public void produceEvent() {
+        producer.produceEvent("benchmark event");
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.DemoEvent;
+import com.example.demo.EventListener;
+import com.example.demo.dispatch.EventDispatcher;
+import com.example.demo.dispatch.FlyweightEventDispatcher;
+import com.example.demo.dispatch.RingBuffer.ProducerType;
+import com.example.demo.dispatch.RingBufferEventDispatcher;
+import com.example.demo.dispatch.WaitStrategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Produce-to-listen cost of the asynchronous {@code DemoEvent} path compared with the
+ * allocation-free flyweight path, with the listener's console echo off. Run with
+ * {@code -prof gc}: {@code gc.alloc.rate.norm} for {@code flyweight} should be close to 0 B/op,
+ * while {@code event} pays for a {@link DemoEvent} per call.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FlyweightDispatchBenchmark {
+
+    @Param({"event", "flyweight"})
+    String mode;
+
+    private EventListener listener;
+    private EventDispatcher dispatcher;
+    private StringBuilder message;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        listener = new EventListener(1024, false);
+        dispatcher = mode.equals("flyweight")
+            ? new FlyweightEventDispatcher(listener, 8192, 64, ProducerType.SINGLE, WaitStrategy.yielding(), 1)
+            : new RingBufferEventDispatcher(listener, 8192, ProducerType.SINGLE, WaitStrategy.yielding(), 1);
+        message = new StringBuilder("benchmark event");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        ((AutoCloseable) dispatcher).close();
+    }
+
+    @Benchmark
+    public void produce() {
+        dispatcher.dispatch(message, 1L);
+    }
+}
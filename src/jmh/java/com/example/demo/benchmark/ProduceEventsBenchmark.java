@@ -0,0 +1,70 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.EventProducer;
+import io.avaje.inject.BeanScope;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of {@code EventProducer.produceEvents} for batches of increasing size, without proxies
+ * and with both aspects, at INFO. Divide by {@code batchSize} for the cost per event; the
+ * aspects are paid once per batch.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProduceEventsBenchmark {
+
+    @Param({"raw", "both"})
+    String aspects;
+
+    @Param({"1", "10", "100", "1000"})
+    int batchSize;
+
+    private BeanScope beanScope;
+    private EventProducer producer;
+    private String[] messages;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        BenchmarkSupport.configureLogging("info");
+        if (aspects.equals("raw")) {
+            producer = BenchmarkSupport.rawProducer();
+        } else {
+            beanScope = BenchmarkSupport.proxiedScope(aspects);
+            producer = beanScope.get(EventProducer.class);
+        }
+        messages = new String[batchSize];
+        for (int i = 0; i < batchSize; i++) {
+            messages[i] = "benchmark event " + i;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (beanScope != null) {
+            beanScope.close();
+        }
+    }
+
+    @Benchmark
+    public void produceEvents() {
+        producer.produceEvents(messages);
+    }
+}
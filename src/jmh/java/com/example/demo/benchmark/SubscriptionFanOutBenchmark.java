@@ -0,0 +1,79 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.DemoEvent;
+import com.example.demo.EventHandler;
+import com.example.demo.dispatch.SubscriptionRegistry;
+import com.example.demo.dispatch.TypedPublisher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fan-out cost of the {@link SubscriptionRegistry} publisher compared with calling the same
+ * N handlers directly. The two should stay within a few nanoseconds of each other.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SubscriptionFanOutBenchmark {
+
+    @Param({"1", "2", "4", "8", "16"})
+    int listeners;
+
+    private EventHandler<DemoEvent>[] direct;
+    private TypedPublisher<DemoEvent> publisher;
+    private DemoEvent event;
+
+    @Setup
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public void setup(Blackhole blackhole) {
+        SubscriptionRegistry registry = new SubscriptionRegistry();
+        direct = new EventHandler[listeners];
+        for (int i = 0; i < listeners; i++) {
+            direct[i] = new ConsumingHandler(blackhole);
+            registry.subscribe(DemoEvent.class, direct[i]);
+        }
+        publisher = registry.publisher(DemoEvent.class);
+        event = new DemoEvent("benchmark");
+    }
+
+    @Benchmark
+    public void directCalls() {
+        for (EventHandler<DemoEvent> handler : direct) {
+            handler.onEvent(event);
+        }
+    }
+
+    @Benchmark
+    public void registryFanOut() {
+        publisher.onEvent(event);
+    }
+
+    static final class ConsumingHandler implements EventHandler<DemoEvent> {
+
+        private final Blackhole blackhole;
+
+        ConsumingHandler(Blackhole blackhole) {
+            this.blackhole = blackhole;
+        }
+
+        @Override
+        public void onEvent(DemoEvent event) {
+            blackhole.consume(event);
+        }
+    }
+}
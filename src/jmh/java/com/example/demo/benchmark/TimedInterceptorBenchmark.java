@@ -0,0 +1,58 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.aspect.TimedInterceptor;
+import io.avaje.inject.aop.Invocation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Overhead of timing a call with the shared {@link TimedInterceptor}, which resolves the metric
+ * on every call, compared with a method-bound interceptor from {@link TimedInterceptor#forMethod}.
+ * Run with {@code -prof gc} to compare allocations per call as well.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TimedInterceptorBenchmark {
+
+    private TimedInterceptor shared;
+    private TimedInterceptor bound;
+    private Invocation invocation;
+
+    @Setup
+    public void setup() throws NoSuchMethodException {
+        Method method = Target.class.getMethod("handle", String.class);
+        shared = new TimedInterceptor();
+        bound = shared.forMethod(method);
+        invocation = new Invocation.Run(() -> { }).with(new Target(), method, "event");
+    }
+
+    @Benchmark
+    public void sharedInterceptor() throws Throwable {
+        shared.invoke(invocation);
+    }
+
+    @Benchmark
+    public void boundInterceptor() throws Throwable {
+        bound.invoke(invocation);
+    }
+
+    public static class Target {
+        public void handle(String message) {
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.aspect.TimedInterceptor.TimingStat;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of one {@link TimingStat} recorded by a growing number of threads, with shared and
+ * with striped (per-thread slot) recording. Run through {@link #main} to measure 1, 2, 4 ...
+ * threads up to the processor count ({@code -Dbenchmark.maxThreads} to change) and print each
+ * run's speedup over one thread:
+ * <pre>
+ * java -cp target/benchmarks.jar com.example.demo.benchmark.TimingStatScalingBenchmark
+ * </pre>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TimingStatScalingBenchmark {
+
+    @Param({"shared", "striped"})
+    public String recording;
+
+    private TimingStat stat;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        stat = new TimingStat("striped".equals(recording));
+    }
+
+    /**
+     * Latencies of one recording thread, spread over a few histogram buckets.
+     */
+    @State(Scope.Thread)
+    public static class Latencies {
+        private long next = 1_000;
+
+        long next() {
+            next = next >= 64_000 ? 1_000 : next + 1_000;
+            return next;
+        }
+    }
+
+    @Benchmark
+    public void record(Latencies latencies) {
+        stat.record(latencies.next(), 1, false);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        int maxThreads = Integer.getInteger("benchmark.maxThreads", Runtime.getRuntime().availableProcessors());
+        List<Integer> threadCounts = new ArrayList<>();
+        for (int threads = 1; threads < maxThreads; threads *= 2) {
+            threadCounts.add(threads);
+        }
+        threadCounts.add(maxThreads);
+
+        Map<String, Double> oneThread = new HashMap<>();
+        List<String> rows = new ArrayList<>();
+        for (int threads : threadCounts) {
+            for (RunResult run : new Runner(new OptionsBuilder()
+                .include(TimingStatScalingBenchmark.class.getSimpleName())
+                .threads(threads)
+                .build()).run()) {
+                String mode = run.getParams().getParam("recording");
+                double score = run.getPrimaryResult().getScore();
+                oneThread.putIfAbsent(mode, score);
+                double speedup = score / oneThread.get(mode);
+                rows.add(String.format(Locale.ROOT, "%-9s %8d %14.1f %8.2fx %10.0f%%",
+                    mode, threads, score, speedup, speedup * 100 / threads));
+            }
+        }
+        System.out.printf(Locale.ROOT, "%n%-9s %8s %14s %9s %11s%n", "recording", "threads", "ops/us", "speedup", "efficiency");
+        rows.forEach(System.out::println);
+    }
+}
@@ -1,16 +1,29 @@
 package com.example.demo;
 
 import com.example.demo.aspect.TimedProvider;
+import com.example.demo.dispatch.EventDispatcher;
+import com.example.demo.dispatch.Subscription;
+import com.example.demo.dispatch.SubscriptionRegistry;
+import com.example.demo.load.LatencyProbe;
+import com.example.demo.load.LoadConfig;
+import com.example.demo.load.LoadGenerator;
 import io.avaje.inject.BeanScope;
 
 /**
  * Main demonstration class showing how to use avaje-inject
  * to wire up the event system and run it.
  * Enhanced to demonstrate aspect-oriented trace logging and timing metrics.
+ * <p>
+ * Run with the argument {@code load} to drive the event path with the {@link LoadGenerator}
+ * instead, configured by the {@code demo.load.*} properties described in {@link LoadConfig}.
  */
 public class DemoApplication {
 
     public static void main(String[] args) {
+        if (args.length > 0 && "load".equals(args[0])) {
+            runLoad();
+            return;
+        }
         System.out.println("Starting Avaje Inject Demo with Aspect-Oriented Programming...");
 
         // Create the bean scope - this is where avaje-inject does its magic
@@ -49,4 +62,30 @@ public class DemoApplication {
 
         System.out.println("\nDemo completed!");
     }
-}
\ No newline at end of file
+
+    /**
+     * Run the load generator. Unless set explicitly, the listener echo is turned off and the aspects
+     * log at INFO, so the run measures the event path rather than console output.
+     */
+    private static void runLoad() {
+        if (System.getProperty("demo.listener.echo") == null) {
+            System.setProperty("demo.listener.echo", "false");
+        }
+        if (System.getProperty("org.slf4j.simpleLogger.log.com.example.demo.aspect") == null) {
+            System.setProperty("org.slf4j.simpleLogger.log.com.example.demo.aspect", "info");
+        }
+        try (BeanScope beanScope = BeanScope.builder().build()) {
+            LatencyProbe probe = new LatencyProbe();
+            EventDispatcher dispatcher = beanScope.get(EventDispatcher.class);
+            Subscription subscription = beanScope.get(SubscriptionRegistry.class).subscribe(DemoEvent.class, probe);
+            try {
+                new LoadGenerator(beanScope.get(EventProducer.class), probe, LoadConfig.fromSystemProperties(),
+                    dispatcher::pending).run(System.out);
+            } finally {
+                subscription.close();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
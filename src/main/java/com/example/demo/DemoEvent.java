@@ -1,15 +1,32 @@
 package com.example.demo;
 
 /**
- * Simple event class that carries a message.
+ * Simple event class that carries a message and, optionally, a partition key. Events with the
+ * same key are delivered in order by the partitioned dispatch mode.
  */
 public class DemoEvent {
     private final String message;
     private final long timestamp;
+    private final String partitionKey;
 
     public DemoEvent(String message) {
+        this(message, System.currentTimeMillis());
+    }
+
+    /**
+     * Recreate an event with its original timestamp, e.g. when replaying it from a journal.
+     */
+    public DemoEvent(String message, long timestamp) {
+        this(message, timestamp, null);
+    }
+
+    /**
+     * Create an event for the entity identified by {@code partitionKey}.
+     */
+    public DemoEvent(String message, long timestamp, String partitionKey) {
         this.message = message;
-        this.timestamp = System.currentTimeMillis();
+        this.timestamp = timestamp;
+        this.partitionKey = partitionKey;
     }
 
     public String getMessage() {
@@ -20,8 +37,18 @@ public class DemoEvent {
         return timestamp;
     }
 
+    /**
+     * Key of the entity the event belongs to, or {@code null} if it has none.
+     */
+    public String getPartitionKey() {
+        return partitionKey;
+    }
+
     @Override
     public String toString() {
-        return "DemoEvent{message='" + message + "', timestamp=" + timestamp + "}";
+        if (partitionKey == null) {
+            return "DemoEvent{message='" + message + "', timestamp=" + timestamp + "}";
+        }
+        return "DemoEvent{message='" + message + "', timestamp=" + timestamp + ", partitionKey='" + partitionKey + "'}";
     }
 }
\ No newline at end of file
@@ -0,0 +1,31 @@
+package com.example.demo;
+
+import java.util.List;
+
+/**
+ * Receives events of a given type. Beans implementing this interface are discovered from the
+ * {@link io.avaje.inject.BeanScope} and subscribed to the event type they declare.
+ *
+ * @param <E> the event type handled
+ */
+@FunctionalInterface
+public interface EventHandler<E extends DemoEvent> {
+
+    /**
+     * Handle an incoming event.
+     */
+    void onEvent(E event);
+
+    /**
+     * Handle a batch of events in one call. Handlers that only implement {@link #onEvent}
+     * receive the batch one event at a time through this default adapter.
+     * <p>
+     * The list may be reused by the caller once this method returns, so implementations must
+     * copy anything they want to keep rather than retain the list itself.
+     */
+    default void onEvents(List<? extends E> events) {
+        for (E event : events) {
+            onEvent(event);
+        }
+    }
+}
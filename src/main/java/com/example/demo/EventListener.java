@@ -2,34 +2,156 @@ package com.example.demo;
 
 import com.example.demo.annotation.TraceLogged;
 import com.example.demo.annotation.Timed;
+import com.example.demo.output.EventSink;
+import com.example.demo.store.EventStore;
+import com.example.demo.store.TermIndex;
+import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Event listener that handles demo events.
  * Uses @Singleton to be managed by avaje-inject.
  * Enhanced with aspect-oriented trace logging and timing metrics.
+ * Subscribed to all {@link DemoEvent}s through the {@link EventHandler} interface.
+ * Received events are kept in a bounded {@link EventStore}; once it is full the oldest
+ * events are evicted. The capacity is set with {@code -Ddemo.listener.capacity}.
+ * Borrowed events from the allocation-free dispatch path are counted but not retained, since
+ * retaining them would mean copying each one. Received events are echoed to an {@link EventSink}
+ * chosen with {@code -Ddemo.listener.output}; {@code -Ddemo.listener.echo=false} turns the echo off.
+ * Retained events can be queried by timestamp range without copying the history, and by message
+ * prefix or term; {@code -Ddemo.listener.termIndex=true} maintains a {@link TermIndex} on append
+ * so those queries do not scan every event.
  */
 @Singleton
 @TraceLogged
 @Timed
-public class EventListener {
-    private final List<DemoEvent> receivedEvents = new ArrayList<>();
+public class EventListener implements EventHandler<DemoEvent>, FlyweightEventHandler {
+
+    static final int DEFAULT_CAPACITY = 65_536;
+
+    private final EventStore receivedEvents;
+    private final LongAdder flyweightCount = new LongAdder();
+    private final EventSink output;
+    private final TermIndex termIndex;
+
+    /**
+     * Create a listener with the configured (or default) capacity, echoing to the console unless
+     * {@code demo.listener.echo} is false.
+     */
+    public EventListener() {
+        this(Boolean.parseBoolean(System.getProperty("demo.listener.echo", "true")) ? EventSink.console() : EventSink.NONE);
+    }
+
+    /**
+     * Create a listener with the configured (or default) capacity, echoing to the given sink.
+     */
+    @Inject
+    public EventListener(EventSink output) {
+        this(Integer.getInteger("demo.listener.capacity", DEFAULT_CAPACITY), output,
+            Boolean.getBoolean("demo.listener.termIndex"));
+    }
+
+    /**
+     * Create a listener keeping at most {@code capacity} events (rounded up to a power of 2).
+     */
+    public EventListener(int capacity) {
+        this(capacity, true);
+    }
+
+    /**
+     * Create a listener keeping at most {@code capacity} events, optionally echoing them to the console.
+     */
+    public EventListener(int capacity, boolean echo) {
+        this(capacity, echo, false);
+    }
+
+    /**
+     * Create a listener keeping at most {@code capacity} events, optionally echoing them to the
+     * console and indexing their message terms.
+     */
+    public EventListener(int capacity, boolean echo, boolean termIndex) {
+        this(capacity, echo ? EventSink.console() : EventSink.NONE, termIndex);
+    }
+
+    /**
+     * Create a listener keeping at most {@code capacity} events, echoing them to the sink and
+     * optionally indexing their message terms.
+     */
+    public EventListener(int capacity, EventSink output, boolean termIndex) {
+        this.receivedEvents = new EventStore(capacity);
+        this.output = output;
+        this.termIndex = termIndex ? new TermIndex(receivedEvents) : null;
+    }
 
     /**
      * Handle an incoming event.
      */
+    @Override
     public void onEvent(DemoEvent event) {
-        System.out.println("Received event: " + event);
-        receivedEvents.add(event);
+        output.write(event);
+        long sequence = receivedEvents.append(event);
+        if (termIndex != null) {
+            termIndex.add(sequence, event);
+        }
+    }
+
+    /**
+     * Handle a batch of events in a single call, so the aspects run once per batch.
+     */
+    @Override
+    public void onEvents(List<? extends DemoEvent> events) {
+        output.writeAll(events);
+        long first = receivedEvents.appendAll(events);
+        if (termIndex != null) {
+            termIndex.addAll(first, events);
+        }
+    }
+
+    /**
+     * Handle a borrowed event from the allocation-free dispatch path. It is counted, not retained.
+     */
+    @Override
+    public void onFlyweight(MutableDemoEvent event) {
+        output.write(event.getMessage(), event.getTimestamp(), event.getPartitionKey());
+        flyweightCount.increment();
     }
 
     /**
-     * Get all received events (useful for testing).
+     * Get the retained events, oldest first (useful for testing).
+     * Returns a read-only view rather than a copy of the history.
      */
     public List<DemoEvent> getReceivedEvents() {
-        return new ArrayList<>(receivedEvents);
+        return receivedEvents.snapshot();
+    }
+
+    /**
+     * Retained events with a timestamp in {@code [fromMillis, toMillis)}, oldest first. The range
+     * is found by binary search and events are read lazily; the stream may be made parallel.
+     */
+    public Stream<DemoEvent> eventsBetween(long fromMillis, long toMillis) {
+        return StreamSupport.stream(receivedEvents.between(fromMillis, toMillis), false);
+    }
+
+    /**
+     * Retained events whose message starts with the prefix, oldest first.
+     */
+    public Stream<DemoEvent> eventsStartingWith(String prefix) {
+        return StreamSupport.stream(termIndex != null
+            ? termIndex.startingWith(prefix)
+            : receivedEvents.matching(event -> event.getMessage() != null && event.getMessage().startsWith(prefix)), false);
+    }
+
+    /**
+     * Retained events whose message contains the term as a whole word, oldest first.
+     */
+    public Stream<DemoEvent> eventsWithTerm(String term) {
+        return StreamSupport.stream(termIndex != null
+            ? termIndex.withTerm(term)
+            : receivedEvents.matching(event -> TermIndex.containsTerm(event, term)), false);
     }
 
     /**
@@ -40,9 +162,23 @@ public class EventListener {
     }
 
     /**
-     * Get count of received events.
+     * Get count of retained events.
      */
     public int getEventCount() {
         return receivedEvents.size();
     }
-}
\ No newline at end of file
+
+    /**
+     * Total number of events received since startup, including evicted and borrowed ones.
+     */
+    public long getReceivedCount() {
+        return receivedEvents.receivedCount() + flyweightCount.sum();
+    }
+
+    /**
+     * Number of events evicted to stay within capacity.
+     */
+    public long getEvictedCount() {
+        return receivedEvents.evictedCount();
+    }
+}
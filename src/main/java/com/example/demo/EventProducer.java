@@ -2,42 +2,84 @@ package com.example.demo;
 
 import com.example.demo.annotation.TraceLogged;
 import com.example.demo.annotation.Timed;
+import com.example.demo.dispatch.EventDispatcher;
 import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 /**
  * Event producer that creates and sends events to the listener.
  * Demonstrates dependency injection with avaje-inject.
- * Enhanced with aspect-oriented trace logging and timing metrics.
+ * Enhanced with aspect-oriented trace logging and timing metrics on each producing method.
+ * Events are handed to the listener through an {@link EventDispatcher}, which is synchronous
+ * unless the asynchronous ring buffer mode is configured. Single events are handed over as a
+ * message, so the allocation-free dispatch mode never creates a {@link DemoEvent} for them.
  */
 @Singleton
-@TraceLogged
-@Timed
 public class EventProducer {
-    private final EventListener eventListener;
+    private final EventDispatcher eventDispatcher;
 
     /**
-     * Constructor injection - avaje-inject will provide the EventListener.
+     * Constructor injection - avaje-inject will provide the EventDispatcher.
      */
     @Inject
-    public EventProducer(EventListener eventListener) {
-        this.eventListener = eventListener;
+    public EventProducer(EventDispatcher eventDispatcher) {
+        this.eventDispatcher = eventDispatcher;
     }
 
     /**
      * Produce and send an event.
      */
+    @TraceLogged
+    @Timed
     public void produceEvent(String message) {
-        DemoEvent event = new DemoEvent(message);
-        eventListener.onEvent(event);
+        eventDispatcher.dispatch(message, System.currentTimeMillis());
     }
 
     /**
-     * Produce multiple events.
+     * Produce an event for the entity identified by {@code partitionKey}. In the partitioned
+     * dispatch mode, events with the same key are delivered in the order they were produced.
      */
-    public void produceEvents(String... messages) {
+    @TraceLogged
+    @Timed
+    public void produceKeyedEvent(String partitionKey, String message) {
+        eventDispatcher.dispatch(new DemoEvent(message, System.currentTimeMillis(), partitionKey));
+    }
+
+    /**
+     * Produce an event only if the dispatcher can take it without waiting, so callers can shed
+     * load when the event path is saturated.
+     *
+     * @return {@code false} if the event was refused because a dispatch queue was full
+     */
+    @TraceLogged
+    @Timed
+    public boolean tryProduce(String message) {
+        return eventDispatcher.tryDispatch(message, System.currentTimeMillis());
+    }
+
+    /**
+     * Produce multiple events and deliver them as one batch, so the listener side is
+     * called (and intercepted) once for the whole batch rather than once per message.
+     */
+    @TraceLogged
+    @Timed
+    public void produceEvents(List<String> messages) {
+        List<DemoEvent> events = new ArrayList<>(messages.size());
         for (String message : messages) {
-            produceEvent(message);
+            events.add(new DemoEvent(message));
         }
+        eventDispatcher.dispatchBatch(events);
+    }
+
+    /**
+     * Varargs convenience for {@link #produceEvents(List)}. Not annotated, so the aspect proxy
+     * leaves it alone and the batch is intercepted once, through the list overload.
+     */
+    public void produceEvents(String... messages) {
+        produceEvents(Arrays.asList(messages));
     }
 }
\ No newline at end of file
@@ -0,0 +1,15 @@
+package com.example.demo;
+
+/**
+ * Optional interface for {@link EventHandler}s that can consume events from the allocation-free
+ * dispatch path without a {@link DemoEvent} being created for them.
+ * <p>
+ * The event passed in is reused after the call returns; see {@link MutableDemoEvent} for the rules.
+ */
+public interface FlyweightEventHandler {
+
+    /**
+     * Handle a borrowed event. Call {@link MutableDemoEvent#toEvent()} to keep it.
+     */
+    void onFlyweight(MutableDemoEvent event);
+}
@@ -0,0 +1,89 @@
+package com.example.demo;
+
+import com.example.demo.codec.EventCodec;
+import com.example.demo.codec.MessageView;
+
+/**
+ * Reusable, mutable counterpart of {@link DemoEvent} used by the allocation-free dispatch path.
+ * <p>
+ * Ownership rules:
+ * <ul>
+ *   <li>Instances are owned by the dispatcher (one per ring slot) and are reused for later events.</li>
+ *   <li>The producer side writes an instance only between claiming and publishing its slot.</li>
+ *   <li>A {@link FlyweightEventHandler} may read it only for the duration of its callback. To keep
+ *       the event, call {@link #toEvent()}; never store the instance or its {@link #getMessage() message}.</li>
+ * </ul>
+ * Messages are copied into a fixed-size {@link MessageView}; a message too long for it is kept
+ * as a string reference instead. The partition key is kept as a reference, since it is already
+ * a string.
+ */
+public final class MutableDemoEvent {
+
+    private final MessageView view;
+    private CharSequence overflow;
+    private long timestamp;
+    private String partitionKey;
+
+    public MutableDemoEvent(int maxMessageBytes) {
+        this.view = new MessageView(maxMessageBytes);
+    }
+
+    /**
+     * Overwrite this instance with the given message and no partition key, copying the characters.
+     */
+    public MutableDemoEvent set(CharSequence message, long timestamp) {
+        return set(message, timestamp, null);
+    }
+
+    /**
+     * Overwrite this instance with the given message and partition key, copying the characters.
+     */
+    public MutableDemoEvent set(CharSequence message, long timestamp, String partitionKey) {
+        this.timestamp = timestamp;
+        this.partitionKey = partitionKey;
+        if (message == null || view.fits(EventCodec.utf8Length(message))) {
+            view.set(message);
+            overflow = null;
+        } else {
+            overflow = message.toString();
+        }
+        return this;
+    }
+
+    /**
+     * The message, or null. Valid only until the instance is reused.
+     */
+    public CharSequence getMessage() {
+        if (overflow != null) {
+            return overflow;
+        }
+        return view.isNull() ? null : view;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Key of the entity the event belongs to, or {@code null} if it has none.
+     */
+    public String getPartitionKey() {
+        return partitionKey;
+    }
+
+    /**
+     * Create an immutable copy that may be kept after the callback returns.
+     */
+    public DemoEvent toEvent() {
+        CharSequence message = getMessage();
+        return new DemoEvent(message == null ? null : message.toString(), timestamp, partitionKey);
+    }
+
+    @Override
+    public String toString() {
+        if (partitionKey == null) {
+            return "DemoEvent{message='" + getMessage() + "', timestamp=" + timestamp + "}";
+        }
+        return "DemoEvent{message='" + getMessage() + "', timestamp=" + timestamp + ", partitionKey='" + partitionKey + "'}";
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.demo.annotation;
 
+import io.avaje.inject.aop.Aspect;
 import java.lang.annotation.ElementType;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
@@ -9,8 +10,10 @@ import java.lang.annotation.Target;
  * Annotation to enable timing metrics on methods or classes using avaje aspects.
  * When applied to a class, all public methods will be timed.
  * When applied to a method, only that specific method will be timed.
+ * The {@link Aspect} meta-annotation makes avaje-inject generate a proxy for annotated beans.
  */
 @Retention(RetentionPolicy.RUNTIME)
 @Target({ElementType.METHOD, ElementType.TYPE})
+@Aspect
 public @interface Timed {
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package com.example.demo.annotation;
 
+import io.avaje.inject.aop.Aspect;
 import java.lang.annotation.ElementType;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
@@ -9,8 +10,36 @@ import java.lang.annotation.Target;
  * Annotation to enable trace logging on methods or classes using avaje aspects.
  * When applied to a class, all public methods will be traced.
  * When applied to a method, only that specific method will be traced.
+ * The {@link Aspect} meta-annotation makes avaje-inject generate a proxy for annotated beans.
+ * <p>
+ * By default every call is traced. The sampling attributes trace a subset of calls instead,
+ * decided before any argument is captured; a method annotation replaces the class annotation.
+ * Failures are always logged.
  */
 @Retention(RetentionPolicy.RUNTIME)
 @Target({ElementType.METHOD, ElementType.TYPE})
+@Aspect
 public @interface TraceLogged {
+
+    /**
+     * Probability in {@code [0, 1]} that a call is traced.
+     */
+    double probability() default 1.0;
+
+    /**
+     * Trace one in every N calls (counted per thread).
+     */
+    int oneIn() default 1;
+
+    /**
+     * Maximum traced calls per second for each method, 0 for no limit.
+     */
+    int maxPerSecond() default 0;
+
+    /**
+     * Lower the sampling rate while the method's call rate would produce more than
+     * {@link #maxPerSecond()} traced calls per second (100 if no limit is set), and raise it
+     * again when the call rate drops.
+     */
+    boolean adaptive() default false;
 }
\ No newline at end of file
@@ -0,0 +1,26 @@
+package com.example.demo.aspect;
+
+import java.util.Locale;
+
+/**
+ * Where the {@code @Timed} and {@code @TraceLogged} interceptors report each call, selected with
+ * {@code -Ddemo.aspects.backend}. Timing statistics are recorded with either backend.
+ */
+public enum AspectBackend {
+
+    /**
+     * SLF4J log lines (the default).
+     */
+    LOG,
+
+    /**
+     * Java Flight Recorder events ({@link MethodTimingEvent}, {@link MethodTraceEvent}), whose
+     * enablement and thresholds come from the recording's settings. Nothing is formatted
+     * unless an event is committed.
+     */
+    JFR;
+
+    public static AspectBackend configured() {
+        return valueOf(System.getProperty("demo.aspects.backend", "log").toUpperCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,177 @@
+package com.example.demo.aspect;
+
+import io.avaje.inject.PostConstruct;
+import io.avaje.inject.PreDestroy;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Runtime switches for the {@code @Timed} and {@code @TraceLogged} aspects, per class or method.
+ * <p>
+ * The aspect providers ask for one {@link AspectSwitch} per intercepted method when the proxies
+ * are wired. Enabling or disabling flips the matching switches and is remembered as a rule, so
+ * methods wired later start in the same state. Rules are applied in order, the last match wins.
+ * <p>
+ * Aspects start enabled; {@code -Ddemo.aspects.disabled=trace:EventListener,timed:*} disables
+ * some at startup. The same operations are exposed over JMX as
+ * {@code com.example.demo:type=AspectControl}. If another bean scope in the same JVM already
+ * holds that name, this one registers as {@code com.example.demo:type=AspectControl,scope=<id>}
+ * instead, see {@link #getObjectName()}; each scope only ever unregisters its own name.
+ */
+@Singleton
+public class AspectControl implements AspectControlMBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(AspectControl.class);
+
+    public static final String TIMED = "timed";
+    public static final String TRACE = "trace";
+
+    private static final String OBJECT_NAME = "com.example.demo:type=AspectControl";
+
+    private final Map<String, AspectSwitch> switches = new ConcurrentHashMap<>();
+    private final List<Rule> rules = new CopyOnWriteArrayList<>();
+    private ObjectName registeredName;
+
+    public AspectControl() {
+        String disabled = System.getProperty("demo.aspects.disabled", "");
+        for (String entry : disabled.split(",")) {
+            String trimmed = entry.trim();
+            if (!trimmed.isEmpty()) {
+                int colon = trimmed.indexOf(':');
+                if (colon < 0) {
+                    throw new IllegalArgumentException("Expected aspect:target in demo.aspects.disabled, was " + trimmed);
+                }
+                disable(trimmed.substring(0, colon), trimmed.substring(colon + 1));
+            }
+        }
+    }
+
+    /**
+     * Switch for an aspect on a method, created in the state the rules give it.
+     *
+     * @param method {@code SimpleClassName.method}
+     */
+    public AspectSwitch switchFor(String aspect, String method) {
+        return switches.computeIfAbsent(aspect + ":" + method, key -> {
+            boolean enabled = true;
+            for (Rule rule : rules) {
+                if (rule.matches(aspect, method)) {
+                    enabled = rule.enabled;
+                }
+            }
+            return new AspectSwitch(aspect, method, enabled);
+        });
+    }
+
+    @Override
+    public int enable(String aspect, String target) {
+        return apply(new Rule(aspect, target, true));
+    }
+
+    @Override
+    public int disable(String aspect, String target) {
+        return apply(new Rule(aspect, target, false));
+    }
+
+    public boolean isEnabled(String aspect, String method) {
+        AspectSwitch current = switches.get(aspect + ":" + method);
+        return current == null || current.isEnabled();
+    }
+
+    @Override
+    public String[] getDisabled() {
+        return switches.values().stream()
+            .filter(current -> !current.isEnabled())
+            .map(AspectSwitch::toString)
+            .sorted()
+            .toArray(String[]::new);
+    }
+
+    private synchronized int apply(Rule rule) {
+        if (!rule.aspect.equals("*") && !rule.aspect.equals(TIMED) && !rule.aspect.equals(TRACE)) {
+            throw new IllegalArgumentException("Unknown aspect '" + rule.aspect + "', expected timed, trace or *");
+        }
+        rules.add(rule);
+        int changed = 0;
+        for (AspectSwitch current : switches.values()) {
+            if (rule.matches(current.getAspect(), current.getMethod()) && current.isEnabled() != rule.enabled) {
+                current.setEnabled(rule.enabled);
+                changed++;
+            }
+        }
+        logger.info("{} {} on {}: {} method(s) changed", rule.enabled ? "Enabled" : "Disabled", rule.aspect, rule.target, changed);
+        return changed;
+    }
+
+    @PostConstruct
+    public void register() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            try {
+                server.registerMBean(this, name);
+            } catch (InstanceAlreadyExistsException e) {
+                // another bean scope in the same JVM holds the name; leave it to that scope
+                name = new ObjectName(OBJECT_NAME + ",scope=" + Integer.toHexString(System.identityHashCode(this)));
+                server.registerMBean(this, name);
+            }
+            registeredName = name;
+        } catch (JMException e) {
+            logger.warn("Failed to register {} with JMX", OBJECT_NAME, e);
+        }
+    }
+
+    /**
+     * Name this instance is registered under with JMX, null if it is not registered.
+     */
+    public ObjectName getObjectName() {
+        return registeredName;
+    }
+
+    @PreDestroy
+    public void unregister() {
+        if (registeredName == null) {
+            return;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(registeredName);
+        } catch (JMException e) {
+            logger.debug("Failed to unregister {}", registeredName, e);
+        }
+        registeredName = null;
+    }
+
+    private static final class Rule {
+        final String aspect;
+        final String target;
+        final boolean enabled;
+
+        Rule(String aspect, String target, boolean enabled) {
+            this.aspect = aspect;
+            this.target = target;
+            this.enabled = enabled;
+        }
+
+        boolean matches(String switchAspect, String method) {
+            if (!aspect.equals("*") && !aspect.equals(switchAspect)) {
+                return false;
+            }
+            if (target.equals("*") || target.equals(method)) {
+                return true;
+            }
+            return method.length() > target.length() && method.startsWith(target)
+                && method.charAt(target.length()) == '.';
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.demo.aspect;
+
+/**
+ * JMX view of {@link AspectControl}, registered as {@code com.example.demo:type=AspectControl}.
+ */
+public interface AspectControlMBean {
+
+    /**
+     * Enable an aspect on matching methods.
+     *
+     * @param aspect {@code timed}, {@code trace} or {@code *}
+     * @param target {@code SimpleClassName}, {@code SimpleClassName.method} or {@code *}
+     * @return number of methods whose state changed
+     */
+    int enable(String aspect, String target);
+
+    /**
+     * Disable an aspect on matching methods, see {@link #enable(String, String)}.
+     */
+    int disable(String aspect, String target);
+
+    /**
+     * Disabled switches as {@code aspect:SimpleClassName.method}.
+     */
+    String[] getDisabled();
+}
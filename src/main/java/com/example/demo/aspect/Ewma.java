@@ -0,0 +1,52 @@
+package com.example.demo.aspect;
+
+/**
+ * Exponentially weighted moving average of a rate per second, in the style of the Unix load
+ * average. Updated by a single reporting thread at irregular intervals; read from any thread.
+ */
+final class Ewma {
+
+    private final double windowSeconds;
+    private volatile double rate;
+    private boolean initialized;
+
+    Ewma(double windowSeconds) {
+        this.windowSeconds = windowSeconds;
+    }
+
+    static Ewma oneMinute() {
+        return new Ewma(60);
+    }
+
+    static Ewma fiveMinutes() {
+        return new Ewma(300);
+    }
+
+    static Ewma fifteenMinutes() {
+        return new Ewma(900);
+    }
+
+    /**
+     * Fold in {@code count} events observed over the last {@code elapsedSeconds}.
+     */
+    void update(long count, double elapsedSeconds) {
+        if (elapsedSeconds <= 0) {
+            return;
+        }
+        double instantRate = count / elapsedSeconds;
+        if (!initialized) {
+            rate = instantRate;
+            initialized = true;
+            return;
+        }
+        double alpha = 1 - Math.exp(-elapsedSeconds / windowSeconds);
+        rate += alpha * (instantRate - rate);
+    }
+
+    /**
+     * Current rate in events per second.
+     */
+    double rate() {
+        return rate;
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.demo.aspect;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Double-buffered recorder of per-interval timings. Recording threads write into the active
+ * buffer inside a {@link WriterReaderPhaser} critical section; {@link #roll()} swaps in the
+ * cleared spare buffer, waits for in-flight writers to leave the old one and turns it into an
+ * {@link IntervalSnapshot}. Recording never blocks, and every call lands in exactly one interval.
+ */
+final class IntervalRecorder {
+
+    private final WriterReaderPhaser phaser = new WriterReaderPhaser();
+    private final Ewma oneMinute = Ewma.oneMinute();
+    private final Ewma fiveMinutes = Ewma.fiveMinutes();
+    private final Ewma fifteenMinutes = Ewma.fifteenMinutes();
+    private volatile Buffer active = new Buffer();
+    private Buffer spare = new Buffer();
+    private long intervalStartNanos = System.nanoTime();
+    private long intervalStartMillis = System.currentTimeMillis();
+    private volatile IntervalSnapshot latest;
+
+    void record(long executionTimeNanos, int items, boolean failed) {
+        long token = phaser.writerCriticalSectionEnter();
+        try {
+            active.record(executionTimeNanos, items, failed);
+        } finally {
+            phaser.writerCriticalSectionExit(token);
+        }
+    }
+
+    /**
+     * Close the current interval and start the next one.
+     *
+     * @return the closed interval, also available from {@link #latest()}
+     */
+    IntervalSnapshot roll() {
+        phaser.readerLock();
+        try {
+            Buffer recorded = active;
+            spare.reset();
+            active = spare;
+            phaser.flipPhase();
+            spare = recorded;
+
+            long now = System.nanoTime();
+            long duration = now - intervalStartNanos;
+            double seconds = duration / 1_000_000_000.0;
+            long calls = recorded.calls.sum();
+            oneMinute.update(calls, seconds);
+            fiveMinutes.update(calls, seconds);
+            fifteenMinutes.update(calls, seconds);
+            IntervalSnapshot snapshot = new IntervalSnapshot(intervalStartMillis, duration, calls,
+                recorded.failures.sum(), recorded.items.sum(), recorded.totalTimeNanos.sum(),
+                recorded.histogram.snapshot(), oneMinute.rate(), fiveMinutes.rate(), fifteenMinutes.rate());
+            intervalStartNanos = now;
+            intervalStartMillis = System.currentTimeMillis();
+            latest = snapshot;
+            return snapshot;
+        } finally {
+            phaser.readerUnlock();
+        }
+    }
+
+    /**
+     * The most recently closed interval, or null before the first {@link #roll()}.
+     */
+    IntervalSnapshot latest() {
+        return latest;
+    }
+
+    private static final class Buffer {
+        final LongAdder calls = new LongAdder();
+        final LongAdder failures = new LongAdder();
+        final LongAdder items = new LongAdder();
+        final LongAdder totalTimeNanos = new LongAdder();
+        final LatencyHistogram histogram = new LatencyHistogram();
+
+        void record(long executionTimeNanos, int itemCount, boolean failed) {
+            calls.increment();
+            items.add(itemCount);
+            if (failed) {
+                failures.increment();
+            }
+            totalTimeNanos.add(executionTimeNanos);
+            histogram.record(executionTimeNanos);
+        }
+
+        /**
+         * Only called when no writer can be using the buffer.
+         */
+        void reset() {
+            calls.reset();
+            failures.reset();
+            items.reset();
+            totalTimeNanos.reset();
+            histogram.reset();
+        }
+    }
+}
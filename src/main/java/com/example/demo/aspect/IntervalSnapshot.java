@@ -0,0 +1,95 @@
+package com.example.demo.aspect;
+
+/**
+ * Timing of one metric over one reporting interval, plus the moving-average call rates at
+ * the end of that interval. Immutable.
+ */
+public final class IntervalSnapshot {
+
+    private final long startMillis;
+    private final long durationNanos;
+    private final long calls;
+    private final long failures;
+    private final long items;
+    private final long totalTimeNanos;
+    private final LatencyHistogram.Snapshot latency;
+    private final double oneMinuteRate;
+    private final double fiveMinuteRate;
+    private final double fifteenMinuteRate;
+
+    IntervalSnapshot(long startMillis, long durationNanos, long calls, long failures, long items,
+                     long totalTimeNanos, LatencyHistogram.Snapshot latency,
+                     double oneMinuteRate, double fiveMinuteRate, double fifteenMinuteRate) {
+        this.startMillis = startMillis;
+        this.durationNanos = durationNanos;
+        this.calls = calls;
+        this.failures = failures;
+        this.items = items;
+        this.totalTimeNanos = totalTimeNanos;
+        this.latency = latency;
+        this.oneMinuteRate = oneMinuteRate;
+        this.fiveMinuteRate = fiveMinuteRate;
+        this.fifteenMinuteRate = fifteenMinuteRate;
+    }
+
+    /**
+     * Wall-clock start of the interval.
+     */
+    public long getStartMillis() {
+        return startMillis;
+    }
+
+    public double getDurationSeconds() {
+        return durationNanos / 1_000_000_000.0;
+    }
+
+    public long getCallCount() {
+        return calls;
+    }
+
+    public long getFailureCount() {
+        return failures;
+    }
+
+    public long getItemCount() {
+        return items;
+    }
+
+    public double getCallsPerSecond() {
+        return durationNanos > 0 ? calls / getDurationSeconds() : 0.0;
+    }
+
+    /**
+     * Fraction of calls in the interval that failed, between 0 and 1.
+     */
+    public double getErrorRate() {
+        return calls > 0 ? (double) failures / calls : 0.0;
+    }
+
+    public double getAverageTimeMs() {
+        return calls > 0 ? (totalTimeNanos / 1_000_000.0) / calls : 0.0;
+    }
+
+    public double getPercentileMs(double percentile) {
+        return latency.getValueAtPercentile(percentile) / 1_000_000.0;
+    }
+
+    public LatencyHistogram.Snapshot getLatencySnapshot() {
+        return latency;
+    }
+
+    /**
+     * Calls per second, exponentially averaged over one minute.
+     */
+    public double getOneMinuteRate() {
+        return oneMinuteRate;
+    }
+
+    public double getFiveMinuteRate() {
+        return fiveMinuteRate;
+    }
+
+    public double getFifteenMinuteRate() {
+        return fifteenMinuteRate;
+    }
+}
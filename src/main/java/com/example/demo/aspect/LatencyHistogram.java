@@ -0,0 +1,264 @@
+package com.example.demo.aspect;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free, fixed-memory histogram of latencies in nanoseconds with log-linear buckets
+ * (the HdrHistogram layout).
+ * <p>
+ * Values below {@code 2^SUB_BUCKET_BITS} get one bucket each. Above that, every power-of-two
+ * range is split into {@code 2^SUB_BUCKET_BITS} equal sub-buckets, so a reported percentile is
+ * never off by more than {@code 1 / 2^SUB_BUCKET_BITS} (under 0.8%) of the true value. Values
+ * above {@code 2^MAX_MAGNITUDE} ns (about 18 minutes) are counted in the last bucket; the
+ * exact minimum and maximum are tracked separately.
+ * <p>
+ * Recording is an atomic increment plus, only when a new extreme is seen, a CAS on min or max.
+ */
+public final class LatencyHistogram {
+
+    static final int SUB_BUCKET_BITS = 7;
+    static final int MAX_MAGNITUDE = 40;
+
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    static final int BUCKET_COUNT = (MAX_MAGNITUDE - SUB_BUCKET_BITS + 2) * SUB_BUCKET_COUNT;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong min = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong max = new AtomicLong(Long.MIN_VALUE);
+
+    /**
+     * Record a latency. Negative values are recorded as 0.
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        long currentMin = min.get();
+        while (value < currentMin && !min.compareAndSet(currentMin, value)) {
+            currentMin = min.get();
+        }
+        long currentMax = max.get();
+        while (value > currentMax && !max.compareAndSet(currentMax, value)) {
+            currentMax = max.get();
+        }
+        // counted after min and max, so a snapshot that sees the count also sees the extremes
+        counts.incrementAndGet(indexOf(value));
+    }
+
+    /**
+     * Clear all counts. Values recorded concurrently may be partly lost, so callers
+     * must make sure no thread is recording.
+     */
+    void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts.set(i, 0);
+        }
+        min.set(Long.MAX_VALUE);
+        max.set(Long.MIN_VALUE);
+    }
+
+    /**
+     * Smallest recorded value in nanoseconds, 0 if nothing was recorded.
+     */
+    public long getMin() {
+        long value = min.get();
+        return value == Long.MAX_VALUE ? 0 : value;
+    }
+
+    /**
+     * Largest recorded value in nanoseconds, 0 if nothing was recorded.
+     */
+    public long getMax() {
+        long value = max.get();
+        return value == Long.MIN_VALUE ? 0 : value;
+    }
+
+    /**
+     * Copy the current counts. Values recorded concurrently may or may not be included.
+     */
+    public Snapshot snapshot() {
+        long[] copy = new long[BUCKET_COUNT];
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            copy[i] = counts.get(i);
+            total += copy[i];
+        }
+        return new Snapshot(copy, total, min.get(), max.get());
+    }
+
+    /**
+     * Fill {@code counts[i]} with the number of recorded values at or below
+     * {@code upperBounds[i]} (to bucket resolution), reading the live counts without
+     * copying them. Used to render cumulative histogram buckets without allocating.
+     *
+     * @param upperBounds ascending bounds in nanoseconds
+     * @return the total number of recorded values
+     */
+    public long cumulativeCounts(long[] upperBounds, long[] counts) {
+        long seen = 0;
+        int bound = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            while (bound < upperBounds.length && indexOf(upperBounds[bound]) < i) {
+                counts[bound++] = seen;
+            }
+            seen += this.counts.get(i);
+        }
+        while (bound < upperBounds.length) {
+            counts[bound++] = seen;
+        }
+        return seen;
+    }
+
+    /**
+     * Value in nanoseconds at or below which the given percentage of recorded values fall, 0 if
+     * nothing was recorded, read from the live counts without copying them. Values recorded
+     * concurrently may or may not be included; use {@link #snapshot()} to read several
+     * percentiles of the same counts.
+     *
+     * @param percentile between 0 and 100
+     */
+    public long valueAtPercentile(double percentile) {
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            total += counts.get(i);
+        }
+        if (total == 0) {
+            return 0;
+        }
+        double bounded = Math.min(Math.max(percentile, 0.0), 100.0);
+        long rank = Math.max(1, (long) Math.ceil(bounded / 100.0 * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(Math.max(highestValueAt(i), getMin()), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    /**
+     * Snapshot of counts recorded elsewhere, e.g. merged from per-thread arrays. The array is
+     * taken over, not copied.
+     *
+     * @param min smallest recorded value, {@code Long.MAX_VALUE} if none
+     * @param max largest recorded value, {@code Long.MIN_VALUE} if none
+     */
+    static Snapshot snapshotOf(long[] counts, long min, long max) {
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+        return new Snapshot(counts, total, min, max);
+    }
+
+    static int indexOf(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int magnitude = 63 - Long.numberOfLeadingZeros(value);
+        if (magnitude > MAX_MAGNITUDE) {
+            return BUCKET_COUNT - 1;
+        }
+        int shift = magnitude - SUB_BUCKET_BITS;
+        return (shift << SUB_BUCKET_BITS) + (int) (value >>> shift);
+    }
+
+    /**
+     * Lowest value that maps to the same bucket as the given index.
+     */
+    static long lowestValueAt(int index) {
+        return index == 0 ? 0 : highestValueAt(index - 1) + 1;
+    }
+
+    /**
+     * Highest value that maps to the same bucket as the given index.
+     */
+    static long highestValueAt(int index) {
+        if (index < 2 * SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = (index >>> SUB_BUCKET_BITS) - 1;
+        long subBucket = index - ((long) shift << SUB_BUCKET_BITS);
+        return ((subBucket + 1) << shift) - 1;
+    }
+
+    /**
+     * Immutable copy of a histogram's counts.
+     */
+    public static final class Snapshot {
+
+        private static final Snapshot EMPTY = new Snapshot(new long[BUCKET_COUNT], 0, Long.MAX_VALUE, Long.MIN_VALUE);
+
+        private final long[] counts;
+        private final long totalCount;
+        private final long min;
+        private final long max;
+
+        private Snapshot(long[] counts, long totalCount, long min, long max) {
+            this.counts = counts;
+            this.totalCount = totalCount;
+            this.min = min;
+            this.max = max;
+        }
+
+        /**
+         * A snapshot with no recorded values, the identity for {@link #merge(Snapshot)}.
+         */
+        public static Snapshot empty() {
+            return EMPTY;
+        }
+
+        /**
+         * Combine with another snapshot, e.g. from another interval or another instance.
+         */
+        public Snapshot merge(Snapshot other) {
+            long[] merged = Arrays.copyOf(counts, BUCKET_COUNT);
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                merged[i] += other.counts[i];
+            }
+            return new Snapshot(merged, totalCount + other.totalCount,
+                Math.min(min, other.min), Math.max(max, other.max));
+        }
+
+        public long getTotalCount() {
+            return totalCount;
+        }
+
+        /**
+         * Smallest recorded value in nanoseconds, 0 if empty.
+         */
+        public long getMin() {
+            return totalCount == 0 ? 0 : min;
+        }
+
+        /**
+         * Largest recorded value in nanoseconds, 0 if empty.
+         */
+        public long getMax() {
+            return totalCount == 0 ? 0 : max;
+        }
+
+        /**
+         * Value in nanoseconds at or below which the given percentage of recorded values fall,
+         * 0 if empty.
+         *
+         * @param percentile between 0 and 100
+         */
+        public long getValueAtPercentile(double percentile) {
+            if (totalCount == 0) {
+                return 0;
+            }
+            double bounded = Math.min(Math.max(percentile, 0.0), 100.0);
+            long rank = Math.max(1, (long) Math.ceil(bounded / 100.0 * totalCount));
+            long seen = 0;
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(Math.max(highestValueAt(i), getMin()), max);
+                }
+            }
+            return max;
+        }
+    }
+}
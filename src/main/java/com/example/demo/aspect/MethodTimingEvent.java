@@ -0,0 +1,32 @@
+package com.example.demo.aspect;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Flight Recorder event for a call of a {@code @Timed} method, emitted by the JFR backend.
+ */
+@Name(MethodTimingEvent.NAME)
+@Label("Method Timing")
+@Description("Call of a @Timed method")
+@Category({"Demo", "Aspects"})
+@StackTrace(false)
+@Threshold("0 ms")
+public final class MethodTimingEvent extends jdk.jfr.Event {
+
+    public static final String NAME = "com.example.demo.MethodTiming";
+
+    @Label("Method")
+    String method;
+
+    @Label("Items")
+    @Description("Items handled by the call, the batch size for batch methods")
+    int items;
+
+    @Label("Failed")
+    boolean failed;
+}
@@ -0,0 +1,33 @@
+package com.example.demo.aspect;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Flight Recorder event spanning the entry and exit of a {@code @TraceLogged} method,
+ * emitted by the JFR backend. Arguments are formatted only when the event is committed.
+ */
+@Name(MethodTraceEvent.NAME)
+@Label("Method Trace")
+@Description("Call of a @TraceLogged method, from entry to exit")
+@Category({"Demo", "Aspects"})
+@StackTrace(false)
+@Threshold("0 ms")
+public final class MethodTraceEvent extends jdk.jfr.Event {
+
+    public static final String NAME = "com.example.demo.MethodTrace";
+
+    @Label("Method")
+    String method;
+
+    @Label("Arguments")
+    String arguments;
+
+    @Label("Exception")
+    @Description("Exception the call failed with, null if it returned normally")
+    String exception;
+}
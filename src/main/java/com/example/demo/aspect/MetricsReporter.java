@@ -0,0 +1,84 @@
+package com.example.demo.aspect;
+
+import io.avaje.inject.PostConstruct;
+import io.avaje.inject.PreDestroy;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Closes a timing interval for every {@code @Timed} metric every
+ * {@code -Ddemo.metrics.intervalSeconds} seconds (default 10, 0 disables it), making the
+ * per-interval rates, error rates, percentiles and moving averages available from
+ * {@link TimedInterceptor#getLatestIntervals()} and logging them at debug level.
+ */
+@Singleton
+public class MetricsReporter {
+
+    private static final Logger logger = LoggerFactory.getLogger(MetricsReporter.class);
+
+    static final long DEFAULT_INTERVAL_SECONDS = 10;
+
+    private final TimedInterceptor interceptor;
+    private final long intervalSeconds;
+    private ScheduledExecutorService scheduler;
+
+    public MetricsReporter(TimedProvider timedProvider) {
+        this.interceptor = timedProvider.getInterceptor();
+        this.intervalSeconds = Long.getLong("demo.metrics.intervalSeconds", DEFAULT_INTERVAL_SECONDS);
+    }
+
+    @PostConstruct
+    void start() {
+        if (intervalSeconds <= 0) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "metrics-reporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(this::reportQuietly, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Close the current interval now and log it.
+     */
+    public Map<String, IntervalSnapshot> report() {
+        Map<String, IntervalSnapshot> intervals = interceptor.rollIntervals();
+        if (logger.isDebugEnabled()) {
+            intervals.forEach((metric, interval) -> logger.debug(
+                "INTERVAL: {}: {} calls/s, errors: {}%, p50: {} ms, p99: {} ms, 1m: {}/s, 5m: {}/s, 15m: {}/s",
+                metric, format(interval.getCallsPerSecond()), format(interval.getErrorRate() * 100),
+                format(interval.getPercentileMs(50)), format(interval.getPercentileMs(99)),
+                format(interval.getOneMinuteRate()), format(interval.getFiveMinuteRate()),
+                format(interval.getFifteenMinuteRate())));
+        }
+        return intervals;
+    }
+
+    private void reportQuietly() {
+        try {
+            report();
+        } catch (RuntimeException e) {
+            // keep the schedule alive; a failed report only loses that interval's log line
+            logger.warn("Failed to report timing intervals", e);
+        }
+    }
+
+    private static String format(double value) {
+        return String.format("%.3f", value);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.demo.aspect;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Recorder whose counters and histogram are shared by every recording thread: striped
+ * {@link LongAdder}s, a lock-free {@link LatencyHistogram} and an {@link IntervalRecorder}.
+ * Cheap to create and read, but threads timing the same method update the same histogram
+ * buckets and interval phaser.
+ */
+final class SharedTimingRecorder extends TimingRecorder {
+
+    private final LongAdder callCount = new LongAdder();
+    private final LongAdder failureCount = new LongAdder();
+    private final LongAdder itemCount = new LongAdder();
+    private final LongAdder totalTimeNanos = new LongAdder();
+    private final LatencyHistogram histogram = new LatencyHistogram();
+    private final IntervalRecorder interval = new IntervalRecorder();
+
+    @Override
+    void record(long executionTimeNanos, int items, boolean failed) {
+        callCount.increment();
+        itemCount.add(items);
+        if (failed) {
+            failureCount.increment();
+        }
+        totalTimeNanos.add(executionTimeNanos);
+        histogram.record(executionTimeNanos);
+        interval.record(executionTimeNanos, items, failed);
+    }
+
+    @Override
+    IntervalSnapshot rollInterval() {
+        return interval.roll();
+    }
+
+    @Override
+    IntervalSnapshot latestInterval() {
+        return interval.latest();
+    }
+
+    @Override
+    long calls() {
+        return callCount.sum();
+    }
+
+    @Override
+    long failures() {
+        return failureCount.sum();
+    }
+
+    @Override
+    long items() {
+        return itemCount.sum();
+    }
+
+    @Override
+    long totalTimeNanos() {
+        return totalTimeNanos.sum();
+    }
+
+    @Override
+    long minNanos() {
+        return histogram.getMin();
+    }
+
+    @Override
+    long maxNanos() {
+        return histogram.getMax();
+    }
+
+    @Override
+    LatencyHistogram.Snapshot latency() {
+        return histogram.snapshot();
+    }
+
+    @Override
+    long cumulativeCounts(long[] upperBoundsNanos, long[] counts) {
+        return histogram.cumulativeCounts(upperBoundsNanos, counts);
+    }
+}
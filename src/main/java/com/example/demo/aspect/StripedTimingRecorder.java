@@ -0,0 +1,321 @@
+package com.example.demo.aspect;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+
+/**
+ * Recorder where each thread writes only to its own cache-line padded slot, holding its counters
+ * and a full histogram, so threads timing the same method share no written memory at all.
+ * Recording is a thread-local lookup plus plain stores with release semantics; there are no
+ * atomic read-modify-writes and no locks.
+ * <p>
+ * Readers merge the slots when asked, under the recorder's lock. A slot whose thread has died is
+ * folded into a retired total and recycled for the next thread that registers, so thread churn
+ * neither grows the slot list nor loses counts. Reporting intervals are the difference between
+ * the merged totals at two rolls; their minimum and maximum are bucket bounds, within the
+ * histogram's relative error.
+ * <p>
+ * A slot costs about 35 KB, so this suits a bounded set of long-lived recording threads.
+ */
+final class StripedTimingRecorder extends TimingRecorder {
+
+    private static final int MAX_FREE_SLOTS = 64;
+
+    private final ThreadLocal<Slot> slots = ThreadLocal.withInitial(this::register);
+    private final Ewma oneMinute = Ewma.oneMinute();
+    private final Ewma fiveMinutes = Ewma.fiveMinutes();
+    private final Ewma fifteenMinutes = Ewma.fifteenMinutes();
+    // guarded by this
+    private Slot[] live = new Slot[0];
+    private final Slot retired = new Slot();
+    private final ArrayDeque<Slot> free = new ArrayDeque<>();
+    private Slot lastRoll = new Slot();
+    private long intervalStartNanos = System.nanoTime();
+    private long intervalStartMillis = System.currentTimeMillis();
+    private volatile IntervalSnapshot latest;
+
+    @Override
+    void record(long executionTimeNanos, int items, boolean failed) {
+        slots.get().record(executionTimeNanos, items, failed);
+    }
+
+    private synchronized Slot register() {
+        reclaim();
+        Slot slot = free.poll();
+        if (slot == null) {
+            slot = new Slot();
+        }
+        slot.owner = Thread.currentThread();
+        live = Arrays.copyOf(live, live.length + 1);
+        live[live.length - 1] = slot;
+        return slot;
+    }
+
+    /**
+     * Fold the slots of dead threads into the retired total. A dead thread's writes are all
+     * visible once {@link Thread#isAlive()} has returned false.
+     */
+    private void reclaim() {
+        Slot[] kept = live;
+        int count = 0;
+        for (Slot slot : live) {
+            if (slot.owner.isAlive()) {
+                kept[count++] = slot;
+                continue;
+            }
+            if (kept == live) {
+                kept = live.clone();
+            }
+            retired.add(slot);
+            slot.reset();
+            if (free.size() < MAX_FREE_SLOTS) {
+                free.push(slot);
+            }
+        }
+        if (kept != live) {
+            live = Arrays.copyOf(kept, count);
+        }
+    }
+
+    /**
+     * Number of slots owned by live threads.
+     */
+    synchronized int slotCount() {
+        reclaim();
+        return live.length;
+    }
+
+    private synchronized Slot merged() {
+        reclaim();
+        Slot total = new Slot();
+        total.add(retired);
+        for (Slot slot : live) {
+            total.add(slot);
+        }
+        return total;
+    }
+
+    private synchronized long sum(VarHandle field) {
+        reclaim();
+        long sum = (long) field.getAcquire(retired);
+        for (Slot slot : live) {
+            sum += (long) field.getAcquire(slot);
+        }
+        return sum;
+    }
+
+    @Override
+    synchronized IntervalSnapshot rollInterval() {
+        Slot now = merged();
+        long[] counts = new long[LatencyHistogram.BUCKET_COUNT];
+        int first = -1;
+        int last = -1;
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = now.counts[i] - lastRoll.counts[i];
+            if (counts[i] > 0) {
+                first = first < 0 ? i : first;
+                last = i;
+            }
+        }
+        long min = first < 0 ? Long.MAX_VALUE : Math.max(LatencyHistogram.lowestValueAt(first), now.min);
+        long max = last < 0 ? Long.MIN_VALUE : Math.min(LatencyHistogram.highestValueAt(last), now.max);
+
+        long nowNanos = System.nanoTime();
+        long duration = nowNanos - intervalStartNanos;
+        double seconds = duration / 1_000_000_000.0;
+        long calls = now.calls - lastRoll.calls;
+        oneMinute.update(calls, seconds);
+        fiveMinutes.update(calls, seconds);
+        fifteenMinutes.update(calls, seconds);
+        IntervalSnapshot snapshot = new IntervalSnapshot(intervalStartMillis, duration, calls,
+            now.failures - lastRoll.failures, now.items - lastRoll.items,
+            now.totalTimeNanos - lastRoll.totalTimeNanos, LatencyHistogram.snapshotOf(counts, min, max),
+            oneMinute.rate(), fiveMinutes.rate(), fifteenMinutes.rate());
+        lastRoll = now;
+        intervalStartNanos = nowNanos;
+        intervalStartMillis = System.currentTimeMillis();
+        latest = snapshot;
+        return snapshot;
+    }
+
+    @Override
+    IntervalSnapshot latestInterval() {
+        return latest;
+    }
+
+    @Override
+    long calls() {
+        return sum(Slot.CALLS);
+    }
+
+    @Override
+    long failures() {
+        return sum(Slot.FAILURES);
+    }
+
+    @Override
+    long items() {
+        return sum(Slot.ITEMS);
+    }
+
+    @Override
+    long totalTimeNanos() {
+        return sum(Slot.TOTAL_TIME_NANOS);
+    }
+
+    @Override
+    synchronized long minNanos() {
+        reclaim();
+        long min = (long) Slot.MIN.getAcquire(retired);
+        for (Slot slot : live) {
+            min = Math.min(min, (long) Slot.MIN.getAcquire(slot));
+        }
+        return min == Long.MAX_VALUE ? 0 : min;
+    }
+
+    @Override
+    synchronized long maxNanos() {
+        reclaim();
+        long max = (long) Slot.MAX.getAcquire(retired);
+        for (Slot slot : live) {
+            max = Math.max(max, (long) Slot.MAX.getAcquire(slot));
+        }
+        return max == Long.MIN_VALUE ? 0 : max;
+    }
+
+    @Override
+    LatencyHistogram.Snapshot latency() {
+        Slot now = merged();
+        return LatencyHistogram.snapshotOf(now.counts, now.min, now.max);
+    }
+
+    /**
+     * Sums the slots bucket by bucket, without merging them into a copy first.
+     */
+    @Override
+    synchronized long cumulativeCounts(long[] upperBounds, long[] counts) {
+        reclaim();
+        long seen = 0;
+        int bound = 0;
+        for (int i = 0; i < LatencyHistogram.BUCKET_COUNT; i++) {
+            while (bound < upperBounds.length && LatencyHistogram.indexOf(upperBounds[bound]) < i) {
+                counts[bound++] = seen;
+            }
+            seen += (long) Slot.COUNTS.getAcquire(retired.counts, i);
+            for (Slot slot : live) {
+                seen += (long) Slot.COUNTS.getAcquire(slot.counts, i);
+            }
+        }
+        while (bound < upperBounds.length) {
+            counts[bound++] = seen;
+        }
+        return seen;
+    }
+
+    /**
+     * Left padding of a {@link Slot}.
+     */
+    private abstract static class SlotPadding {
+        @SuppressWarnings("unused")
+        private long p1, p2, p3, p4, p5, p6, p7;
+    }
+
+    /**
+     * Counters of a {@link Slot}. Only the owner thread writes them, so it reads them plainly and
+     * publishes with release stores; other threads read them with acquire loads.
+     */
+    private abstract static class SlotFields extends SlotPadding {
+        long calls;
+        long failures;
+        long items;
+        long totalTimeNanos;
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        final long[] counts = new long[LatencyHistogram.BUCKET_COUNT];
+        Thread owner;
+    }
+
+    /**
+     * One thread's statistics, also used unowned for the retired and merged totals.
+     */
+    private static final class Slot extends SlotFields {
+
+        static final VarHandle CALLS;
+        static final VarHandle FAILURES;
+        static final VarHandle ITEMS;
+        static final VarHandle TOTAL_TIME_NANOS;
+        static final VarHandle MIN;
+        static final VarHandle MAX;
+        static final VarHandle COUNTS = MethodHandles.arrayElementVarHandle(long[].class);
+
+        static {
+            try {
+                MethodHandles.Lookup lookup = MethodHandles.lookup();
+                CALLS = lookup.findVarHandle(SlotFields.class, "calls", long.class);
+                FAILURES = lookup.findVarHandle(SlotFields.class, "failures", long.class);
+                ITEMS = lookup.findVarHandle(SlotFields.class, "items", long.class);
+                TOTAL_TIME_NANOS = lookup.findVarHandle(SlotFields.class, "totalTimeNanos", long.class);
+                MIN = lookup.findVarHandle(SlotFields.class, "min", long.class);
+                MAX = lookup.findVarHandle(SlotFields.class, "max", long.class);
+            } catch (ReflectiveOperationException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        @SuppressWarnings("unused")
+        private long p9, p10, p11, p12, p13, p14, p15;
+
+        /**
+         * Owner thread only. The call count is stored last, so a reader that sees a call also
+         * sees its latency and items.
+         */
+        void record(long executionTimeNanos, int itemCount, boolean failed) {
+            long value = Math.max(0, executionTimeNanos);
+            if (value < min) {
+                MIN.setRelease(this, value);
+            }
+            if (value > max) {
+                MAX.setRelease(this, value);
+            }
+            int index = LatencyHistogram.indexOf(value);
+            COUNTS.setRelease(counts, index, counts[index] + 1);
+            ITEMS.setRelease(this, items + itemCount);
+            if (failed) {
+                FAILURES.setRelease(this, failures + 1);
+            }
+            TOTAL_TIME_NANOS.setRelease(this, totalTimeNanos + executionTimeNanos);
+            CALLS.setRelease(this, calls + 1);
+        }
+
+        /**
+         * Add another slot's counts to this unowned total.
+         */
+        void add(Slot other) {
+            calls += (long) CALLS.getAcquire(other);
+            failures += (long) FAILURES.getAcquire(other);
+            items += (long) ITEMS.getAcquire(other);
+            totalTimeNanos += (long) TOTAL_TIME_NANOS.getAcquire(other);
+            min = Math.min(min, (long) MIN.getAcquire(other));
+            max = Math.max(max, (long) MAX.getAcquire(other));
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] += (long) COUNTS.getAcquire(other.counts, i);
+            }
+        }
+
+        /**
+         * Clear a dead thread's slot for reuse.
+         */
+        void reset() {
+            calls = 0;
+            failures = 0;
+            items = 0;
+            totalTimeNanos = 0;
+            min = Long.MAX_VALUE;
+            max = Long.MIN_VALUE;
+            Arrays.fill(counts, 0);
+            owner = null;
+        }
+    }
+}
@@ -6,26 +6,104 @@ import jakarta.inject.Singleton;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.Locale;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Aspect-oriented timing metrics interceptor using proper avaje AOP.
  * This interceptor measures execution time and records metrics for methods annotated with @Timed.
+ * Batch methods (a single collection, array or varargs parameter) are timed per call and per item.
+ * Each metric keeps a {@link LatencyHistogram}, so tail latencies (p50 to p99.9) are reported
+ * alongside the average. Besides the cumulative statistics, each metric records double-buffered
+ * reporting intervals that {@link #rollIntervals()} closes, e.g. from the {@link MetricsReporter}.
+ * With {@code -Ddemo.aspects.recording=striped} every thread records into its own slot of each
+ * metric, and the slots are merged when the statistics are read.
  */
 public class TimedInterceptor implements MethodInterceptor {
     
     private static final Logger logger = LoggerFactory.getLogger(TimedInterceptor.class);
     
-    // Thread-safe map to store timing statistics
-    private final ConcurrentHashMap<String, TimingStat> timingStats = new ConcurrentHashMap<>();
+    private static final int SHAPE_SINGLE = 0;
+    private static final int SHAPE_VARARGS = 1;
+    private static final int SHAPE_ONE_ARG = 2;
+    
+    // Thread-safe map to store timing statistics, shared with the per-method interceptors
+    private final ConcurrentHashMap<String, TimingStat> timingStats;
+    private final boolean striped;
+    private volatile Map<String, IntervalSnapshot> latestIntervals = Collections.emptyMap();
+    
+    /**
+     * Create an interceptor recording as set by {@code demo.aspects.recording}: {@code shared}
+     * (the default) or {@code striped}.
+     */
+    public TimedInterceptor() {
+        this("striped".equals(System.getProperty("demo.aspects.recording", "shared").trim().toLowerCase(Locale.ROOT)));
+    }
+    
+    /**
+     * @param striped whether each recording thread writes to its own slot of every metric
+     */
+    public TimedInterceptor(boolean striped) {
+        this(new ConcurrentHashMap<>(), striped);
+    }
+    
+    private TimedInterceptor(ConcurrentHashMap<String, TimingStat> timingStats, boolean striped) {
+        this.timingStats = timingStats;
+        this.striped = striped;
+    }
+    
+    final TimingStat statFor(String metricName) {
+        return timingStats.computeIfAbsent(metricName, k -> new TimingStat(striped));
+    }
+    
+    /**
+     * Create an interceptor bound to one method. Its metric name and batch shape are resolved
+     * here, once, and its statistics on the first call, so timing later calls needs no
+     * reflection, string building or map lookup. Statistics are shared with this interceptor.
+     */
+    public TimedInterceptor forMethod(Method method) {
+        return forMethod(method, AspectBackend.LOG);
+    }
+    
+    /**
+     * Create an interceptor bound to one method that reports calls to the given backend.
+     */
+    public TimedInterceptor forMethod(Method method, AspectBackend backend) {
+        String metricName = metricName(method);
+        return forMethod(method, backend, AspectSwitch.on(AspectControl.TIMED, metricName));
+    }
+    
+    /**
+     * Create an interceptor bound to one method that both times and traces it, sharing one
+     * measurement and the pre-resolved method metadata between the two aspects. Used when a
+     * method carries both {@code @Timed} and {@code @TraceLogged}, so that the trace
+     * interceptor can be a pass-through.
+     */
+    TimedInterceptor forMethod(Method method, AspectSwitch enabled, TraceEmitter trace) {
+        return new Fused(this, metricName(method), shapeOf(method), enabled, trace);
+    }
+    
+    /**
+     * Create an interceptor bound to one method that only times calls while the switch is on.
+     */
+    public TimedInterceptor forMethod(Method method, AspectBackend backend, AspectSwitch enabled) {
+        return new Bound(this, metricName(method), shapeOf(method), backend == AspectBackend.JFR, enabled);
+    }
     
     @Override
     public void invoke(Invocation invocation) throws Throwable {
-        String methodName = invocation.method().getName();
-        String className = invocation.method().getDeclaringClass().getSimpleName();
-        String metricName = className + "." + methodName;
-        
+        Method method = invocation.method();
+        String metricName = metricName(method);
+        TimingStat stat = statFor(metricName);
+        time(invocation, metricName, stat, batchSize(method, invocation.arguments()));
+    }
+    
+    final void time(Invocation invocation, String metricName, TimingStat stat, int items) throws Throwable {
         if (logger.isDebugEnabled()) {
             logger.debug("TIMED: Starting timer for {}", metricName);
         }
@@ -36,41 +114,132 @@ public class TimedInterceptor implements MethodInterceptor {
             invocation.invoke();
             
             // Record successful execution
-            recordTiming(metricName, startTime, false);
+            recordTiming(metricName, stat, startTime, items, false);
             
         } catch (Throwable throwable) {
             // Record failed execution
-            recordTiming(metricName, startTime, true);
+            recordTiming(metricName, stat, startTime, items, true);
             throw throwable;
         }
     }
     
-    private void recordTiming(String metricName, long startTimeNanos, boolean failed) {
-        long executionTimeNanos = System.nanoTime() - startTimeNanos;
-        double executionTimeMs = executionTimeNanos / 1_000_000.0;
-        
-        TimingStat stat = timingStats.computeIfAbsent(metricName, k -> new TimingStat());
-        if (failed) {
-            stat.recordFailedExecution(executionTimeNanos);
-        } else {
-            stat.recordExecution(executionTimeNanos);
+    /**
+     * Like {@link #time}, but reporting through a {@link MethodTimingEvent} instead of log lines.
+     * When the event is not enabled in any recording, the event object does not escape and the
+     * JIT removes it.
+     */
+    final void timeWithEvent(Invocation invocation, String metricName, TimingStat stat, int items) throws Throwable {
+        MethodTimingEvent event = new MethodTimingEvent();
+        event.begin();
+        long startTime = System.nanoTime();
+        boolean failed = true;
+        try {
+            invocation.invoke();
+            failed = false;
+        } finally {
+            stat.record(System.nanoTime() - startTime, items, failed);
+            event.end();
+            if (event.shouldCommit()) {
+                event.method = metricName;
+                event.items = items;
+                event.failed = failed;
+                event.commit();
+            }
         }
+    }
+    
+    private static String metricName(Method method) {
+        return method.getDeclaringClass().getSimpleName() + "." + method.getName();
+    }
+    
+    private static void recordTiming(String metricName, TimingStat stat, long startTimeNanos, int items, boolean failed) {
+        recordElapsed(metricName, stat, System.nanoTime() - startTimeNanos, items, failed);
+    }
+    
+    private static void recordElapsed(String metricName, TimingStat stat, long executionTimeNanos, int items, boolean failed) {
+        stat.record(executionTimeNanos, items, failed);
         
         if (logger.isDebugEnabled()) {
+            double executionTimeMs = executionTimeNanos / 1_000_000.0;
             if (failed) {
-                logger.warn("TIMED: {} failed after {:.3f} ms", metricName, executionTimeMs);
+                logger.warn("TIMED: {} failed after {} ms", metricName, formatMs(executionTimeMs));
             } else {
-                logger.debug("TIMED: {} executed in {:.3f} ms (total calls: {}, avg: {:.3f} ms)", 
-                            metricName, executionTimeMs, stat.getCallCount(), stat.getAverageTimeMs());
+                logger.debug("TIMED: {} executed in {} ms for {} item(s) (total calls: {}, avg: {} ms)",
+                            metricName, formatMs(executionTimeMs), items, stat.getCallCount(), formatMs(stat.getAverageTimeMs()));
+            }
+        }
+    }
+    
+    /**
+     * Number of items handled by a call: the size of a single collection or array argument,
+     * the number of varargs, or 1 for any other method.
+     * A lone varargs parameter is passed by the avaje proxy as the arguments array itself.
+     */
+    static int batchSize(Method method, Object[] args) {
+        return batchSize(shapeOf(method), args);
+    }
+    
+    private static int shapeOf(Method method) {
+        if (method.isVarArgs() && method.getParameterCount() == 1) {
+            return SHAPE_VARARGS;
+        }
+        return method.getParameterCount() == 1 ? SHAPE_ONE_ARG : SHAPE_SINGLE;
+    }
+    
+    private static int batchSize(int shape, Object[] args) {
+        if (args == null || shape == SHAPE_SINGLE) {
+            return 1;
+        }
+        if (shape == SHAPE_VARARGS) {
+            return args.length;
+        }
+        if (args.length == 1) {
+            Object arg = args[0];
+            if (arg instanceof Collection) {
+                return ((Collection<?>) arg).size();
+            }
+            if (arg instanceof Object[]) {
+                return ((Object[]) arg).length;
             }
         }
+        return 1;
+    }
+    
+    private static String formatMs(double millis) {
+        return String.format("%.3f", millis);
+    }
+    
+    private static String formatNanos(long nanos) {
+        return formatMs(nanos / 1_000_000.0);
     }
     
     /**
-     * Get timing statistics for all methods.
+     * Get cumulative timing statistics for all methods that have been called.
+     * Returns a live read-only view rather than a copy.
      */
-    public ConcurrentHashMap<String, TimingStat> getAllTimingStats() {
-        return new ConcurrentHashMap<>(timingStats);
+    public Map<String, TimingStat> getAllTimingStats() {
+        return Collections.unmodifiableMap(timingStats);
+    }
+    
+    /**
+     * Close the current reporting interval of every metric and start the next one.
+     * Recording threads are never blocked while this runs.
+     *
+     * @return the closed intervals by metric name
+     */
+    public Map<String, IntervalSnapshot> rollIntervals() {
+        Map<String, IntervalSnapshot> intervals = new TreeMap<>();
+        timingStats.forEach((metric, stat) -> intervals.put(metric, stat.rollInterval()));
+        Map<String, IntervalSnapshot> published = Collections.unmodifiableMap(intervals);
+        latestIntervals = published;
+        return published;
+    }
+    
+    /**
+     * The intervals closed by the last {@link #rollIntervals()}, empty before the first one.
+     */
+    public Map<String, IntervalSnapshot> getLatestIntervals() {
+        return latestIntervals;
     }
     
     /**
@@ -83,68 +252,272 @@ public class TimedInterceptor implements MethodInterceptor {
         }
         
         logger.info("=== TIMING STATISTICS ===");
-        timingStats.forEach((method, stat) -> 
-            logger.info("{}: {} calls, avg: {:.3f} ms, min: {:.3f} ms, max: {:.3f} ms, failures: {}", 
-                       method, stat.getCallCount(), stat.getAverageTimeMs(), 
-                       stat.getMinTimeMs(), stat.getMaxTimeMs(), stat.getFailureCount())
-        );
+        timingStats.forEach((method, stat) -> {
+            LatencyHistogram.Snapshot latency = stat.getLatencySnapshot();
+            logger.info("{}: {} calls, avg: {} ms, min: {} ms, p50: {} ms, p90: {} ms, p99: {} ms, p99.9: {} ms, max: {} ms, failures: {}",
+                       method, stat.getCallCount(), formatMs(stat.getAverageTimeMs()),
+                       formatNanos(latency.getMin()), formatNanos(latency.getValueAtPercentile(50)),
+                       formatNanos(latency.getValueAtPercentile(90)), formatNanos(latency.getValueAtPercentile(99)),
+                       formatNanos(latency.getValueAtPercentile(99.9)), formatNanos(latency.getMax()),
+                       stat.getFailureCount());
+            if (stat.getItemCount() != stat.getCallCount()) {
+                logger.info("{}: {} items, avg per item: {} ms",
+                           method, stat.getItemCount(), String.format("%.6f", stat.getAverageTimePerItemMs()));
+            }
+        });
+    }
+    
+    /**
+     * Interceptor bound to a single method by {@link #forMethod(Method)}.
+     */
+    private static final class Bound extends TimedInterceptor {
+        
+        private final TimedInterceptor owner;
+        private final String metricName;
+        private final int shape;
+        private final boolean jfr;
+        private final AspectSwitch enabled;
+        // resolved on first call, so only methods that were called show up in the statistics;
+        // a racy read is safe because TimingStat only has final fields
+        private TimingStat stat;
+        
+        Bound(TimedInterceptor owner, String metricName, int shape, boolean jfr, AspectSwitch enabled) {
+            super(owner.timingStats, owner.striped);
+            this.owner = owner;
+            this.metricName = metricName;
+            this.shape = shape;
+            this.jfr = jfr;
+            this.enabled = enabled;
+        }
+        
+        @Override
+        public void invoke(Invocation invocation) throws Throwable {
+            if (!enabled.isEnabled()) {
+                invocation.invoke();
+                return;
+            }
+            TimingStat current = stat;
+            if (current == null) {
+                current = owner.statFor(metricName);
+                stat = current;
+            }
+            int items = shape == SHAPE_SINGLE ? 1 : TimedInterceptor.batchSize(shape, invocation.arguments());
+            if (jfr) {
+                timeWithEvent(invocation, metricName, current, items);
+            } else {
+                time(invocation, metricName, current, items);
+            }
+        }
+        
+        @Override
+        public Map<String, IntervalSnapshot> rollIntervals() {
+            return owner.rollIntervals();
+        }
+        
+        @Override
+        public Map<String, IntervalSnapshot> getLatestIntervals() {
+            return owner.getLatestIntervals();
+        }
+    }
+    
+    /**
+     * Interceptor timing and tracing one method, created by {@link #forMethod(Method, AspectSwitch, TraceEmitter)}.
+     */
+    private static final class Fused extends TimedInterceptor {
+        
+        private final TimedInterceptor owner;
+        private final String metricName;
+        private final int shape;
+        private final AspectSwitch enabled;
+        private final TraceEmitter trace;
+        private TimingStat stat;
+        
+        Fused(TimedInterceptor owner, String metricName, int shape, AspectSwitch enabled, TraceEmitter trace) {
+            super(owner.timingStats, owner.striped);
+            this.owner = owner;
+            this.metricName = metricName;
+            this.shape = shape;
+            this.enabled = enabled;
+            this.trace = trace;
+        }
+        
+        @Override
+        public void invoke(Invocation invocation) throws Throwable {
+            boolean timed = enabled.isEnabled();
+            boolean tracing = trace.isEnabled();
+            boolean traced = tracing && trace.sample();
+            if (!timed && !traced) {
+                if (!tracing) {
+                    invocation.invoke();
+                    return;
+                }
+                try {
+                    invocation.invoke();
+                } catch (Throwable throwable) {
+                    trace.failure(TraceSink.UNTIMED, throwable);
+                    throw throwable;
+                }
+                return;
+            }
+            
+            TimingStat current = null;
+            int items = 1;
+            if (timed) {
+                current = stat;
+                if (current == null) {
+                    current = owner.statFor(metricName);
+                    stat = current;
+                }
+                items = shape == SHAPE_SINGLE ? 1 : TimedInterceptor.batchSize(shape, invocation.arguments());
+                if (logger.isDebugEnabled()) {
+                    logger.debug("TIMED: Starting timer for {}", metricName);
+                }
+            }
+            if (traced) {
+                trace.enter(invocation.arguments());
+            }
+            long startTime = System.nanoTime();
+            try {
+                invocation.invoke();
+            } catch (Throwable throwable) {
+                long elapsed = System.nanoTime() - startTime;
+                if (timed) {
+                    recordElapsed(metricName, current, elapsed, items, true);
+                }
+                if (tracing) {
+                    trace.failure(elapsed, throwable);
+                }
+                throw throwable;
+            }
+            long elapsed = System.nanoTime() - startTime;
+            if (timed) {
+                recordElapsed(metricName, current, elapsed, items, false);
+            }
+            if (traced) {
+                trace.exit(elapsed);
+            }
+        }
+        
+        @Override
+        public Map<String, IntervalSnapshot> rollIntervals() {
+            return owner.rollIntervals();
+        }
+        
+        @Override
+        public Map<String, IntervalSnapshot> getLatestIntervals() {
+            return owner.getLatestIntervals();
+        }
     }
     
     /**
-     * Thread-safe timing statistics holder.
+     * Thread-safe timing statistics holder. By default all recording threads update shared
+     * counters; a striped statistic gives each thread its own slot and merges them on read (see
+     * {@link StripedTimingRecorder}).
      */
     public static class TimingStat {
-        private final LongAdder callCount = new LongAdder();
-        private final LongAdder failureCount = new LongAdder();
-        private final LongAdder totalTimeNanos = new LongAdder();
-        private volatile long minTimeNanos = Long.MAX_VALUE;
-        private volatile long maxTimeNanos = Long.MIN_VALUE;
+        private final TimingRecorder recorder;
+        
+        public TimingStat() {
+            this(false);
+        }
+        
+        /**
+         * @param striped whether each recording thread writes to its own slot
+         */
+        public TimingStat(boolean striped) {
+            this.recorder = striped ? new StripedTimingRecorder() : new SharedTimingRecorder();
+        }
         
         public void recordExecution(long executionTimeNanos) {
-            callCount.increment();
-            totalTimeNanos.add(executionTimeNanos);
-            updateMinMax(executionTimeNanos);
+            record(executionTimeNanos, 1, false);
         }
         
         public void recordFailedExecution(long executionTimeNanos) {
-            callCount.increment();
-            failureCount.increment();
-            totalTimeNanos.add(executionTimeNanos);
-            updateMinMax(executionTimeNanos);
+            record(executionTimeNanos, 1, true);
         }
         
-        private synchronized void updateMinMax(long executionTimeNanos) {
-            if (executionTimeNanos < minTimeNanos) {
-                minTimeNanos = executionTimeNanos;
-            }
-            if (executionTimeNanos > maxTimeNanos) {
-                maxTimeNanos = executionTimeNanos;
-            }
+        /**
+         * Record a call that handled the given number of items (1 for non-batch methods).
+         */
+        public void record(long executionTimeNanos, int items, boolean failed) {
+            recorder.record(executionTimeNanos, items, failed);
+        }
+        
+        /**
+         * Close the current reporting interval and start a new one.
+         */
+        public IntervalSnapshot rollInterval() {
+            return recorder.rollInterval();
+        }
+        
+        /**
+         * The most recently closed reporting interval, or null if none has been closed yet.
+         * The other getters are cumulative since startup.
+         */
+        public IntervalSnapshot getLatestInterval() {
+            return recorder.latestInterval();
         }
         
         public long getCallCount() {
-            return callCount.sum();
+            return recorder.calls();
         }
         
         public long getFailureCount() {
-            return failureCount.sum();
+            return recorder.failures();
+        }
+        
+        /**
+         * Total items handled; equal to the call count unless the method takes batches.
+         */
+        public long getItemCount() {
+            return recorder.items();
+        }
+        
+        public double getAverageTimePerItemMs() {
+            long items = recorder.items();
+            return items > 0 ? (recorder.totalTimeNanos() / 1_000_000.0) / items : 0.0;
         }
         
         public double getAverageTimeMs() {
-            long count = callCount.sum();
-            return count > 0 ? (totalTimeNanos.sum() / 1_000_000.0) / count : 0.0;
+            long count = recorder.calls();
+            return count > 0 ? (recorder.totalTimeNanos() / 1_000_000.0) / count : 0.0;
         }
         
         public double getMinTimeMs() {
-            return minTimeNanos == Long.MAX_VALUE ? 0.0 : minTimeNanos / 1_000_000.0;
+            return recorder.minNanos() / 1_000_000.0;
         }
         
         public double getMaxTimeMs() {
-            return maxTimeNanos == Long.MIN_VALUE ? 0.0 : maxTimeNanos / 1_000_000.0;
+            return recorder.maxNanos() / 1_000_000.0;
+        }
+        
+        /**
+         * Latency at the given percentile (0-100) in milliseconds, within the histogram's
+         * relative error.
+         */
+        public double getPercentileMs(double percentile) {
+            return recorder.latency().getValueAtPercentile(percentile) / 1_000_000.0;
+        }
+        
+        /**
+         * Cumulative latency counts at the given bounds, read without copying the histogram.
+         *
+         * @see LatencyHistogram#cumulativeCounts(long[], long[])
+         */
+        public long cumulativeCounts(long[] upperBoundsNanos, long[] counts) {
+            return recorder.cumulativeCounts(upperBoundsNanos, counts);
+        }
+        
+        /**
+         * Copy of the latency distribution, for computing several percentiles consistently
+         * or merging with other snapshots.
+         */
+        public LatencyHistogram.Snapshot getLatencySnapshot() {
+            return recorder.latency();
         }
         
         public long getTotalTimeNanos() {
-            return totalTimeNanos.sum();
+            return recorder.totalTimeNanos();
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,66 @@
+package com.example.demo.aspect;
+
+import com.example.demo.metrics.MetricsSource;
+import com.example.demo.metrics.MetricsWriter;
+import jakarta.inject.Singleton;
+
+/**
+ * Renders every {@code @Timed} metric for the metrics endpoint: call, failure and item
+ * counters, a latency histogram in seconds and the one-minute call rate of the last interval.
+ */
+@Singleton
+public class TimedMetricsSource implements MetricsSource {
+
+    private static final String CALLS = "demo_method_calls";
+    private static final String FAILURES = "demo_method_failures";
+    private static final String ITEMS = "demo_method_items";
+    private static final String DURATION = "demo_method_duration_seconds";
+    private static final String RATE = "demo_method_calls_rate_1m";
+
+    private static final long[] BUCKET_BOUNDS_NANOS = {
+        10_000L, 50_000L, 100_000L, 500_000L, 1_000_000L, 5_000_000L, 10_000_000L,
+        50_000_000L, 100_000_000L, 500_000_000L, 1_000_000_000L, 5_000_000_000L
+    };
+    private static final String[] BUCKET_LABELS = {
+        "0.00001", "0.00005", "0.0001", "0.0005", "0.001", "0.005", "0.01",
+        "0.05", "0.1", "0.5", "1.0", "5.0"
+    };
+
+    private final TimedInterceptor interceptor;
+    // reused across scrapes; the metrics server renders one scrape at a time
+    private final long[] bucketCounts = new long[BUCKET_BOUNDS_NANOS.length];
+
+    public TimedMetricsSource(TimedProvider timedProvider) {
+        this.interceptor = timedProvider.getInterceptor();
+    }
+
+    @Override
+    public synchronized void collect(MetricsWriter writer) {
+        var stats = interceptor.getAllTimingStats();
+        writer.family(CALLS, "counter", "Calls to @Timed methods");
+        stats.forEach((method, stat) -> writer.name(CALLS, "_total").label("method", method).value(stat.getCallCount()));
+        writer.family(FAILURES, "counter", "Calls to @Timed methods that threw");
+        stats.forEach((method, stat) -> writer.name(FAILURES, "_total").label("method", method).value(stat.getFailureCount()));
+        writer.family(ITEMS, "counter", "Items handled by @Timed methods, more than calls for batch methods");
+        stats.forEach((method, stat) -> writer.name(ITEMS, "_total").label("method", method).value(stat.getItemCount()));
+
+        writer.family(DURATION, "histogram", "Latency of @Timed methods");
+        stats.forEach((method, stat) -> {
+            long count = stat.cumulativeCounts(BUCKET_BOUNDS_NANOS, bucketCounts);
+            for (int i = 0; i < BUCKET_BOUNDS_NANOS.length; i++) {
+                writer.name(DURATION, "_bucket").labels("method", method, "le", BUCKET_LABELS[i]).value(bucketCounts[i]);
+            }
+            writer.name(DURATION, "_bucket").labels("method", method, "le", "+Inf").value(count);
+            writer.name(DURATION, "_count").label("method", method).value(count);
+            writer.name(DURATION, "_sum").label("method", method).nanosAsSeconds(stat.getTotalTimeNanos());
+        });
+
+        writer.family(RATE, "gauge", "Calls per second of @Timed methods, one-minute moving average");
+        stats.forEach((method, stat) -> {
+            IntervalSnapshot interval = stat.getLatestInterval();
+            if (interval != null) {
+                writer.name(RATE).label("method", method).value(interval.getOneMinuteRate(), 3);
+            }
+        });
+    }
+}
@@ -8,15 +8,34 @@ import java.lang.reflect.Method;
 
 /**
  * Aspect provider for timing metrics functionality.
+ * Each intercepted method gets its own interceptor with the metric already resolved,
+ * all sharing the statistics of the provider's {@link TimedInterceptor}.
+ * Calls are reported to the {@link AspectBackend#configured() configured backend}, while the
+ * method's switch in {@link AspectControl} is on. Methods that are also {@code @TraceLogged}
+ * get one interceptor doing both (see {@link TraceLoggedProvider}).
  */
 @Singleton
 public class TimedProvider implements AspectProvider<Timed> {
     
     private final TimedInterceptor interceptor = new TimedInterceptor();
+    private final AspectBackend backend = AspectBackend.configured();
+    private final AspectControl control;
+    private final TraceLoggedProvider traceProvider;
+    
+    public TimedProvider(AspectControl control, TraceLoggedProvider traceProvider) {
+        this.control = control;
+        this.traceProvider = traceProvider;
+    }
     
     @Override
     public MethodInterceptor interceptor(Method method, Timed annotation) {
-        return interceptor;
+        String metricName = method.getDeclaringClass().getSimpleName() + "." + method.getName();
+        AspectSwitch enabled = control.switchFor(AspectControl.TIMED, metricName);
+        TraceEmitter trace = traceProvider.fusedTrace(method);
+        if (trace != null) {
+            return interceptor.forMethod(method, enabled, trace);
+        }
+        return interceptor.forMethod(method, backend, enabled);
     }
     
     /**
@@ -0,0 +1,45 @@
+package com.example.demo.aspect;
+
+/**
+ * Storage behind a {@link TimedInterceptor.TimingStat}: {@link SharedTimingRecorder} updates
+ * counters shared by all threads, {@link StripedTimingRecorder} gives each thread its own.
+ */
+abstract class TimingRecorder {
+
+    abstract void record(long executionTimeNanos, int items, boolean failed);
+
+    /**
+     * Close the current reporting interval and start a new one.
+     */
+    abstract IntervalSnapshot rollInterval();
+
+    /**
+     * The most recently closed reporting interval, or null before the first one.
+     */
+    abstract IntervalSnapshot latestInterval();
+
+    abstract long calls();
+
+    abstract long failures();
+
+    abstract long items();
+
+    abstract long totalTimeNanos();
+
+    /**
+     * Smallest recorded latency in nanoseconds, 0 if nothing was recorded.
+     */
+    abstract long minNanos();
+
+    /**
+     * Largest recorded latency in nanoseconds, 0 if nothing was recorded.
+     */
+    abstract long maxNanos();
+
+    abstract LatencyHistogram.Snapshot latency();
+
+    /**
+     * @see LatencyHistogram#cumulativeCounts(long[], long[])
+     */
+    abstract long cumulativeCounts(long[] upperBoundsNanos, long[] counts);
+}
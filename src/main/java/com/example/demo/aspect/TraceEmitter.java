@@ -0,0 +1,63 @@
+package com.example.demo.aspect;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Trace output of one method for the fused {@code @Timed} + {@code @TraceLogged} interceptor:
+ * the method's trace switch and sampler, and either a {@link TraceSink} or, without one,
+ * log lines on the calling thread. Durations are measured by the caller.
+ */
+final class TraceEmitter {
+
+    private static final Logger logger = LoggerFactory.getLogger(TraceLoggingInterceptor.class);
+
+    private final String methodName;
+    private final TraceSampler sampler;
+    private final TraceSink sink;
+    private final AspectSwitch enabled;
+
+    TraceEmitter(String methodName, TraceSampler sampler, TraceSink sink, AspectSwitch enabled) {
+        this.methodName = methodName;
+        this.sampler = sampler;
+        this.sink = sink;
+        this.enabled = enabled;
+    }
+
+    boolean isEnabled() {
+        return enabled.isEnabled();
+    }
+
+    /**
+     * Whether the current call is traced; decided before any argument is captured.
+     */
+    boolean sample() {
+        return logger.isDebugEnabled() && sampler.sample();
+    }
+
+    void enter(Object[] args) {
+        if (sink != null) {
+            sink.enter(methodName, args);
+        } else {
+            logger.debug("TRACE: Entering {}() with args: {}", methodName, TraceLoggingInterceptor.formatArgs(args));
+        }
+    }
+
+    void exit(long nanos) {
+        if (sink != null) {
+            sink.exit(methodName, nanos);
+        } else {
+            logger.debug("TRACE: Exiting {}() successfully in {} ns", methodName, nanos);
+        }
+    }
+
+    void failure(long nanos, Throwable throwable) {
+        if (sink != null) {
+            sink.failure(methodName, nanos, throwable);
+        } else if (nanos == TraceSink.UNTIMED) {
+            logger.warn("TRACE: Exiting {}() with exception: {}", methodName, throwable.getMessage());
+        } else {
+            logger.warn("TRACE: Exiting {}() with exception after {} ns: {}", methodName, nanos, throwable.getMessage());
+        }
+    }
+}
@@ -2,20 +2,88 @@ package com.example.demo.aspect;
 
 import io.avaje.inject.aop.AspectProvider;
 import io.avaje.inject.aop.MethodInterceptor;
+import com.example.demo.annotation.Timed;
 import com.example.demo.annotation.TraceLogged;
+import com.example.demo.span.SpanRecorder;
 import jakarta.inject.Singleton;
+import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Aspect provider for trace logging functionality.
+ * With the {@link AspectBackend#JFR JFR backend} calls are reported as Flight Recorder events;
+ * otherwise, by default, each intercepted method gets an interceptor that writes through the
+ * asynchronous {@link TraceSink}; {@code -Ddemo.trace.async=false} logs on the calling thread.
+ * Calls are sampled according to the method's {@link TraceLogged} attributes, or the class's
+ * when the method is not annotated itself. When a {@link SpanRecorder} is enabled, every call
+ * is also recorded as a span, whether or not it is sampled for logging. While the method's
+ * switch in {@link AspectControl} is off, none of this happens.
+ * <p>
+ * For methods that also carry {@code @Timed}, tracing is fused into the {@link TimedProvider}'s
+ * interceptor, which measures each call once for both aspects, and this provider returns a
+ * pass-through. {@code -Ddemo.aspects.fuse=false} keeps the two interceptors separate.
  */
 @Singleton
 public class TraceLoggedProvider implements AspectProvider<TraceLogged> {
     
     private final TraceLoggingInterceptor interceptor = new TraceLoggingInterceptor();
+    private final TraceSink sink;
+    private final SpanRecorder spans;
+    private final boolean async = Boolean.parseBoolean(System.getProperty("demo.trace.async", "true"));
+    private final AspectBackend backend = AspectBackend.configured();
+    private final boolean fuse = Boolean.parseBoolean(System.getProperty("demo.aspects.fuse", "true"));
+    private final Map<Method, TraceEmitter> fused = new ConcurrentHashMap<>();
+    
+    private final AspectControl control;
+    
+    public TraceLoggedProvider(TraceSink sink, Optional<SpanRecorder> spans, AspectControl control) {
+        this.sink = sink;
+        this.spans = spans.orElse(null);
+        this.control = control;
+    }
     
     @Override
     public MethodInterceptor interceptor(Method method, TraceLogged annotation) {
-        return interceptor;
+        if (fusedTrace(method) != null) {
+            return TraceLoggingInterceptor.passThrough();
+        }
+        TraceSampler sampler = samplerFor(method);
+        TraceLoggingInterceptor traced;
+        if (backend == AspectBackend.JFR) {
+            traced = interceptor.forMethodEvents(method, sampler);
+        } else {
+            traced = async ? interceptor.forMethod(method, sampler, sink) : interceptor.forMethod(method, sampler);
+        }
+        if (spans != null) {
+            traced = traced.withSpans(method, spans);
+        }
+        return traced.withSwitch(control.switchFor(AspectControl.TRACE, TraceLoggingInterceptor.qualifiedName(method)));
+    }
+    
+    /**
+     * Trace output for a method that also carries {@code @Timed}, to be fused into its timing
+     * interceptor; null if the method is traced on its own. Methods are fused with the log
+     * backend only, and not while spans are recorded.
+     */
+    TraceEmitter fusedTrace(Method method) {
+        if (!fuse || backend != AspectBackend.LOG || spans != null || !isAnnotated(method, Timed.class)
+                || !isAnnotated(method, TraceLogged.class)) {
+            return null;
+        }
+        return fused.computeIfAbsent(method, m -> new TraceEmitter(TraceLoggingInterceptor.qualifiedName(m),
+            samplerFor(m), async ? sink : null, control.switchFor(AspectControl.TRACE, TraceLoggingInterceptor.qualifiedName(m))));
+    }
+    
+    private static TraceSampler samplerFor(Method method) {
+        // the proxy passes a null annotation when it is only present on the class
+        TraceLogged settings = method.getAnnotation(TraceLogged.class);
+        return TraceSampler.of(settings != null ? settings : method.getDeclaringClass().getAnnotation(TraceLogged.class));
+    }
+    
+    private static boolean isAnnotated(Method method, Class<? extends Annotation> type) {
+        return method.isAnnotationPresent(type) || method.getDeclaringClass().isAnnotationPresent(type);
     }
 }
\ No newline at end of file
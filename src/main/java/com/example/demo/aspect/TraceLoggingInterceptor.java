@@ -1,18 +1,89 @@
 package com.example.demo.aspect;
 
+import com.example.demo.span.SpanRecorder;
 import io.avaje.inject.aop.MethodInterceptor;
 import io.avaje.inject.aop.Invocation;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Iterator;
+
 /**
  * Aspect-oriented trace logging interceptor using proper avaje AOP.
  * This interceptor logs method entry, exit, and execution time.
+ * <p>
+ * Interceptors returned by {@link #forMethod(Method, TraceSink)} hand the trace records to a
+ * {@link TraceSink} instead, which formats and writes them on a background thread.
  */
 public class TraceLoggingInterceptor implements MethodInterceptor {
     
     private static final Logger logger = LoggerFactory.getLogger(TraceLoggingInterceptor.class);
     
+    /**
+     * Maximum number of arguments or collection elements written out, so that tracing a
+     * batch call logs a summary rather than every event in the batch.
+     */
+    static final int MAX_FORMATTED_ITEMS = 10;
+    
+    private static final TraceLoggingInterceptor PASS_THROUGH = new TraceLoggingInterceptor() {
+        @Override
+        public void invoke(Invocation invocation) throws Throwable {
+            invocation.invoke();
+        }
+    };
+    
+    /**
+     * Interceptor for a single method that traces the calls chosen by the sampler
+     * on the calling thread.
+     */
+    public TraceLoggingInterceptor forMethod(Method method, TraceSampler sampler) {
+        return new Sampled(qualifiedName(method), sampler);
+    }
+    
+    /**
+     * Interceptor for a single method that captures trace records for the calls chosen by
+     * the sampler into the given sink, rather than formatting and logging them on the calling thread.
+     */
+    public TraceLoggingInterceptor forMethod(Method method, TraceSampler sampler, TraceSink sink) {
+        return new Async(qualifiedName(method), sampler, sink);
+    }
+    
+    /**
+     * Interceptor for a single method that reports the calls chosen by the sampler as
+     * {@link MethodTraceEvent}s rather than log lines.
+     */
+    public TraceLoggingInterceptor forMethodEvents(Method method, TraceSampler sampler) {
+        return new Flight(qualifiedName(method), sampler);
+    }
+    
+    /**
+     * Wrap this interceptor so every call of the method is also recorded as a span.
+     */
+    public TraceLoggingInterceptor withSpans(Method method, SpanRecorder recorder) {
+        return new Spanning(this, qualifiedName(method), recorder);
+    }
+    
+    /**
+     * Interceptor that only proceeds with the call, for methods whose tracing is done by a
+     * fused {@link TimedInterceptor}.
+     */
+    public static TraceLoggingInterceptor passThrough() {
+        return PASS_THROUGH;
+    }
+    
+    /**
+     * Wrap this interceptor so it only traces while the switch is on.
+     */
+    public TraceLoggingInterceptor withSwitch(AspectSwitch enabled) {
+        return new Switched(this, enabled);
+    }
+    
+    static String qualifiedName(Method method) {
+        return method.getDeclaringClass().getSimpleName() + "." + method.getName();
+    }
+    
     @Override
     public void invoke(Invocation invocation) throws Throwable {
         String methodName = invocation.method().getName();
@@ -49,28 +120,227 @@ public class TraceLoggingInterceptor implements MethodInterceptor {
     }
     
     /**
-     * Format method arguments for logging, handling null and array cases.
+     * Format method arguments for logging, handling null, array and collection cases.
+     * Long argument lists and collections are truncated after {@link #MAX_FORMATTED_ITEMS} items.
      */
-    private String formatArgs(Object[] args) {
+    static String formatArgs(Object[] args) {
         if (args == null || args.length == 0) {
             return "[]";
         }
         
         StringBuilder sb = new StringBuilder("[");
-        for (int i = 0; i < args.length; i++) {
+        int shown = Math.min(args.length, MAX_FORMATTED_ITEMS);
+        for (int i = 0; i < shown; i++) {
             if (i > 0) {
                 sb.append(", ");
             }
-            Object arg = args[i];
-            if (arg == null) {
-                sb.append("null");
-            } else if (arg instanceof String) {
-                sb.append("\"").append(arg).append("\"");
-            } else {
-                sb.append(arg.toString());
-            }
+            appendArg(sb, args[i]);
         }
+        appendRemainder(sb, args.length - shown);
         sb.append("]");
         return sb.toString();
     }
+    
+    static void appendArg(StringBuilder sb, Object arg) {
+        if (arg == null) {
+            sb.append("null");
+        } else if (arg instanceof String) {
+            sb.append("\"").append(arg).append("\"");
+        } else if (arg instanceof Collection) {
+            Collection<?> collection = (Collection<?>) arg;
+            sb.append("[");
+            Iterator<?> it = collection.iterator();
+            int shown = 0;
+            while (it.hasNext() && shown < MAX_FORMATTED_ITEMS) {
+                if (shown++ > 0) {
+                    sb.append(", ");
+                }
+                appendValue(sb, it.next());
+            }
+            appendRemainder(sb, collection.size() - shown);
+            sb.append("]");
+        } else {
+            sb.append(arg.toString());
+        }
+    }
+    
+    static void appendValue(StringBuilder sb, Object value) {
+        if (value instanceof String) {
+            sb.append("\"").append(value).append("\"");
+        } else {
+            sb.append(value);
+        }
+    }
+    
+    static void appendRemainder(StringBuilder sb, int remaining) {
+        if (remaining > 0) {
+            sb.append(", ... (").append(remaining).append(" more)");
+        }
+    }
+    
+    /**
+     * Interceptor bound to a single method by {@link #forMethod(Method, TraceSampler)}.
+     */
+    private static final class Sampled extends TraceLoggingInterceptor {
+        
+        private final String methodName;
+        private final TraceSampler sampler;
+        
+        Sampled(String methodName, TraceSampler sampler) {
+            this.methodName = methodName;
+            this.sampler = sampler;
+        }
+        
+        @Override
+        public void invoke(Invocation invocation) throws Throwable {
+            if (!logger.isDebugEnabled() || !sampler.sample()) {
+                try {
+                    invocation.invoke();
+                } catch (Throwable throwable) {
+                    logger.warn("TRACE: Exiting {}() with exception: {}", methodName, throwable.getMessage());
+                    throw throwable;
+                }
+                return;
+            }
+            logger.debug("TRACE: Entering {}() with args: {}", methodName, formatArgs(invocation.arguments()));
+            long startTime = System.nanoTime();
+            try {
+                invocation.invoke();
+                logger.debug("TRACE: Exiting {}() successfully in {} ns", methodName, System.nanoTime() - startTime);
+            } catch (Throwable throwable) {
+                logger.warn("TRACE: Exiting {}() with exception after {} ns: {}",
+                           methodName, System.nanoTime() - startTime, throwable.getMessage());
+                throw throwable;
+            }
+        }
+    }
+    
+    /**
+     * Interceptor that skips tracing while its switch is off, created by {@link #withSwitch(AspectSwitch)}.
+     */
+    private static final class Switched extends TraceLoggingInterceptor {
+        
+        private final TraceLoggingInterceptor delegate;
+        private final AspectSwitch enabled;
+        
+        Switched(TraceLoggingInterceptor delegate, AspectSwitch enabled) {
+            this.delegate = delegate;
+            this.enabled = enabled;
+        }
+        
+        @Override
+        public void invoke(Invocation invocation) throws Throwable {
+            if (enabled.isEnabled()) {
+                delegate.invoke(invocation);
+            } else {
+                invocation.invoke();
+            }
+        }
+    }
+    
+    /**
+     * Interceptor recording a span around another, created by {@link #withSpans(Method, SpanRecorder)}.
+     */
+    private static final class Spanning extends TraceLoggingInterceptor {
+        
+        private final TraceLoggingInterceptor delegate;
+        private final String methodName;
+        private final SpanRecorder recorder;
+        
+        Spanning(TraceLoggingInterceptor delegate, String methodName, SpanRecorder recorder) {
+            this.delegate = delegate;
+            this.methodName = methodName;
+            this.recorder = recorder;
+        }
+        
+        @Override
+        public void invoke(Invocation invocation) throws Throwable {
+            recorder.start(methodName);
+            boolean failed = true;
+            try {
+                delegate.invoke(invocation);
+                failed = false;
+            } finally {
+                recorder.end(failed);
+            }
+        }
+    }
+    
+    /**
+     * Interceptor bound to a single method by {@link #forMethodEvents(Method, TraceSampler)}.
+     */
+    private static final class Flight extends TraceLoggingInterceptor {
+        
+        private final String methodName;
+        private final TraceSampler sampler;
+        
+        Flight(String methodName, TraceSampler sampler) {
+            this.methodName = methodName;
+            this.sampler = sampler;
+        }
+        
+        @Override
+        public void invoke(Invocation invocation) throws Throwable {
+            MethodTraceEvent event = new MethodTraceEvent();
+            if (!event.isEnabled() || !sampler.sample()) {
+                invocation.invoke();
+                return;
+            }
+            event.begin();
+            try {
+                invocation.invoke();
+            } catch (Throwable throwable) {
+                event.exception = throwable.toString();
+                logger.warn("TRACE: Exiting {}() with exception: {}", methodName, throwable.getMessage());
+                throw throwable;
+            } finally {
+                event.end();
+                // the arguments are still owned by this call, so formatting them here is safe
+                if (event.shouldCommit()) {
+                    event.method = methodName;
+                    event.arguments = formatArgs(invocation.arguments());
+                    event.commit();
+                }
+            }
+        }
+    }
+    
+    /**
+     * Interceptor bound to a single method by {@link #forMethod(Method, TraceSampler, TraceSink)}.
+     */
+    private static final class Async extends TraceLoggingInterceptor {
+        
+        private final String methodName;
+        private final TraceSampler sampler;
+        private final TraceSink sink;
+        
+        Async(String methodName, TraceSampler sampler, TraceSink sink) {
+            this.methodName = methodName;
+            this.sampler = sampler;
+            this.sink = sink;
+        }
+        
+        @Override
+        public void invoke(Invocation invocation) throws Throwable {
+            // decided before anything is captured, so unsampled calls cost only the check
+            if (!logger.isDebugEnabled() || !sampler.sample()) {
+                try {
+                    invocation.invoke();
+                } catch (Throwable throwable) {
+                    sink.failure(methodName, TraceSink.UNTIMED, throwable);
+                    throw throwable;
+                }
+                return;
+            }
+            sink.enter(methodName, invocation.arguments());
+            long startTime = System.nanoTime();
+            try {
+                invocation.invoke();
+                sink.exit(methodName, System.nanoTime() - startTime);
+            } catch (Throwable throwable) {
+                sink.failure(methodName, System.nanoTime() - startTime, throwable);
+                throw throwable;
+            }
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,138 @@
+package com.example.demo.aspect;
+
+import com.example.demo.annotation.TraceLogged;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Decides which calls of one method are traced, following the sampling attributes of
+ * {@link TraceLogged}.
+ * <p>
+ * Calls pass, in order: the probability check ({@link ThreadLocalRandom}), the 1-in-N check
+ * (a per-thread countdown, stretched by the adaptive interval), and the per-second limit. Each
+ * thread's countdown starts at a random point of the interval, so threads that make only a few
+ * calls, such as the virtual thread of one mailbox drain, are still sampled 1 in N overall.
+ * Per-second state lives in one-second windows that the first call after a window ends rolls
+ * over with a CAS, so no call takes a lock; limits are enforced approximately around a roll.
+ * <p>
+ * In adaptive mode every call is counted, and each roll sets the interval to
+ * {@code ceil(expectedTraced / target)} for the rate observed in the window that ended.
+ */
+public final class TraceSampler {
+
+    private static final long WINDOW_NANOS = 1_000_000_000L;
+    static final int DEFAULT_ADAPTIVE_TARGET = 100;
+
+    private static final TraceSampler ALWAYS = new TraceSampler(1.0, 1, 0, false, System::nanoTime);
+
+    private final double probability;
+    private final int oneIn;
+    private final int maxPerSecond;
+    private final boolean adaptive;
+    private final LongSupplier nanoClock;
+    private final ThreadLocal<int[]> countdown = ThreadLocal.withInitial(this::startCountdown);
+
+    private final AtomicLong windowStart;
+    private final AtomicInteger tracedInWindow = new AtomicInteger();
+    private final LongAdder callsInWindow = new LongAdder();
+    private volatile int adaptiveInterval = 1;
+
+    TraceSampler(double probability, int oneIn, int maxPerSecond, boolean adaptive, LongSupplier nanoClock) {
+        if (probability < 0 || probability > 1) {
+            throw new IllegalArgumentException("probability must be between 0 and 1, was " + probability);
+        }
+        if (oneIn < 1 || maxPerSecond < 0) {
+            throw new IllegalArgumentException("oneIn must be at least 1 and maxPerSecond not negative");
+        }
+        this.probability = probability;
+        this.oneIn = oneIn;
+        this.maxPerSecond = maxPerSecond;
+        this.adaptive = adaptive;
+        this.nanoClock = nanoClock;
+        this.windowStart = new AtomicLong(nanoClock.getAsLong());
+    }
+
+    /**
+     * Sampler tracing every call.
+     */
+    public static TraceSampler always() {
+        return ALWAYS;
+    }
+
+    /**
+     * Sampler for the given annotation, {@link #always()} if it is null or has no sampling attributes.
+     */
+    public static TraceSampler of(TraceLogged annotation) {
+        if (annotation == null || (annotation.probability() >= 1.0 && annotation.oneIn() == 1
+                && annotation.maxPerSecond() == 0 && !annotation.adaptive())) {
+            return ALWAYS;
+        }
+        return new TraceSampler(annotation.probability(), annotation.oneIn(), annotation.maxPerSecond(),
+            annotation.adaptive(), System::nanoTime);
+    }
+
+    /**
+     * Decide whether the current call is traced.
+     */
+    public boolean sample() {
+        if (this == ALWAYS) {
+            return true;
+        }
+        if (adaptive) {
+            rollWindow();
+            callsInWindow.increment();
+        }
+        if (probability < 1.0 && ThreadLocalRandom.current().nextDouble() >= probability) {
+            return false;
+        }
+        int interval = oneIn * adaptiveInterval;
+        if (interval > 1) {
+            int[] remaining = countdown.get();
+            if (--remaining[0] > 0) {
+                return false;
+            }
+            remaining[0] = interval;
+        }
+        if (maxPerSecond == 0) {
+            return true;
+        }
+        if (!adaptive) {
+            rollWindow();
+        }
+        return tracedInWindow.incrementAndGet() <= maxPerSecond;
+    }
+
+    /**
+     * A new thread's countdown, at a random point of the current interval.
+     */
+    private int[] startCountdown() {
+        return new int[] {ThreadLocalRandom.current().nextInt(oneIn * adaptiveInterval) + 1};
+    }
+
+    private void rollWindow() {
+        long start = windowStart.get();
+        long now = nanoClock.getAsLong();
+        long elapsed = now - start;
+        if (elapsed < WINDOW_NANOS || !windowStart.compareAndSet(start, now)) {
+            return;
+        }
+        tracedInWindow.set(0);
+        if (adaptive) {
+            double callsPerSecond = callsInWindow.sumThenReset() * (double) WINDOW_NANOS / elapsed;
+            int target = maxPerSecond > 0 ? maxPerSecond : DEFAULT_ADAPTIVE_TARGET;
+            double expectedTraced = callsPerSecond * probability / oneIn;
+            adaptiveInterval = (int) Math.max(1, Math.min(Integer.MAX_VALUE / oneIn, Math.ceil(expectedTraced / target)));
+        }
+    }
+
+    /**
+     * Current adaptive interval: 1 when not adaptive or not throttling.
+     */
+    int adaptiveInterval() {
+        return adaptiveInterval;
+    }
+}
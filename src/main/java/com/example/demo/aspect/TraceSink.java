@@ -0,0 +1,310 @@
+package com.example.demo.aspect;
+
+import com.example.demo.MutableDemoEvent;
+import com.example.demo.dispatch.RingBuffer;
+import com.example.demo.dispatch.RingBuffer.ProducerType;
+import com.example.demo.dispatch.RingConsumer;
+import com.example.demo.dispatch.SlotHandler;
+import com.example.demo.dispatch.WaitStrategy;
+import com.example.demo.metrics.MetricsSource;
+import com.example.demo.metrics.MetricsWriter;
+import io.avaje.inject.PreDestroy;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Asynchronous sink for trace records produced by {@link TraceLoggingInterceptor}.
+ * <p>
+ * Traced threads only copy references and primitives into a preallocated ring slot: the method
+ * name, the argument references, and for the first collection argument its size and first
+ * {@link TraceLoggingInterceptor#MAX_FORMATTED_ITEMS} elements (the collection itself may be
+ * reused once the call returns). Borrowed {@link MutableDemoEvent}s are never referenced, since
+ * they are overwritten after the call. A background thread formats the records and writes each
+ * run of available records as one log statement.
+ * <p>
+ * Configured with {@code -Ddemo.trace.ringSize} (default 4096) and {@code -Ddemo.trace.overflow}:
+ * {@code drop} (default) discards records while the ring is full and counts them,
+ * {@code block} makes traced threads wait for space.
+ */
+@Singleton
+public class TraceSink implements MetricsSource, AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(TraceLoggingInterceptor.class);
+
+    static final int DEFAULT_RING_SIZE = 4096;
+    /**
+     * Duration passed for failures of calls that were not timed.
+     */
+    static final long UNTIMED = -1;
+    private static final int MAX_RECORDS_PER_WRITE = 256;
+    private static final long CLOSE_TIMEOUT_MILLIS = 5_000;
+    private static final Object BORROWED = new Object() {
+        @Override
+        public String toString() {
+            return "<borrowed event>";
+        }
+    };
+
+    /**
+     * What traced threads do when the ring is full.
+     */
+    public enum OverflowPolicy {
+        DROP, BLOCK
+    }
+
+    private final RingBuffer<TraceRecord> ringBuffer;
+    private final RingConsumer<TraceRecord> consumer;
+    private final Thread thread;
+    private final OverflowPolicy overflowPolicy;
+    private final LongAdder dropped = new LongAdder();
+
+    @Inject
+    public TraceSink() {
+        this(Integer.getInteger("demo.trace.ringSize", DEFAULT_RING_SIZE),
+            OverflowPolicy.valueOf(System.getProperty("demo.trace.overflow", "drop").toUpperCase(Locale.ROOT)));
+    }
+
+    public TraceSink(int ringSize, OverflowPolicy overflowPolicy) {
+        this(ringSize, overflowPolicy, logger::debug);
+    }
+
+    /**
+     * @param output receives each formatted run of successful entry and exit records
+     */
+    TraceSink(int ringSize, OverflowPolicy overflowPolicy, Consumer<String> output) {
+        this.overflowPolicy = overflowPolicy;
+        this.ringBuffer = RingBuffer.create(ProducerType.MULTI, TraceRecord::new, ringSize, WaitStrategy.blocking());
+        this.consumer = new RingConsumer<>(ringBuffer, new Writer(output));
+        ringBuffer.addGatingSequences(consumer.sequence());
+        this.thread = new Thread(consumer, "trace-sink");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    void enter(String method, Object[] args) {
+        TraceRecord record = claim();
+        if (record != null) {
+            record.captureEntry(method, args);
+            ringBuffer.publish(record.sequence);
+        }
+    }
+
+    void exit(String method, long nanos) {
+        TraceRecord record = claim();
+        if (record != null) {
+            record.captureExit(method, nanos, null);
+            ringBuffer.publish(record.sequence);
+        }
+    }
+
+    void failure(String method, long nanos, Throwable throwable) {
+        TraceRecord record = claim();
+        if (record != null) {
+            record.captureExit(method, nanos, throwable);
+            ringBuffer.publish(record.sequence);
+        }
+    }
+
+    private TraceRecord claim() {
+        long sequence = overflowPolicy == OverflowPolicy.BLOCK ? ringBuffer.next() : ringBuffer.tryNext();
+        if (sequence < 0) {
+            dropped.increment();
+            return null;
+        }
+        TraceRecord record = ringBuffer.get(sequence);
+        record.sequence = sequence;
+        return record;
+    }
+
+    /**
+     * Number of records discarded because the ring was full.
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * Number of records waiting to be written.
+     */
+    public long getPendingCount() {
+        return ringBuffer.pending();
+    }
+
+    @Override
+    public void collect(MetricsWriter writer) {
+        writer.family("demo_trace_dropped", "counter", "Trace records dropped because the trace ring was full");
+        writer.name("demo_trace_dropped_total").value(dropped.sum());
+        writer.family("demo_trace_pending", "gauge", "Trace records waiting to be written");
+        writer.name("demo_trace_pending").value(ringBuffer.pending());
+    }
+
+    /**
+     * Write the records published so far and stop the background thread.
+     */
+    @Override
+    @PreDestroy
+    public void close() {
+        consumer.halt(ringBuffer.cursor().get());
+        try {
+            thread.join(CLOSE_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Preallocated ring slot. Written by one traced thread between claim and publish,
+     * read and cleared by the sink thread.
+     */
+    static final class TraceRecord {
+        long sequence;
+        boolean entry;
+        String method;
+        long nanos;
+        Throwable throwable;
+        final Object[] args = new Object[TraceLoggingInterceptor.MAX_FORMATTED_ITEMS];
+        int argCount;
+        int collectionArg = -1;
+        int collectionSize;
+        final Object[] elements = new Object[TraceLoggingInterceptor.MAX_FORMATTED_ITEMS];
+        int elementCount;
+
+        void captureEntry(String method, Object[] arguments) {
+            this.entry = true;
+            this.method = method;
+            this.throwable = null;
+            this.collectionArg = -1;
+            this.elementCount = 0;
+            int count = arguments == null ? 0 : arguments.length;
+            this.argCount = count;
+            for (int i = 0, n = Math.min(count, args.length); i < n; i++) {
+                Object arg = arguments[i];
+                if (arg instanceof MutableDemoEvent) {
+                    args[i] = BORROWED;
+                } else if (arg instanceof Collection && collectionArg < 0) {
+                    captureElements(i, (Collection<?>) arg);
+                    args[i] = null;
+                } else {
+                    args[i] = arg;
+                }
+            }
+        }
+
+        private void captureElements(int index, Collection<?> collection) {
+            collectionArg = index;
+            collectionSize = collection.size();
+            Iterator<?> it = collection.iterator();
+            while (it.hasNext() && elementCount < elements.length) {
+                Object element = it.next();
+                elements[elementCount++] = element instanceof MutableDemoEvent ? BORROWED : element;
+            }
+        }
+
+        void captureExit(String method, long nanos, Throwable throwable) {
+            this.entry = false;
+            this.method = method;
+            this.nanos = nanos;
+            this.throwable = throwable;
+            this.argCount = 0;
+            this.elementCount = 0;
+        }
+
+        void clear() {
+            method = null;
+            throwable = null;
+            Arrays.fill(args, null);
+            Arrays.fill(elements, 0, elementCount, null);
+        }
+    }
+
+    /**
+     * Formats records on the sink thread and writes each run of them as one log statement.
+     */
+    private static final class Writer implements SlotHandler<TraceRecord> {
+
+        private final StringBuilder batch = new StringBuilder(4096);
+        private final Consumer<String> output;
+        private int records;
+
+        Writer(Consumer<String> output) {
+            this.output = output;
+        }
+
+        @Override
+        public void onSlot(TraceRecord record, long sequence, boolean endOfBatch) {
+            try {
+                if (record.throwable != null) {
+                    flush();
+                    if (record.nanos == UNTIMED) {
+                        logger.warn("TRACE: Exiting {}() with exception: {}", record.method, record.throwable.getMessage());
+                    } else {
+                        logger.warn("TRACE: Exiting {}() with exception after {} ns: {}",
+                            record.method, record.nanos, record.throwable.getMessage());
+                    }
+                } else if (logger.isDebugEnabled()) {
+                    append(record);
+                }
+            } finally {
+                record.clear();
+            }
+            if (endOfBatch || records >= MAX_RECORDS_PER_WRITE) {
+                flush();
+            }
+        }
+
+        private void append(TraceRecord record) {
+            if (records++ > 0) {
+                batch.append(System.lineSeparator());
+            }
+            if (record.entry) {
+                batch.append("TRACE: Entering ").append(record.method).append("() with args: ");
+                formatCaptured(record);
+            } else {
+                batch.append("TRACE: Exiting ").append(record.method).append("() successfully in ")
+                    .append(record.nanos).append(" ns");
+            }
+        }
+
+        private void formatCaptured(TraceRecord record) {
+            batch.append('[');
+            int shown = Math.min(record.argCount, record.args.length);
+            for (int i = 0; i < shown; i++) {
+                if (i > 0) {
+                    batch.append(", ");
+                }
+                if (i == record.collectionArg) {
+                    batch.append('[');
+                    for (int e = 0; e < record.elementCount; e++) {
+                        if (e > 0) {
+                            batch.append(", ");
+                        }
+                        TraceLoggingInterceptor.appendValue(batch, record.elements[e]);
+                    }
+                    TraceLoggingInterceptor.appendRemainder(batch, record.collectionSize - record.elementCount);
+                    batch.append(']');
+                } else {
+                    TraceLoggingInterceptor.appendArg(batch, record.args[i]);
+                }
+            }
+            TraceLoggingInterceptor.appendRemainder(batch, record.argCount - shown);
+            batch.append(']');
+        }
+
+        private void flush() {
+            if (records > 0) {
+                output.accept(batch.toString());
+                batch.setLength(0);
+                records = 0;
+            }
+        }
+    }
+}
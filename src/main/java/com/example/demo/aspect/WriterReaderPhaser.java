@@ -0,0 +1,59 @@
+package com.example.demo.aspect;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Lets lock-free writers keep recording into whichever buffer is active while a reader swaps
+ * the buffers and waits until no writer is still using the old one (the HdrHistogram
+ * WriterReaderPhaser).
+ * <p>
+ * Writers wrap each update in {@link #writerCriticalSectionEnter()} and
+ * {@link #writerCriticalSectionExit(long)}, two atomic increments that never block. A reader
+ * holds {@link #readerLock()}, swaps the active buffer and then calls {@link #flipPhase()},
+ * which returns once every writer that could have seen the old buffer has left it.
+ */
+final class WriterReaderPhaser {
+
+    private final AtomicLong startEpoch = new AtomicLong(0);
+    private final AtomicLong evenEndEpoch = new AtomicLong(0);
+    private final AtomicLong oddEndEpoch = new AtomicLong(Long.MIN_VALUE);
+    private final ReentrantLock readerLock = new ReentrantLock();
+
+    /**
+     * @return a token to pass to {@link #writerCriticalSectionExit(long)}
+     */
+    long writerCriticalSectionEnter() {
+        return startEpoch.getAndIncrement();
+    }
+
+    void writerCriticalSectionExit(long token) {
+        (token < 0 ? oddEndEpoch : evenEndEpoch).getAndIncrement();
+    }
+
+    void readerLock() {
+        readerLock.lock();
+    }
+
+    void readerUnlock() {
+        readerLock.unlock();
+    }
+
+    /**
+     * Start a new phase and wait for writers of the previous phase to finish.
+     * Must be called while holding the reader lock.
+     */
+    void flipPhase() {
+        if (!readerLock.isHeldByCurrentThread()) {
+            throw new IllegalStateException("flipPhase() requires the reader lock");
+        }
+        boolean nextPhaseIsEven = startEpoch.get() < 0;
+        long initialStartValue = nextPhaseIsEven ? 0 : Long.MIN_VALUE;
+        (nextPhaseIsEven ? evenEndEpoch : oddEndEpoch).set(initialStartValue);
+        long startValueAtFlip = startEpoch.getAndSet(initialStartValue);
+        AtomicLong previousEndEpoch = nextPhaseIsEven ? oddEndEpoch : evenEndEpoch;
+        while (previousEndEpoch.get() != startValueAtFlip) {
+            Thread.yield();
+        }
+    }
+}
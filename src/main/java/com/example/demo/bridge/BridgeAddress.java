@@ -0,0 +1,61 @@
+package com.example.demo.bridge;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.StandardSocketOptions;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+
+/**
+ * Parses bridge addresses and opens channels for them: {@code host:port} for TCP and
+ * {@code unix:/path/to/socket} for a Unix domain socket.
+ */
+public final class BridgeAddress {
+
+    private static final String UNIX_PREFIX = "unix:";
+
+    private BridgeAddress() {
+    }
+
+    /**
+     * @throws IllegalArgumentException if the address is neither {@code host:port} nor {@code unix:path}
+     */
+    public static SocketAddress parse(String address) {
+        if (address.startsWith(UNIX_PREFIX)) {
+            return UnixDomainSocketAddress.of(address.substring(UNIX_PREFIX.length()));
+        }
+        int colon = address.lastIndexOf(':');
+        if (colon < 0) {
+            throw new IllegalArgumentException("Expected host:port or unix:path, was " + address);
+        }
+        return new InetSocketAddress(address.substring(0, colon), Integer.parseInt(address.substring(colon + 1)));
+    }
+
+    /**
+     * Connect a blocking channel. Nagle's algorithm is disabled on TCP, since the sender batches itself.
+     */
+    static SocketChannel connect(SocketAddress address) throws IOException {
+        if (address instanceof UnixDomainSocketAddress) {
+            SocketChannel channel = SocketChannel.open(StandardProtocolFamily.UNIX);
+            channel.connect(address);
+            return channel;
+        }
+        SocketChannel channel = SocketChannel.open(address);
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        return channel;
+    }
+
+    /**
+     * Open a server channel bound to the address.
+     */
+    static ServerSocketChannel bind(SocketAddress address) throws IOException {
+        ServerSocketChannel channel = address instanceof UnixDomainSocketAddress
+            ? ServerSocketChannel.open(StandardProtocolFamily.UNIX)
+            : ServerSocketChannel.open();
+        channel.bind(address);
+        return channel;
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.demo.bridge;
+
+import com.example.demo.EventListener;
+import io.avaje.inject.Bean;
+import io.avaje.inject.Factory;
+import io.avaje.inject.RequiresProperty;
+
+import java.io.IOException;
+
+/**
+ * Wires the optional cross-process event bridge. Addresses are {@code host:port} or
+ * {@code unix:/path/to/socket}.
+ * <ul>
+ *   <li>{@code demo.bridge.listen} - accept bridged events into the local {@link EventListener}</li>
+ *   <li>{@code demo.bridge.connect} - forward every dispatched event to the bridge server there</li>
+ *   <li>{@code demo.bridge.maxFrameBytes} - frame body size (default 64 KB)</li>
+ *   <li>{@code demo.bridge.maxDelayMicros} - longest an event waits to share a frame (default 1000)</li>
+ *   <li>{@code demo.bridge.queueSize} - events queued by the sender before producers block (default 8192)</li>
+ *   <li>{@code demo.bridge.window} - frames in flight per connection (default 16)</li>
+ * </ul>
+ */
+@Factory
+public class BridgeFactory {
+
+    static final int DEFAULT_MAX_FRAME_BYTES = 64 * 1024;
+    static final long DEFAULT_MAX_DELAY_MICROS = 1_000;
+    static final int DEFAULT_QUEUE_SIZE = 8192;
+    static final int DEFAULT_WINDOW = 16;
+
+    @Bean(destroyMethod = "close")
+    @RequiresProperty("demo.bridge.listen")
+    BridgeServer bridgeServer(EventListener listener) throws IOException {
+        return BridgeServer.bind(
+            BridgeAddress.parse(System.getProperty("demo.bridge.listen")),
+            listener,
+            Integer.getInteger("demo.bridge.maxFrameBytes", DEFAULT_MAX_FRAME_BYTES),
+            Integer.getInteger("demo.bridge.window", DEFAULT_WINDOW));
+    }
+
+    /**
+     * The sender is an event handler bean, so the subscription registry delivers every event to it.
+     */
+    @Bean(destroyMethod = "close")
+    @RequiresProperty("demo.bridge.connect")
+    BridgeSender bridgeSender() throws IOException {
+        return BridgeSender.connect(
+            BridgeAddress.parse(System.getProperty("demo.bridge.connect")),
+            Integer.getInteger("demo.bridge.maxFrameBytes", DEFAULT_MAX_FRAME_BYTES),
+            Long.getLong("demo.bridge.maxDelayMicros", DEFAULT_MAX_DELAY_MICROS),
+            Integer.getInteger("demo.bridge.queueSize", DEFAULT_QUEUE_SIZE));
+    }
+}
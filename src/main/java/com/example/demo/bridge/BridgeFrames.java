@@ -0,0 +1,24 @@
+package com.example.demo.bridge;
+
+/**
+ * Wire format of the event bridge.
+ * <p>
+ * The sender writes frames, each a header followed by events encoded back to back with
+ * {@link com.example.demo.codec.EventCodec}, all big-endian:
+ * <pre>
+ *   int  body length in bytes
+ *   int  number of events
+ *   byte[] body
+ * </pre>
+ * The receiver writes credits, each a single {@code int} number of further frames the sender
+ * may write. It grants its whole window when a connection is accepted and one credit per frame
+ * it has delivered, so at most a window of frames is ever buffered in flight.
+ */
+final class BridgeFrames {
+
+    static final int HEADER_SIZE = 2 * Integer.BYTES;
+    static final int CREDIT_SIZE = Integer.BYTES;
+
+    private BridgeFrames() {
+    }
+}
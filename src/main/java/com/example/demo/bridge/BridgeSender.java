@@ -0,0 +1,279 @@
+package com.example.demo.bridge;
+
+import com.example.demo.DemoEvent;
+import com.example.demo.EventHandler;
+import com.example.demo.codec.EventCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousCloseException;
+import java.nio.channels.SocketChannel;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sending side of the event bridge: an {@link EventHandler} that forwards every event it
+ * receives to a {@link BridgeServer} in another process, over TCP or a Unix domain socket.
+ * <p>
+ * Events are queued and a writer thread packs them into frames (see {@link BridgeFrames}). A
+ * frame is written once it is full or once its first event has waited {@code maxDelayMicros},
+ * so a burst goes out in few large writes while a lone event is still sent promptly. The header
+ * and body are direct buffers written together with one gathering write.
+ * <p>
+ * The writer only writes a frame while it holds a credit from the receiver. Without credits the
+ * queue fills, and once it is full {@link #onEvent} blocks, which carries the receiver's pace
+ * back to the producer. A connection failure is not retried: the events still queued and every
+ * later one are dropped and counted in {@link #getEventsDropped()}. The sender never throws from
+ * {@link #onEvent}, so a dead receiver cannot break the local fan-out it is subscribed to.
+ */
+public class BridgeSender implements EventHandler<DemoEvent>, AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(BridgeSender.class);
+
+    private static final long POLL_MILLIS = 100;
+    private static final long CLOSE_TIMEOUT_MILLIS = 5_000;
+
+    private final SocketChannel channel;
+    private final BlockingQueue<DemoEvent> queue;
+    private final long maxDelayNanos;
+    private final ByteBuffer header = ByteBuffer.allocateDirect(BridgeFrames.HEADER_SIZE);
+    private final ByteBuffer[] frame = new ByteBuffer[2];
+    private final ByteBuffer body;
+    private final Semaphore credits = new Semaphore(0);
+    private final LongAdder framesSent = new LongAdder();
+    private final LongAdder eventsSent = new LongAdder();
+    private final LongAdder eventsDropped = new LongAdder();
+    private final Thread writer;
+    private final Thread creditReader;
+    // event that did not fit into the previous frame; writer thread only
+    private DemoEvent carried;
+    // events packed into the frame being written; writer thread only
+    private int packed;
+    private volatile boolean closed;
+    private volatile Throwable failure;
+
+    /**
+     * Connect to a bridge server.
+     *
+     * @param maxFrameBytes body size of a frame; a larger event is sent in a frame of its own
+     * @param maxDelayMicros longest an event waits for more events to share its frame
+     * @param queueCapacity events queued before {@link #onEvent} blocks
+     */
+    public static BridgeSender connect(SocketAddress address, int maxFrameBytes, long maxDelayMicros,
+                                       int queueCapacity) throws IOException {
+        return new BridgeSender(BridgeAddress.connect(address), maxFrameBytes, maxDelayMicros, queueCapacity);
+    }
+
+    BridgeSender(SocketChannel channel, int maxFrameBytes, long maxDelayMicros, int queueCapacity) {
+        if (maxFrameBytes < EventCodec.HEADER_SIZE) {
+            throw new IllegalArgumentException("maxFrameBytes must be at least " + EventCodec.HEADER_SIZE + ", was " + maxFrameBytes);
+        }
+        this.channel = channel;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.maxDelayNanos = TimeUnit.MICROSECONDS.toNanos(maxDelayMicros);
+        this.body = ByteBuffer.allocateDirect(maxFrameBytes);
+        this.writer = new Thread(this::writeFrames, "event-bridge-writer");
+        this.writer.setDaemon(true);
+        this.creditReader = new Thread(this::readCredits, "event-bridge-credits");
+        this.creditReader.setDaemon(true);
+        creditReader.start();
+        writer.start();
+    }
+
+    /**
+     * Queue the event, waiting while the queue is full. The event is dropped if the sender is
+     * closed or its connection has failed, or if the caller is interrupted while waiting.
+     */
+    @Override
+    public void onEvent(DemoEvent event) {
+        try {
+            while (failure == null && !closed) {
+                if (queue.offer(event, POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                    if (failure != null) {
+                        // queued after the failure emptied the queue; nothing will send it
+                        dropQueued();
+                    }
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        eventsDropped.increment();
+    }
+
+    private void dropQueued() {
+        while (queue.poll() != null) {
+            eventsDropped.increment();
+        }
+    }
+
+    /**
+     * Queue a batch, which may be spread over several frames or share one with other events.
+     */
+    @Override
+    public void onEvents(List<? extends DemoEvent> events) {
+        for (DemoEvent event : events) {
+            onEvent(event);
+        }
+    }
+
+    public long getFramesSent() {
+        return framesSent.sum();
+    }
+
+    public long getEventsSent() {
+        return eventsSent.sum();
+    }
+
+    /**
+     * Events not sent because the connection failed or the sender was closed first.
+     */
+    public long getEventsDropped() {
+        return eventsDropped.sum();
+    }
+
+    private void writeFrames() {
+        try {
+            while (true) {
+                DemoEvent first = carried != null ? carried : queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                carried = null;
+                if (first == null) {
+                    if (closed) {
+                        return;
+                    }
+                    continue;
+                }
+                writeFrame(first);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException | RuntimeException e) {
+            fail(e);
+        } finally {
+            eventsDropped.add(packed + (carried != null ? 1 : 0));
+        }
+    }
+
+    /**
+     * Fill a frame starting with {@code first} and write it once a credit is available.
+     */
+    private void writeFrame(DemoEvent first) throws IOException, InterruptedException {
+        ByteBuffer target = body;
+        int firstSize = EventCodec.encodedSize(first);
+        if (firstSize > body.capacity()) {
+            target = ByteBuffer.allocateDirect(firstSize);
+        }
+        // the absolute puts below are bounded by the limit left over from the previous frame
+        target.clear();
+        int size = EventCodec.encode(first, target, 0);
+        int count = 1;
+        packed = count;
+        long deadline = System.nanoTime() + maxDelayNanos;
+        while (target == body) {
+            DemoEvent next = queue.poll();
+            if (next == null) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0 || closed) {
+                    break;
+                }
+                next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                if (next == null) {
+                    break;
+                }
+            }
+            if (EventCodec.encodedSize(next) > body.capacity() - size) {
+                carried = next;
+                break;
+            }
+            size += EventCodec.encode(next, body, size);
+            packed = ++count;
+        }
+        credits.acquire();
+        header.clear();
+        header.putInt(size).putInt(count).flip();
+        target.limit(size);
+        frame[0] = header;
+        frame[1] = target;
+        while (target.hasRemaining()) {
+            channel.write(frame);
+        }
+        packed = 0;
+        framesSent.increment();
+        eventsSent.add(count);
+    }
+
+    private void readCredits() {
+        ByteBuffer buffer = ByteBuffer.allocate(BridgeFrames.CREDIT_SIZE);
+        try {
+            while (true) {
+                buffer.clear();
+                while (buffer.hasRemaining()) {
+                    if (channel.read(buffer) < 0) {
+                        if (!closed) {
+                            fail(new IOException("Bridge server closed the connection"));
+                        }
+                        return;
+                    }
+                }
+                credits.release(buffer.getInt(0));
+            }
+        } catch (AsynchronousCloseException e) {
+            // closed by close()
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    private void fail(Throwable cause) {
+        if (failure == null) {
+            failure = cause;
+            logger.warn("Bridge connection failed, {} queued events dropped", queue.size(), cause);
+        }
+        // wake the writer if it waits for credits that will never come
+        writer.interrupt();
+        dropQueued();
+    }
+
+    /**
+     * Stop accepting events, send everything queued and close the connection. Events still
+     * queued after the timeout, or while the receiver grants no credits, are dropped. Once it
+     * returns, the sent and dropped counts cover every event queued before the call.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            writer.join(CLOSE_TIMEOUT_MILLIS);
+            if (writer.isAlive()) {
+                logger.warn("Closing bridge with {} events unsent", queue.size());
+                writer.interrupt();
+                dropQueued();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                logger.warn("Failed to close bridge connection", e);
+            }
+        }
+        try {
+            // a failure seen by the credit reader may still be dropping queued events
+            creditReader.join(CLOSE_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,273 @@
+package com.example.demo.bridge;
+
+import com.example.demo.DemoEvent;
+import com.example.demo.EventHandler;
+import com.example.demo.codec.EventCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Receiving side of the event bridge: accepts {@link BridgeSender} connections, decodes their
+ * frames (see {@link BridgeFrames}) and hands each frame's events to the local handler as one
+ * {@link EventHandler#onEvents} batch.
+ * <p>
+ * One selector thread serves every connection with non-blocking reads into a direct buffer per
+ * connection. A connection is granted {@code window} credits when accepted and one more for
+ * every frame delivered, so a slow handler holds senders back instead of letting frames pile
+ * up. Events from one connection are delivered in the order they were sent.
+ */
+public class BridgeServer implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(BridgeServer.class);
+
+    static final int MAX_FRAME_BYTES = 256 * 1024 * 1024;
+
+    private final ServerSocketChannel server;
+    private final Selector selector;
+    private final EventHandler<DemoEvent> handler;
+    private final int maxFrameBytes;
+    private final int window;
+    private final LongAdder framesReceived = new LongAdder();
+    private final LongAdder eventsReceived = new LongAdder();
+    private final Thread thread;
+    private volatile boolean closed;
+
+    /**
+     * Bind to the address and start serving.
+     *
+     * @param maxFrameBytes frame body size the read buffer of a connection is sized for; a larger
+     *                      frame, sent for a single large event, grows it
+     * @param window frames a connection may have in flight
+     */
+    public static BridgeServer bind(SocketAddress address, EventHandler<DemoEvent> handler, int maxFrameBytes,
+                                    int window) throws IOException {
+        return new BridgeServer(BridgeAddress.bind(address), handler, maxFrameBytes, window);
+    }
+
+    BridgeServer(ServerSocketChannel server, EventHandler<DemoEvent> handler, int maxFrameBytes, int window)
+        throws IOException {
+        if (window < 1) {
+            throw new IllegalArgumentException("window must be at least 1, was " + window);
+        }
+        this.server = server;
+        this.handler = handler;
+        this.maxFrameBytes = maxFrameBytes;
+        this.window = window;
+        this.selector = Selector.open();
+        server.configureBlocking(false);
+        server.register(selector, SelectionKey.OP_ACCEPT);
+        this.thread = new Thread(this::serve, "event-bridge-server");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Address the server is bound to, with the actual port when bound to port 0.
+     */
+    public SocketAddress localAddress() throws IOException {
+        return server.getLocalAddress();
+    }
+
+    public long getFramesReceived() {
+        return framesReceived.sum();
+    }
+
+    public long getEventsReceived() {
+        return eventsReceived.sum();
+    }
+
+    private void serve() {
+        try {
+            while (!closed) {
+                selector.select(TimeUnit.SECONDS.toMillis(1));
+                for (SelectionKey key : selector.selectedKeys()) {
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept();
+                    } else {
+                        ((Connection) key.attachment()).onReady(key);
+                    }
+                }
+                selector.selectedKeys().clear();
+            }
+        } catch (IOException e) {
+            if (!closed) {
+                logger.error("Bridge server stopped", e);
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel = server.accept();
+        if (channel == null) {
+            return;
+        }
+        channel.configureBlocking(false);
+        Connection connection = new Connection(channel);
+        SelectionKey key = channel.register(selector, SelectionKey.OP_READ, connection);
+        connection.grant(key, window);
+    }
+
+    /**
+     * Stop serving and close every connection. Frames not yet read are lost; senders see the
+     * connection close.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        selector.wakeup();
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            SocketAddress address = server.getLocalAddress();
+            // includes the server channel
+            for (SelectionKey key : selector.keys()) {
+                key.channel().close();
+            }
+            selector.close();
+            if (address instanceof UnixDomainSocketAddress) {
+                Files.deleteIfExists(((UnixDomainSocketAddress) address).getPath());
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to close bridge server", e);
+        }
+    }
+
+    /**
+     * Read state of one sender connection. Only used on the selector thread.
+     */
+    private final class Connection {
+
+        private final SocketChannel channel;
+        // the credit frame being written, empty once sent
+        private final ByteBuffer credits = ByteBuffer.allocate(BridgeFrames.CREDIT_SIZE).flip();
+        // credits granted since the last frame was started, sent together in the next one
+        private int pendingCredits;
+        private final List<DemoEvent> batch = new ArrayList<>();
+        private ByteBuffer input = ByteBuffer.allocateDirect(BridgeFrames.HEADER_SIZE + maxFrameBytes);
+
+        Connection(SocketChannel channel) {
+            this.channel = channel;
+        }
+
+        void onReady(SelectionKey key) {
+            try {
+                if (key.isWritable()) {
+                    flushCredits(key);
+                }
+                if (key.isReadable()) {
+                    read(key);
+                }
+            } catch (IOException | RuntimeException e) {
+                logger.warn("Closing bridge connection {}", channel, e);
+                close(key);
+            }
+        }
+
+        private void read(SelectionKey key) throws IOException {
+            if (channel.read(input) < 0) {
+                close(key);
+                return;
+            }
+            int frames = 0;
+            int position = 0;
+            while (input.position() - position >= BridgeFrames.HEADER_SIZE) {
+                int size = input.getInt(position);
+                int count = input.getInt(position + Integer.BYTES);
+                if (size < 0 || size > MAX_FRAME_BYTES || count < 0) {
+                    throw new IOException("Bad frame header: " + size + " bytes, " + count + " events");
+                }
+                int end = position + BridgeFrames.HEADER_SIZE + size;
+                if (input.position() < end) {
+                    break;
+                }
+                deliver(position + BridgeFrames.HEADER_SIZE, count);
+                position = end;
+                frames++;
+            }
+            // move the partial frame to the front
+            input.limit(input.position()).position(position);
+            input.compact();
+            if (input.position() >= BridgeFrames.HEADER_SIZE) {
+                // a single event larger than a frame arrives as a frame of its own; make room for it
+                int needed = BridgeFrames.HEADER_SIZE + input.getInt(0);
+                if (needed > input.capacity()) {
+                    input = ByteBuffer.allocateDirect(needed).put(input.flip());
+                }
+            }
+            if (frames > 0) {
+                grant(key, frames);
+            }
+        }
+
+        private void deliver(int offset, int count) {
+            int index = offset;
+            for (int i = 0; i < count; i++) {
+                batch.add(EventCodec.decode(input, index));
+                index += EventCodec.sizeAt(input, index);
+            }
+            try {
+                handler.onEvents(batch);
+            } catch (RuntimeException e) {
+                logger.warn("Bridge handler failed on {} events", count, e);
+            } finally {
+                batch.clear();
+            }
+            framesReceived.increment();
+            eventsReceived.add(count);
+        }
+
+        void grant(SelectionKey key, int frames) throws IOException {
+            pendingCredits += frames;
+            flushCredits(key);
+        }
+
+        /**
+         * Write the credit frame in progress, starting a new one from the pending credits once
+         * the last has been written in full.
+         */
+        private void flushCredits(SelectionKey key) throws IOException {
+            if (!credits.hasRemaining() && pendingCredits > 0) {
+                credits.clear().putInt(pendingCredits).flip();
+                pendingCredits = 0;
+            }
+            if (credits.hasRemaining()) {
+                channel.write(credits);
+            }
+            key.interestOps(credits.hasRemaining() || pendingCredits > 0
+                ? SelectionKey.OP_READ | SelectionKey.OP_WRITE
+                : SelectionKey.OP_READ);
+        }
+
+        private void close(SelectionKey key) {
+            key.cancel();
+            try {
+                channel.close();
+            } catch (IOException e) {
+                logger.debug("Failed to close bridge connection", e);
+            }
+        }
+    }
+}
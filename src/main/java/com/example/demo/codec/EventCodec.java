@@ -0,0 +1,161 @@
+package com.example.demo.codec;
+
+import com.example.demo.DemoEvent;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Compact binary encoding of a {@link DemoEvent} body, shared by the journal and the network
+ * bridge. All multi-byte values use the byte order of the target buffer.
+ * <pre>
+ *   long  timestamp
+ *   int   message length in UTF-8 bytes, -1 for a null message
+ *   int   partition key length in UTF-8 bytes, -1 for no key
+ *   byte[] message (UTF-8)
+ *   byte[] partition key (UTF-8)
+ * </pre>
+ * Encoding writes with absolute puts straight from the message characters, so it never
+ * allocates. Decoding creates the event (and its message string).
+ */
+public final class EventCodec {
+
+    /**
+     * Size of the fixed part of an encoded event.
+     */
+    public static final int HEADER_SIZE = Long.BYTES + 2 * Integer.BYTES;
+
+    private static final int MESSAGE_LENGTH = Long.BYTES;
+    private static final int KEY_LENGTH = MESSAGE_LENGTH + Integer.BYTES;
+
+    private EventCodec() {
+    }
+
+    /**
+     * Number of bytes {@link #encode} writes for the given event.
+     */
+    public static int encodedSize(DemoEvent event) {
+        return HEADER_SIZE + utf8Length(event.getMessage()) + utf8Length(event.getPartitionKey());
+    }
+
+    /**
+     * Encode the event at the given absolute index.
+     *
+     * @return number of bytes written
+     */
+    public static int encode(DemoEvent event, ByteBuffer buffer, int index) {
+        buffer.putLong(index, event.getTimestamp());
+        int size = HEADER_SIZE;
+        size += encodeString(event.getMessage(), buffer, index + MESSAGE_LENGTH, index + size);
+        size += encodeString(event.getPartitionKey(), buffer, index + KEY_LENGTH, index + size);
+        return size;
+    }
+
+    /**
+     * Write a string's UTF-8 bytes at {@code index} and its length, -1 for null, at {@code lengthIndex}.
+     *
+     * @return number of bytes written at {@code index}
+     */
+    private static int encodeString(String value, ByteBuffer buffer, int lengthIndex, int index) {
+        if (value == null) {
+            buffer.putInt(lengthIndex, -1);
+            return 0;
+        }
+        int length = encodeUtf8(value, buffer, index);
+        buffer.putInt(lengthIndex, length);
+        return length;
+    }
+
+    /**
+     * Decode an event written by {@link #encode} at the given absolute index.
+     */
+    public static DemoEvent decode(ByteBuffer buffer, int index) {
+        long timestamp = buffer.getLong(index);
+        int messageLength = buffer.getInt(index + MESSAGE_LENGTH);
+        int keyLength = buffer.getInt(index + KEY_LENGTH);
+        int messageIndex = index + HEADER_SIZE;
+        String message = messageLength < 0 ? null : decodeUtf8(buffer, messageIndex, messageLength);
+        String partitionKey = keyLength < 0 ? null
+            : decodeUtf8(buffer, messageIndex + Math.max(0, messageLength), keyLength);
+        return new DemoEvent(message, timestamp, partitionKey);
+    }
+
+    /**
+     * Number of bytes occupied by an encoded event at the given absolute index.
+     */
+    public static int sizeAt(ByteBuffer buffer, int index) {
+        return HEADER_SIZE + Math.max(0, buffer.getInt(index + MESSAGE_LENGTH))
+            + Math.max(0, buffer.getInt(index + KEY_LENGTH));
+    }
+
+    /**
+     * UTF-8 length of a character sequence, 0 for null.
+     */
+    public static int utf8Length(CharSequence value) {
+        if (value == null) {
+            return 0;
+        }
+        int length = 0;
+        for (int i = 0, n = value.length(); i < n; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isSurrogate(c)) {
+                if (Character.isHighSurrogate(c) && i + 1 < n && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    length += 4;
+                    i++;
+                } else {
+                    // unpaired surrogate, encoded as '?'
+                    length++;
+                }
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Encode characters as UTF-8 at the given absolute index. Unpaired surrogates are written as '?'.
+     *
+     * @return number of bytes written
+     */
+    public static int encodeUtf8(CharSequence value, ByteBuffer buffer, int index) {
+        int position = index;
+        for (int i = 0, n = value.length(); i < n; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                buffer.put(position++, (byte) c);
+            } else if (c < 0x800) {
+                buffer.put(position++, (byte) (0xC0 | (c >> 6)));
+                buffer.put(position++, (byte) (0x80 | (c & 0x3F)));
+            } else if (Character.isSurrogate(c)) {
+                if (Character.isHighSurrogate(c) && i + 1 < n && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                    buffer.put(position++, (byte) (0xF0 | (codePoint >> 18)));
+                    buffer.put(position++, (byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+                    buffer.put(position++, (byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+                    buffer.put(position++, (byte) (0x80 | (codePoint & 0x3F)));
+                } else {
+                    buffer.put(position++, (byte) '?');
+                }
+            } else {
+                buffer.put(position++, (byte) (0xE0 | (c >> 12)));
+                buffer.put(position++, (byte) (0x80 | ((c >> 6) & 0x3F)));
+                buffer.put(position++, (byte) (0x80 | (c & 0x3F)));
+            }
+        }
+        return position - index;
+    }
+
+    /**
+     * Decode UTF-8 bytes at the given absolute index into a string.
+     */
+    public static String decodeUtf8(ByteBuffer buffer, int index, int length) {
+        byte[] bytes = new byte[length];
+        buffer.get(index, bytes, 0, length);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
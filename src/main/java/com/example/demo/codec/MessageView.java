@@ -0,0 +1,152 @@
+package com.example.demo.codec;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reusable flyweight exposing UTF-8 message bytes held in a {@link ByteBuffer} as a
+ * {@link CharSequence}, without creating a {@link String}.
+ * <p>
+ * The view owns its buffer and is overwritten in place by {@link #set(CharSequence)} or
+ * {@link #setBytes(ByteBuffer, int, int)}. For ASCII content {@link #length()} and
+ * {@link #charAt(int)} read the bytes directly; other content is decoded on first character
+ * access. {@link #toString()} always creates a new string and is the way to keep a copy.
+ */
+public final class MessageView implements CharSequence {
+
+    private final ByteBuffer bytes;
+    private int length = -1;
+    private boolean ascii;
+    private String decoded;
+
+    /**
+     * Create a view with room for {@code capacity} message bytes.
+     */
+    public MessageView(int capacity) {
+        this.bytes = ByteBuffer.allocate(capacity);
+    }
+
+    /**
+     * Whether a message of the given UTF-8 length fits in the view.
+     */
+    public boolean fits(int utf8Length) {
+        return utf8Length <= bytes.capacity();
+    }
+
+    /**
+     * Copy the characters into the view as UTF-8. The caller must check {@link #fits(int)} first.
+     */
+    public void set(CharSequence message) {
+        decoded = null;
+        if (message == null) {
+            length = -1;
+            return;
+        }
+        length = EventCodec.encodeUtf8(message, bytes, 0);
+        ascii = length == message.length();
+    }
+
+    /**
+     * Copy UTF-8 bytes from the source buffer into the view. The caller must check {@link #fits(int)} first.
+     */
+    public void setBytes(ByteBuffer source, int index, int byteLength) {
+        decoded = null;
+        boolean allAscii = true;
+        for (int i = 0; i < byteLength; i++) {
+            byte b = source.get(index + i);
+            bytes.put(i, b);
+            allAscii &= b >= 0;
+        }
+        length = byteLength;
+        ascii = allAscii;
+    }
+
+    /**
+     * Whether the view holds a null message.
+     */
+    public boolean isNull() {
+        return length < 0;
+    }
+
+    /**
+     * Length of the message in UTF-8 bytes, -1 for a null message.
+     */
+    public int byteLength() {
+        return length;
+    }
+
+    /**
+     * Copy the message bytes to the target buffer at the given absolute index.
+     */
+    public void copyTo(ByteBuffer target, int index) {
+        for (int i = 0; i < length; i++) {
+            target.put(index + i, bytes.get(i));
+        }
+    }
+
+    /**
+     * Compare the message with a character sequence without decoding it.
+     */
+    public boolean contentEquals(CharSequence other) {
+        if (other == null || length < 0) {
+            return other == null && length < 0;
+        }
+        if (!ascii) {
+            return decoded().contentEquals(other);
+        }
+        if (other.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (bytes.get(i) != other.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int length() {
+        return ascii ? Math.max(length, 0) : decoded().length();
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (ascii) {
+            if (index < 0 || index >= length) {
+                throw new IndexOutOfBoundsException(index);
+            }
+            return (char) bytes.get(index);
+        }
+        return decoded().charAt(index);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return toString().subSequence(start, end);
+    }
+
+    private String decoded() {
+        if (decoded == null) {
+            decoded = length < 0 ? "" : EventCodec.decodeUtf8(bytes, 0, length);
+        }
+        return decoded;
+    }
+
+    /**
+     * Decode the message into a new string ("null" for a null message, as string concatenation would).
+     */
+    @Override
+    public String toString() {
+        if (length < 0) {
+            return "null";
+        }
+        return ascii ? new String(bytesCopy(), StandardCharsets.US_ASCII) : decoded();
+    }
+
+    private byte[] bytesCopy() {
+        byte[] copy = new byte[length];
+        bytes.get(0, copy, 0, length);
+        return copy;
+    }
+}
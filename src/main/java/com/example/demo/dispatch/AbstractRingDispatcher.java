@@ -0,0 +1,182 @@
+package com.example.demo.dispatch;
+
+import com.example.demo.dispatch.RingBuffer.ProducerType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Ring buffer, consumer threads and shutdown shared by the asynchronous dispatchers.
+ *
+ * @param <T> the preallocated slot type
+ */
+abstract class AbstractRingDispatcher<T> implements EventDispatcher, AutoCloseable {
+
+    private static final long CLOSE_TIMEOUT_MILLIS = 5_000;
+
+    final RingBuffer<T> ringBuffer;
+    final BackpressureStats backpressure;
+    private final List<RingConsumer<T>> consumers = new ArrayList<>();
+    private final List<Thread> threads = new ArrayList<>();
+    private volatile boolean closed;
+
+    /**
+     * @param slotHandlers creates the handler for each consumer thread
+     */
+    AbstractRingDispatcher(Supplier<T> slotFactory, int bufferSize, ProducerType producerType,
+                           WaitStrategy waitStrategy, int consumerThreads,
+                           Supplier<? extends SlotHandler<? super T>> slotHandlers) {
+        this(slotFactory, bufferSize, producerType, waitStrategy, consumerThreads, slotHandlers,
+            new BackpressureStats(), "event-dispatch-");
+    }
+
+    /**
+     * @param slotHandlers creates the handler for each consumer thread
+     * @param backpressure where to record waits on a full ring, possibly shared with other rings
+     * @param threadPrefix name prefix of the consumer threads
+     */
+    AbstractRingDispatcher(Supplier<T> slotFactory, int bufferSize, ProducerType producerType,
+                           WaitStrategy waitStrategy, int consumerThreads,
+                           Supplier<? extends SlotHandler<? super T>> slotHandlers,
+                           BackpressureStats backpressure, String threadPrefix) {
+        if (consumerThreads < 1) {
+            throw new IllegalArgumentException("consumerThreads must be at least 1, was " + consumerThreads);
+        }
+        this.backpressure = backpressure;
+        this.ringBuffer = RingBuffer.create(producerType, slotFactory, bufferSize, waitStrategy);
+        for (int i = 0; i < consumerThreads; i++) {
+            RingConsumer<T> consumer = new RingConsumer<>(ringBuffer, slotHandlers.get(), i, consumerThreads);
+            ringBuffer.addGatingSequences(consumer.sequence());
+            consumers.add(consumer);
+        }
+        for (int i = 0; i < consumerThreads; i++) {
+            Thread thread = new Thread(consumers.get(i), threadPrefix + i);
+            thread.setDaemon(true);
+            threads.add(thread);
+            thread.start();
+        }
+    }
+
+    /**
+     * @throws IllegalStateException if the dispatcher has been closed
+     */
+    final void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("Dispatcher is closed");
+        }
+    }
+
+    /**
+     * Claim the next slot, waiting while the ring is full.
+     */
+    final long claim() {
+        return claim(1);
+    }
+
+    /**
+     * Claim the next {@code n} slots, waiting while the ring is too full for them. Only a claim
+     * that has to wait is timed and recorded in the backpressure stats.
+     *
+     * @return the highest claimed sequence; the batch is {@code [returned - n + 1, returned]}
+     */
+    final long claim(int n) {
+        long sequence = ringBuffer.tryNext(n);
+        if (sequence < 0) {
+            long start = System.nanoTime();
+            sequence = ringBuffer.next(n);
+            backpressure.recordBlocked(System.nanoTime() - start);
+        }
+        updateHighWatermark(sequence);
+        return sequence;
+    }
+
+    /**
+     * Claim the next slot if one is free.
+     *
+     * @return the claimed sequence, or {@code -1} if the ring is full
+     */
+    final long tryClaim() {
+        long sequence = ringBuffer.tryNext();
+        if (sequence < 0) {
+            backpressure.recordRejected();
+        } else {
+            updateHighWatermark(sequence);
+        }
+        return sequence;
+    }
+
+    /**
+     * Record the depth of the ring up to a just claimed sequence: the slots claimed but not yet
+     * finished with by the slowest consumer.
+     */
+    private void updateHighWatermark(long claimed) {
+        backpressure.updateHighWatermark(claimed - deliveredSequence());
+    }
+
+    /**
+     * Highest sequence claimed so far; everything up to it is delivered once
+     * {@link #deliveredSequence()} reaches it.
+     */
+    final long claimedSequence() {
+        return ringBuffer.cursor().get();
+    }
+
+    /**
+     * Highest sequence every consumer has finished with.
+     */
+    final long deliveredSequence() {
+        long min = Long.MAX_VALUE;
+        for (RingConsumer<T> consumer : consumers) {
+            min = Math.min(min, consumer.sequence().get());
+        }
+        return min;
+    }
+
+    /**
+     * Number of events published but not yet delivered.
+     */
+    public long pending() {
+        return ringBuffer.pending();
+    }
+
+    public int bufferSize() {
+        return ringBuffer.bufferSize();
+    }
+
+    /**
+     * The ring always blocks when full, so only blocked time, refused non-blocking dispatches and
+     * the deepest the ring has been are recorded.
+     */
+    @Override
+    public BackpressureStats backpressure() {
+        return backpressure;
+    }
+
+    /**
+     * Stop accepting events, deliver everything already published and stop the consumer threads.
+     * Events dispatched concurrently with {@code close()} may not be delivered.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        long last = ringBuffer.cursor().get();
+        for (RingConsumer<T> consumer : consumers) {
+            consumer.halt(last);
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(CLOSE_TIMEOUT_MILLIS);
+        for (Thread thread : threads) {
+            try {
+                long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                thread.join(Math.max(1, remaining));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+}
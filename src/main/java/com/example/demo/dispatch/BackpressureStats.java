@@ -0,0 +1,94 @@
+package com.example.demo.dispatch;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Flow control counters of a dispatcher: events dropped by its overflow policy, non-blocking
+ * dispatches refused, events run on the producer's thread, time producers spent blocked and
+ * the deepest its queues have been.
+ * <p>
+ * Counters are only written when a queue is full, so they cost nothing on the normal path.
+ */
+public final class BackpressureStats {
+
+    /**
+     * Always-zero stats of dispatchers without a queue.
+     */
+    static final BackpressureStats NONE = new BackpressureStats();
+
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder callerRuns = new LongAdder();
+    private final LongAdder blocked = new LongAdder();
+    private final LongAdder blockedNanos = new LongAdder();
+    private final AtomicLong highWatermark = new AtomicLong();
+
+    void recordDrop() {
+        dropped.increment();
+    }
+
+    void recordRejected() {
+        rejected.increment();
+    }
+
+    void recordCallerRuns() {
+        callerRuns.increment();
+    }
+
+    void recordBlocked(long nanos) {
+        blocked.increment();
+        blockedNanos.add(nanos);
+    }
+
+    void updateHighWatermark(long depth) {
+        long current;
+        while (depth > (current = highWatermark.get())) {
+            if (highWatermark.compareAndSet(current, depth)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Events discarded by the overflow policy, including those that timed out while blocked.
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * Non-blocking dispatches refused because a queue was full.
+     */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    /**
+     * Events delivered on the producer's thread by the caller-runs policy.
+     */
+    public long getCallerRunsCount() {
+        return callerRuns.sum();
+    }
+
+    /**
+     * Dispatches that had to wait for room.
+     */
+    public long getBlockedCount() {
+        return blocked.sum();
+    }
+
+    /**
+     * Total time producers spent waiting for room.
+     */
+    public long getBlockedNanos() {
+        return blockedNanos.sum();
+    }
+
+    /**
+     * Deepest a single queue has been, in events.
+     */
+    public long getHighWatermark() {
+        return highWatermark.get();
+    }
+}
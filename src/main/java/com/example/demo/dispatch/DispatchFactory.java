@@ -0,0 +1,127 @@
+package com.example.demo.dispatch;
+
+import com.example.demo.DemoEvent;
+import com.example.demo.dispatch.RingBuffer.ProducerType;
+import io.avaje.inject.Bean;
+import io.avaje.inject.Factory;
+import io.avaje.inject.RequiresProperty;
+import io.avaje.inject.Secondary;
+
+import java.util.Locale;
+
+/**
+ * Wires the {@link EventDispatcher} used by the {@link com.example.demo.EventProducer}.
+ * Both dispatchers deliver to the {@link SubscriptionRegistry} publisher for {@link DemoEvent},
+ * which fans out to every subscribed handler.
+ * <p>
+ * The synchronous dispatcher is the default. Setting {@code demo.dispatch.mode=async} replaces
+ * it with a {@link RingBufferEventDispatcher}, tuned with:
+ * <ul>
+ *   <li>{@code demo.dispatch.ringSize} - number of slots, a power of 2 (default 8192)</li>
+ *   <li>{@code demo.dispatch.producerType} - {@code single} or {@code multi} (default multi)</li>
+ *   <li>{@code demo.dispatch.waitStrategy} - {@code busy-spin}, {@code yielding} or {@code blocking} (default blocking)</li>
+ *   <li>{@code demo.dispatch.consumers} - number of consumer threads (default 1)</li>
+ * </ul>
+ * Setting {@code demo.dispatch.mode=flyweight} selects the allocation-free
+ * {@link FlyweightEventDispatcher} instead, tuned with the same properties plus
+ * {@code demo.dispatch.maxMessageBytes} (default 256), the message buffer size of each slot.
+ * <p>
+ * Setting {@code demo.dispatch.mode=mailbox} selects the {@link MailboxEventDispatcher}, which
+ * gives every handler its own mailbox drained on virtual threads, tuned with:
+ * <ul>
+ *   <li>{@code demo.dispatch.listenerConcurrency} - concurrent calls per handler (default 1, in order)</li>
+ *   <li>{@code demo.dispatch.threads} - {@code virtual} or {@code platform} (default virtual,
+ *   platform threads before Java 21)</li>
+ *   <li>{@code demo.dispatch.platformThreads} - size of the platform thread pool (default twice the
+ *   number of processors)</li>
+ *   <li>{@code demo.dispatch.mailboxCapacity} - events queued per handler (default 8192)</li>
+ *   <li>{@code demo.dispatch.overflow} - {@link OverflowPolicy} for a full mailbox: {@code block},
+ *   {@code drop-newest}, {@code drop-oldest}, {@code caller-runs} or {@code sample} (default block)</li>
+ *   <li>{@code demo.dispatch.blockTimeoutMillis} - how long {@code block} waits before dropping (default 1000)</li>
+ *   <li>{@code demo.dispatch.sampleRate} - {@code sample} keeps one in this many overflowing events (default 10)</li>
+ * </ul>
+ * <p>
+ * Setting {@code demo.dispatch.mode=partitioned} selects the {@link PartitionedEventDispatcher},
+ * which delivers each partition key in order on one of several lanes, tuned with
+ * {@code demo.dispatch.ringSize} and {@code demo.dispatch.waitStrategy} per lane plus:
+ * <ul>
+ *   <li>{@code demo.dispatch.lanes} - number of lanes (default the number of processors)</li>
+ *   <li>{@code demo.dispatch.maxSkew} - busiest lane's load over the mean that triggers moving
+ *   keys between lanes (default 1.5)</li>
+ *   <li>{@code demo.dispatch.rebalanceMillis} - automatic rebalance period (default 0, off)</li>
+ * </ul>
+ */
+@Factory
+public class DispatchFactory {
+
+    static final int DEFAULT_RING_SIZE = 8192;
+    static final int DEFAULT_MAX_MESSAGE_BYTES = 256;
+    static final long DEFAULT_BLOCK_TIMEOUT_MILLIS = 1_000;
+    static final int DEFAULT_SAMPLE_RATE = 10;
+    static final String DEFAULT_MAX_SKEW = "1.5";
+    static final int DEFAULT_PLATFORM_THREADS = Math.max(2, Runtime.getRuntime().availableProcessors() * 2);
+
+    @Bean
+    @Secondary
+    SyncEventDispatcher syncDispatcher(SubscriptionRegistry registry) {
+        return new SyncEventDispatcher(registry.publisher(DemoEvent.class));
+    }
+
+    @Bean(destroyMethod = "close")
+    @RequiresProperty(value = "demo.dispatch.mode", equalTo = "async")
+    RingBufferEventDispatcher asyncDispatcher(SubscriptionRegistry registry) {
+        return new RingBufferEventDispatcher(
+            registry.publisher(DemoEvent.class),
+            Integer.getInteger("demo.dispatch.ringSize", DEFAULT_RING_SIZE),
+            producerType(),
+            waitStrategy(),
+            Integer.getInteger("demo.dispatch.consumers", 1));
+    }
+
+    @Bean(destroyMethod = "close")
+    @RequiresProperty(value = "demo.dispatch.mode", equalTo = "flyweight")
+    FlyweightEventDispatcher flyweightDispatcher(SubscriptionRegistry registry) {
+        return new FlyweightEventDispatcher(
+            registry.publisher(DemoEvent.class),
+            Integer.getInteger("demo.dispatch.ringSize", DEFAULT_RING_SIZE),
+            Integer.getInteger("demo.dispatch.maxMessageBytes", DEFAULT_MAX_MESSAGE_BYTES),
+            producerType(),
+            waitStrategy(),
+            Integer.getInteger("demo.dispatch.consumers", 1));
+    }
+
+    @Bean(destroyMethod = "close")
+    @RequiresProperty(value = "demo.dispatch.mode", equalTo = "mailbox")
+    MailboxEventDispatcher mailboxDispatcher(SubscriptionRegistry registry) {
+        return new MailboxEventDispatcher(
+            registry,
+            ListenerThreads.newExecutor(
+                ListenerThreads.Kind.of(System.getProperty("demo.dispatch.threads", "virtual")),
+                Integer.getInteger("demo.dispatch.platformThreads", DEFAULT_PLATFORM_THREADS)),
+            Integer.getInteger("demo.dispatch.listenerConcurrency", 1),
+            Integer.getInteger("demo.dispatch.mailboxCapacity", DEFAULT_RING_SIZE),
+            OverflowPolicy.of(System.getProperty("demo.dispatch.overflow", "block")),
+            Long.getLong("demo.dispatch.blockTimeoutMillis", DEFAULT_BLOCK_TIMEOUT_MILLIS),
+            Integer.getInteger("demo.dispatch.sampleRate", DEFAULT_SAMPLE_RATE));
+    }
+
+    @Bean(destroyMethod = "close")
+    @RequiresProperty(value = "demo.dispatch.mode", equalTo = "partitioned")
+    PartitionedEventDispatcher partitionedDispatcher(SubscriptionRegistry registry) {
+        return new PartitionedEventDispatcher(
+            registry.publisher(DemoEvent.class),
+            Integer.getInteger("demo.dispatch.lanes", Runtime.getRuntime().availableProcessors()),
+            Integer.getInteger("demo.dispatch.ringSize", DEFAULT_RING_SIZE),
+            waitStrategy(),
+            Double.parseDouble(System.getProperty("demo.dispatch.maxSkew", DEFAULT_MAX_SKEW)),
+            Long.getLong("demo.dispatch.rebalanceMillis", 0));
+    }
+
+    private static ProducerType producerType() {
+        return ProducerType.valueOf(System.getProperty("demo.dispatch.producerType", "multi").toUpperCase(Locale.ROOT));
+    }
+
+    private static WaitStrategy waitStrategy() {
+        return WaitStrategy.of(System.getProperty("demo.dispatch.waitStrategy", "blocking"));
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.demo.dispatch;
+
+import com.example.demo.DemoEvent;
+
+import java.util.List;
+
+/**
+ * Hands events from the {@link com.example.demo.EventProducer} to the subscribed handlers.
+ * The synchronous implementation is the default; an asynchronous ring buffer implementation
+ * is selected with {@code -Ddemo.dispatch.mode=async}, an allocation-free one with
+ * {@code -Ddemo.dispatch.mode=flyweight}, one with a mailbox per handler with
+ * {@code -Ddemo.dispatch.mode=mailbox}, and one delivering partition keys in order on parallel
+ * lanes with {@code -Ddemo.dispatch.mode=partitioned}.
+ */
+public interface EventDispatcher {
+
+    /**
+     * Deliver (or enqueue for delivery) a single event.
+     */
+    void dispatch(DemoEvent event);
+
+    /**
+     * Deliver (or enqueue for delivery) an event built from the message. The message is copied
+     * or converted before this method returns, so the caller may reuse a mutable sequence.
+     * Dispatchers with an allocation-free path avoid creating a {@link DemoEvent}.
+     */
+    default void dispatch(CharSequence message, long timestamp) {
+        dispatch(new DemoEvent(message == null ? null : message.toString(), timestamp));
+    }
+
+    /**
+     * Deliver (or enqueue for delivery) a batch of events, preserving their order.
+     */
+    default void dispatchBatch(List<DemoEvent> events) {
+        for (DemoEvent event : events) {
+            dispatch(event);
+        }
+    }
+
+    /**
+     * Deliver or enqueue the event only if that can be done without waiting for room, so callers
+     * can shed load themselves. Dispatchers without a queue always deliver.
+     *
+     * @return {@code false} if the event was not accepted because a queue was full
+     */
+    default boolean tryDispatch(DemoEvent event) {
+        dispatch(event);
+        return true;
+    }
+
+    /**
+     * Non-blocking counterpart of {@link #dispatch(CharSequence, long)}.
+     *
+     * @return {@code false} if the event was not accepted because a queue was full
+     */
+    default boolean tryDispatch(CharSequence message, long timestamp) {
+        return tryDispatch(new DemoEvent(message == null ? null : message.toString(), timestamp));
+    }
+
+    /**
+     * Number of events accepted but not yet delivered; 0 for dispatchers without a queue.
+     */
+    default long pending() {
+        return 0;
+    }
+
+    /**
+     * Queue capacity in events; 0 for dispatchers without a queue.
+     */
+    default int bufferSize() {
+        return 0;
+    }
+
+    /**
+     * Flow control counters; always zero for dispatchers without a queue.
+     */
+    default BackpressureStats backpressure() {
+        return BackpressureStats.NONE;
+    }
+}
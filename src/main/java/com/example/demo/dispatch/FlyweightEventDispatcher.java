@@ -0,0 +1,105 @@
+package com.example.demo.dispatch;
+
+import com.example.demo.DemoEvent;
+import com.example.demo.FlyweightEventHandler;
+import com.example.demo.MutableDemoEvent;
+import com.example.demo.dispatch.RingBuffer.ProducerType;
+
+import java.util.List;
+
+/**
+ * Allocation-free asynchronous dispatcher. Each ring slot is a preallocated {@link MutableDemoEvent}
+ * with its own message buffer: producers copy the message bytes into the claimed slot and
+ * consumer threads hand the slot itself to the handler, so no {@link DemoEvent} is created
+ * on the way unless a handler asks for one.
+ * <p>
+ * A slot is written only by the producer that claimed it, read only by the consumer it is
+ * published to, and becomes reusable as soon as the handler returns. See {@link MutableDemoEvent}
+ * for what handlers may and may not do with it.
+ */
+public class FlyweightEventDispatcher extends AbstractRingDispatcher<MutableDemoEvent> {
+
+    public FlyweightEventDispatcher(FlyweightEventHandler handler, int bufferSize, int maxMessageBytes,
+                                    ProducerType producerType, WaitStrategy waitStrategy, int consumerThreads) {
+        super(() -> new MutableDemoEvent(maxMessageBytes), bufferSize, producerType, waitStrategy, consumerThreads,
+            () -> (slot, sequence, endOfBatch) -> handler.onFlyweight(slot));
+    }
+
+    /**
+     * Copy the message into the next slot and publish it. Blocks only while the ring is full.
+     *
+     * @throws IllegalStateException if the dispatcher has been closed
+     */
+    @Override
+    public void dispatch(CharSequence message, long timestamp) {
+        ensureOpen();
+        long sequence = claim();
+        ringBuffer.get(sequence).set(message, timestamp);
+        ringBuffer.publish(sequence);
+    }
+
+    /**
+     * Copy the message into the next slot if one is free.
+     *
+     * @throws IllegalStateException if the dispatcher has been closed
+     */
+    @Override
+    public boolean tryDispatch(CharSequence message, long timestamp) {
+        ensureOpen();
+        long sequence = tryClaim();
+        if (sequence < 0) {
+            return false;
+        }
+        ringBuffer.get(sequence).set(message, timestamp);
+        ringBuffer.publish(sequence);
+        return true;
+    }
+
+    /**
+     * Copy the event, including its partition key, into the next slot. The event itself is not
+     * retained.
+     *
+     * @throws IllegalStateException if the dispatcher has been closed
+     */
+    @Override
+    public void dispatch(DemoEvent event) {
+        ensureOpen();
+        long sequence = claim();
+        ringBuffer.get(sequence).set(event.getMessage(), event.getTimestamp(), event.getPartitionKey());
+        ringBuffer.publish(sequence);
+    }
+
+    @Override
+    public boolean tryDispatch(DemoEvent event) {
+        ensureOpen();
+        long sequence = tryClaim();
+        if (sequence < 0) {
+            return false;
+        }
+        ringBuffer.get(sequence).set(event.getMessage(), event.getTimestamp(), event.getPartitionKey());
+        ringBuffer.publish(sequence);
+        return true;
+    }
+
+    /**
+     * Copy the batch into the ring with one claim and one publish per ring-sized chunk.
+     *
+     * @throws IllegalStateException if the dispatcher has been closed
+     */
+    @Override
+    public void dispatchBatch(List<DemoEvent> events) {
+        ensureOpen();
+        int size = events.size();
+        int offset = 0;
+        while (offset < size) {
+            int chunk = Math.min(size - offset, ringBuffer.bufferSize());
+            long hi = claim(chunk);
+            long lo = hi - chunk + 1;
+            for (long sequence = lo; sequence <= hi; sequence++) {
+                DemoEvent event = events.get(offset++);
+                ringBuffer.get(sequence).set(event.getMessage(), event.getTimestamp(), event.getPartitionKey());
+            }
+            ringBuffer.publish(lo, hi);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.demo.dispatch;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates the executor that runs listener mailboxes for the {@link MailboxEventDispatcher}.
+ * <p>
+ * On Java 21 and later every mailbox drain runs on its own virtual thread, so a listener blocked
+ * on I/O parks its virtual thread instead of holding a platform thread. The project targets Java
+ * 17, so the virtual thread API is looked up reflectively; on older runtimes, or with
+ * {@code platform} selected, a fixed pool of platform threads is used instead.
+ */
+public final class ListenerThreads {
+
+    private static final Logger logger = LoggerFactory.getLogger(ListenerThreads.class);
+
+    static final String THREAD_PREFIX = "event-listener-";
+
+    /**
+     * Kind of threads listener mailboxes run on.
+     */
+    public enum Kind {
+        VIRTUAL, PLATFORM;
+
+        public static Kind of(String name) {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        }
+    }
+
+    private ListenerThreads() {
+    }
+
+    /**
+     * Whether the running JVM supports virtual threads.
+     */
+    public static boolean virtualThreadsAvailable() {
+        return VirtualThreads.FACTORY != null && VirtualThreads.NEW_EXECUTOR != null;
+    }
+
+    /**
+     * Executor running each task on a new virtual thread when {@code kind} is {@code VIRTUAL} and
+     * the runtime supports it, otherwise on a pool of {@code platformThreads} daemon threads.
+     */
+    public static ExecutorService newExecutor(Kind kind, int platformThreads) {
+        if (kind == Kind.VIRTUAL) {
+            if (virtualThreadsAvailable()) {
+                return VirtualThreads.newExecutor();
+            }
+            logger.info("Virtual threads need Java 21, running listeners on {} platform threads", platformThreads);
+        }
+        AtomicInteger count = new AtomicInteger();
+        ThreadFactory factory = runnable -> {
+            Thread thread = new Thread(runnable, THREAD_PREFIX + count.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+        return Executors.newFixedThreadPool(platformThreads, factory);
+    }
+
+    /**
+     * Reflective access to {@code Thread.ofVirtual()} and {@code Executors.newThreadPerTaskExecutor},
+     * resolved once.
+     */
+    private static final class VirtualThreads {
+
+        static final ThreadFactory FACTORY = lookupFactory();
+        static final Method NEW_EXECUTOR = lookupExecutor();
+
+        static ExecutorService newExecutor() {
+            try {
+                return (ExecutorService) NEW_EXECUTOR.invoke(null, FACTORY);
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("Cannot create virtual thread executor", e);
+            }
+        }
+
+        private static ThreadFactory lookupFactory() {
+            try {
+                Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+                Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+                builder = builderType.getMethod("name", String.class, long.class).invoke(builder, THREAD_PREFIX, 0L);
+                return (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+            } catch (ReflectiveOperationException | LinkageError e) {
+                return null;
+            }
+        }
+
+        private static Method lookupExecutor() {
+            try {
+                return Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+            } catch (NoSuchMethodException e) {
+                return null;
+            }
+        }
+    }
+}
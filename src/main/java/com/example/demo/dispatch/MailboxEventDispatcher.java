@@ -0,0 +1,453 @@
+package com.example.demo.dispatch;
+
+import com.example.demo.DemoEvent;
+import com.example.demo.EventHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Dispatcher that gives every subscribed handler its own mailbox, drained by tasks on an
+ * executor, so a handler blocked on slow I/O delays neither the producer nor the other handlers.
+ * <p>
+ * {@code dispatch} appends the event to the mailbox of each handler subscribed to its type and
+ * returns. At most {@code listenerConcurrency} drain tasks run per mailbox at a time: with the
+ * default of 1 a handler sees its events one at a time, in dispatch order and in batches of up to
+ * {@value #MAX_BATCH} through {@link EventHandler#onEvents}; with more, it is called concurrently,
+ * one event per call, and order is not kept. A drain task hands the executor back after each
+ * batch, so a busy handler cannot hold a pooled thread forever.
+ * <p>
+ * Each mailbox holds at most {@code mailboxCapacity} events. An event for a full mailbox is
+ * handled by the {@link OverflowPolicy}, and the drops, blocked time and deepest mailbox are
+ * reported through {@link #backpressure()}. {@link #tryDispatch(DemoEvent)} never waits: it
+ * queues the event for every handler or, if any of their mailboxes is full, for none.
+ * <p>
+ * The executor normally runs each drain on its own virtual thread, see {@link ListenerThreads}.
+ * {@link #close()} stops accepting events, waits for the mailboxes to empty and then for the
+ * drain tasks to finish, so nothing is left running once the bean scope is closed. Exceptions
+ * thrown by a handler are logged and do not affect other handlers; an {@link Error} is left to
+ * the executor thread, after the mailbox has been scheduled to go on draining.
+ */
+public class MailboxEventDispatcher implements EventDispatcher, AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(MailboxEventDispatcher.class);
+
+    static final int MAX_BATCH = 64;
+    private static final long CLOSE_TIMEOUT_MILLIS = 5_000;
+
+    private final SubscriptionRegistry registry;
+    private final TypedPublisher<DemoEvent> publisher;
+    private final ExecutorService executor;
+    private final int listenerConcurrency;
+    private final int maxBatch;
+    private final int mailboxCapacity;
+    private final OverflowPolicy overflowPolicy;
+    private final long blockTimeoutNanos;
+    private final int sampleRate;
+    private final BackpressureStats backpressure = new BackpressureStats();
+    private final Map<EventHandler<?>, Mailbox> mailboxes = new ConcurrentHashMap<>();
+    private final AtomicLong pending = new AtomicLong();
+    private volatile boolean closed;
+
+    /**
+     * Dispatcher with unbounded mailboxes.
+     *
+     * @param registry the subscriptions to deliver to
+     * @param executor runs the mailbox drain tasks; shut down by {@link #close()}
+     * @param listenerConcurrency maximum concurrent calls into one handler
+     */
+    public MailboxEventDispatcher(SubscriptionRegistry registry, ExecutorService executor, int listenerConcurrency) {
+        this(registry, executor, listenerConcurrency, Integer.MAX_VALUE, OverflowPolicy.BLOCK, Long.MAX_VALUE, 1);
+    }
+
+    /**
+     * @param registry the subscriptions to deliver to
+     * @param executor runs the mailbox drain tasks; shut down by {@link #close()}
+     * @param listenerConcurrency maximum concurrent calls into one handler
+     * @param mailboxCapacity maximum events queued for one handler
+     * @param overflowPolicy what to do with an event for a full mailbox
+     * @param blockTimeoutMillis how long {@link OverflowPolicy#BLOCK} waits before dropping the event
+     * @param sampleRate one in how many overflowing events {@link OverflowPolicy#SAMPLE} keeps
+     */
+    public MailboxEventDispatcher(SubscriptionRegistry registry, ExecutorService executor, int listenerConcurrency,
+                                  int mailboxCapacity, OverflowPolicy overflowPolicy, long blockTimeoutMillis,
+                                  int sampleRate) {
+        if (listenerConcurrency < 1) {
+            throw new IllegalArgumentException("listenerConcurrency must be at least 1, was " + listenerConcurrency);
+        }
+        if (mailboxCapacity < 1) {
+            throw new IllegalArgumentException("mailboxCapacity must be at least 1, was " + mailboxCapacity);
+        }
+        if (sampleRate < 1) {
+            throw new IllegalArgumentException("sampleRate must be at least 1, was " + sampleRate);
+        }
+        this.registry = registry;
+        this.publisher = registry.publisher(DemoEvent.class);
+        this.executor = executor;
+        this.listenerConcurrency = listenerConcurrency;
+        this.maxBatch = listenerConcurrency == 1 ? MAX_BATCH : 1;
+        this.mailboxCapacity = mailboxCapacity;
+        this.overflowPolicy = overflowPolicy;
+        this.blockTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(blockTimeoutMillis);
+        this.sampleRate = sampleRate;
+    }
+
+    /**
+     * Queue the event for every subscribed handler, applying the overflow policy to full mailboxes.
+     *
+     * @throws IllegalStateException if the dispatcher has been closed
+     */
+    @Override
+    public void dispatch(DemoEvent event) {
+        ensureOpen();
+        for (EventHandler<?> handler : handlers(event)) {
+            mailbox(handler).offer(event);
+        }
+    }
+
+    /**
+     * Queue the event for every subscribed handler if none of their mailboxes is full.
+     *
+     * @throws IllegalStateException if the dispatcher has been closed
+     */
+    @Override
+    public boolean tryDispatch(DemoEvent event) {
+        ensureOpen();
+        EventHandler<?>[] handlers = handlers(event);
+        for (int i = 0; i < handlers.length; i++) {
+            if (!mailbox(handlers[i]).tryReserve()) {
+                for (int j = 0; j < i; j++) {
+                    mailbox(handlers[j]).release(1);
+                }
+                backpressure.recordRejected();
+                return false;
+            }
+        }
+        for (EventHandler<?> handler : handlers) {
+            mailbox(handler).enqueue(event);
+        }
+        return true;
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("Dispatcher is closed");
+        }
+    }
+
+    private EventHandler<?>[] handlers(DemoEvent event) {
+        TypedPublisher<?> target = event.getClass() == DemoEvent.class ? publisher : registry.publisher(event.getClass());
+        return target.handlers();
+    }
+
+    private Mailbox mailbox(EventHandler<?> handler) {
+        Mailbox mailbox = mailboxes.get(handler);
+        return mailbox != null ? mailbox : mailboxes.computeIfAbsent(handler, Mailbox::new);
+    }
+
+    /**
+     * Number of handler deliveries accepted but not yet made; an event for two handlers counts twice.
+     */
+    @Override
+    public long pending() {
+        return pending.get();
+    }
+
+    /**
+     * Capacity of each handler's mailbox; 0 when unbounded.
+     */
+    @Override
+    public int bufferSize() {
+        return mailboxCapacity == Integer.MAX_VALUE ? 0 : mailboxCapacity;
+    }
+
+    @Override
+    public BackpressureStats backpressure() {
+        return backpressure;
+    }
+
+    /**
+     * Stop accepting events, deliver everything already accepted and stop the drain tasks.
+     * Deliveries still pending after the timeout are abandoned and the drain tasks interrupted.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        // producers blocked on a full mailbox give up rather than wait out their timeout
+        mailboxes.values().forEach(Mailbox::wakeWaiters);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(CLOSE_TIMEOUT_MILLIS);
+        try {
+            while (pending.get() > 0 && System.nanoTime() - deadline < 0) {
+                Thread.sleep(1);
+            }
+            executor.shutdown();
+            if (!executor.awaitTermination(Math.max(1, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                logger.warn("Abandoning {} listener deliveries on close", pending.get());
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Pending events of one handler and the number of drain tasks running for it.
+     * <p>
+     * {@code depth} counts the queued events and bounds the queue: a slot is reserved before an
+     * event is added and released when a drain task takes the event out. Producers blocked on a
+     * full mailbox wait on its monitor and are notified when a drain task releases slots.
+     */
+    private final class Mailbox implements Runnable {
+
+        private final EventHandler<DemoEvent> handler;
+        private final Queue<DemoEvent> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger drainers = new AtomicInteger();
+        private final AtomicInteger depth = new AtomicInteger();
+        private final AtomicInteger waiters = new AtomicInteger();
+        private final AtomicLong overflows = new AtomicLong();
+
+        @SuppressWarnings("unchecked")
+        Mailbox(EventHandler<?> handler) {
+            this.handler = (EventHandler<DemoEvent>) handler;
+        }
+
+        void offer(DemoEvent event) {
+            if (tryReserve()) {
+                enqueue(event);
+                return;
+            }
+            switch (overflowPolicy) {
+                case BLOCK -> block(event);
+                case DROP_NEWEST -> backpressure.recordDrop();
+                case DROP_OLDEST -> replaceOldest(event);
+                case CALLER_RUNS -> {
+                    if (tryAcquire()) {
+                        backpressure.recordCallerRuns();
+                        runOnCaller(event);
+                    } else {
+                        block(event);
+                    }
+                }
+                case SAMPLE -> {
+                    if (overflows.incrementAndGet() % sampleRate == 0) {
+                        replaceOldest(event);
+                    } else {
+                        backpressure.recordDrop();
+                    }
+                }
+            }
+        }
+
+        boolean tryReserve() {
+            int current;
+            while ((current = depth.get()) < mailboxCapacity) {
+                if (depth.compareAndSet(current, current + 1)) {
+                    backpressure.updateHighWatermark(current + 1);
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        void release(int slots) {
+            depth.addAndGet(-slots);
+            if (waiters.get() > 0) {
+                wakeWaiters();
+            }
+        }
+
+        synchronized void wakeWaiters() {
+            notifyAll();
+        }
+
+        /**
+         * Queue an event whose slot has been reserved.
+         */
+        void enqueue(DemoEvent event) {
+            pending.incrementAndGet();
+            queue.add(event);
+            if (tryAcquire()) {
+                submit();
+            }
+        }
+
+        private void block(DemoEvent event) {
+            if (awaitSlot()) {
+                enqueue(event);
+            } else {
+                backpressure.recordDrop();
+            }
+        }
+
+        /**
+         * Wait for a free slot until the block timeout or close.
+         *
+         * @return whether a slot was reserved
+         */
+        private boolean awaitSlot() {
+            long start = System.nanoTime();
+            long deadline = start + blockTimeoutNanos;
+            // announced before reserving, so a drain task releasing a slot afterwards notifies
+            waiters.incrementAndGet();
+            try {
+                synchronized (this) {
+                    while (!tryReserve()) {
+                        long remaining = deadline - System.nanoTime();
+                        if (remaining <= 0 || closed) {
+                            return false;
+                        }
+                        TimeUnit.NANOSECONDS.timedWait(this, remaining);
+                    }
+                    return true;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            } finally {
+                waiters.decrementAndGet();
+                backpressure.recordBlocked(System.nanoTime() - start);
+            }
+        }
+
+        /**
+         * Drop the oldest queued event and queue this one in its slot.
+         */
+        private void replaceOldest(DemoEvent event) {
+            while (true) {
+                DemoEvent oldest = queue.poll();
+                if (oldest != null) {
+                    // one event out, one in: depth and pending stay as they are
+                    backpressure.recordDrop();
+                    queue.add(event);
+                    if (tryAcquire()) {
+                        submit();
+                    }
+                    return;
+                }
+                // a drain task took the last events and is about to release their slots
+                if (tryReserve()) {
+                    enqueue(event);
+                    return;
+                }
+                Thread.onSpinWait();
+            }
+        }
+
+        private boolean tryAcquire() {
+            int active;
+            while ((active = drainers.get()) < listenerConcurrency) {
+                if (drainers.compareAndSet(active, active + 1)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void submit() {
+            try {
+                executor.execute(this);
+            } catch (RejectedExecutionException e) {
+                drainers.decrementAndGet();
+                logger.warn("Listener executor rejected a drain task for {}", handler, e);
+            }
+        }
+
+        /**
+         * Deliver one batch, then pass the drain slot on. The bookkeeping runs even if the
+         * handler throws an {@link Error}, which then reaches the executor thread.
+         */
+        @Override
+        public void run() {
+            try {
+                drainBatch();
+            } finally {
+                yieldSlot();
+            }
+        }
+
+        /**
+         * Deliver an overflowing event on the producer's thread, which holds a drain slot. The
+         * events queued when it arrived go first; later ones are left to the drain tasks.
+         */
+        private void runOnCaller(DemoEvent event) {
+            try {
+                int ahead = depth.get();
+                while (ahead > 0) {
+                    int delivered = drainBatch();
+                    if (delivered == 0) {
+                        break;
+                    }
+                    ahead -= delivered;
+                }
+                deliver(List.of(event));
+            } finally {
+                yieldSlot();
+            }
+        }
+
+        /**
+         * Take up to {@code maxBatch} queued events out of the mailbox and deliver them.
+         *
+         * @return the number of events delivered
+         */
+        private int drainBatch() {
+            List<DemoEvent> batch = new ArrayList<>(Math.min(maxBatch, 16));
+            DemoEvent event;
+            while (batch.size() < maxBatch && (event = queue.poll()) != null) {
+                batch.add(event);
+            }
+            if (!batch.isEmpty()) {
+                release(batch.size());
+                try {
+                    deliver(batch);
+                } finally {
+                    pending.addAndGet(-batch.size());
+                }
+            }
+            return batch.size();
+        }
+
+        /**
+         * Resubmit the drain task while events are queued, otherwise give its slot back.
+         */
+        private void yieldSlot() {
+            if (!queue.isEmpty()) {
+                // keep the drain slot and queue behind other mailboxes' tasks
+                submit();
+                return;
+            }
+            drainers.decrementAndGet();
+            // an event offered while this task still held the last slot would otherwise be stranded
+            if (!queue.isEmpty() && tryAcquire()) {
+                submit();
+            }
+        }
+
+        private void deliver(List<DemoEvent> batch) {
+            try {
+                if (batch.size() == 1) {
+                    handler.onEvent(batch.get(0));
+                } else {
+                    handler.onEvents(batch);
+                }
+            } catch (RuntimeException e) {
+                logger.warn("Listener {} failed on {} events", handler, batch.size(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.demo.dispatch;
+
+import java.util.Locale;
+
+/**
+ * What a bounded dispatch queue does with an event that arrives while it is full.
+ */
+public enum OverflowPolicy {
+
+    /**
+     * Wait for room up to the block timeout, then drop the event.
+     */
+    BLOCK,
+
+    /**
+     * Drop the arriving event.
+     */
+    DROP_NEWEST,
+
+    /**
+     * Drop the oldest queued event to make room for the arriving one.
+     */
+    DROP_OLDEST,
+
+    /**
+     * Deliver the arriving event on the producer's thread, slowing the producer down to the
+     * speed of the handler. The producer takes a free drain slot and first delivers the events
+     * queued ahead of its own, so the concurrency cap and order still hold; with every slot
+     * busy it waits as {@link #BLOCK} does.
+     */
+    CALLER_RUNS,
+
+    /**
+     * Keep one in every {@code sampleRate} overflowing events in place of the oldest queued
+     * event and drop the others, so a long burst still leaves a thinned-out trace in the queue.
+     */
+    SAMPLE;
+
+    /**
+     * Policy by name, case-insensitive, accepting {@code drop-newest} as well as {@code DROP_NEWEST}.
+     */
+    public static OverflowPolicy of(String name) {
+        return valueOf(name.trim().replace('-', '_').toUpperCase(Locale.ROOT));
+    }
+}
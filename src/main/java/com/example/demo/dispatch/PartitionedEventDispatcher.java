@@ -0,0 +1,427 @@
+package com.example.demo.dispatch;
+
+import com.example.demo.DemoEvent;
+import com.example.demo.EventHandler;
+import com.example.demo.aspect.LatencyHistogram;
+import com.example.demo.dispatch.RingBuffer.ProducerType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Dispatcher that spreads events over single-threaded lanes by partition key, so delivery uses
+ * several cores while all events of one key are still delivered in order.
+ * <p>
+ * A key is hashed onto one of {@value #SLOTS} slots and a routing table maps each slot to a
+ * lane, initially slot {@code s} to lane {@code s % lanes}. Each lane is a ring buffer with one
+ * consumer thread handing its events to the subscribed handlers in batches, so handlers are
+ * called from several threads at once, but never concurrently for the same key. Events without
+ * a key are routed by the producing thread, which keeps each producer's unkeyed events in order.
+ * <p>
+ * {@link #rebalance()} evens out the lanes by moving slots from the busiest lane to the idlest
+ * once the events dispatched since the previous rebalance are spread more unevenly than
+ * {@code maxSkew}. A slot
+ * is moved by holding back its producers, waiting until the old lane has delivered everything
+ * already dispatched to it and then switching the route, so a move never reorders a key. A
+ * handler must therefore not dispatch into this dispatcher from a lane thread while a
+ * rebalance may run.
+ */
+public class PartitionedEventDispatcher implements EventDispatcher, AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(PartitionedEventDispatcher.class);
+
+    static final int SLOTS = 1024;
+    private static final int MOVING = -1;
+
+    private final Lane[] lanes;
+    private final double maxSkew;
+    private final BackpressureStats backpressure = new BackpressureStats();
+    private final AtomicIntegerArray routes = new AtomicIntegerArray(SLOTS);
+    // producers currently between reading a slot's route and publishing to its lane
+    private final AtomicIntegerArray inFlight = new AtomicIntegerArray(SLOTS);
+    private final AtomicLongArray slotCounts = new AtomicLongArray(SLOTS);
+    // slotCounts at the previous rebalance, the baseline of the current load
+    private final AtomicLongArray baseline = new AtomicLongArray(SLOTS);
+    private final Thread rebalancer;
+    private volatile boolean closed;
+
+    /**
+     * @param handler receives the events of every lane
+     * @param laneCount number of lanes, each with its own consumer thread
+     * @param bufferSize ring size of each lane, a power of 2
+     * @param maxSkew busiest lane's load over the mean load above which {@link #rebalance()} moves slots
+     * @param rebalanceIntervalMillis period of automatic rebalancing; 0 to only rebalance on request
+     */
+    public PartitionedEventDispatcher(EventHandler<DemoEvent> handler, int laneCount, int bufferSize,
+                                      WaitStrategy waitStrategy, double maxSkew, long rebalanceIntervalMillis) {
+        if (laneCount < 1) {
+            throw new IllegalArgumentException("laneCount must be at least 1, was " + laneCount);
+        }
+        if (maxSkew < 1) {
+            throw new IllegalArgumentException("maxSkew must be at least 1, was " + maxSkew);
+        }
+        this.maxSkew = maxSkew;
+        this.lanes = new Lane[laneCount];
+        for (int i = 0; i < laneCount; i++) {
+            lanes[i] = new Lane(i, handler, bufferSize, waitStrategy, backpressure);
+        }
+        for (int slot = 0; slot < SLOTS; slot++) {
+            routes.set(slot, slot % laneCount);
+        }
+        if (rebalanceIntervalMillis > 0) {
+            rebalancer = new Thread(() -> rebalanceEvery(rebalanceIntervalMillis), "event-lane-rebalancer");
+            rebalancer.setDaemon(true);
+            rebalancer.start();
+        } else {
+            rebalancer = null;
+        }
+    }
+
+    /**
+     * Publish the event on the lane of its key. Blocks only while that lane is full.
+     *
+     * @throws IllegalStateException if the dispatcher has been closed
+     */
+    @Override
+    public void dispatch(DemoEvent event) {
+        ensureOpen();
+        int slot = slotOf(event.getPartitionKey());
+        Lane lane = enter(slot);
+        try {
+            lane.dispatch(event);
+        } finally {
+            inFlight.decrementAndGet(slot);
+        }
+        slotCounts.incrementAndGet(slot);
+    }
+
+    /**
+     * Publish the event on the lane of its key if that lane has a free slot.
+     *
+     * @throws IllegalStateException if the dispatcher has been closed
+     */
+    @Override
+    public boolean tryDispatch(DemoEvent event) {
+        ensureOpen();
+        int slot = slotOf(event.getPartitionKey());
+        Lane lane = enter(slot);
+        boolean accepted;
+        try {
+            accepted = lane.tryDispatch(event);
+        } finally {
+            inFlight.decrementAndGet(slot);
+        }
+        if (accepted) {
+            slotCounts.incrementAndGet(slot);
+        }
+        return accepted;
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("Dispatcher is closed");
+        }
+    }
+
+    /**
+     * Announce a publish to the slot and return its lane, waiting while the slot is being moved.
+     * The caller must decrement {@code inFlight} once published.
+     */
+    private Lane enter(int slot) {
+        while (true) {
+            // announced before reading the route, so a rebalance that marks the slot afterwards waits for us
+            inFlight.incrementAndGet(slot);
+            int route = routes.get(slot);
+            if (route != MOVING) {
+                return lanes[route];
+            }
+            inFlight.decrementAndGet(slot);
+            while (routes.get(slot) == MOVING) {
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    private static int slotOf(String partitionKey) {
+        int hash = partitionKey != null ? partitionKey.hashCode() : Long.hashCode(Thread.currentThread().getId());
+        return (hash ^ (hash >>> 16)) & (SLOTS - 1);
+    }
+
+    /**
+     * Lane events with the given key are currently delivered on.
+     */
+    int laneOf(String partitionKey) {
+        int route;
+        while ((route = routes.get(slotOf(partitionKey))) == MOVING) {
+            Thread.onSpinWait();
+        }
+        return route;
+    }
+
+    /**
+     * If the load since the previous rebalance is skewed above {@code maxSkew}, move slots from
+     * the busiest lane to the idlest for as long as a move makes the load more even. A single
+     * key too hot for one lane cannot be split, so the skew may stay above the limit.
+     *
+     * @return the number of slots moved
+     */
+    public synchronized int rebalance() {
+        long[] slotLoad = new long[SLOTS];
+        long[] laneLoad = new long[lanes.length];
+        long total = 0;
+        for (int slot = 0; slot < SLOTS; slot++) {
+            long count = slotCounts.get(slot);
+            slotLoad[slot] = count - baseline.getAndSet(slot, count);
+            laneLoad[routes.get(slot)] += slotLoad[slot];
+            total += slotLoad[slot];
+        }
+        long max = 0;
+        for (long load : laneLoad) {
+            max = Math.max(max, load);
+        }
+        if (total == 0 || max * (double) lanes.length <= total * maxSkew) {
+            return 0;
+        }
+        int moved = 0;
+        while (moved < SLOTS && !closed) {
+            int hot = 0;
+            int cold = 0;
+            for (int i = 1; i < lanes.length; i++) {
+                hot = laneLoad[i] > laneLoad[hot] ? i : hot;
+                cold = laneLoad[i] < laneLoad[cold] ? i : cold;
+            }
+            // moving load L only helps while L < gap; the best move lands both lanes nearest gap / 2
+            long gap = laneLoad[hot] - laneLoad[cold];
+            int best = -1;
+            for (int slot = 0; slot < SLOTS; slot++) {
+                long load = slotLoad[slot];
+                if (routes.get(slot) == hot && load > 0 && load < gap
+                    && (best < 0 || Math.abs(2 * load - gap) < Math.abs(2 * slotLoad[best] - gap))) {
+                    best = slot;
+                }
+            }
+            if (best < 0) {
+                break;
+            }
+            move(best, hot, cold);
+            laneLoad[hot] -= slotLoad[best];
+            laneLoad[cold] += slotLoad[best];
+            moved++;
+        }
+        if (moved > 0) {
+            logger.debug("Rebalanced {} slots across {} lanes", moved, lanes.length);
+        }
+        return moved;
+    }
+
+    private void move(int slot, int from, int to) {
+        routes.set(slot, MOVING);
+        while (inFlight.get(slot) != 0) {
+            Thread.onSpinWait();
+        }
+        Lane lane = lanes[from];
+        long last = lane.claimedSequence();
+        while (lane.deliveredSequence() < last && !closed) {
+            LockSupport.parkNanos(50_000);
+        }
+        routes.set(slot, to);
+    }
+
+    private void rebalanceEvery(long intervalMillis) {
+        while (!closed) {
+            try {
+                Thread.sleep(intervalMillis);
+                rebalance();
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                logger.warn("Lane rebalance failed", e);
+            }
+        }
+    }
+
+    /**
+     * Busiest lane's share of the events dispatched since the previous rebalance, relative to
+     * an even share: 1.0 when balanced, the number of lanes when one lane gets everything.
+     */
+    public double skew() {
+        long[] laneLoad = new long[lanes.length];
+        long total = 0;
+        for (int slot = 0; slot < SLOTS; slot++) {
+            int route = routes.get(slot);
+            long load = slotCounts.get(slot) - baseline.get(slot);
+            // a slot in the middle of a move is briefly counted on lane 0
+            laneLoad[route == MOVING ? 0 : route] += load;
+            total += load;
+        }
+        long max = 0;
+        for (long load : laneLoad) {
+            max = Math.max(max, load);
+        }
+        return total == 0 ? 1.0 : max * (double) lanes.length / total;
+    }
+
+    public int laneCount() {
+        return lanes.length;
+    }
+
+    /**
+     * Events dispatched to the lane but not yet delivered.
+     */
+    public long lanePending(int lane) {
+        return lanes[lane].pending();
+    }
+
+    /**
+     * Events the lane has handed to the handlers.
+     */
+    public long laneDelivered(int lane) {
+        return lanes[lane].deliveredSequence() + 1;
+    }
+
+    /**
+     * Time events spent on the lane between dispatch and delivery.
+     */
+    public LatencyHistogram laneLatency(int lane) {
+        return lanes[lane].latency;
+    }
+
+    /**
+     * Events accepted by all lanes but not yet delivered.
+     */
+    @Override
+    public long pending() {
+        long pending = 0;
+        for (Lane lane : lanes) {
+            pending += lane.pending();
+        }
+        return pending;
+    }
+
+    /**
+     * Combined ring capacity of all lanes.
+     */
+    @Override
+    public int bufferSize() {
+        return lanes.length * lanes[0].bufferSize();
+    }
+
+    /**
+     * Flow control counters of all lanes together.
+     */
+    @Override
+    public BackpressureStats backpressure() {
+        return backpressure;
+    }
+
+    /**
+     * Stop rebalancing, then close every lane, delivering what was already dispatched.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (rebalancer != null) {
+            rebalancer.interrupt();
+            try {
+                rebalancer.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        for (Lane lane : lanes) {
+            lane.close();
+        }
+    }
+
+    /**
+     * One lane: a multi-producer ring drained by a single consumer thread.
+     */
+    private static final class Lane extends AbstractRingDispatcher<LaneSlot> {
+
+        final LatencyHistogram latency;
+
+        Lane(int index, EventHandler<DemoEvent> handler, int bufferSize, WaitStrategy waitStrategy,
+             BackpressureStats backpressure) {
+            this(index, handler, bufferSize, waitStrategy, backpressure, new LatencyHistogram());
+        }
+
+        private Lane(int index, EventHandler<DemoEvent> handler, int bufferSize, WaitStrategy waitStrategy,
+                     BackpressureStats backpressure, LatencyHistogram latency) {
+            super(LaneSlot::new, bufferSize, ProducerType.MULTI, waitStrategy, 1,
+                () -> new LaneSlotHandler(handler, latency), backpressure, "event-lane-" + index + "-");
+            this.latency = latency;
+        }
+
+        @Override
+        public void dispatch(DemoEvent event) {
+            ensureOpen();
+            long sequence = claim();
+            ringBuffer.get(sequence).set(event);
+            ringBuffer.publish(sequence);
+        }
+
+        @Override
+        public boolean tryDispatch(DemoEvent event) {
+            ensureOpen();
+            long sequence = tryClaim();
+            if (sequence < 0) {
+                return false;
+            }
+            ringBuffer.get(sequence).set(event);
+            ringBuffer.publish(sequence);
+            return true;
+        }
+    }
+
+    /**
+     * Collects the events available to a lane's consumer, records how long each waited and
+     * delivers them as one batch. Confined to the lane's consumer thread.
+     */
+    private static final class LaneSlotHandler implements SlotHandler<LaneSlot> {
+
+        private final EventHandler<DemoEvent> handler;
+        private final LatencyHistogram latency;
+        private final List<DemoEvent> batch = new ArrayList<>();
+
+        LaneSlotHandler(EventHandler<DemoEvent> handler, LatencyHistogram latency) {
+            this.handler = handler;
+            this.latency = latency;
+        }
+
+        @Override
+        public void onSlot(LaneSlot slot, long sequence, boolean endOfBatch) {
+            batch.add(slot.event);
+            latency.record(System.nanoTime() - slot.publishNanos);
+            slot.event = null;
+            if (endOfBatch) {
+                try {
+                    handler.onEvents(batch);
+                } finally {
+                    batch.clear();
+                }
+            }
+        }
+    }
+
+    /**
+     * Preallocated lane slot holding the event in flight and when it was dispatched.
+     */
+    static final class LaneSlot {
+        DemoEvent event;
+        long publishNanos;
+
+        void set(DemoEvent event) {
+            this.event = event;
+            this.publishNanos = System.nanoTime();
+        }
+    }
+}
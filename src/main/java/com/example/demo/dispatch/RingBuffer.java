@@ -0,0 +1,265 @@
+package com.example.demo.dispatch;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Preallocated, fixed-size ring of mutable slots shared between producers and consumers.
+ * <p>
+ * Producers claim a sequence with {@link #next()} (or {@link #tryNext()}), fill in the slot
+ * returned by {@link #get(long)} and then {@link #publish(long)} it. Consumers track their own
+ * {@link Sequence}, registered through {@link #addGatingSequences(Sequence...)}, so that
+ * producers never overwrite a slot that has not been consumed yet.
+ * <p>
+ * All slots are created up front by the factory, so the steady state allocates nothing.
+ */
+public final class RingBuffer<T> {
+
+    /**
+     * Whether a single thread or many threads publish into the ring.
+     */
+    public enum ProducerType {
+        /** Exactly one publishing thread; claims are plain field updates. */
+        SINGLE,
+        /** Any number of publishing threads; claims use a CAS on the cursor. */
+        MULTI
+    }
+
+    private static final VarHandle AVAILABLE = MethodHandles.arrayElementVarHandle(int[].class);
+    private static final Sequence[] NO_SEQUENCES = new Sequence[0];
+
+    private final Object[] entries;
+    private final int bufferSize;
+    private final int indexMask;
+    private final int indexShift;
+    private final boolean multiProducer;
+    private final WaitStrategy waitStrategy;
+    private final Sequence cursor = new Sequence();
+    private volatile Sequence[] gatingSequences = NO_SEQUENCES;
+
+    // multi-producer state
+    private final int[] availableBuffer;
+    private final Sequence gatingSequenceCache = new Sequence();
+
+    // single-producer state, only touched by the publishing thread
+    private long nextValue = Sequence.INITIAL_VALUE;
+    private long cachedGatingValue = Sequence.INITIAL_VALUE;
+
+    private RingBuffer(ProducerType producerType, Supplier<T> factory, int bufferSize, WaitStrategy waitStrategy) {
+        if (bufferSize < 1 || Integer.bitCount(bufferSize) != 1) {
+            throw new IllegalArgumentException("bufferSize must be a power of 2, was " + bufferSize);
+        }
+        this.bufferSize = bufferSize;
+        this.indexMask = bufferSize - 1;
+        this.indexShift = Integer.numberOfTrailingZeros(bufferSize);
+        this.multiProducer = producerType == ProducerType.MULTI;
+        this.waitStrategy = waitStrategy;
+        this.entries = new Object[bufferSize];
+        for (int i = 0; i < bufferSize; i++) {
+            entries[i] = factory.get();
+        }
+        if (multiProducer) {
+            availableBuffer = new int[bufferSize];
+            Arrays.fill(availableBuffer, -1);
+        } else {
+            availableBuffer = null;
+        }
+    }
+
+    /**
+     * Create a ring buffer with every slot preallocated by the given factory.
+     *
+     * @param bufferSize number of slots, must be a power of 2
+     */
+    public static <T> RingBuffer<T> create(ProducerType producerType, Supplier<T> factory,
+                                           int bufferSize, WaitStrategy waitStrategy) {
+        return new RingBuffer<>(producerType, factory, bufferSize, waitStrategy);
+    }
+
+    /**
+     * Slot for the given sequence.
+     */
+    @SuppressWarnings("unchecked")
+    public T get(long sequence) {
+        return (T) entries[(int) sequence & indexMask];
+    }
+
+    /**
+     * Claim the next sequence, waiting for consumers to free a slot if the ring is full.
+     */
+    public long next() {
+        return next(1);
+    }
+
+    /**
+     * Claim the next {@code n} sequences, waiting for consumers to free enough slots.
+     *
+     * @return the highest claimed sequence; the batch is {@code [returned - n + 1, returned]}
+     */
+    public long next(int n) {
+        if (n < 1 || n > bufferSize) {
+            throw new IllegalArgumentException("n must be between 1 and " + bufferSize + ", was " + n);
+        }
+        return multiProducer ? nextMulti(n, true) : nextSingle(n, true);
+    }
+
+    /**
+     * Claim the next sequence if a slot is free.
+     *
+     * @return the claimed sequence, or {@code -1} if the ring is full
+     */
+    public long tryNext() {
+        return tryNext(1);
+    }
+
+    /**
+     * Claim the next {@code n} sequences if enough slots are free.
+     *
+     * @return the highest claimed sequence, or {@code -1} if the ring has fewer than {@code n} free slots
+     */
+    public long tryNext(int n) {
+        if (n < 1 || n > bufferSize) {
+            throw new IllegalArgumentException("n must be between 1 and " + bufferSize + ", was " + n);
+        }
+        return multiProducer ? nextMulti(n, false) : nextSingle(n, false);
+    }
+
+    /**
+     * Make the slot at the given (previously claimed) sequence visible to consumers.
+     */
+    public void publish(long sequence) {
+        if (multiProducer) {
+            AVAILABLE.setRelease(availableBuffer, (int) sequence & indexMask, (int) (sequence >>> indexShift));
+        } else {
+            // volatile store so a consumer announcing that it is about to block cannot miss it
+            cursor.setVolatile(sequence);
+        }
+        waitStrategy.signalAllWhenBlocking();
+    }
+
+    /**
+     * Publish a batch of previously claimed sequences with a single consumer wake-up.
+     */
+    public void publish(long lo, long hi) {
+        if (multiProducer) {
+            for (long sequence = lo; sequence <= hi; sequence++) {
+                AVAILABLE.setRelease(availableBuffer, (int) sequence & indexMask, (int) (sequence >>> indexShift));
+            }
+        } else {
+            cursor.setVolatile(hi);
+        }
+        waitStrategy.signalAllWhenBlocking();
+    }
+
+    private long nextSingle(int n, boolean wait) {
+        long next = nextValue + n;
+        long wrapPoint = next - bufferSize;
+        if (wrapPoint > cachedGatingValue || cachedGatingValue > nextValue) {
+            long minSequence;
+            while (wrapPoint > (minSequence = Sequence.minimumOf(gatingSequences, nextValue))) {
+                if (!wait) {
+                    return -1L;
+                }
+                LockSupport.parkNanos(1L);
+            }
+            cachedGatingValue = minSequence;
+        }
+        nextValue = next;
+        return next;
+    }
+
+    private long nextMulti(int n, boolean wait) {
+        while (true) {
+            long current = cursor.get();
+            long next = current + n;
+            long wrapPoint = next - bufferSize;
+            long cachedGating = gatingSequenceCache.get();
+            if (wrapPoint > cachedGating || cachedGating > current) {
+                long gating = Sequence.minimumOf(gatingSequences, current);
+                if (wrapPoint > gating) {
+                    if (!wait) {
+                        return -1L;
+                    }
+                    LockSupport.parkNanos(1L);
+                    continue;
+                }
+                gatingSequenceCache.set(gating);
+            } else if (cursor.compareAndSet(current, next)) {
+                return next;
+            }
+        }
+    }
+
+    /**
+     * Whether the given sequence has been published and not yet overwritten.
+     */
+    public boolean isAvailable(long sequence) {
+        if (multiProducer) {
+            return (int) AVAILABLE.getAcquire(availableBuffer, (int) sequence & indexMask) == (int) (sequence >>> indexShift);
+        }
+        long current = cursor.get();
+        return sequence <= current && sequence > current - bufferSize;
+    }
+
+    /**
+     * Highest sequence in {@code [lowerBound, availableSequence]} such that every sequence up to
+     * and including it has been published.
+     */
+    public long highestPublishedSequence(long lowerBound, long availableSequence) {
+        if (!multiProducer) {
+            return availableSequence;
+        }
+        for (long sequence = lowerBound; sequence <= availableSequence; sequence++) {
+            if (!isAvailable(sequence)) {
+                return sequence - 1;
+            }
+        }
+        return availableSequence;
+    }
+
+    /**
+     * Register consumer sequences that producers must not overtake.
+     */
+    public synchronized void addGatingSequences(Sequence... sequences) {
+        long current = cursor.get();
+        for (Sequence sequence : sequences) {
+            sequence.set(current);
+        }
+        Sequence[] updated = Arrays.copyOf(gatingSequences, gatingSequences.length + sequences.length);
+        System.arraycopy(sequences, 0, updated, gatingSequences.length, sequences.length);
+        gatingSequences = updated;
+    }
+
+    /**
+     * Create a barrier consumers use to wait for published sequences.
+     */
+    public SequenceBarrier newBarrier() {
+        return new SequenceBarrier(this, waitStrategy);
+    }
+
+    /**
+     * The producer cursor: the highest claimed (multi-producer) or published (single-producer) sequence.
+     */
+    public Sequence cursor() {
+        return cursor;
+    }
+
+    public int bufferSize() {
+        return bufferSize;
+    }
+
+    /**
+     * Number of claimed slots not yet consumed by the slowest consumer.
+     */
+    public long pending() {
+        long produced = cursor.get();
+        return produced - Sequence.minimumOf(gatingSequences, produced);
+    }
+
+    public long remainingCapacity() {
+        return bufferSize - pending();
+    }
+}
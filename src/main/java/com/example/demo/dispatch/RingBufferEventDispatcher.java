@@ -0,0 +1,112 @@
+package com.example.demo.dispatch;
+
+import com.example.demo.DemoEvent;
+import com.example.demo.EventHandler;
+import com.example.demo.dispatch.RingBuffer.ProducerType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Asynchronous dispatcher: producers publish events into a preallocated {@link RingBuffer}
+ * and return immediately, while dedicated consumer threads drain the ring into the handler.
+ * <p>
+ * Consumers hand every run of events that is available at once to the handler as a single
+ * {@link EventHandler#onEvents(List)} batch. With more than one consumer thread the ring is
+ * striped across consumers, so the handler must tolerate concurrent calls and events are only
+ * ordered per stripe.
+ */
+public class RingBufferEventDispatcher extends AbstractRingDispatcher<RingBufferEventDispatcher.EventSlot> {
+
+    public RingBufferEventDispatcher(EventHandler<DemoEvent> handler, int bufferSize, ProducerType producerType,
+                                     WaitStrategy waitStrategy, int consumerThreads) {
+        super(EventSlot::new, bufferSize, producerType, waitStrategy, consumerThreads,
+            () -> new BatchingSlotHandler(handler));
+    }
+
+    /**
+     * Publish the event into the ring. Blocks only while the ring is full.
+     *
+     * @throws IllegalStateException if the dispatcher has been closed
+     */
+    @Override
+    public void dispatch(DemoEvent event) {
+        ensureOpen();
+        long sequence = claim();
+        ringBuffer.get(sequence).event = event;
+        ringBuffer.publish(sequence);
+    }
+
+    /**
+     * Publish the event if a slot is free.
+     *
+     * @throws IllegalStateException if the dispatcher has been closed
+     */
+    @Override
+    public boolean tryDispatch(DemoEvent event) {
+        ensureOpen();
+        long sequence = tryClaim();
+        if (sequence < 0) {
+            return false;
+        }
+        ringBuffer.get(sequence).event = event;
+        ringBuffer.publish(sequence);
+        return true;
+    }
+
+    /**
+     * Publish the batch with one claim and one publish per ring-sized chunk.
+     *
+     * @throws IllegalStateException if the dispatcher has been closed
+     */
+    @Override
+    public void dispatchBatch(List<DemoEvent> events) {
+        ensureOpen();
+        int size = events.size();
+        int offset = 0;
+        while (offset < size) {
+            int chunk = Math.min(size - offset, ringBuffer.bufferSize());
+            long hi = claim(chunk);
+            long lo = hi - chunk + 1;
+            for (long sequence = lo; sequence <= hi; sequence++) {
+                ringBuffer.get(sequence).event = events.get(offset++);
+            }
+            ringBuffer.publish(lo, hi);
+        }
+    }
+
+    /**
+     * Collects the events available to a consumer and delivers them as one batch.
+     * Each consumer thread owns its own instance, so the batch list is thread-confined.
+     */
+    private static final class BatchingSlotHandler implements SlotHandler<EventSlot> {
+
+        private final EventHandler<DemoEvent> handler;
+        private final List<DemoEvent> batch = new ArrayList<>();
+
+        BatchingSlotHandler(EventHandler<DemoEvent> handler) {
+            this.handler = handler;
+        }
+
+        @Override
+        public void onSlot(EventSlot slot, long sequence, boolean endOfBatch) {
+            batch.add(slot.event);
+            // release the reference so the ring does not keep delivered events reachable
+            slot.event = null;
+            if (endOfBatch) {
+                try {
+                    handler.onEvents(batch);
+                } finally {
+                    batch.clear();
+                }
+            }
+        }
+    }
+
+    /**
+     * Preallocated ring slot holding the event in flight.
+     */
+    static final class EventSlot {
+        DemoEvent event;
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.demo.dispatch;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Consumer loop draining a {@link RingBuffer} on a dedicated thread.
+ * <p>
+ * Several consumers can share the work of one ring by striping: consumer {@code ordinal} of
+ * {@code stride} only handles sequences where {@code sequence % stride == ordinal}, while still
+ * advancing its own sequence over the whole ring. Ordering is then only preserved per stripe.
+ */
+public final class RingConsumer<T> implements Runnable {
+
+    private static final Logger logger = LoggerFactory.getLogger(RingConsumer.class);
+
+    private final RingBuffer<T> ringBuffer;
+    private final SequenceBarrier barrier;
+    private final SlotHandler<? super T> handler;
+    private final Sequence sequence = new Sequence();
+    private final int ordinal;
+    private final int stride;
+    private volatile long haltSequence = Long.MAX_VALUE;
+
+    public RingConsumer(RingBuffer<T> ringBuffer, SlotHandler<? super T> handler) {
+        this(ringBuffer, handler, 0, 1);
+    }
+
+    public RingConsumer(RingBuffer<T> ringBuffer, SlotHandler<? super T> handler, int ordinal, int stride) {
+        if (stride < 1 || ordinal < 0 || ordinal >= stride) {
+            throw new IllegalArgumentException("Invalid consumer stripe " + ordinal + " of " + stride);
+        }
+        this.ringBuffer = ringBuffer;
+        this.barrier = ringBuffer.newBarrier();
+        this.handler = handler;
+        this.ordinal = ordinal;
+        this.stride = stride;
+    }
+
+    /**
+     * Sequence of the last slot this consumer has finished with. Register it as a gating
+     * sequence on the ring before starting the consumer.
+     */
+    public Sequence sequence() {
+        return sequence;
+    }
+
+    /**
+     * Ask the consumer to stop once it has processed every sequence up to {@code lastSequence}.
+     */
+    public void halt(long lastSequence) {
+        haltSequence = lastSequence;
+        barrier.alert();
+    }
+
+    @Override
+    public void run() {
+        long next = sequence.get() + 1;
+        try {
+            while (next <= haltSequence) {
+                long available = barrier.waitFor(next);
+                if (available < next) {
+                    // alerted: keep draining until the halt sequence is reached
+                    Thread.onSpinWait();
+                    continue;
+                }
+                // the batch ends at this consumer's last sequence of the run, not at the run's end,
+                // which may belong to another stripe
+                long last = available - Math.floorMod(available - ordinal, stride);
+                for (long s = next; s <= last; s++) {
+                    if (stride == 1 || (s % stride) == ordinal) {
+                        handle(s, s == last);
+                    }
+                }
+                sequence.set(available);
+                next = available + 1;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void handle(long s, boolean endOfBatch) {
+        try {
+            handler.onSlot(ringBuffer.get(s), s, endOfBatch);
+        } catch (Exception e) {
+            logger.warn("Ring consumer handler failed at sequence {}", s, e);
+        }
+    }
+}
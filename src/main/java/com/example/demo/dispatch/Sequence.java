@@ -0,0 +1,102 @@
+package com.example.demo.dispatch;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * Cache-line padded sequence counter shared between producers and consumers of a {@link RingBuffer}.
+ * The padding keeps the hot value on its own cache line so that a producer cursor and a
+ * consumer sequence never false-share.
+ */
+public class Sequence extends SequenceValue {
+
+    @SuppressWarnings("unused")
+    private long p9, p10, p11, p12, p13, p14, p15;
+
+    public static final long INITIAL_VALUE = -1L;
+
+    public Sequence() {
+        this(INITIAL_VALUE);
+    }
+
+    public Sequence(long initialValue) {
+        VALUE.setRelease(this, initialValue);
+    }
+
+    /**
+     * Volatile read of the current value.
+     */
+    public long get() {
+        return (long) VALUE.getVolatile(this);
+    }
+
+    /**
+     * Ordered write, visible to other threads after any preceding writes (store-release).
+     */
+    public void set(long newValue) {
+        VALUE.setRelease(this, newValue);
+    }
+
+    /**
+     * Full volatile write.
+     */
+    public void setVolatile(long newValue) {
+        VALUE.setVolatile(this, newValue);
+    }
+
+    public boolean compareAndSet(long expected, long newValue) {
+        return VALUE.compareAndSet(this, expected, newValue);
+    }
+
+    public long incrementAndGet() {
+        return addAndGet(1L);
+    }
+
+    public long addAndGet(long increment) {
+        return (long) VALUE.getAndAdd(this, increment) + increment;
+    }
+
+    @Override
+    public String toString() {
+        return Long.toString(get());
+    }
+
+    /**
+     * Smallest value among the given sequences, or {@code minimum} if none is smaller.
+     */
+    public static long minimumOf(Sequence[] sequences, long minimum) {
+        long min = minimum;
+        for (Sequence sequence : sequences) {
+            long value = sequence.get();
+            if (value < min) {
+                min = value;
+            }
+        }
+        return min;
+    }
+
+    static final VarHandle VALUE;
+
+    static {
+        try {
+            VALUE = MethodHandles.lookup().findVarHandle(SequenceValue.class, "value", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+}
+
+/**
+ * Left padding of a {@link Sequence}.
+ */
+abstract class SequencePadding {
+    @SuppressWarnings("unused")
+    private long p1, p2, p3, p4, p5, p6, p7;
+}
+
+/**
+ * Holder of the padded value of a {@link Sequence}.
+ */
+abstract class SequenceValue extends SequencePadding {
+    protected volatile long value;
+}
@@ -0,0 +1,43 @@
+package com.example.demo.dispatch;
+
+/**
+ * Coordination point used by a consumer to wait for published sequences of a {@link RingBuffer}.
+ * Can be alerted to release consumers blocked in {@link #waitFor(long)} during shutdown.
+ */
+public final class SequenceBarrier {
+
+    private final RingBuffer<?> ringBuffer;
+    private final WaitStrategy waitStrategy;
+    private volatile boolean alerted;
+
+    SequenceBarrier(RingBuffer<?> ringBuffer, WaitStrategy waitStrategy) {
+        this.ringBuffer = ringBuffer;
+        this.waitStrategy = waitStrategy;
+    }
+
+    /**
+     * Wait for the given sequence to be published.
+     *
+     * @return the highest contiguous published sequence, which is lower than the requested
+     *         sequence only when the barrier has been alerted
+     */
+    public long waitFor(long sequence) throws InterruptedException {
+        long available = waitStrategy.waitFor(sequence, ringBuffer.cursor(), this);
+        if (available < sequence) {
+            return available;
+        }
+        return ringBuffer.highestPublishedSequence(sequence, available);
+    }
+
+    public boolean isAlerted() {
+        return alerted;
+    }
+
+    /**
+     * Alert waiting consumers, typically because the owner is shutting down.
+     */
+    public void alert() {
+        alerted = true;
+        waitStrategy.signalAllWhenBlocking();
+    }
+}
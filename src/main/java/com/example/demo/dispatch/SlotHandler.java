@@ -0,0 +1,18 @@
+package com.example.demo.dispatch;
+
+/**
+ * Callback invoked by a {@link RingConsumer} for each published slot.
+ * The slot is owned by the handler only for the duration of the call.
+ */
+@FunctionalInterface
+public interface SlotHandler<T> {
+
+    /**
+     * Handle a published slot.
+     *
+     * @param slot       the slot, reused for later sequences once this call returns
+     * @param sequence   the sequence of the slot
+     * @param endOfBatch true if this is the last slot currently available to the consumer
+     */
+    void onSlot(T slot, long sequence, boolean endOfBatch) throws Exception;
+}
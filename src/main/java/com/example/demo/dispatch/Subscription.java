@@ -0,0 +1,33 @@
+package com.example.demo.dispatch;
+
+import com.example.demo.EventHandler;
+
+/**
+ * Handle for a handler registered with the {@link SubscriptionRegistry}.
+ * Closing it unsubscribes the handler.
+ */
+public final class Subscription implements AutoCloseable {
+
+    private final SubscriptionRegistry registry;
+    private final Class<?> eventType;
+    private final EventHandler<?> handler;
+
+    Subscription(SubscriptionRegistry registry, Class<?> eventType, EventHandler<?> handler) {
+        this.registry = registry;
+        this.eventType = eventType;
+        this.handler = handler;
+    }
+
+    public Class<?> eventType() {
+        return eventType;
+    }
+
+    public EventHandler<?> handler() {
+        return handler;
+    }
+
+    @Override
+    public void close() {
+        registry.unsubscribe(this);
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.demo.dispatch;
+
+import com.example.demo.DemoEvent;
+import com.example.demo.EventHandler;
+import io.avaje.inject.BeanEntry;
+import io.avaje.inject.BeanScope;
+import io.avaje.inject.PostConstruct;
+import jakarta.inject.Singleton;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of {@link EventHandler} subscriptions keyed by event type.
+ * <p>
+ * Handler beans are discovered from the {@link BeanScope} at startup and further handlers can be
+ * subscribed at runtime. Each event type gets a {@link TypedPublisher} holding a precomputed
+ * array of the handlers interested in that type (handlers subscribed to a supertype included).
+ * The arrays are rebuilt copy-on-write whenever subscriptions change, so publishing never does
+ * reflection, map lookups or type checks.
+ */
+@Singleton
+public class SubscriptionRegistry {
+
+    private final List<Subscription> subscriptions = new ArrayList<>();
+    private final Map<Class<?>, TypedPublisher<?>> publishers = new ConcurrentHashMap<>();
+
+    /**
+     * Subscribe every {@link EventHandler} bean in the scope.
+     */
+    @PostConstruct
+    void discover(BeanScope beanScope) {
+        Set<Object> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (BeanEntry entry : beanScope.all()) {
+            Object bean = entry.bean();
+            if (bean instanceof EventHandler && seen.add(bean)) {
+                subscribe((EventHandler<?>) bean);
+            }
+        }
+    }
+
+    /**
+     * Subscribe a handler to events of the given type and its subtypes.
+     */
+    public <E extends DemoEvent> Subscription subscribe(Class<E> eventType, EventHandler<? super E> handler) {
+        Subscription subscription = new Subscription(this, eventType, handler);
+        synchronized (this) {
+            subscriptions.add(subscription);
+            rebuild();
+        }
+        return subscription;
+    }
+
+    /**
+     * Subscribe a handler to the event type declared by its {@code EventHandler<E>} type argument,
+     * falling back to {@link DemoEvent} when it cannot be resolved (e.g. for lambdas).
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public Subscription subscribe(EventHandler<?> handler) {
+        return subscribe((Class) resolveEventType(handler.getClass()), (EventHandler) handler);
+    }
+
+    /**
+     * Remove a subscription; publishing threads see the change on their next event.
+     */
+    public synchronized void unsubscribe(Subscription subscription) {
+        if (subscriptions.remove(subscription)) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Publisher for the given event type. Resolve it once and keep the reference: the returned
+     * publisher always reflects the current subscriptions.
+     */
+    @SuppressWarnings("unchecked")
+    public <E extends DemoEvent> TypedPublisher<E> publisher(Class<E> eventType) {
+        TypedPublisher<?> publisher = publishers.get(eventType);
+        if (publisher == null) {
+            synchronized (this) {
+                publisher = publishers.computeIfAbsent(eventType, type -> {
+                    TypedPublisher<E> created = new TypedPublisher<>(this, eventType);
+                    created.update(handlersFor(eventType));
+                    return created;
+                });
+            }
+        }
+        return (TypedPublisher<E>) publisher;
+    }
+
+    /**
+     * Number of handlers that receive events of the given type.
+     */
+    public int subscriberCount(Class<? extends DemoEvent> eventType) {
+        return publisher(eventType).handlerCount();
+    }
+
+    private void rebuild() {
+        for (TypedPublisher<?> publisher : publishers.values()) {
+            publisher.update(handlersFor(publisher.eventType()));
+        }
+    }
+
+    private EventHandler<?>[] handlersFor(Class<?> eventType) {
+        List<EventHandler<?>> handlers = new ArrayList<>();
+        for (Subscription subscription : subscriptions) {
+            if (subscription.eventType().isAssignableFrom(eventType)) {
+                handlers.add(subscription.handler());
+            }
+        }
+        return handlers.toArray(new EventHandler<?>[0]);
+    }
+
+    static Class<?> resolveEventType(Class<?> handlerClass) {
+        for (Class<?> type = handlerClass; type != null && type != Object.class; type = type.getSuperclass()) {
+            for (Type generic : type.getGenericInterfaces()) {
+                if (generic instanceof ParameterizedType) {
+                    ParameterizedType parameterized = (ParameterizedType) generic;
+                    Type argument = parameterized.getActualTypeArguments()[0];
+                    if (parameterized.getRawType() == EventHandler.class && argument instanceof Class) {
+                        return (Class<?>) argument;
+                    }
+                }
+            }
+        }
+        return DemoEvent.class;
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.demo.dispatch;
+
+import com.example.demo.DemoEvent;
+import com.example.demo.EventHandler;
+
+import java.util.List;
+
+/**
+ * Dispatcher that calls the handler directly on the producer's thread.
+ */
+public class SyncEventDispatcher implements EventDispatcher {
+
+    private final EventHandler<DemoEvent> handler;
+
+    public SyncEventDispatcher(EventHandler<DemoEvent> handler) {
+        this.handler = handler;
+    }
+
+    @Override
+    public void dispatch(DemoEvent event) {
+        handler.onEvent(event);
+    }
+
+    @Override
+    public void dispatchBatch(List<DemoEvent> events) {
+        handler.onEvents(events);
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.demo.dispatch;
+
+import com.example.demo.DemoEvent;
+import com.example.demo.EventHandler;
+import com.example.demo.FlyweightEventHandler;
+import com.example.demo.MutableDemoEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fans an event out to every handler subscribed to its type, using a handler array precomputed
+ * by the {@link SubscriptionRegistry}. The hot path is a volatile read of the array and one
+ * direct call per handler.
+ * <p>
+ * Handlers are called in subscription order on the calling thread; an exception thrown by a
+ * handler propagates to the caller and skips the remaining handlers, as a direct call would.
+ * On the flyweight path the {@link FlyweightEventHandler}s are called first, then the others.
+ */
+public final class TypedPublisher<E extends DemoEvent> implements EventHandler<E>, FlyweightEventHandler {
+
+    private final SubscriptionRegistry registry;
+    private final Class<E> eventType;
+    private volatile EventHandler<? super E>[] handlers;
+    // the same handlers split for onFlyweight, replaced together with them
+    private volatile FlyweightRoute<E> flyweightRoute;
+
+    TypedPublisher(SubscriptionRegistry registry, Class<E> eventType) {
+        this.registry = registry;
+        this.eventType = eventType;
+    }
+
+    @Override
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public void onEvent(E event) {
+        if (event.getClass() != eventType) {
+            // subtype of the publisher type: route to the publisher of the exact type
+            ((TypedPublisher) registry.publisher(event.getClass())).deliver(event);
+            return;
+        }
+        deliver(event);
+    }
+
+    /**
+     * Hand the whole batch to each handler in one call. Batches containing subtypes of the
+     * publisher type fall back to per-event routing.
+     */
+    @Override
+    public void onEvents(List<? extends E> events) {
+        for (int i = 0, size = events.size(); i < size; i++) {
+            if (events.get(i).getClass() != eventType) {
+                for (E event : events) {
+                    onEvent(event);
+                }
+                return;
+            }
+        }
+        EventHandler<? super E>[] current = handlers;
+        for (EventHandler<? super E> handler : current) {
+            handler.onEvents(events);
+        }
+    }
+
+    /**
+     * Deliver a borrowed event from the allocation-free path. Handlers implementing
+     * {@link FlyweightEventHandler} receive it as is; for the others an immutable copy is
+     * created once and shared. Only meaningful on the {@link DemoEvent} publisher.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public void onFlyweight(MutableDemoEvent event) {
+        FlyweightRoute<E> route = flyweightRoute;
+        for (FlyweightEventHandler handler : route.flyweight) {
+            handler.onFlyweight(event);
+        }
+        if (route.copying.length > 0) {
+            E copy = (E) event.toEvent();
+            for (EventHandler<? super E> handler : route.copying) {
+                handler.onEvent(copy);
+            }
+        }
+    }
+
+    private void deliver(E event) {
+        EventHandler<? super E>[] current = handlers;
+        for (EventHandler<? super E> handler : current) {
+            handler.onEvent(event);
+        }
+    }
+
+    public Class<E> eventType() {
+        return eventType;
+    }
+
+    public int handlerCount() {
+        return handlers.length;
+    }
+
+    /**
+     * Current handlers, for dispatchers that deliver to each handler separately. Not to be modified.
+     */
+    EventHandler<? super E>[] handlers() {
+        return handlers;
+    }
+
+    @SuppressWarnings("unchecked")
+    void update(EventHandler<?>[] newHandlers) {
+        flyweightRoute = new FlyweightRoute<>((EventHandler<? super E>[]) newHandlers);
+        handlers = (EventHandler<? super E>[]) newHandlers;
+    }
+
+    /**
+     * Handlers split by whether they take borrowed events, so {@link #onFlyweight} needs no
+     * type check per handler.
+     */
+    private static final class FlyweightRoute<E extends DemoEvent> {
+
+        final FlyweightEventHandler[] flyweight;
+        final EventHandler<? super E>[] copying;
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        FlyweightRoute(EventHandler<? super E>[] handlers) {
+            List<FlyweightEventHandler> borrowing = new ArrayList<>();
+            List<EventHandler<? super E>> others = new ArrayList<>();
+            for (EventHandler<? super E> handler : handlers) {
+                if (handler instanceof FlyweightEventHandler) {
+                    borrowing.add((FlyweightEventHandler) handler);
+                } else {
+                    others.add(handler);
+                }
+            }
+            this.flyweight = borrowing.toArray(new FlyweightEventHandler[0]);
+            this.copying = others.toArray(new EventHandler[0]);
+        }
+    }
+}
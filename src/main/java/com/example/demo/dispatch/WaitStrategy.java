@@ -0,0 +1,176 @@
+package com.example.demo.dispatch;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Strategy used by ring buffer consumers to wait for a sequence to be published.
+ * Trades latency against CPU usage:
+ * <ul>
+ *   <li>{@link #busySpin()} - lowest latency, burns a core per consumer</li>
+ *   <li>{@link #yielding()} - spins briefly then yields the CPU to other threads</li>
+ *   <li>{@link #blocking()} - parks on a lock/condition, cheapest on CPU, highest wake-up latency</li>
+ * </ul>
+ */
+public interface WaitStrategy {
+
+    /**
+     * Wait until the cursor reaches at least the given sequence.
+     *
+     * @param sequence the sequence the consumer wants to read
+     * @param cursor   the producer cursor of the ring buffer
+     * @param barrier  barrier used to detect shutdown while waiting
+     * @return the highest sequence known to be available, which may be lower than
+     *         {@code sequence} if the barrier was alerted
+     */
+    long waitFor(long sequence, Sequence cursor, SequenceBarrier barrier) throws InterruptedException;
+
+    /**
+     * Wake up any consumers blocked in {@link #waitFor}. Called by producers after publishing.
+     */
+    void signalAllWhenBlocking();
+
+    /**
+     * Busy-spin strategy for dedicated cores.
+     */
+    static WaitStrategy busySpin() {
+        return new BusySpin();
+    }
+
+    /**
+     * Spin-then-yield strategy.
+     */
+    static WaitStrategy yielding() {
+        return new Yielding();
+    }
+
+    /**
+     * Lock and condition based strategy, the default.
+     */
+    static WaitStrategy blocking() {
+        return new Blocking();
+    }
+
+    /**
+     * Resolve a wait strategy by name: {@code busy-spin}, {@code yielding} or {@code blocking}.
+     */
+    static WaitStrategy of(String name) {
+        switch (name.trim().toLowerCase(Locale.ROOT)) {
+            case "busy-spin":
+            case "busyspin":
+            case "spin":
+                return busySpin();
+            case "yield":
+            case "yielding":
+                return yielding();
+            case "block":
+            case "blocking":
+            case "park":
+                return blocking();
+            default:
+                throw new IllegalArgumentException("Unknown wait strategy: " + name);
+        }
+    }
+
+    /**
+     * Busy-spin implementation.
+     */
+    final class BusySpin implements WaitStrategy {
+
+        @Override
+        public long waitFor(long sequence, Sequence cursor, SequenceBarrier barrier) {
+            long available;
+            while ((available = cursor.get()) < sequence) {
+                if (barrier.isAlerted()) {
+                    return available;
+                }
+                Thread.onSpinWait();
+            }
+            return available;
+        }
+
+        @Override
+        public void signalAllWhenBlocking() {
+            // consumers never block
+        }
+    }
+
+    /**
+     * Spin for a bounded number of iterations, then yield.
+     */
+    final class Yielding implements WaitStrategy {
+
+        private static final int SPIN_TRIES = 100;
+
+        @Override
+        public long waitFor(long sequence, Sequence cursor, SequenceBarrier barrier) {
+            int counter = SPIN_TRIES;
+            long available;
+            while ((available = cursor.get()) < sequence) {
+                if (barrier.isAlerted()) {
+                    return available;
+                }
+                if (counter > 0) {
+                    counter--;
+                    Thread.onSpinWait();
+                } else {
+                    Thread.yield();
+                }
+            }
+            return available;
+        }
+
+        @Override
+        public void signalAllWhenBlocking() {
+            // consumers never block
+        }
+    }
+
+    /**
+     * Blocks consumers on a condition until a producer signals. Producers only take the lock
+     * when a consumer has announced that it is about to wait, so a publish with no sleeping
+     * consumer costs a single volatile read.
+     */
+    final class Blocking implements WaitStrategy {
+
+        private final Lock lock = new ReentrantLock();
+        private final Condition published = lock.newCondition();
+        private final AtomicBoolean signalNeeded = new AtomicBoolean();
+
+        @Override
+        public long waitFor(long sequence, Sequence cursor, SequenceBarrier barrier) throws InterruptedException {
+            long available = cursor.get();
+            if (available >= sequence) {
+                return available;
+            }
+            lock.lock();
+            try {
+                do {
+                    signalNeeded.set(true);
+                    if ((available = cursor.get()) >= sequence || barrier.isAlerted()) {
+                        break;
+                    }
+                    published.await();
+                } while ((available = cursor.get()) < sequence);
+            } finally {
+                lock.unlock();
+            }
+            return available;
+        }
+
+        @Override
+        public void signalAllWhenBlocking() {
+            if (signalNeeded.get() && signalNeeded.getAndSet(false)) {
+                lock.lock();
+                try {
+                    published.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+    }
+}
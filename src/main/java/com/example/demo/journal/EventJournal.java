@@ -0,0 +1,275 @@
+package com.example.demo.journal;
+
+import com.example.demo.DemoEvent;
+import com.example.demo.EventHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Append-only journal of {@link DemoEvent}s on memory-mapped segment files.
+ * <p>
+ * Every appended event gets the next sequence number, starting at 0. Records are written
+ * straight into the mapped segment (see {@link JournalSegment} for the layout), so appending
+ * does not allocate. When a segment is full it is forced and a new one is started whose file
+ * name carries its first sequence. The {@link ForcePolicy} decides how often appended records
+ * are forced to the device in between.
+ * <p>
+ * Opening a journal recovers it: segments are scanned in order, the first torn, corrupt or
+ * out-of-sequence record and everything after it are discarded, and appending continues from there.
+ * <p>
+ * Appends are serialized; replay can run concurrently with appends and sees the records
+ * published before each segment is read.
+ */
+public final class EventJournal implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(EventJournal.class);
+
+    private final Path directory;
+    private final int segmentSize;
+    private final ForcePolicy forcePolicy;
+
+    private volatile JournalSegment[] segments;
+    private JournalSegment active;
+    private long nextSequence;
+    private long unforcedRecords;
+    private long lastForceNanos = System.nanoTime();
+    private boolean closed;
+
+    private EventJournal(Path directory, int segmentSize, ForcePolicy forcePolicy) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.forcePolicy = forcePolicy;
+    }
+
+    /**
+     * Open (and recover) the journal in the given directory, creating it if needed.
+     *
+     * @param segmentSize size of each segment file in bytes
+     */
+    public static EventJournal open(Path directory, int segmentSize, ForcePolicy forcePolicy) throws IOException {
+        if (segmentSize < JournalSegment.HEADER_SIZE * 2 || (segmentSize & 7) != 0) {
+            throw new IllegalArgumentException("segmentSize must be a multiple of 8 and at least "
+                + JournalSegment.HEADER_SIZE * 2 + ", was " + segmentSize);
+        }
+        Files.createDirectories(directory);
+        EventJournal journal = new EventJournal(directory, segmentSize, Objects.requireNonNull(forcePolicy));
+        journal.recover();
+        return journal;
+    }
+
+    private void recover() throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "journal-*.seg")) {
+            stream.forEach(files::add);
+        }
+        files.sort(Comparator.comparing(Path::getFileName));
+
+        List<JournalSegment> recovered = new ArrayList<>();
+        long expected = 0;
+        long records = 0;
+        for (int i = 0; i < files.size(); i++) {
+            JournalSegment segment = JournalSegment.open(files.get(i));
+            if (!recovered.isEmpty() && segment.baseSequence() != expected) {
+                logger.warn("Journal segment {} does not continue at sequence {}, discarding it and later segments",
+                    segment.path().getFileName(), expected);
+                deleteFrom(files, i);
+                break;
+            }
+            boolean truncated = segment.recover(segment.baseSequence());
+            recovered.add(segment);
+            records += segment.lastSequence() - segment.baseSequence() + 1;
+            expected = segment.lastSequence() + 1;
+            if (truncated) {
+                logger.warn("Truncated torn journal tail in {} at offset {}",
+                    segment.path().getFileName(), segment.writePosition());
+                deleteFrom(files, i + 1);
+                break;
+            }
+        }
+
+        if (recovered.isEmpty()) {
+            recovered.add(JournalSegment.create(directory, 0, segmentSize));
+        }
+        nextSequence = expected;
+        segments = recovered.toArray(new JournalSegment[0]);
+        active = segments[segments.length - 1];
+        if (records > 0) {
+            logger.info("Recovered {} journal records from {} segment(s) in {}", records, segments.length, directory);
+        }
+    }
+
+    private static void deleteFrom(List<Path> files, int from) throws IOException {
+        for (int i = from; i < files.size(); i++) {
+            Files.deleteIfExists(files.get(i));
+        }
+    }
+
+    /**
+     * Append an event.
+     *
+     * @return the sequence assigned to the event
+     */
+    public synchronized long append(DemoEvent event) {
+        ensureOpen();
+        long sequence = write(Objects.requireNonNull(event, "event"));
+        afterAppend(1);
+        return sequence;
+    }
+
+    /**
+     * Append a batch of events, applying the force policy once for the whole batch.
+     *
+     * @return the sequence assigned to the last event, or -1 for an empty batch
+     */
+    public synchronized long appendAll(List<? extends DemoEvent> events) {
+        ensureOpen();
+        for (int i = 0, n = events.size(); i < n; i++) {
+            Objects.requireNonNull(events.get(i), "events must not contain null");
+        }
+        long sequence = -1;
+        for (int i = 0, n = events.size(); i < n; i++) {
+            sequence = write(events.get(i));
+        }
+        afterAppend(events.size());
+        return sequence;
+    }
+
+    private long write(DemoEvent event) {
+        int length = JournalSegment.recordLength(event);
+        if (length > JournalSegment.maxRecordLength(segmentSize)) {
+            throw new IllegalArgumentException("Event of " + length + " bytes does not fit in a "
+                + segmentSize + " byte journal segment");
+        }
+        long sequence = nextSequence;
+        if (!active.tryAppend(sequence, event, length)) {
+            roll();
+            active.tryAppend(sequence, event, length);
+        }
+        nextSequence = sequence + 1;
+        return sequence;
+    }
+
+    private void roll() {
+        active.force();
+        try {
+            JournalSegment next = JournalSegment.create(directory, nextSequence, segmentSize);
+            JournalSegment[] current = segments;
+            JournalSegment[] grown = new JournalSegment[current.length + 1];
+            System.arraycopy(current, 0, grown, 0, current.length);
+            grown[current.length] = next;
+            segments = grown;
+            active = next;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to roll journal segment", e);
+        }
+        unforcedRecords = 0;
+        lastForceNanos = System.nanoTime();
+    }
+
+    private void afterAppend(int records) {
+        unforcedRecords += records;
+        long nanosSinceForce = forcePolicy.isTimed() ? System.nanoTime() - lastForceNanos : 0;
+        if (forcePolicy.shouldForce(unforcedRecords, nanosSinceForce)) {
+            forceActive();
+        }
+    }
+
+    private void forceActive() {
+        active.force();
+        unforcedRecords = 0;
+        if (forcePolicy.isTimed()) {
+            lastForceNanos = System.nanoTime();
+        }
+    }
+
+    /**
+     * Force all appended records to the storage device.
+     */
+    public synchronized void force() {
+        ensureOpen();
+        forceActive();
+    }
+
+    /**
+     * Stream events with sequences in {@code [fromSequence, toSequence)} to the handler, in order.
+     *
+     * @return number of events delivered
+     */
+    public long replay(long fromSequence, long toSequence, EventHandler<? super DemoEvent> handler) {
+        return replay(fromSequence, toSequence, Long.MIN_VALUE, Long.MAX_VALUE, handler);
+    }
+
+    /**
+     * Stream events with timestamps in {@code [fromMillis, toMillis)} to the handler, in sequence order.
+     * Segments whose timestamp range does not overlap are skipped without being read.
+     *
+     * @return number of events delivered
+     */
+    public long replayByTime(long fromMillis, long toMillis, EventHandler<? super DemoEvent> handler) {
+        return replay(0, Long.MAX_VALUE, fromMillis, toMillis, handler);
+    }
+
+    private long replay(long fromSequence, long toSequence, long fromMillis, long toMillis,
+                        EventHandler<? super DemoEvent> handler) {
+        Objects.requireNonNull(handler, "handler");
+        long delivered = 0;
+        for (JournalSegment segment : segments) {
+            if (segment.isEmpty() || segment.lastSequence() < fromSequence
+                    || segment.maxTimestamp() < fromMillis || segment.minTimestamp() >= toMillis) {
+                continue;
+            }
+            if (segment.baseSequence() >= toSequence) {
+                break;
+            }
+            delivered += segment.read(fromSequence, toSequence, fromMillis, toMillis,
+                (sequence, event) -> handler.onEvent(event));
+        }
+        return delivered;
+    }
+
+    /**
+     * Sequence the next appended event will get, which is also the number of events in the journal.
+     */
+    public synchronized long nextSequence() {
+        return nextSequence;
+    }
+
+    public int segmentCount() {
+        return segments.length;
+    }
+
+    public Path directory() {
+        return directory;
+    }
+
+    public ForcePolicy forcePolicy() {
+        return forcePolicy;
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("Journal is closed");
+        }
+    }
+
+    /**
+     * Force outstanding records and stop accepting appends.
+     */
+    @Override
+    public synchronized void close() {
+        if (!closed) {
+            active.force();
+            closed = true;
+        }
+    }
+}
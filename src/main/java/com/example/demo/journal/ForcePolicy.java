@@ -0,0 +1,101 @@
+package com.example.demo.journal;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * When the journal forces appended records to the storage device.
+ * Segments are always forced when they are sealed and when the journal is closed.
+ * <ul>
+ *   <li>{@code never} - leave write-back to the operating system</li>
+ *   <li>{@code always} - force after every append (or batch)</li>
+ *   <li>{@code every:N} - force after every N records</li>
+ *   <li>{@code interval:MILLIS} - force when at least MILLIS have passed since the last force</li>
+ * </ul>
+ */
+public final class ForcePolicy {
+
+    private final int everyRecords;
+    private final long intervalNanos;
+
+    private ForcePolicy(int everyRecords, long intervalNanos) {
+        this.everyRecords = everyRecords;
+        this.intervalNanos = intervalNanos;
+    }
+
+    public static ForcePolicy never() {
+        return new ForcePolicy(0, 0);
+    }
+
+    public static ForcePolicy always() {
+        return new ForcePolicy(1, 0);
+    }
+
+    public static ForcePolicy everyRecords(int records) {
+        if (records < 1) {
+            throw new IllegalArgumentException("records must be at least 1, was " + records);
+        }
+        return new ForcePolicy(records, 0);
+    }
+
+    public static ForcePolicy interval(long millis) {
+        if (millis < 1) {
+            throw new IllegalArgumentException("interval must be at least 1 ms, was " + millis);
+        }
+        return new ForcePolicy(0, TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+
+    /**
+     * Parse {@code never}, {@code always}, {@code every:N} or {@code interval:MILLIS}.
+     */
+    public static ForcePolicy parse(String value) {
+        String spec = value.trim().toLowerCase(Locale.ROOT);
+        if (spec.equals("never")) {
+            return never();
+        }
+        if (spec.equals("always")) {
+            return always();
+        }
+        if (spec.startsWith("every:")) {
+            return everyRecords(Integer.parseInt(spec.substring("every:".length())));
+        }
+        if (spec.startsWith("interval:")) {
+            return interval(Long.parseLong(spec.substring("interval:".length())));
+        }
+        throw new IllegalArgumentException("Unknown force policy: " + value);
+    }
+
+    /**
+     * Whether the journal should force now.
+     *
+     * @param unforcedRecords records appended since the last force
+     * @param nanosSinceForce nanoseconds since the last force
+     */
+    boolean shouldForce(long unforcedRecords, long nanosSinceForce) {
+        if (unforcedRecords == 0) {
+            return false;
+        }
+        if (everyRecords > 0) {
+            return unforcedRecords >= everyRecords;
+        }
+        return intervalNanos > 0 && nanosSinceForce >= intervalNanos;
+    }
+
+    /**
+     * Whether the policy depends on elapsed time, so appends need to read the clock.
+     */
+    boolean isTimed() {
+        return intervalNanos > 0;
+    }
+
+    @Override
+    public String toString() {
+        if (everyRecords == 1) {
+            return "always";
+        }
+        if (everyRecords > 1) {
+            return "every:" + everyRecords;
+        }
+        return intervalNanos > 0 ? "interval:" + TimeUnit.NANOSECONDS.toMillis(intervalNanos) : "never";
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.demo.journal;
+
+import io.avaje.inject.Bean;
+import io.avaje.inject.Factory;
+import io.avaje.inject.RequiresProperty;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Wires the optional {@link EventJournal}, enabled by setting {@code demo.journal.dir}:
+ * <ul>
+ *   <li>{@code demo.journal.dir} - directory holding the segment files</li>
+ *   <li>{@code demo.journal.segmentSize} - segment size in bytes (default 64 MB)</li>
+ *   <li>{@code demo.journal.force} - {@link ForcePolicy}, e.g. {@code never}, {@code always},
+ *       {@code every:1000} or {@code interval:100} (default interval:1000)</li>
+ * </ul>
+ */
+@Factory
+public class JournalFactory {
+
+    static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+
+    @Bean(destroyMethod = "close")
+    @RequiresProperty("demo.journal.dir")
+    EventJournal eventJournal() throws IOException {
+        return EventJournal.open(
+            Path.of(System.getProperty("demo.journal.dir")),
+            Integer.getInteger("demo.journal.segmentSize", DEFAULT_SEGMENT_SIZE),
+            ForcePolicy.parse(System.getProperty("demo.journal.force", "interval:1000")));
+    }
+}
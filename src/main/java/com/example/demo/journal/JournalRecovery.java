@@ -0,0 +1,47 @@
+package com.example.demo.journal;
+
+import com.example.demo.DemoEvent;
+import com.example.demo.dispatch.SubscriptionRegistry;
+import io.avaje.inject.BeanScope;
+import io.avaje.inject.PostConstruct;
+import io.avaje.inject.RequiresProperty;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Replays the journal into the subscribed handlers at startup and then starts journaling.
+ * <p>
+ * The {@link JournalingEventHandler} is subscribed only after the replay, so replayed events
+ * are not appended to the journal a second time.
+ */
+@Singleton
+@RequiresProperty("demo.journal.dir")
+public class JournalRecovery {
+
+    private static final Logger logger = LoggerFactory.getLogger(JournalRecovery.class);
+
+    private final SubscriptionRegistry registry;
+    private final EventJournal journal;
+    private long replayedCount;
+
+    public JournalRecovery(SubscriptionRegistry registry, EventJournal journal) {
+        this.registry = registry;
+        this.journal = journal;
+    }
+
+    /**
+     * Runs once the scope is wired. Taking the {@link BeanScope} orders this callback with the
+     * registry's handler discovery, which runs first, so replay reaches every handler bean.
+     */
+    @PostConstruct
+    void replayAndSubscribe(BeanScope beanScope) {
+        replayedCount = journal.replay(0, Long.MAX_VALUE, registry.publisher(DemoEvent.class));
+        logger.info("Replayed {} journaled events", replayedCount);
+        registry.subscribe(DemoEvent.class, new JournalingEventHandler(journal));
+    }
+
+    public long getReplayedCount() {
+        return replayedCount;
+    }
+}
@@ -0,0 +1,276 @@
+package com.example.demo.journal;
+
+import com.example.demo.DemoEvent;
+import com.example.demo.codec.EventCodec;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+/**
+ * One memory-mapped, fixed-size journal file.
+ * <p>
+ * Layout, little-endian:
+ * <pre>
+ *   header (64 bytes): int magic, int version, long baseSequence, int segmentSize
+ *   records, each aligned to 8 bytes:
+ *     int  recordLength   total length including padding, 0 marks the end of the data
+ *     int  crc            CRC32C of sequence and event body
+ *     long sequence
+ *     ...  event body     see {@link EventCodec}
+ * </pre>
+ * The record length is written after the body, so a record is only visible once complete;
+ * a torn record (crash mid-write) fails its CRC check during recovery.
+ */
+final class JournalSegment {
+
+    static final int MAGIC = 0x4C4A4544;
+    // 2: event bodies carry the partition key
+    static final int VERSION = 2;
+    static final int HEADER_SIZE = 64;
+    static final int RECORD_HEADER_SIZE = 16;
+
+    private final Path path;
+    private final long baseSequence;
+    private final int size;
+    private final MappedByteBuffer buffer;
+    private final ByteBuffer crcView;
+    private final CRC32C crc = new CRC32C();
+
+    private volatile int writePosition = HEADER_SIZE;
+    private volatile long lastSequence;
+    private volatile long minTimestamp = Long.MAX_VALUE;
+    private volatile long maxTimestamp = Long.MIN_VALUE;
+    private int forcedPosition = HEADER_SIZE;
+
+    private JournalSegment(Path path, long baseSequence, int size, MappedByteBuffer buffer) {
+        this.path = path;
+        this.baseSequence = baseSequence;
+        this.size = size;
+        this.buffer = buffer;
+        this.buffer.order(ByteOrder.LITTLE_ENDIAN);
+        this.crcView = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        this.lastSequence = baseSequence - 1;
+    }
+
+    static String fileName(long baseSequence) {
+        return String.format("journal-%020d.seg", baseSequence);
+    }
+
+    /**
+     * Create a new, empty segment file.
+     */
+    static JournalSegment create(Path directory, long baseSequence, int size) throws IOException {
+        Path path = directory.resolve(fileName(baseSequence));
+        JournalSegment segment = new JournalSegment(path, baseSequence, size, map(path, size));
+        segment.buffer.putInt(0, MAGIC);
+        segment.buffer.putInt(4, VERSION);
+        segment.buffer.putLong(8, baseSequence);
+        segment.buffer.putInt(16, size);
+        segment.buffer.force(0, HEADER_SIZE);
+        return segment;
+    }
+
+    /**
+     * Map an existing segment file. Call {@link #recover(long)} before using it.
+     */
+    static JournalSegment open(Path path) throws IOException {
+        int size;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            channel.read(header, 0);
+            if (header.getInt(0) != MAGIC) {
+                throw new IOException("Not a journal segment: " + path);
+            }
+            if (header.getInt(4) != VERSION) {
+                throw new IOException("Unsupported journal segment version " + header.getInt(4) + ": " + path);
+            }
+            size = header.getInt(16);
+            long baseSequence = header.getLong(8);
+            return new JournalSegment(path, baseSequence, size, map(path, size));
+        }
+    }
+
+    private static MappedByteBuffer map(Path path, int size) throws IOException {
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+    }
+
+    /**
+     * Scan the records, stopping at the first missing, torn or out-of-sequence record,
+     * and zero everything after it.
+     *
+     * @param expectedSequence the sequence the first record must carry
+     * @return true if a torn or invalid tail was truncated
+     */
+    boolean recover(long expectedSequence) {
+        int position = HEADER_SIZE;
+        long expected = expectedSequence;
+        boolean truncated = false;
+        while (position + RECORD_HEADER_SIZE <= size) {
+            int length = buffer.getInt(position);
+            if (length == 0) {
+                break;
+            }
+            if (length < RECORD_HEADER_SIZE + EventCodec.HEADER_SIZE || (length & 7) != 0
+                    || position + length > size || buffer.getLong(position + 8) != expected
+                    || !checksumMatches(position, length)) {
+                truncated = true;
+                break;
+            }
+            track(buffer.getLong(position + RECORD_HEADER_SIZE));
+            expected++;
+            position += length;
+        }
+        if (truncated) {
+            for (int i = position; i < size; i += Long.BYTES) {
+                buffer.putLong(i, 0L);
+            }
+            buffer.force(position, size - position);
+        }
+        lastSequence = expected - 1;
+        writePosition = position;
+        forcedPosition = position;
+        return truncated;
+    }
+
+    private boolean checksumMatches(int position, int length) {
+        int bodyEnd = position + RECORD_HEADER_SIZE + EventCodec.sizeAt(buffer, position + RECORD_HEADER_SIZE);
+        if (bodyEnd > position + length) {
+            return false;
+        }
+        return buffer.getInt(position + 4) == checksum(position + 8, bodyEnd);
+    }
+
+    private int checksum(int from, int to) {
+        crc.reset();
+        crcView.limit(to).position(from);
+        crc.update(crcView);
+        crcView.clear();
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Space a record for the given event occupies.
+     */
+    static int recordLength(DemoEvent event) {
+        return (RECORD_HEADER_SIZE + EventCodec.encodedSize(event) + 7) & ~7;
+    }
+
+    /**
+     * Largest record a segment of the given size can hold.
+     */
+    static int maxRecordLength(int segmentSize) {
+        return segmentSize - HEADER_SIZE;
+    }
+
+    /**
+     * Append a record if it fits. Only called by the single journal writer.
+     *
+     * @return false if the segment is full
+     */
+    boolean tryAppend(long sequence, DemoEvent event, int recordLength) {
+        int position = writePosition;
+        if (position + recordLength > size) {
+            return false;
+        }
+        buffer.putLong(position + 8, sequence);
+        int bodyLength = EventCodec.encode(event, buffer, position + RECORD_HEADER_SIZE);
+        buffer.putInt(position + 4, checksum(position + 8, position + RECORD_HEADER_SIZE + bodyLength));
+        buffer.putInt(position, recordLength);
+        track(event.getTimestamp());
+        lastSequence = sequence;
+        writePosition = position + recordLength;
+        return true;
+    }
+
+    private void track(long timestamp) {
+        if (timestamp < minTimestamp) {
+            minTimestamp = timestamp;
+        }
+        if (timestamp > maxTimestamp) {
+            maxTimestamp = timestamp;
+        }
+    }
+
+    /**
+     * Force records written since the last force to the storage device.
+     */
+    void force() {
+        int position = writePosition;
+        if (position > forcedPosition) {
+            buffer.force(forcedPosition, position - forcedPosition);
+            forcedPosition = position;
+        }
+    }
+
+    /**
+     * Visit records in {@code [fromSequence, toSequence)} whose timestamp is in
+     * {@code [fromMillis, toMillis)}, reading only data published before the call.
+     *
+     * @return number of records delivered
+     */
+    long read(long fromSequence, long toSequence, long fromMillis, long toMillis, RecordVisitor visitor) {
+        int end = writePosition;
+        int position = HEADER_SIZE;
+        long delivered = 0;
+        while (position < end) {
+            int length = buffer.getInt(position);
+            long sequence = buffer.getLong(position + 8);
+            if (sequence >= toSequence) {
+                break;
+            }
+            if (sequence >= fromSequence) {
+                long timestamp = buffer.getLong(position + RECORD_HEADER_SIZE);
+                if (timestamp >= fromMillis && timestamp < toMillis) {
+                    visitor.visit(sequence, EventCodec.decode(buffer, position + RECORD_HEADER_SIZE));
+                    delivered++;
+                }
+            }
+            position += length;
+        }
+        return delivered;
+    }
+
+    /**
+     * Callback for records read from a segment.
+     */
+    interface RecordVisitor {
+        void visit(long sequence, DemoEvent event);
+    }
+
+    Path path() {
+        return path;
+    }
+
+    long baseSequence() {
+        return baseSequence;
+    }
+
+    long lastSequence() {
+        return lastSequence;
+    }
+
+    long minTimestamp() {
+        return minTimestamp;
+    }
+
+    long maxTimestamp() {
+        return maxTimestamp;
+    }
+
+    int writePosition() {
+        return writePosition;
+    }
+
+    boolean isEmpty() {
+        return lastSequence < baseSequence;
+    }
+}
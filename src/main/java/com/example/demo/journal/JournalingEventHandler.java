@@ -0,0 +1,29 @@
+package com.example.demo.journal;
+
+import com.example.demo.DemoEvent;
+import com.example.demo.EventHandler;
+
+import java.util.List;
+
+/**
+ * Handler that appends every delivered event to an {@link EventJournal}.
+ * Batches are appended with a single force-policy check.
+ */
+public class JournalingEventHandler implements EventHandler<DemoEvent> {
+
+    private final EventJournal journal;
+
+    public JournalingEventHandler(EventJournal journal) {
+        this.journal = journal;
+    }
+
+    @Override
+    public void onEvent(DemoEvent event) {
+        journal.append(event);
+    }
+
+    @Override
+    public void onEvents(List<? extends DemoEvent> events) {
+        journal.appendAll(events);
+    }
+}
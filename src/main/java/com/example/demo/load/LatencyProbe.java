@@ -0,0 +1,71 @@
+package com.example.demo.load;
+
+import com.example.demo.DemoEvent;
+import com.example.demo.EventHandler;
+import com.example.demo.FlyweightEventHandler;
+import com.example.demo.MutableDemoEvent;
+import com.example.demo.aspect.TimedInterceptor.TimingStat;
+
+/**
+ * Subscribed next to the application's listeners, measures end-to-end latency of load events.
+ * <p>
+ * The {@link LoadGenerator} starts each message with the {@link System#nanoTime()} at which it
+ * was scheduled to be sent, followed by {@link #STAMP_END}. {@link DemoEvent} timestamps are
+ * wall-clock milliseconds, too coarse for this, and stamping the intended rather than the actual
+ * send time means a stalled producer does not hide the delay its backlog sees (coordinated
+ * omission). Messages without a stamp are ignored.
+ */
+public final class LatencyProbe implements EventHandler<DemoEvent>, FlyweightEventHandler {
+
+    static final char STAMP_END = '|';
+
+    private final TimingStat latency = new TimingStat();
+
+    /**
+     * Start a message with the given scheduled send time.
+     */
+    public static StringBuilder stamp(StringBuilder message, long intendedNanos) {
+        return message.append(intendedNanos).append(STAMP_END);
+    }
+
+    @Override
+    public void onEvent(DemoEvent event) {
+        receive(event.getMessage());
+    }
+
+    @Override
+    public void onFlyweight(MutableDemoEvent event) {
+        receive(event.getMessage());
+    }
+
+    private void receive(CharSequence message) {
+        long now = System.nanoTime();
+        long intended = 0;
+        int length = message.length();
+        boolean negative = length > 0 && message.charAt(0) == '-';
+        for (int i = negative ? 1 : 0; i < length && i < 21; i++) {
+            char c = message.charAt(i);
+            if (c == STAMP_END) {
+                if (i > (negative ? 1 : 0)) {
+                    latency.record(now - (negative ? -intended : intended), 1, false);
+                }
+                return;
+            }
+            if (c < '0' || c > '9') {
+                return;
+            }
+            intended = intended * 10 + (c - '0');
+        }
+    }
+
+    /**
+     * Latency of all load events received so far; its interval snapshots give per-report figures.
+     */
+    public TimingStat getLatency() {
+        return latency;
+    }
+
+    public long getReceivedCount() {
+        return latency.getCallCount();
+    }
+}
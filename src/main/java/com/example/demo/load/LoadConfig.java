@@ -0,0 +1,78 @@
+package com.example.demo.load;
+
+/**
+ * Settings of a load run, read from system properties by {@link #fromSystemProperties()}:
+ * <ul>
+ *   <li>{@code demo.load.threads} - producer threads (default 4)</li>
+ *   <li>{@code demo.load.rate} - target events per second over all threads (default 10000);
+ *   0 sends as fast as the producers can, closed-loop</li>
+ *   <li>{@code demo.load.duration} - run time in seconds (default 60)</li>
+ *   <li>{@code demo.load.reportSeconds} - seconds between progress lines (default 5)</li>
+ *   <li>{@code demo.load.payload} - payload size distribution (default {@code fixed:64}),
+ *   see {@link PayloadSizes}</li>
+ * </ul>
+ */
+public final class LoadConfig {
+
+    private final int threads;
+    private final long ratePerSecond;
+    private final long durationSeconds;
+    private final long reportSeconds;
+    private final PayloadSizes payloadSizes;
+
+    public LoadConfig(int threads, long ratePerSecond, long durationSeconds, long reportSeconds,
+                      PayloadSizes payloadSizes) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be positive, was " + threads);
+        }
+        if (ratePerSecond < 0) {
+            throw new IllegalArgumentException("rate must not be negative, was " + ratePerSecond);
+        }
+        if (durationSeconds < 1 || reportSeconds < 1) {
+            throw new IllegalArgumentException("duration and report interval must be at least 1 second");
+        }
+        this.threads = threads;
+        this.ratePerSecond = ratePerSecond;
+        this.durationSeconds = durationSeconds;
+        this.reportSeconds = reportSeconds;
+        this.payloadSizes = payloadSizes;
+    }
+
+    public static LoadConfig fromSystemProperties() {
+        return new LoadConfig(
+            Integer.getInteger("demo.load.threads", 4),
+            Long.getLong("demo.load.rate", 10_000),
+            Long.getLong("demo.load.duration", 60),
+            Long.getLong("demo.load.reportSeconds", 5),
+            PayloadSizes.parse(System.getProperty("demo.load.payload", "fixed:64")));
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * Target events per second over all producer threads, 0 for closed-loop.
+     */
+    public long getRatePerSecond() {
+        return ratePerSecond;
+    }
+
+    public long getDurationSeconds() {
+        return durationSeconds;
+    }
+
+    public long getReportSeconds() {
+        return reportSeconds;
+    }
+
+    public PayloadSizes getPayloadSizes() {
+        return payloadSizes;
+    }
+
+    @Override
+    public String toString() {
+        return threads + " threads, " + (ratePerSecond == 0 ? "unthrottled" : ratePerSecond + " events/s")
+            + ", " + durationSeconds + " s, payload " + payloadSizes;
+    }
+}
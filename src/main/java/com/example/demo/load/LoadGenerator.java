@@ -0,0 +1,253 @@
+package com.example.demo.load;
+
+import com.example.demo.EventProducer;
+import com.example.demo.aspect.IntervalSnapshot;
+import com.example.demo.aspect.LatencyHistogram;
+
+import java.io.PrintStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongSupplier;
+
+/**
+ * Drives {@link EventProducer#produceEvent(String)} from several threads and reports throughput,
+ * end-to-end latency and heap/GC figures while it runs.
+ * <p>
+ * With a target rate the load is open-loop: each producer thread sends on a fixed schedule of
+ * {@code threads / rate} seconds per event and, when it falls behind, sends the late events
+ * back to back instead of skipping them. Latency is measured by a {@link LatencyProbe} from the
+ * scheduled send time, so queueing behind a slow call counts against the events that waited.
+ * With a rate of 0 every thread sends as fast as it can and latency starts at the actual send.
+ * <p>
+ * Each report line covers the events received since the previous one; the summary at the end
+ * covers the whole run.
+ */
+public final class LoadGenerator {
+
+    private static final long SPIN_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    private static final long DRAIN_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private final EventProducer producer;
+    private final LatencyProbe probe;
+    private final LoadConfig config;
+    private final LongSupplier pendingEvents;
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private volatile boolean running;
+
+    /**
+     * @param producer the (proxied) producer to drive
+     * @param probe a probe subscribed to receive the produced events
+     * @param config the load settings
+     * @param pendingEvents events dispatched but not yet delivered, waited for at the end
+     */
+    public LoadGenerator(EventProducer producer, LatencyProbe probe, LoadConfig config, LongSupplier pendingEvents) {
+        this.producer = producer;
+        this.probe = probe;
+        this.config = config;
+        this.pendingEvents = pendingEvents;
+    }
+
+    /**
+     * Run the load for the configured duration, printing progress to {@code out}.
+     */
+    public Summary run(PrintStream out) throws InterruptedException {
+        out.printf(Locale.ROOT, "Load: %s%n", config);
+        GcTotals gcBefore = GcTotals.now();
+        long start = System.nanoTime();
+        long end = start + TimeUnit.SECONDS.toNanos(config.getDurationSeconds());
+        running = true;
+        List<Thread> threads = startProducers(start);
+        try {
+            long reportNanos = TimeUnit.SECONDS.toNanos(config.getReportSeconds());
+            long lastSent = 0;
+            GcTotals lastGc = gcBefore;
+            for (long next = start + reportNanos; next < end + reportNanos; next += reportNanos) {
+                long due = Math.min(next, end);
+                sleepUntil(due);
+                long totalSent = sent.sum();
+                GcTotals gc = GcTotals.now();
+                report(out, due - start, totalSent - lastSent, probe.getLatency().rollInterval(), gc.minus(lastGc));
+                lastSent = totalSent;
+                lastGc = gc;
+            }
+        } finally {
+            running = false;
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        drain();
+        Summary summary = new Summary(sent.sum(), failed.sum(), probe.getReceivedCount(), elapsed,
+            probe.getLatency().getLatencySnapshot(), GcTotals.now().minus(gcBefore));
+        summary.print(out);
+        return summary;
+    }
+
+    private List<Thread> startProducers(long start) {
+        int threadCount = config.getThreads();
+        long rate = config.getRatePerSecond();
+        long periodNanos = rate == 0 ? 0 : Math.max(1, TimeUnit.SECONDS.toNanos(threadCount) / rate);
+        List<Thread> threads = new ArrayList<>(threadCount);
+        for (int i = 0; i < threadCount; i++) {
+            long first = start + periodNanos * i / threadCount;
+            Thread thread = new Thread(() -> produce(first, periodNanos), "load-producer-" + i);
+            thread.setDaemon(true);
+            thread.start();
+            threads.add(thread);
+        }
+        return threads;
+    }
+
+    private void produce(long first, long periodNanos) {
+        PayloadSizes sizes = config.getPayloadSizes();
+        String padding = "x".repeat(sizes.getMax());
+        StringBuilder message = new StringBuilder(24 + sizes.getMax());
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long end = first + TimeUnit.SECONDS.toNanos(config.getDurationSeconds());
+        for (long intended = first; running; intended += periodNanos) {
+            if (periodNanos == 0) {
+                intended = System.nanoTime();
+            } else {
+                sleepUntil(intended);
+            }
+            if (intended - end >= 0) {
+                return;
+            }
+            message.setLength(0);
+            LatencyProbe.stamp(message, intended).append(padding, 0, sizes.next(random));
+            try {
+                producer.produceEvent(message.toString());
+                sent.increment();
+            } catch (RuntimeException e) {
+                failed.increment();
+            }
+        }
+    }
+
+    private static void sleepUntil(long deadline) {
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            if (remaining > SPIN_NANOS) {
+                LockSupport.parkNanos(remaining - SPIN_NANOS);
+            } else {
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    private void drain() throws InterruptedException {
+        long deadline = System.nanoTime() + DRAIN_TIMEOUT_NANOS;
+        while ((pendingEvents.getAsLong() > 0 || probe.getReceivedCount() < sent.sum())
+                && System.nanoTime() - deadline < 0) {
+            Thread.sleep(10);
+        }
+    }
+
+    private static void report(PrintStream out, long elapsedNanos, long sentInInterval,
+                               IntervalSnapshot received, GcTotals gc) {
+        MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+        LatencyHistogram.Snapshot latency = received.getLatencySnapshot();
+        double seconds = received.getDurationSeconds();
+        out.printf(Locale.ROOT,
+            "%6.0fs  sent %9.0f/s  received %9.0f/s  latency ms p50 %8.3f p99 %8.3f p99.9 %8.3f max %8.3f"
+                + "  heap %5d/%5d MB  gc %3d (%d ms)%n",
+            elapsedNanos / 1e9, seconds > 0 ? sentInInterval / seconds : 0.0, received.getCallsPerSecond(),
+            millis(latency, 50), millis(latency, 99), millis(latency, 99.9), latency.getMax() / 1e6,
+            heap.getUsed() >> 20, heap.getCommitted() >> 20, gc.count, gc.millis);
+    }
+
+    private static double millis(LatencyHistogram.Snapshot latency, double percentile) {
+        return latency.getValueAtPercentile(percentile) / 1e6;
+    }
+
+    /**
+     * Outcome of a load run.
+     */
+    public static final class Summary {
+        private final long sent;
+        private final long failed;
+        private final long received;
+        private final long elapsedNanos;
+        private final LatencyHistogram.Snapshot latency;
+        private final GcTotals gc;
+
+        Summary(long sent, long failed, long received, long elapsedNanos,
+                LatencyHistogram.Snapshot latency, GcTotals gc) {
+            this.sent = sent;
+            this.failed = failed;
+            this.received = received;
+            this.elapsedNanos = elapsedNanos;
+            this.latency = latency;
+            this.gc = gc;
+        }
+
+        public long getSent() {
+            return sent;
+        }
+
+        public long getFailed() {
+            return failed;
+        }
+
+        public long getReceived() {
+            return received;
+        }
+
+        public double getSentPerSecond() {
+            return elapsedNanos > 0 ? sent * 1e9 / elapsedNanos : 0.0;
+        }
+
+        /**
+         * End-to-end latency of all received events.
+         */
+        public LatencyHistogram.Snapshot getLatency() {
+            return latency;
+        }
+
+        void print(PrintStream out) {
+            out.printf(Locale.ROOT, "%nSent %d events (%.0f/s), %d failed, %d received%n",
+                sent, getSentPerSecond(), failed, received);
+            out.printf(Locale.ROOT, "Latency ms: p50 %.3f, p90 %.3f, p99 %.3f, p99.9 %.3f, p99.99 %.3f, max %.3f%n",
+                millis(latency, 50), millis(latency, 90), millis(latency, 99), millis(latency, 99.9),
+                millis(latency, 99.99), latency.getMax() / 1e6);
+            out.printf(Locale.ROOT, "GC: %d collections, %d ms%n", gc.count, gc.millis);
+        }
+    }
+
+    /**
+     * Collection count and time summed over all collectors.
+     */
+    static final class GcTotals {
+        final long count;
+        final long millis;
+
+        GcTotals(long count, long millis) {
+            this.count = count;
+            this.millis = millis;
+        }
+
+        static GcTotals now() {
+            long count = 0;
+            long millis = 0;
+            for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+                count += Math.max(0, collector.getCollectionCount());
+                millis += Math.max(0, collector.getCollectionTime());
+            }
+            return new GcTotals(count, millis);
+        }
+
+        GcTotals minus(GcTotals earlier) {
+            return new GcTotals(count - earlier.count, millis - earlier.millis);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.demo.load;
+
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Distribution of generated message payload sizes, in characters, parsed from a spec:
+ * <ul>
+ *   <li>{@code fixed:N} - always {@code N}</li>
+ *   <li>{@code uniform:MIN:MAX} - uniform between {@code MIN} and {@code MAX}, both included</li>
+ *   <li>{@code exponential:MEAN} - exponential with the given mean, capped at 16 times the mean,
+ *   for a long tail of occasional large messages</li>
+ * </ul>
+ */
+public final class PayloadSizes {
+
+    private final String spec;
+    private final int min;
+    private final int max;
+    private final double mean;
+    private final boolean exponential;
+
+    private PayloadSizes(String spec, int min, int max, double mean, boolean exponential) {
+        this.spec = spec;
+        this.min = min;
+        this.max = max;
+        this.mean = mean;
+        this.exponential = exponential;
+    }
+
+    public static PayloadSizes parse(String spec) {
+        String[] parts = spec.trim().toLowerCase(Locale.ROOT).split(":");
+        try {
+            switch (parts[0]) {
+                case "fixed":
+                    if (parts.length == 2) {
+                        int size = nonNegative(parts[1], spec);
+                        return new PayloadSizes(spec, size, size, size, false);
+                    }
+                    break;
+                case "uniform":
+                    if (parts.length == 3) {
+                        int min = nonNegative(parts[1], spec);
+                        int max = nonNegative(parts[2], spec);
+                        if (max >= min) {
+                            return new PayloadSizes(spec, min, max, (min + max) / 2.0, false);
+                        }
+                    }
+                    break;
+                case "exponential":
+                    if (parts.length == 2) {
+                        int mean = nonNegative(parts[1], spec);
+                        return new PayloadSizes(spec, 0, mean * 16, mean, true);
+                    }
+                    break;
+                default:
+                    break;
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid payload size spec '" + spec + "'", e);
+        }
+        throw new IllegalArgumentException("Invalid payload size spec '" + spec
+            + "', expected fixed:N, uniform:MIN:MAX or exponential:MEAN");
+    }
+
+    private static int nonNegative(String value, String spec) {
+        int parsed = Integer.parseInt(value);
+        if (parsed < 0) {
+            throw new IllegalArgumentException("Negative size in payload size spec '" + spec + "'");
+        }
+        return parsed;
+    }
+
+    /**
+     * Draw the next payload size.
+     */
+    public int next(ThreadLocalRandom random) {
+        if (exponential) {
+            double drawn = -mean * Math.log(1.0 - random.nextDouble());
+            return (int) Math.min(max, Math.round(drawn));
+        }
+        return min == max ? min : random.nextInt(min, max + 1);
+    }
+
+    /**
+     * Largest size {@link #next} returns.
+     */
+    public int getMax() {
+        return max;
+    }
+
+    public double getMean() {
+        return mean;
+    }
+
+    @Override
+    public String toString() {
+        return spec;
+    }
+}
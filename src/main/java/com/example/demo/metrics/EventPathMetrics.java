@@ -0,0 +1,79 @@
+package com.example.demo.metrics;
+
+import com.example.demo.EventListener;
+import com.example.demo.dispatch.BackpressureStats;
+import com.example.demo.dispatch.EventDispatcher;
+import com.example.demo.dispatch.PartitionedEventDispatcher;
+import jakarta.inject.Singleton;
+
+/**
+ * Event path metrics: throughput and evictions at the listener, and the depth and flow control
+ * counters of the dispatch queue (0 in the synchronous mode).
+ */
+@Singleton
+public class EventPathMetrics implements MetricsSource {
+
+    private final EventDispatcher dispatcher;
+    private final EventListener listener;
+    // lane label values, built once rather than per sample
+    private final String[] laneLabels;
+
+    public EventPathMetrics(EventDispatcher dispatcher, EventListener listener) {
+        this.dispatcher = dispatcher;
+        this.listener = listener;
+        int lanes = dispatcher instanceof PartitionedEventDispatcher
+            ? ((PartitionedEventDispatcher) dispatcher).laneCount()
+            : 0;
+        this.laneLabels = new String[lanes];
+        for (int lane = 0; lane < lanes; lane++) {
+            laneLabels[lane] = Integer.toString(lane);
+        }
+    }
+
+    @Override
+    public void collect(MetricsWriter writer) {
+        writer.family("demo_events_received", "counter", "Events received by the listener");
+        writer.name("demo_events_received_total").value(listener.getReceivedCount());
+        writer.family("demo_events_evicted", "counter", "Events dropped from the listener's bounded store");
+        writer.name("demo_events_evicted_total").value(listener.getEvictedCount());
+        writer.family("demo_dispatch_queue_depth", "gauge", "Events dispatched but not yet delivered");
+        writer.name("demo_dispatch_queue_depth").value(dispatcher.pending());
+        writer.family("demo_dispatch_queue_capacity", "gauge", "Capacity of the dispatch queue");
+        writer.name("demo_dispatch_queue_capacity").value(dispatcher.bufferSize());
+
+        BackpressureStats backpressure = dispatcher.backpressure();
+        writer.family("demo_dispatch_queue_high_watermark", "gauge", "Deepest a dispatch queue has been");
+        writer.name("demo_dispatch_queue_high_watermark").value(backpressure.getHighWatermark());
+        writer.family("demo_dispatch_dropped", "counter", "Events dropped by the overflow policy");
+        writer.name("demo_dispatch_dropped_total").value(backpressure.getDroppedCount());
+        writer.family("demo_dispatch_rejected", "counter", "Non-blocking dispatches refused by a full queue");
+        writer.name("demo_dispatch_rejected_total").value(backpressure.getRejectedCount());
+        writer.family("demo_dispatch_caller_runs", "counter", "Events delivered on the producer's thread");
+        writer.name("demo_dispatch_caller_runs_total").value(backpressure.getCallerRunsCount());
+        writer.family("demo_dispatch_blocked_seconds", "counter", "Time producers waited for room in a queue");
+        writer.name("demo_dispatch_blocked_seconds_total").nanosAsSeconds(backpressure.getBlockedNanos());
+
+        if (dispatcher instanceof PartitionedEventDispatcher) {
+            collectLanes((PartitionedEventDispatcher) dispatcher, writer);
+        }
+    }
+
+    private void collectLanes(PartitionedEventDispatcher partitioned, MetricsWriter writer) {
+        int lanes = laneLabels.length;
+        writer.family("demo_dispatch_lane_depth", "gauge", "Events dispatched to a lane but not yet delivered");
+        for (int lane = 0; lane < lanes; lane++) {
+            writer.name("demo_dispatch_lane_depth").label("lane", laneLabels[lane]).value(partitioned.lanePending(lane));
+        }
+        writer.family("demo_dispatch_lane_delivered", "counter", "Events delivered by a lane");
+        for (int lane = 0; lane < lanes; lane++) {
+            writer.name("demo_dispatch_lane_delivered_total").label("lane", laneLabels[lane]).value(partitioned.laneDelivered(lane));
+        }
+        writer.family("demo_dispatch_lane_latency_p99_seconds", "gauge", "99th percentile of the time from dispatch to delivery on a lane");
+        for (int lane = 0; lane < lanes; lane++) {
+            long p99 = partitioned.laneLatency(lane).valueAtPercentile(99);
+            writer.name("demo_dispatch_lane_latency_p99_seconds").label("lane", laneLabels[lane]).nanosAsSeconds(p99);
+        }
+        writer.family("demo_dispatch_lane_skew", "gauge", "Busiest lane's load relative to an even share since the last rebalance");
+        writer.name("demo_dispatch_lane_skew").value(partitioned.skew(), 3);
+    }
+}
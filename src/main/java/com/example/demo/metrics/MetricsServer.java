@@ -0,0 +1,101 @@
+package com.example.demo.metrics;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.avaje.inject.PostConstruct;
+import io.avaje.inject.PreDestroy;
+import io.avaje.inject.RequiresProperty;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Embedded OpenMetrics endpoint at {@code /metrics}, enabled by {@code -Ddemo.metrics.port}
+ * (0 picks a free port). Every {@link MetricsSource} bean is rendered into one reusable
+ * {@link MetricsWriter}; scrapes are served one at a time by a single daemon thread.
+ */
+@Singleton
+@RequiresProperty("demo.metrics.port")
+public class MetricsServer {
+
+    private static final Logger logger = LoggerFactory.getLogger(MetricsServer.class);
+
+    static final String CONTENT_TYPE = "application/openmetrics-text; version=1.0.0; charset=utf-8";
+
+    private final List<MetricsSource> sources;
+    private final MetricsWriter writer = new MetricsWriter();
+    private HttpServer server;
+    private ExecutorService executor;
+
+    public MetricsServer(List<MetricsSource> sources) {
+        this.sources = sources;
+    }
+
+    @PostConstruct
+    void start() {
+        int port = Integer.getInteger("demo.metrics.port", 0);
+        try {
+            server = HttpServer.create(new InetSocketAddress(port), 0);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to bind metrics endpoint to port " + port, e);
+        }
+        executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "metrics-http");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext("/metrics", this::handle);
+        server.start();
+        logger.info("Serving metrics on http://localhost:{}/metrics", port());
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            render();
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            exchange.sendResponseHeaders(200, writer.size());
+            try (OutputStream body = exchange.getResponseBody()) {
+                writer.writeTo(body);
+            }
+        }
+    }
+
+    /**
+     * Render all sources into the shared writer.
+     */
+    synchronized MetricsWriter render() {
+        writer.reset();
+        for (MetricsSource source : sources) {
+            source.collect(writer);
+        }
+        return writer.eof();
+    }
+
+    /**
+     * The port the server listens on.
+     */
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    @PreDestroy
+    void stop() {
+        if (server != null) {
+            server.stop(0);
+            executor.shutdownNow();
+        }
+    }
+}
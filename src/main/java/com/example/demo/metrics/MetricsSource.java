@@ -0,0 +1,13 @@
+package com.example.demo.metrics;
+
+/**
+ * A bean that contributes metric families to the {@link MetricsServer} scrape.
+ * Implementations are called on the scrape thread and should only read counters.
+ */
+public interface MetricsSource {
+
+    /**
+     * Write this source's metric families.
+     */
+    void collect(MetricsWriter writer);
+}
@@ -0,0 +1,232 @@
+package com.example.demo.metrics;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Writes the OpenMetrics text format into a reusable byte buffer.
+ * <p>
+ * Numbers are rendered digit by digit and names are expected to be ASCII, so once the buffer
+ * has grown to the size of a full scrape, rendering allocates nothing. Label values are escaped
+ * as the format requires. Not thread-safe: one writer serves one scrape at a time.
+ */
+public final class MetricsWriter {
+
+    private static final long[] POWERS_OF_TEN = {
+        1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L, 1_000_000_000L
+    };
+
+    private byte[] buffer;
+    private int size;
+
+    public MetricsWriter() {
+        this(8192);
+    }
+
+    public MetricsWriter(int initialCapacity) {
+        this.buffer = new byte[initialCapacity];
+    }
+
+    /**
+     * Discard everything written, keeping the buffer.
+     */
+    public void reset() {
+        size = 0;
+    }
+
+    /**
+     * Write the metric family header: {@code # TYPE} and {@code # HELP} lines.
+     *
+     * @param type counter, gauge or histogram
+     */
+    public MetricsWriter family(String name, String type, String help) {
+        ascii("# TYPE ").ascii(name).put(' ').ascii(type).put('\n');
+        return ascii("# HELP ").ascii(name).put(' ').ascii(help).put('\n');
+    }
+
+    /**
+     * Start a sample line; follow with optional labels and then a value.
+     */
+    public MetricsWriter name(String name) {
+        return ascii(name);
+    }
+
+    /**
+     * Start a sample line whose name is a family name plus a suffix such as {@code _total}.
+     */
+    public MetricsWriter name(String family, String suffix) {
+        return ascii(family).ascii(suffix);
+    }
+
+    /**
+     * Write a single-label set, e.g. <code>{method="X"}</code>.
+     */
+    public MetricsWriter label(String name, CharSequence value) {
+        put('{');
+        labelPair(name, value);
+        return put('}');
+    }
+
+    /**
+     * Write a two-label set.
+     */
+    public MetricsWriter labels(String name, CharSequence value, String otherName, CharSequence otherValue) {
+        put('{');
+        labelPair(name, value);
+        put(',');
+        labelPair(otherName, otherValue);
+        return put('}');
+    }
+
+    private void labelPair(String name, CharSequence value) {
+        ascii(name).put('=').put('"');
+        for (int i = 0, n = value.length(); i < n; i++) {
+            char c = value.charAt(i);
+            if (c == '\\' || c == '"') {
+                put('\\').put(c);
+            } else if (c == '\n') {
+                put('\\').put('n');
+            } else if (c < 0x80) {
+                put(c);
+            } else {
+                // metric labels are expected to be ASCII; replace anything else to keep the output ASCII
+                put('?');
+            }
+        }
+        put('"');
+    }
+
+    /**
+     * End a sample line with an integer value.
+     */
+    public MetricsWriter value(long value) {
+        put(' ');
+        writeLong(value);
+        return put('\n');
+    }
+
+    /**
+     * End a sample line with a decimal value rendered with the given number of fraction digits (at most 9).
+     */
+    public MetricsWriter value(double value, int fractionDigits) {
+        put(' ');
+        writeDecimal(value, fractionDigits);
+        return put('\n');
+    }
+
+    /**
+     * End a sample line with a duration in nanoseconds rendered exactly as seconds.
+     */
+    public MetricsWriter nanosAsSeconds(long nanos) {
+        put(' ');
+        writeFixed(nanos, 9);
+        return put('\n');
+    }
+
+    /**
+     * Write the terminating {@code # EOF} line.
+     */
+    public MetricsWriter eof() {
+        return ascii("# EOF\n");
+    }
+
+    private void writeDecimal(double value, int fractionDigits) {
+        if (Double.isNaN(value)) {
+            ascii("NaN");
+            return;
+        }
+        if (Double.isInfinite(value)) {
+            ascii(value > 0 ? "+Inf" : "-Inf");
+            return;
+        }
+        int digits = Math.min(Math.max(fractionDigits, 0), 9);
+        double scaled = Math.rint(value * POWERS_OF_TEN[digits]);
+        if (Math.abs(scaled) >= Long.MAX_VALUE) {
+            // too large for fixed-point rendering; fall back to the (allocating) standard form
+            ascii(Double.toString(value));
+            return;
+        }
+        writeFixed((long) scaled, digits);
+    }
+
+    private void writeFixed(long scaled, int fractionDigits) {
+        long magnitude = scaled;
+        if (magnitude < 0) {
+            put('-');
+            magnitude = -magnitude;
+        }
+        long unit = POWERS_OF_TEN[fractionDigits];
+        writeLong(magnitude / unit);
+        if (fractionDigits > 0) {
+            put('.');
+            long fraction = magnitude % unit;
+            for (long divisor = unit / 10; divisor > 0; divisor /= 10) {
+                put((char) ('0' + (fraction / divisor) % 10));
+            }
+        }
+    }
+
+    private void writeLong(long value) {
+        if (value == Long.MIN_VALUE) {
+            ascii("-9223372036854775808");
+            return;
+        }
+        long magnitude = value;
+        if (magnitude < 0) {
+            put('-');
+            magnitude = -magnitude;
+        }
+        int length = 1;
+        for (long bound = 10; length < 19 && magnitude >= bound; bound *= 10) {
+            length++;
+        }
+        ensureCapacity(length);
+        for (int i = size + length - 1; i >= size; i--) {
+            buffer[i] = (byte) ('0' + magnitude % 10);
+            magnitude /= 10;
+        }
+        size += length;
+    }
+
+    private MetricsWriter ascii(String text) {
+        int length = text.length();
+        ensureCapacity(length);
+        for (int i = 0; i < length; i++) {
+            buffer[size++] = (byte) text.charAt(i);
+        }
+        return this;
+    }
+
+    private MetricsWriter put(char c) {
+        ensureCapacity(1);
+        buffer[size++] = (byte) c;
+        return this;
+    }
+
+    private void ensureCapacity(int extra) {
+        if (size + extra > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + extra));
+        }
+    }
+
+    /**
+     * Number of bytes written.
+     */
+    public int size() {
+        return size;
+    }
+
+    public void writeTo(OutputStream out) throws IOException {
+        out.write(buffer, 0, size);
+    }
+
+    /**
+     * The written text, for tests and logging.
+     */
+    @Override
+    public String toString() {
+        return new String(buffer, 0, size, StandardCharsets.US_ASCII);
+    }
+}
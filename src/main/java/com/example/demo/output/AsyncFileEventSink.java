@@ -0,0 +1,206 @@
+package com.example.demo.output;
+
+import com.example.demo.DemoEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sink that appends lines to a file from a background thread.
+ * <p>
+ * Callers format into the active one of two buffers, holding the sink's lock only for that.
+ * The writer thread swaps the buffers once {@code flushBytes} are pending or the oldest pending
+ * line has waited {@code flushMillis}, and writes the full buffer through a {@link FileChannel}
+ * while callers fill the other one. Callers wait only when the active buffer is full, which is
+ * twice {@code flushBytes}, while the writer is still busy with the previous one.
+ * <p>
+ * A write failure is logged once and later output is discarded; event handling carries on.
+ */
+public class AsyncFileEventSink implements EventSink {
+
+    private static final Logger logger = LoggerFactory.getLogger(AsyncFileEventSink.class);
+
+    private static final long CLOSE_TIMEOUT_MILLIS = 5_000;
+
+    private final FileChannel channel;
+    private final int flushBytes;
+    private final long flushNanos;
+    private final Thread writer;
+    // guarded by this
+    private ByteBuffer active;
+    private ByteBuffer spare;
+    private long firstPendingNanos;
+    private long appendedBytes;
+    private long writtenBytes;
+    private int flushWaiters;
+    private boolean closed;
+    private volatile IOException failure;
+
+    /**
+     * Open the file for appending, creating it if needed, and start the writer thread.
+     *
+     * @param flushBytes pending bytes that trigger a write
+     * @param flushMillis longest a line stays pending
+     */
+    public static AsyncFileEventSink open(Path file, int flushBytes, long flushMillis) throws IOException {
+        return new AsyncFileEventSink(FileChannel.open(file,
+            StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND), flushBytes, flushMillis);
+    }
+
+    AsyncFileEventSink(FileChannel channel, int flushBytes, long flushMillis) {
+        if (flushBytes < 1) {
+            throw new IllegalArgumentException("flushBytes must be at least 1, was " + flushBytes);
+        }
+        this.channel = channel;
+        this.flushBytes = flushBytes;
+        this.flushNanos = TimeUnit.MILLISECONDS.toNanos(flushMillis);
+        this.active = ByteBuffer.allocate(2 * flushBytes);
+        this.spare = ByteBuffer.allocate(2 * flushBytes);
+        this.writer = new Thread(this::writeBuffers, "event-output-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @Override
+    public synchronized void write(CharSequence message, long timestamp, String partitionKey) {
+        append(message, timestamp, partitionKey);
+    }
+
+    @Override
+    public synchronized void writeAll(List<? extends DemoEvent> events) {
+        for (DemoEvent event : events) {
+            append(event.getMessage(), event.getTimestamp(), event.getPartitionKey());
+        }
+    }
+
+    private void append(CharSequence message, long timestamp, String partitionKey) {
+        if (closed || failure != null) {
+            return;
+        }
+        int size = EventFormat.size(message, timestamp, partitionKey);
+        try {
+            while (size > active.remaining() && active.position() > 0 && failure == null) {
+                wait();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for event output", e);
+        }
+        if (size > active.remaining()) {
+            // a line longer than the buffer; the empty buffer is replaced by one that fits it
+            active = ByteBuffer.allocate(size);
+        }
+        if (active.position() == 0) {
+            firstPendingNanos = System.nanoTime();
+            notifyAll();
+        }
+        EventFormat.write(active, message, timestamp, partitionKey);
+        appendedBytes += size;
+        if (active.position() >= flushBytes && active.position() - size < flushBytes) {
+            notifyAll();
+        }
+    }
+
+    /**
+     * Wait until everything written so far is in the file.
+     */
+    @Override
+    public synchronized void flush() {
+        long target = appendedBytes;
+        flushWaiters++;
+        notifyAll();
+        try {
+            while (writtenBytes < target && failure == null && writer.isAlive()) {
+                wait();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            flushWaiters--;
+        }
+    }
+
+    public synchronized long getBytesWritten() {
+        return writtenBytes;
+    }
+
+    private void writeBuffers() {
+        try {
+            while (true) {
+                ByteBuffer full;
+                synchronized (this) {
+                    while (active.position() == 0 && !closed) {
+                        wait();
+                    }
+                    if (active.position() == 0) {
+                        return;
+                    }
+                    long deadline = firstPendingNanos + flushNanos;
+                    long remaining;
+                    while (!closed && flushWaiters == 0 && active.position() < flushBytes
+                        && (remaining = deadline - System.nanoTime()) > 0) {
+                        TimeUnit.NANOSECONDS.timedWait(this, remaining);
+                    }
+                    full = active;
+                    active = spare;
+                    spare = full;
+                    notifyAll();
+                }
+                int bytes = full.flip().remaining();
+                if (failure == null) {
+                    writeFully(full);
+                }
+                full.clear();
+                synchronized (this) {
+                    writtenBytes += bytes;
+                    notifyAll();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void writeFully(ByteBuffer bytes) {
+        try {
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+        } catch (IOException e) {
+            failure = e;
+            logger.error("Failed to write event output, discarding further output", e);
+        }
+    }
+
+    /**
+     * Stop accepting lines, write out everything pending and close the file.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            notifyAll();
+        }
+        try {
+            writer.join(CLOSE_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                logger.warn("Failed to close event output", e);
+            }
+        }
+    }
+}
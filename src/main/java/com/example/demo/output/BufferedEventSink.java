@@ -0,0 +1,94 @@
+package com.example.demo.output;
+
+import com.example.demo.DemoEvent;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.List;
+
+/**
+ * Synchronous sink that formats lines into one reusable buffer and writes it to a channel when
+ * it is full, on {@link #flush()} and on {@link #close()}. With {@code flushEachWrite}, each
+ * {@link #write} or {@link #writeAll} call ends with a write, so a batch costs one write instead
+ * of one locked, flushed {@code println} per event.
+ * <p>
+ * Writers hold the sink's lock while formatting and while writing out a full buffer. The channel
+ * is not closed by the sink, so it can wrap {@code System.out}.
+ */
+public class BufferedEventSink implements EventSink {
+
+    private final WritableByteChannel channel;
+    private final ByteBuffer buffer;
+    private final boolean flushEachWrite;
+
+    /**
+     * @param bufferSize bytes buffered before they are written; a longer line is written on its own
+     * @param flushEachWrite whether every call writes out what it formatted
+     */
+    public BufferedEventSink(WritableByteChannel channel, int bufferSize, boolean flushEachWrite) {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocate(bufferSize);
+        this.flushEachWrite = flushEachWrite;
+    }
+
+    @Override
+    public synchronized void write(CharSequence message, long timestamp, String partitionKey) {
+        append(message, timestamp, partitionKey);
+        if (flushEachWrite) {
+            drain();
+        }
+    }
+
+    @Override
+    public synchronized void writeAll(List<? extends DemoEvent> events) {
+        for (DemoEvent event : events) {
+            append(event.getMessage(), event.getTimestamp(), event.getPartitionKey());
+        }
+        if (flushEachWrite) {
+            drain();
+        }
+    }
+
+    private void append(CharSequence message, long timestamp, String partitionKey) {
+        int size = EventFormat.size(message, timestamp, partitionKey);
+        if (size > buffer.remaining()) {
+            drain();
+            if (size > buffer.capacity()) {
+                ByteBuffer line = ByteBuffer.allocate(size);
+                EventFormat.write(line, message, timestamp, partitionKey);
+                writeFully(line.flip());
+                return;
+            }
+        }
+        EventFormat.write(buffer, message, timestamp, partitionKey);
+    }
+
+    @Override
+    public synchronized void flush() {
+        drain();
+    }
+
+    @Override
+    public void close() {
+        flush();
+    }
+
+    private void drain() {
+        if (buffer.position() > 0) {
+            writeFully(buffer.flip());
+            buffer.clear();
+        }
+    }
+
+    private void writeFully(ByteBuffer bytes) {
+        try {
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write event output", e);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.demo.output;
+
+import com.example.demo.codec.EventCodec;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Formats echo lines as UTF-8 into a byte buffer, byte for byte the same as
+ * {@code "Received event: " + event + "\n"} but without the intermediate strings.
+ */
+final class EventFormat {
+
+    private static final byte[] PREFIX = ascii("Received event: DemoEvent{message='");
+    private static final byte[] TIMESTAMP = ascii("', timestamp=");
+    private static final byte[] PARTITION_KEY = ascii(", partitionKey='");
+    private static final byte[] NULL = ascii("null");
+    private static final byte[] MIN_LONG = ascii(Long.toString(Long.MIN_VALUE));
+
+    private EventFormat() {
+    }
+
+    private static byte[] ascii(String text) {
+        return text.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Number of bytes {@link #write} produces for the event.
+     */
+    static int size(CharSequence message, long timestamp, String partitionKey) {
+        int size = PREFIX.length + utf8Length(message) + TIMESTAMP.length + digits(timestamp) + 2;
+        if (partitionKey != null) {
+            size += PARTITION_KEY.length + EventCodec.utf8Length(partitionKey) + 1;
+        }
+        return size;
+    }
+
+    /**
+     * Write the line at the buffer's position, which must have {@link #size} bytes remaining.
+     */
+    static void write(ByteBuffer buffer, CharSequence message, long timestamp, String partitionKey) {
+        buffer.put(PREFIX);
+        if (message == null) {
+            buffer.put(NULL);
+        } else {
+            skip(buffer, EventCodec.encodeUtf8(message, buffer, buffer.position()));
+        }
+        buffer.put(TIMESTAMP);
+        writeLong(buffer, timestamp);
+        if (partitionKey != null) {
+            buffer.put(PARTITION_KEY);
+            skip(buffer, EventCodec.encodeUtf8(partitionKey, buffer, buffer.position()));
+            buffer.put((byte) '\'');
+        }
+        buffer.put((byte) '}').put((byte) '\n');
+    }
+
+    private static int utf8Length(CharSequence message) {
+        return message == null ? NULL.length : EventCodec.utf8Length(message);
+    }
+
+    private static void skip(ByteBuffer buffer, int bytes) {
+        buffer.position(buffer.position() + bytes);
+    }
+
+    private static int digits(long value) {
+        if (value == Long.MIN_VALUE) {
+            return MIN_LONG.length;
+        }
+        int length = value < 0 ? 2 : 1;
+        for (long magnitude = Math.abs(value); magnitude >= 10; magnitude /= 10) {
+            length++;
+        }
+        return length;
+    }
+
+    private static void writeLong(ByteBuffer buffer, long value) {
+        if (value == Long.MIN_VALUE) {
+            buffer.put(MIN_LONG);
+            return;
+        }
+        int start = buffer.position();
+        int end = start + digits(value);
+        long magnitude = value;
+        if (value < 0) {
+            buffer.put(start++, (byte) '-');
+            magnitude = -value;
+        }
+        for (int i = end - 1; i >= start; i--) {
+            buffer.put(i, (byte) ('0' + magnitude % 10));
+            magnitude /= 10;
+        }
+        buffer.position(end);
+    }
+}
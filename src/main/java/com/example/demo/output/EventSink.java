@@ -0,0 +1,59 @@
+package com.example.demo.output;
+
+import com.example.demo.DemoEvent;
+
+import java.nio.channels.Channels;
+import java.util.List;
+
+/**
+ * Destination of the listener's echo of received events. Each event is written as one line in
+ * the {@link DemoEvent#toString()} format, prefixed with {@code Received event: }.
+ * <p>
+ * Implementations format straight into reusable byte buffers rather than building a string per
+ * event, and may be called from several threads at once.
+ */
+public interface EventSink extends AutoCloseable {
+
+    /**
+     * Sink that discards everything.
+     */
+    EventSink NONE = (message, timestamp, partitionKey) -> { };
+
+    /**
+     * Console sink that writes every call's lines to {@code System.out} in one write.
+     */
+    static EventSink console() {
+        return new BufferedEventSink(Channels.newChannel(System.out), 8192, true);
+    }
+
+    /**
+     * Write one event. The message is only read during the call, so a borrowed
+     * {@link com.example.demo.MutableDemoEvent} message may be passed.
+     *
+     * @param partitionKey key of the event, or {@code null}
+     */
+    void write(CharSequence message, long timestamp, String partitionKey);
+
+    default void write(DemoEvent event) {
+        write(event.getMessage(), event.getTimestamp(), event.getPartitionKey());
+    }
+
+    default void writeAll(List<? extends DemoEvent> events) {
+        for (DemoEvent event : events) {
+            write(event);
+        }
+    }
+
+    /**
+     * Write out everything buffered so far.
+     */
+    default void flush() {
+    }
+
+    /**
+     * Flush and release the sink.
+     */
+    @Override
+    default void close() {
+    }
+}
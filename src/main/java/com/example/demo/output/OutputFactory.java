@@ -0,0 +1,52 @@
+package com.example.demo.output;
+
+import io.avaje.inject.Bean;
+import io.avaje.inject.Factory;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * Wires the {@link EventSink} the listener echoes received events to:
+ * <ul>
+ *   <li>{@code demo.listener.output} - {@code console} (default) writes each call's lines to
+ *       standard out at once, {@code buffered} writes to standard out only when the buffer is full,
+ *       {@code file} appends to a file from a background thread, {@code none} discards them</li>
+ *   <li>{@code demo.listener.outputFile} - file for the {@code file} output (default events.log)</li>
+ *   <li>{@code demo.listener.flushBytes} - bytes buffered before they are written (default 64 KB)</li>
+ *   <li>{@code demo.listener.flushMillis} - longest a line waits in the {@code file} output (default 100)</li>
+ * </ul>
+ * {@code demo.listener.echo=false} still turns the echo off whatever the output.
+ */
+@Factory
+public class OutputFactory {
+
+    static final int DEFAULT_FLUSH_BYTES = 64 * 1024;
+    static final long DEFAULT_FLUSH_MILLIS = 100;
+
+    @Bean(destroyMethod = "close")
+    EventSink eventSink() throws IOException {
+        if (!Boolean.parseBoolean(System.getProperty("demo.listener.echo", "true"))) {
+            return EventSink.NONE;
+        }
+        int flushBytes = Integer.getInteger("demo.listener.flushBytes", DEFAULT_FLUSH_BYTES);
+        String output = System.getProperty("demo.listener.output", "console");
+        switch (output.trim().toLowerCase(Locale.ROOT)) {
+            case "console":
+                return EventSink.console();
+            case "buffered":
+                return new BufferedEventSink(Channels.newChannel(System.out), flushBytes, false);
+            case "file":
+                return AsyncFileEventSink.open(
+                    Path.of(System.getProperty("demo.listener.outputFile", "events.log")),
+                    flushBytes,
+                    Long.getLong("demo.listener.flushMillis", DEFAULT_FLUSH_MILLIS));
+            case "none":
+                return EventSink.NONE;
+            default:
+                throw new IllegalArgumentException("Unknown listener output: " + output);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.demo.span;
+
+/**
+ * A completed call of a traced method. Spans of one call chain share a trace id, and every
+ * span but the root links to the span of its caller.
+ */
+public final class Span {
+
+    /**
+     * Parent id of a root span.
+     */
+    public static final long NO_PARENT = 0;
+
+    private final long traceId;
+    private final long spanId;
+    private final long parentId;
+    private final String name;
+    private final long startNanos;
+    private final long durationNanos;
+    private final boolean failed;
+
+    public Span(long traceId, long spanId, long parentId, String name,
+                long startNanos, long durationNanos, boolean failed) {
+        this.traceId = traceId;
+        this.spanId = spanId;
+        this.parentId = parentId;
+        this.name = name;
+        this.startNanos = startNanos;
+        this.durationNanos = durationNanos;
+        this.failed = failed;
+    }
+
+    public long getTraceId() {
+        return traceId;
+    }
+
+    public long getSpanId() {
+        return spanId;
+    }
+
+    public long getParentId() {
+        return parentId;
+    }
+
+    public boolean isRoot() {
+        return parentId == NO_PARENT;
+    }
+
+    /**
+     * Traced method as {@code SimpleClassName.method}.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Start time on the {@link System#nanoTime()} clock of the recording JVM.
+     */
+    public long getStartNanos() {
+        return startNanos;
+    }
+
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    public long getEndNanos() {
+        return startNanos + durationNanos;
+    }
+
+    public boolean isFailed() {
+        return failed;
+    }
+
+    @Override
+    public String toString() {
+        return "Span{name='" + name + "', trace=" + Long.toHexString(traceId) + ", span=" + Long.toHexString(spanId)
+            + ", parent=" + Long.toHexString(parentId) + ", durationNanos=" + durationNanos + ", failed=" + failed + "}";
+    }
+}
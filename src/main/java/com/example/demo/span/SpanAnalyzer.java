@@ -0,0 +1,171 @@
+package com.example.demo.span;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Summarizes recorded spans: total and self time per method, and the critical path of the
+ * slowest trace.
+ * <p>
+ * A span's self time is its duration minus the durations of its children. The critical path is
+ * found walking back from the end of a span: the child that finished last is on it, then the
+ * child that finished last before that one started, and so on, recursively. Spans whose parent
+ * was overwritten in the buffer are treated as roots.
+ * <p>
+ * Run as {@code java -cp target/classes com.example.demo.span.SpanAnalyzer spans.jsonl}.
+ */
+public final class SpanAnalyzer {
+
+    private final List<Span> spans;
+    private final Map<Long, List<Span>> children = new HashMap<>();
+    private final Map<Long, Span> byId = new HashMap<>();
+
+    public SpanAnalyzer(List<Span> spans) {
+        this.spans = spans;
+        for (Span span : spans) {
+            byId.put(span.getSpanId(), span);
+        }
+        for (Span span : spans) {
+            if (!span.isRoot()) {
+                children.computeIfAbsent(span.getParentId(), k -> new ArrayList<>()).add(span);
+            }
+        }
+    }
+
+    /**
+     * Time per method, highest self time first.
+     */
+    public Map<String, MethodTime> methodTimes() {
+        Map<String, MethodTime> times = new HashMap<>();
+        for (Span span : spans) {
+            times.computeIfAbsent(span.getName(), MethodTime::new).add(span, selfNanos(span));
+        }
+        Map<String, MethodTime> sorted = new LinkedHashMap<>();
+        times.values().stream()
+            .sorted(Comparator.comparingLong(MethodTime::getSelfNanos).reversed())
+            .forEach(time -> sorted.put(time.getName(), time));
+        return sorted;
+    }
+
+    public long selfNanos(Span span) {
+        long childNanos = 0;
+        for (Span child : children.getOrDefault(span.getSpanId(), List.of())) {
+            childNanos += child.getDurationNanos();
+        }
+        return Math.max(0, span.getDurationNanos() - childNanos);
+    }
+
+    /**
+     * Root span (or orphan) with the longest duration, null if there are no spans.
+     */
+    public Span slowestRoot() {
+        Span slowest = null;
+        for (Span span : spans) {
+            if ((span.isRoot() || !byId.containsKey(span.getParentId()))
+                    && (slowest == null || span.getDurationNanos() > slowest.getDurationNanos())) {
+                slowest = span;
+            }
+        }
+        return slowest;
+    }
+
+    /**
+     * Spans on the critical path below (and including) the given span, in start order.
+     */
+    public List<Span> criticalPath(Span span) {
+        List<Span> path = new ArrayList<>();
+        collectCriticalPath(span, path);
+        path.sort(Comparator.comparingLong(Span::getStartNanos));
+        return path;
+    }
+
+    private void collectCriticalPath(Span span, List<Span> path) {
+        path.add(span);
+        List<Span> byEnd = new ArrayList<>(children.getOrDefault(span.getSpanId(), List.of()));
+        byEnd.sort(Comparator.comparingLong(Span::getEndNanos).reversed());
+        long cursor = span.getEndNanos();
+        for (Span child : byEnd) {
+            if (child.getEndNanos() <= cursor) {
+                collectCriticalPath(child, path);
+                cursor = child.getStartNanos();
+            }
+        }
+    }
+
+    /**
+     * Print the per-method table and the critical path of the slowest trace.
+     */
+    public void print(PrintStream out) {
+        out.printf(Locale.ROOT, "%d spans%n%n", spans.size());
+        out.printf(Locale.ROOT, "%-40s %8s %12s %12s%n", "method", "calls", "total ms", "self ms");
+        for (MethodTime time : methodTimes().values()) {
+            out.printf(Locale.ROOT, "%-40s %8d %12.3f %12.3f%n",
+                time.getName(), time.getCalls(), time.getTotalNanos() / 1e6, time.getSelfNanos() / 1e6);
+        }
+        Span root = slowestRoot();
+        if (root == null) {
+            return;
+        }
+        out.printf(Locale.ROOT, "%nCritical path of slowest trace %016x (%.3f ms):%n",
+            root.getTraceId(), root.getDurationNanos() / 1e6);
+        Map<Long, Integer> depth = new HashMap<>();
+        for (Span span : criticalPath(root)) {
+            int level = span == root ? 0 : depth.getOrDefault(span.getParentId(), 0) + 1;
+            depth.put(span.getSpanId(), level);
+            out.printf(Locale.ROOT, "%s%s %.3f ms (self %.3f ms)%s%n", "  ".repeat(level + 1), span.getName(),
+                span.getDurationNanos() / 1e6, selfNanos(span) / 1e6, span.isFailed() ? " FAILED" : "");
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage: SpanAnalyzer <spans.jsonl>");
+            System.exit(1);
+        }
+        new SpanAnalyzer(SpanJson.read(Path.of(args[0]))).print(System.out);
+    }
+
+    /**
+     * Aggregated time of one method.
+     */
+    public static final class MethodTime {
+        private final String name;
+        private long calls;
+        private long totalNanos;
+        private long selfNanos;
+
+        MethodTime(String name) {
+            this.name = name;
+        }
+
+        void add(Span span, long self) {
+            calls++;
+            totalNanos += span.getDurationNanos();
+            selfNanos += self;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getCalls() {
+            return calls;
+        }
+
+        public long getTotalNanos() {
+            return totalNanos;
+        }
+
+        public long getSelfNanos() {
+            return selfNanos;
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.demo.span;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads and writes spans as JSON lines, one object per span:
+ * <pre>
+ * {"trace":"5f1c…","span":"9a02…","parent":"5f1c…","name":"EventListener.onEvents","start":123,"duration":4567,"failed":false}
+ * </pre>
+ * Ids are 16-digit hex strings (the parent of a root span is all zeros), times are nanoseconds.
+ * Only this fixed layout is read back, so the format needs no JSON library.
+ */
+public final class SpanJson {
+
+    private SpanJson() {
+    }
+
+    public static void write(List<Span> spans, Path file) throws IOException {
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            StringBuilder line = new StringBuilder(160);
+            for (Span span : spans) {
+                line.setLength(0);
+                out.append(format(span, line)).append('\n');
+            }
+        }
+    }
+
+    public static List<Span> read(Path file) throws IOException {
+        List<Span> spans = new ArrayList<>();
+        try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (!line.isBlank()) {
+                    spans.add(parse(line));
+                }
+            }
+        }
+        return spans;
+    }
+
+    static StringBuilder format(Span span, StringBuilder line) {
+        line.append("{\"trace\":\"");
+        hex(line, span.getTraceId());
+        line.append("\",\"span\":\"");
+        hex(line, span.getSpanId());
+        line.append("\",\"parent\":\"");
+        hex(line, span.getParentId());
+        line.append("\",\"name\":\"");
+        escape(line, span.getName());
+        return line.append("\",\"start\":").append(span.getStartNanos())
+            .append(",\"duration\":").append(span.getDurationNanos())
+            .append(",\"failed\":").append(span.isFailed())
+            .append('}');
+    }
+
+    static Span parse(String line) {
+        return new Span(
+            Long.parseUnsignedLong(stringField(line, "trace"), 16),
+            Long.parseUnsignedLong(stringField(line, "span"), 16),
+            Long.parseUnsignedLong(stringField(line, "parent"), 16),
+            stringField(line, "name"),
+            Long.parseLong(rawField(line, "start")),
+            Long.parseLong(rawField(line, "duration")),
+            Boolean.parseBoolean(rawField(line, "failed")));
+    }
+
+    private static void hex(StringBuilder line, long id) {
+        String digits = Long.toHexString(id);
+        for (int i = digits.length(); i < 16; i++) {
+            line.append('0');
+        }
+        line.append(digits);
+    }
+
+    private static void escape(StringBuilder line, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                line.append('\\').append(c);
+            } else if (c < 0x20) {
+                line.append(String.format("\\u%04x", (int) c));
+            } else {
+                line.append(c);
+            }
+        }
+    }
+
+    private static int valueStart(String line, String field) {
+        String key = "\"" + field + "\":";
+        int at = line.indexOf(key);
+        if (at < 0) {
+            throw new IllegalArgumentException("Missing field '" + field + "' in span line: " + line);
+        }
+        return at + key.length();
+    }
+
+    private static String rawField(String line, String field) {
+        int start = valueStart(line, field);
+        int end = start;
+        while (end < line.length() && line.charAt(end) != ',' && line.charAt(end) != '}') {
+            end++;
+        }
+        return line.substring(start, end).trim();
+    }
+
+    private static String stringField(String line, String field) {
+        int i = valueStart(line, field) + 1;
+        StringBuilder value = new StringBuilder();
+        for (; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"') {
+                return value.toString();
+            }
+            if (c == '\\') {
+                char escaped = line.charAt(++i);
+                if (escaped == 'u') {
+                    value.append((char) Integer.parseInt(line.substring(i + 1, i + 5), 16));
+                    i += 4;
+                } else {
+                    value.append(escaped);
+                }
+            } else {
+                value.append(c);
+            }
+        }
+        throw new IllegalArgumentException("Unterminated field '" + field + "' in span line: " + line);
+    }
+}
@@ -0,0 +1,207 @@
+package com.example.demo.span;
+
+import io.avaje.inject.PreDestroy;
+import io.avaje.inject.RequiresProperty;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.lang.invoke.VarHandle;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Records spans of traced calls into a bounded in-memory buffer.
+ * <p>
+ * Each thread keeps a stack of its open spans: {@link #start(String)} pushes a span that is a
+ * child of the span on top of the stack (or the root of a new trace), and {@link #end(boolean)}
+ * pops it and records it. Call chains are followed within a thread; work handed to another
+ * thread, such as the asynchronous dispatch consumers, starts a new trace there.
+ * <p>
+ * Completed spans go into a ring of preallocated arrays that keeps the latest {@code capacity}
+ * spans. Writers claim a slot with one atomic increment and publish it with a per-slot sequence,
+ * so neither recording nor {@link #snapshot()} takes a lock; a reader skips a slot that is
+ * overwritten while it is being copied.
+ * <p>
+ * Enabled with {@code -Ddemo.trace.spans=true}. {@code -Ddemo.trace.spanCapacity} sets the
+ * buffer size (default 65536), and {@code -Ddemo.trace.spanFile} names a JSON-lines file the
+ * buffered spans are exported to on shutdown.
+ */
+@Singleton
+@RequiresProperty(value = "demo.trace.spans", equalTo = "true")
+public class SpanRecorder {
+
+    private static final Logger logger = LoggerFactory.getLogger(SpanRecorder.class);
+
+    static final int DEFAULT_CAPACITY = 65536;
+
+    private final int mask;
+    private final AtomicLong next = new AtomicLong();
+    private final AtomicLongArray published;
+    private final long[] traceIds;
+    private final long[] spanIds;
+    private final long[] parentIds;
+    private final String[] names;
+    private final long[] starts;
+    private final long[] durations;
+    private final boolean[] failures;
+    private final ThreadLocal<SpanStack> stacks = ThreadLocal.withInitial(SpanStack::new);
+    private final String exportFile = System.getProperty("demo.trace.spanFile");
+
+    @Inject
+    public SpanRecorder() {
+        this(Integer.getInteger("demo.trace.spanCapacity", DEFAULT_CAPACITY));
+    }
+
+    /**
+     * @param capacity number of spans kept, rounded up to a power of 2
+     */
+    public SpanRecorder(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive, was " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity) == capacity ? capacity : Integer.highestOneBit(capacity) << 1;
+        this.mask = size - 1;
+        this.published = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            published.set(i, -1);
+        }
+        this.traceIds = new long[size];
+        this.spanIds = new long[size];
+        this.parentIds = new long[size];
+        this.names = new String[size];
+        this.starts = new long[size];
+        this.durations = new long[size];
+        this.failures = new boolean[size];
+    }
+
+    /**
+     * Open a span for the current thread, as a child of its innermost open span.
+     */
+    public void start(String name) {
+        stacks.get().push(name, System.nanoTime());
+    }
+
+    /**
+     * Close the current thread's innermost open span and record it.
+     */
+    public void end(boolean failed) {
+        long now = System.nanoTime();
+        SpanStack stack = stacks.get();
+        if (stack.depth == 0) {
+            return;
+        }
+        int top = --stack.depth;
+        long parent = top == 0 ? Span.NO_PARENT : stack.spanIds[top - 1];
+        record(stack.traceIds[top], stack.spanIds[top], parent, stack.names[top],
+            stack.starts[top], now - stack.starts[top], failed);
+        stack.names[top] = null;
+    }
+
+    private void record(long traceId, long spanId, long parentId, String name,
+                        long start, long duration, boolean failed) {
+        long sequence = next.getAndIncrement();
+        int i = (int) sequence & mask;
+        published.set(i, -1);
+        VarHandle.storeStoreFence();
+        traceIds[i] = traceId;
+        spanIds[i] = spanId;
+        parentIds[i] = parentId;
+        names[i] = name;
+        starts[i] = start;
+        durations[i] = duration;
+        failures[i] = failed;
+        published.set(i, sequence);
+    }
+
+    /**
+     * Copy the buffered spans, oldest first.
+     */
+    public List<Span> snapshot() {
+        long end = next.get();
+        long begin = Math.max(0, end - (mask + 1));
+        List<Span> spans = new ArrayList<>((int) (end - begin));
+        for (long sequence = begin; sequence < end; sequence++) {
+            int i = (int) sequence & mask;
+            if (published.get(i) != sequence) {
+                continue;
+            }
+            Span span = new Span(traceIds[i], spanIds[i], parentIds[i], names[i], starts[i], durations[i], failures[i]);
+            VarHandle.loadLoadFence();
+            if (published.get(i) == sequence) {
+                spans.add(span);
+            }
+        }
+        return spans;
+    }
+
+    /**
+     * Number of spans recorded since startup, including those no longer buffered.
+     */
+    public long recordedCount() {
+        return next.get();
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Export the buffered spans to {@code -Ddemo.trace.spanFile}, if set.
+     */
+    @PreDestroy
+    public void exportOnShutdown() {
+        if (exportFile == null) {
+            return;
+        }
+        try {
+            List<Span> spans = snapshot();
+            SpanJson.write(spans, Path.of(exportFile));
+            logger.info("Exported {} spans to {}", spans.size(), exportFile);
+        } catch (IOException e) {
+            logger.warn("Failed to export spans to {}", exportFile, e);
+        }
+    }
+
+    /**
+     * Open spans of one thread, innermost last.
+     */
+    private static final class SpanStack {
+        long[] traceIds = new long[16];
+        long[] spanIds = new long[16];
+        long[] starts = new long[16];
+        String[] names = new String[16];
+        int depth;
+
+        void push(String name, long start) {
+            if (depth == spanIds.length) {
+                int grown = depth * 2;
+                traceIds = Arrays.copyOf(traceIds, grown);
+                spanIds = Arrays.copyOf(spanIds, grown);
+                starts = Arrays.copyOf(starts, grown);
+                names = Arrays.copyOf(names, grown);
+            }
+            long spanId = newId();
+            traceIds[depth] = depth == 0 ? spanId : traceIds[depth - 1];
+            spanIds[depth] = spanId;
+            starts[depth] = start;
+            names[depth] = name;
+            depth++;
+        }
+
+        private static long newId() {
+            long id;
+            do {
+                id = ThreadLocalRandom.current().nextLong();
+            } while (id == Span.NO_PARENT);
+            return id;
+        }
+    }
+}
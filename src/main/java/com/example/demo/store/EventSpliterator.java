@@ -0,0 +1,72 @@
+package com.example.demo.store;
+
+import com.example.demo.DemoEvent;
+
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Spliterator over events of an {@link EventStore}, either a range of sequences or the
+ * sequences listed in a sorted array, optionally filtered.
+ * <p>
+ * Events are read from the store as the spliterator advances; those evicted in the meantime
+ * are skipped, so the size is only an estimate. Splitting halves the remaining range, which
+ * lets parallel streams divide the work without copying.
+ */
+final class EventSpliterator implements Spliterator<DemoEvent> {
+
+    private final EventStore store;
+    private final long[] sequences;
+    private final Predicate<DemoEvent> filter;
+    private final long end;
+    private long index;
+
+    /**
+     * @param sequences sorted sequences to visit by position {@code [index, end)}, or
+     *                  {@code null} to visit the sequences {@code [index, end)} themselves
+     * @param filter events to include, or {@code null} for all
+     */
+    EventSpliterator(EventStore store, long[] sequences, long index, long end, Predicate<DemoEvent> filter) {
+        this.store = store;
+        this.sequences = sequences;
+        this.index = index;
+        this.end = end;
+        this.filter = filter;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super DemoEvent> action) {
+        while (index < end) {
+            long sequence = sequences == null ? index : sequences[(int) index];
+            index++;
+            DemoEvent event = store.get(sequence);
+            if (event != null && (filter == null || filter.test(event))) {
+                action.accept(event);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public Spliterator<DemoEvent> trySplit() {
+        long mid = (index + end) >>> 1;
+        if (mid <= index) {
+            return null;
+        }
+        EventSpliterator prefix = new EventSpliterator(store, sequences, index, mid, filter);
+        index = mid;
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+        return end - index;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | NONNULL | CONCURRENT;
+    }
+}
@@ -0,0 +1,301 @@
+package com.example.demo.store;
+
+import com.example.demo.DemoEvent;
+
+import java.util.AbstractList;
+import java.util.ConcurrentModificationException;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.Spliterator;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+/**
+ * Bounded, lock-free store of received events.
+ * <p>
+ * Events are written into a fixed ring of slots indexed by a global append sequence; once the
+ * ring is full each append evicts the oldest event. Writers claim sequences with a single atomic
+ * add and publish each slot with a per-slot sequence (a seqlock), so readers can detect a slot
+ * that was overwritten while they were reading it. Appends allocate nothing.
+ * <p>
+ * Reads go through {@link #snapshot()}, a list view over the sequence range visible at the time
+ * of the call that reads slots lazily instead of copying the history, or through
+ * {@link #between(long, long)}, which binary-searches the ring by event timestamp.
+ * <p>
+ * Timestamps are non-decreasing in append order when events come from one thread. With several
+ * appenders an event can be older than one appended before it; the store tracks the largest
+ * such gap seen at append ({@link #timestampDisorder()}) and widens its searches by it, so range
+ * queries stay exact as long as no event is older than an event appended after it by more than
+ * that gap.
+ */
+public final class EventStore {
+
+    private final int capacity;
+    private final int mask;
+    private final AtomicReferenceArray<DemoEvent> events;
+    private final AtomicLongArray sequences;
+    private final AtomicLong head = new AtomicLong();
+    private final LongAdder evicted = new LongAdder();
+    private final AtomicLong latestTimestamp = new AtomicLong(Long.MIN_VALUE);
+    private final AtomicLong disorder = new AtomicLong();
+    private volatile long clearedBefore;
+
+    /**
+     * Create a store holding at most {@code capacity} events, rounded up to a power of 2.
+     */
+    public EventStore(int capacity) {
+        if (capacity < 1 || capacity > (1 << 30)) {
+            throw new IllegalArgumentException("capacity must be between 1 and 2^30, was " + capacity);
+        }
+        this.capacity = Integer.bitCount(capacity) == 1 ? capacity : Integer.highestOneBit(capacity) << 1;
+        this.mask = this.capacity - 1;
+        this.events = new AtomicReferenceArray<>(this.capacity);
+        this.sequences = new AtomicLongArray(this.capacity);
+        for (int i = 0; i < this.capacity; i++) {
+            // slot i has "published" the sequence one lap before its first real occupant
+            sequences.set(i, i - (long) this.capacity);
+        }
+    }
+
+    /**
+     * Append an event, evicting the oldest one if the store is full.
+     *
+     * @return the sequence the event was stored at
+     */
+    public long append(DemoEvent event) {
+        Objects.requireNonNull(event, "event");
+        long sequence = head.getAndIncrement();
+        write(sequence, event);
+        return sequence;
+    }
+
+    /**
+     * Append a batch of events with a single sequence claim.
+     *
+     * @return the sequence of the first event; the batch occupies consecutive sequences
+     */
+    public long appendAll(List<? extends DemoEvent> batch) {
+        int size = batch.size();
+        if (size == 0) {
+            return head.get();
+        }
+        for (int i = 0; i < size; i++) {
+            // validate before claiming: a claimed sequence must always be written
+            Objects.requireNonNull(batch.get(i), "event");
+        }
+        long first = head.getAndAdd(size);
+        for (int i = 0; i < size; i++) {
+            write(first + i, batch.get(i));
+        }
+        return first;
+    }
+
+    private void write(long sequence, DemoEvent event) {
+        int index = (int) sequence & mask;
+        long previous = sequence - capacity;
+        // wait for the previous occupant's writer to finish, then mark the slot as being written
+        while (!sequences.compareAndSet(index, previous, writingMarker(sequence))) {
+            Thread.onSpinWait();
+        }
+        events.set(index, event);
+        sequences.set(index, sequence);
+        if (previous >= clearedBefore) {
+            evicted.increment();
+        }
+        trackTimestamp(event.getTimestamp());
+    }
+
+    /**
+     * Record how far the timestamp lags the newest one appended so far. In timestamp order this
+     * is a single read; only a newer timestamp or a larger lag costs a CAS.
+     */
+    private void trackTimestamp(long timestamp) {
+        long latest = latestTimestamp.get();
+        if (timestamp > latest) {
+            latestTimestamp.accumulateAndGet(timestamp, Math::max);
+        } else if (latest - timestamp > disorder.get()) {
+            disorder.accumulateAndGet(latest - timestamp, Math::max);
+        }
+    }
+
+    private long writingMarker(long sequence) {
+        return -sequence - capacity - 1;
+    }
+
+    /**
+     * Event stored at the given sequence, or {@code null} if it has been evicted or cleared.
+     * Waits briefly if the sequence has been claimed but its writer has not finished yet.
+     */
+    public DemoEvent get(long sequence) {
+        if (sequence < 0 || sequence < clearedBefore || sequence >= head.get()) {
+            return null;
+        }
+        return read(sequence);
+    }
+
+    /**
+     * Read a claimed sequence, returning {@code null} once it has been overwritten.
+     */
+    private DemoEvent read(long sequence) {
+        int index = (int) sequence & mask;
+        while (true) {
+            long published = sequences.get(index);
+            if (published == sequence) {
+                DemoEvent event = events.get(index);
+                return sequences.get(index) == sequence ? event : null;
+            }
+            long current = published < -capacity ? -published - capacity - 1 : published;
+            if (current > sequence) {
+                return null;
+            }
+            // claimed but not yet written
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Sequence that the next append will receive; also the total number of events received.
+     */
+    public long headSequence() {
+        return head.get();
+    }
+
+    /**
+     * Lowest sequence still readable.
+     */
+    public long tailSequence() {
+        long h = head.get();
+        return Math.max(clearedBefore, h - capacity);
+    }
+
+    /**
+     * Number of events currently held.
+     */
+    public int size() {
+        long h = head.get();
+        return (int) (h - Math.max(clearedBefore, h - capacity));
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Total number of events ever appended.
+     */
+    public long receivedCount() {
+        return head.get();
+    }
+
+    /**
+     * Number of events dropped to make room for newer ones. Events removed by {@link #clear()}
+     * are not counted as evicted.
+     */
+    public long evictedCount() {
+        return evicted.sum();
+    }
+
+    /**
+     * Largest amount, in milliseconds, by which an appended event was older than one appended
+     * before it; 0 while events arrive in timestamp order.
+     */
+    public long timestampDisorder() {
+        return disorder.get();
+    }
+
+    /**
+     * Hide every event received so far. Counters are not reset.
+     */
+    public synchronized void clear() {
+        clearedBefore = Math.max(clearedBefore, head.get());
+    }
+
+    /**
+     * Read-only view of the events held at the time of the call, oldest first.
+     * <p>
+     * The view does not copy: elements are read from the ring on access. Accessing an element
+     * that has been evicted since the view was taken throws {@link ConcurrentModificationException}.
+     */
+    public List<DemoEvent> snapshot() {
+        long h = head.get();
+        long from = Math.max(clearedBefore, h - capacity);
+        return new Snapshot(from, (int) (h - from));
+    }
+
+    /**
+     * Events held with a timestamp in {@code [fromMillis, toMillis)}, oldest first.
+     * <p>
+     * Both ends of the range are found by binary search over the ring, so the cost is
+     * {@code O(log n)} plus the events in range. The spliterator reads slots lazily, skips events
+     * evicted while it runs and splits for parallel streams.
+     */
+    public Spliterator<DemoEvent> between(long fromMillis, long toMillis) {
+        long h = head.get();
+        long tail = Math.max(clearedBefore, h - capacity);
+        if (fromMillis >= toMillis) {
+            return new EventSpliterator(this, null, tail, tail, null);
+        }
+        long slack = disorder.get();
+        long lo = lowerBound(tail, h, fromMillis - slack);
+        long hi = lowerBound(lo, h, toMillis + slack);
+        return new EventSpliterator(this, null, lo, hi,
+            event -> event.getTimestamp() >= fromMillis && event.getTimestamp() < toMillis);
+    }
+
+    /**
+     * First sequence in {@code [lo, hi)} whose event is at least {@code timestamp}, treating
+     * evicted events as older than everything.
+     */
+    private long lowerBound(long lo, long hi, long timestamp) {
+        while (lo < hi) {
+            long mid = (lo + hi) >>> 1;
+            DemoEvent event = read(mid);
+            if (event == null || event.getTimestamp() < timestamp) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * Events held that match the filter, oldest first. Scans the whole store.
+     */
+    public Spliterator<DemoEvent> matching(Predicate<DemoEvent> filter) {
+        long h = head.get();
+        return new EventSpliterator(this, null, Math.max(clearedBefore, h - capacity), h, filter);
+    }
+
+    private final class Snapshot extends AbstractList<DemoEvent> implements RandomAccess {
+
+        private final long from;
+        private final int size;
+
+        Snapshot(long from, int size) {
+            this.from = from;
+            this.size = size;
+        }
+
+        @Override
+        public DemoEvent get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size);
+            }
+            DemoEvent event = read(from + index);
+            if (event == null) {
+                throw new ConcurrentModificationException("Event " + (from + index) + " was evicted after the snapshot was taken");
+            }
+            return event;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
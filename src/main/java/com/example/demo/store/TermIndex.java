@@ -0,0 +1,246 @@
+package com.example.demo.store;
+
+import com.example.demo.DemoEvent;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Index from the whitespace-separated terms of event messages to the sequences of the events
+ * in an {@link EventStore} that contain them.
+ * <p>
+ * Terms are kept sorted, so {@link #startingWith(String)} finds candidate events through the
+ * range of terms sharing the query's first word (or word prefix) and only checks those, instead
+ * of scanning the store. Sequences of evicted events are dropped from the index in a sweep after
+ * every {@code capacity} indexed events, which keeps the index proportional to the store.
+ * <p>
+ * Indexing allocates the terms and postings, so the index is optional; results are the same
+ * without it, only slower.
+ */
+public final class TermIndex {
+
+    private final EventStore store;
+    private final ConcurrentSkipListMap<String, Postings> terms = new ConcurrentSkipListMap<>();
+    private final AtomicLong indexed = new AtomicLong();
+
+    public TermIndex(EventStore store) {
+        this.store = store;
+    }
+
+    /**
+     * Index an event stored at the given sequence.
+     */
+    public void add(long sequence, DemoEvent event) {
+        String message = event.getMessage();
+        if (message != null) {
+            int length = message.length();
+            int start = 0;
+            while (start < length) {
+                while (start < length && Character.isWhitespace(message.charAt(start))) {
+                    start++;
+                }
+                int end = start;
+                while (end < length && !Character.isWhitespace(message.charAt(end))) {
+                    end++;
+                }
+                if (end > start) {
+                    String term = message.substring(start, end);
+                    // a sweep may retire the postings between lookup and add; then start new ones
+                    while (!terms.computeIfAbsent(term, key -> new Postings()).add(sequence)) {
+                        Thread.onSpinWait();
+                    }
+                }
+                start = end;
+            }
+        }
+        if (indexed.incrementAndGet() % store.capacity() == 0) {
+            sweep();
+        }
+    }
+
+    /**
+     * Index a batch stored at consecutive sequences from {@code firstSequence}.
+     */
+    public void addAll(long firstSequence, List<? extends DemoEvent> events) {
+        for (int i = 0, n = events.size(); i < n; i++) {
+            add(firstSequence + i, events.get(i));
+        }
+    }
+
+    /**
+     * Events held whose message contains the term as a whole word, oldest first. A term with
+     * whitespace in it is matched as a phrase, as {@link #containsTerm} does, among the events
+     * containing its first word.
+     */
+    public Spliterator<DemoEvent> withTerm(String term) {
+        int start = 0;
+        while (start < term.length() && Character.isWhitespace(term.charAt(start))) {
+            start++;
+        }
+        int end = start;
+        while (end < term.length() && !Character.isWhitespace(term.charAt(end))) {
+            end++;
+        }
+        if (start == end && end < term.length()) {
+            // whitespace only: no word to look up
+            return store.matching(event -> containsTerm(event, term));
+        }
+        boolean word = start == 0 && end == term.length();
+        Postings postings = terms.get(word ? term : term.substring(start, end));
+        long[] sequences = postings == null ? new long[0] : postings.live(store.tailSequence());
+        return new EventSpliterator(store, sequences, 0, sequences.length, word ? null : event -> containsTerm(event, term));
+    }
+
+    /**
+     * Events held whose message starts with the prefix, oldest first.
+     */
+    public Spliterator<DemoEvent> startingWith(String prefix) {
+        if (prefix.isEmpty() || Character.isWhitespace(prefix.charAt(0))) {
+            // no leading word to look up
+            return store.matching(event -> startsWith(event, prefix));
+        }
+        int space = 0;
+        while (space < prefix.length() && !Character.isWhitespace(prefix.charAt(space))) {
+            space++;
+        }
+        // a prefix ending inside its first word matches every term starting with it
+        ConcurrentNavigableMap<String, Postings> candidates = space == prefix.length()
+            ? terms.subMap(prefix, true, prefix + Character.MAX_VALUE, true)
+            : terms.subMap(prefix.substring(0, space), true, prefix.substring(0, space), true);
+        long tail = store.tailSequence();
+        long[] sequences = new long[0];
+        for (Postings postings : candidates.values()) {
+            sequences = union(sequences, postings.live(tail));
+        }
+        return new EventSpliterator(store, sequences, 0, sequences.length, event -> startsWith(event, prefix));
+    }
+
+    /**
+     * Whether the message of the event contains the term as a whole word.
+     */
+    public static boolean containsTerm(DemoEvent event, String term) {
+        String message = event.getMessage();
+        if (message == null || term.isEmpty()) {
+            return false;
+        }
+        for (int at = message.indexOf(term); at >= 0; at = message.indexOf(term, at + 1)) {
+            int end = at + term.length();
+            if ((at == 0 || Character.isWhitespace(message.charAt(at - 1)))
+                && (end == message.length() || Character.isWhitespace(message.charAt(end)))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static boolean startsWith(DemoEvent event, String prefix) {
+        return event.getMessage() != null && event.getMessage().startsWith(prefix);
+    }
+
+    /**
+     * Number of distinct terms indexed.
+     */
+    public int termCount() {
+        return terms.size();
+    }
+
+    /**
+     * Drop evicted sequences, and terms left without any.
+     */
+    private void sweep() {
+        long tail = store.tailSequence();
+        Iterator<Map.Entry<String, Postings>> entries = terms.entrySet().iterator();
+        while (entries.hasNext()) {
+            Map.Entry<String, Postings> entry = entries.next();
+            if (entry.getValue().trim(tail)) {
+                terms.remove(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * Sorted union of two sorted sequence arrays, without duplicates.
+     */
+    private static long[] union(long[] a, long[] b) {
+        long[] merged = new long[a.length + b.length];
+        int i = 0;
+        int j = 0;
+        int n = 0;
+        while (i < a.length || j < b.length) {
+            long next = j == b.length || (i < a.length && a[i] <= b[j]) ? a[i++] : b[j++];
+            if (n == 0 || merged[n - 1] != next) {
+                merged[n++] = next;
+            }
+        }
+        return n == merged.length ? merged : Arrays.copyOf(merged, n);
+    }
+
+    /**
+     * Sequences of the events containing one term, in append order (nearly sorted).
+     */
+    private static final class Postings {
+
+        private long[] sequences = new long[4];
+        private int size;
+        private boolean retired;
+
+        /**
+         * @return {@code false} if a sweep has retired these postings
+         */
+        synchronized boolean add(long sequence) {
+            if (retired) {
+                return false;
+            }
+            if (size == sequences.length) {
+                sequences = Arrays.copyOf(sequences, size * 2);
+            }
+            sequences[size++] = sequence;
+            return true;
+        }
+
+        /**
+         * Sorted, distinct sequences at or after {@code tail}.
+         */
+        synchronized long[] live(long tail) {
+            long[] copy = Arrays.copyOf(sequences, size);
+            Arrays.sort(copy);
+            int from = 0;
+            while (from < copy.length && copy[from] < tail) {
+                from++;
+            }
+            int n = 0;
+            for (int i = from; i < copy.length; i++) {
+                if (n == 0 || copy[n - 1] != copy[i]) {
+                    copy[n++] = copy[i];
+                }
+            }
+            return Arrays.copyOf(copy, n);
+        }
+
+        /**
+         * Remove sequences before {@code tail}, retiring the postings if none are left.
+         *
+         * @return whether the postings were retired
+         */
+        synchronized boolean trim(long tail) {
+            int n = 0;
+            for (int i = 0; i < size; i++) {
+                if (sequences[i] >= tail) {
+                    sequences[n++] = sequences[i];
+                }
+            }
+            size = n;
+            if (sequences.length > 16 && size < sequences.length / 4) {
+                sequences = Arrays.copyOf(sequences, Math.max(16, size * 2));
+            }
+            retired = size == 0;
+            return retired;
+        }
+    }
+}
@@ -3,6 +3,8 @@ package com.example.demo;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -60,4 +62,42 @@ class EventListenerTest {
         assertEquals(0, eventListener.getEventCount());
         assertTrue(eventListener.getReceivedEvents().isEmpty());
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldQueryRetainedEventsWithAndWithoutTermIndex() {
+        for (boolean indexed : new boolean[] {false, true}) {
+            // Given
+            EventListener listener = new EventListener(16, false, indexed);
+            for (int i = 0; i < 10; i++) {
+                listener.onEvent(new DemoEvent((i < 5 ? "alpha " : "beta ") + i, 1_000 + i));
+            }
+
+            // When / Then
+            assertEquals(3, listener.eventsBetween(1_002, 1_005).count());
+            assertEquals(5, listener.eventsStartingWith("beta").count());
+            assertEquals("alpha 3", listener.eventsWithTerm("3").findFirst().orElseThrow().getMessage());
+            assertEquals(0, listener.eventsWithTerm("alp").count());
+        }
+    }
+
+    @Test
+    void shouldMatchPhrasesTheSameWithAndWithoutTermIndex() {
+        for (boolean indexed : new boolean[] {false, true}) {
+            // Given
+            EventListener listener = new EventListener(16, false, indexed);
+            listener.onEvent(new DemoEvent("two words here", 1));
+            listener.onEvent(new DemoEvent("two wordsmiths", 2));
+            listener.onEvent(new DemoEvent("words two", 3));
+            listener.onEvent(new DemoEvent("say two words", 4));
+
+            // When / Then
+            assertEquals(List.of(1L, 4L), listener.eventsWithTerm("two words")
+                .map(DemoEvent::getTimestamp).toList(), "indexed " + indexed);
+            assertEquals(List.of(3L), listener.eventsWithTerm("words two")
+                .map(DemoEvent::getTimestamp).toList(), "indexed " + indexed);
+            assertEquals(0, listener.eventsWithTerm("two words here now").count(), "indexed " + indexed);
+            assertEquals(0, listener.eventsWithTerm(" ").count(), "indexed " + indexed);
+            assertEquals(0, listener.eventsWithTerm("").count(), "indexed " + indexed);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.demo.aspect;
+
+import com.example.demo.EventProducer;
+import io.avaje.inject.BeanScope;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for switching aspects on and off at runtime.
+ */
+class AspectControlTest {
+
+    private BeanScope beanScope;
+
+    @AfterEach
+    void cleanup() {
+        System.clearProperty("demo.aspects.disabled");
+        if (beanScope != null) {
+            beanScope.close();
+        }
+    }
+
+    @Test
+    void shouldApplyRulesToExistingAndLaterSwitches() {
+        // Given
+        System.setProperty("demo.aspects.disabled", "trace:EventListener");
+        AspectControl control = new AspectControl();
+        AspectSwitch listenerTrace = control.switchFor(AspectControl.TRACE, "EventListener.onEvent");
+        AspectSwitch producerTimed = control.switchFor(AspectControl.TIMED, "EventProducer.produceEvent");
+
+        // When
+        int changed = control.disable("*", "EventProducer");
+        control.enable(AspectControl.TRACE, "EventListener.onEvents");
+        AspectSwitch wiredLater = control.switchFor(AspectControl.TIMED, "EventProducer.produceEvents");
+        AspectSwitch batchTrace = control.switchFor(AspectControl.TRACE, "EventListener.onEvents");
+
+        // Then
+        assertEquals(1, changed);
+        assertFalse(listenerTrace.isEnabled());
+        assertFalse(producerTimed.isEnabled());
+        assertFalse(wiredLater.isEnabled());
+        assertTrue(batchTrace.isEnabled());
+        assertArrayEquals(new String[] {"timed:EventProducer.produceEvent", "timed:EventProducer.produceEvents",
+            "trace:EventListener.onEvent"}, control.getDisabled());
+        assertThrows(IllegalArgumentException.class, () -> control.disable("metrics", "*"));
+    }
+
+    @Test
+    void shouldStopTimingWhenDisabledOverJmx() throws Exception {
+        // Given
+        beanScope = BeanScope.builder().build();
+        EventProducer producer = beanScope.get(EventProducer.class);
+        TimedInterceptor timed = beanScope.get(TimedProvider.class).getInterceptor();
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = beanScope.get(AspectControl.class).getObjectName();
+
+        // When
+        producer.produceEvent("timed");
+        server.invoke(name, "disable", new Object[] {"timed", "EventProducer.produceEvent"},
+            new String[] {String.class.getName(), String.class.getName()});
+        producer.produceEvent("not timed");
+        server.invoke(name, "enable", new Object[] {"*", "*"},
+            new String[] {String.class.getName(), String.class.getName()});
+        producer.produceEvent("timed again");
+
+        // Then
+        assertEquals(2, timed.getAllTimingStats().get("EventProducer.produceEvent").getCallCount());
+    }
+
+    @Test
+    void shouldNeverUnregisterAnotherScopesMBean() throws Exception {
+        // Given - two controls in one JVM, as with two bean scopes
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        AspectControl first = new AspectControl();
+        AspectControl second = new AspectControl();
+        first.register();
+        second.register();
+        ObjectName firstName = first.getObjectName();
+        ObjectName secondName = second.getObjectName();
+
+        // When - the older one is closed first
+        first.unregister();
+
+        // Then
+        assertNotEquals(firstName, secondName);
+        assertFalse(server.isRegistered(firstName));
+        assertTrue(server.isRegistered(secondName));
+        second.unregister();
+        assertFalse(server.isRegistered(secondName));
+    }
+}
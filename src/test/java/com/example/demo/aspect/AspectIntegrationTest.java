@@ -1,5 +1,7 @@
 package com.example.demo.aspect;
 
+import com.example.demo.EventListener;
+import com.example.demo.EventProducer;
 import com.example.demo.annotation.TraceLogged;
 import com.example.demo.annotation.Timed;
 import io.avaje.inject.BeanScope;
@@ -64,6 +66,27 @@ class AspectIntegrationTest {
         assertInstanceOf(TimedInterceptor.class, timedInterceptor);
     }
 
+    @Test
+    void shouldInterceptBatchDeliveryOncePerBatch() {
+        // Given - Create avaje-inject context
+        beanScope = BeanScope.builder().build();
+        EventProducer producer = beanScope.get(EventProducer.class);
+        EventListener listener = beanScope.get(EventListener.class);
+        TimedInterceptor interceptor = beanScope.get(TimedProvider.class).getInterceptor();
+
+        // When
+        producer.produceEvents("Batch 1", "Batch 2", "Batch 3");
+
+        // Then - one intercepted call per batch, timed per call and per item
+        var stats = interceptor.getAllTimingStats();
+        assertEquals(3, listener.getEventCount());
+        assertFalse(stats.containsKey("EventListener.onEvent"), "single-event path should not be used");
+        assertEquals(1, stats.get("EventListener.onEvents").getCallCount());
+        assertEquals(3, stats.get("EventListener.onEvents").getItemCount());
+        assertEquals(1, stats.get("EventProducer.produceEvents").getCallCount());
+        assertEquals(3, stats.get("EventProducer.produceEvents").getItemCount());
+    }
+
     @TraceLogged
     @Timed
     public static class TestClass {
@@ -0,0 +1,76 @@
+package com.example.demo.aspect;
+
+import com.example.demo.annotation.Timed;
+import com.example.demo.annotation.TraceLogged;
+import io.avaje.inject.aop.Invocation;
+import io.avaje.inject.aop.MethodInterceptor;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the fused interceptor installed on methods with both {@code @Timed} and {@code @TraceLogged}.
+ */
+class FusedInterceptorTest {
+
+    @Test
+    void shouldTimeAndTraceThroughOneInterceptor() throws Throwable {
+        // Given - providers wired the way the generated proxy uses them
+        List<String> output = new CopyOnWriteArrayList<>();
+        TraceSink sink = new TraceSink(64, TraceSink.OverflowPolicy.BLOCK, output::add);
+        AspectControl control = new AspectControl();
+        TraceLoggedProvider traceProvider = new TraceLoggedProvider(sink, Optional.empty(), control);
+        TimedProvider timedProvider = new TimedProvider(control, traceProvider);
+        Method method = Both.class.getMethod("handle", List.class);
+        MethodInterceptor trace = traceProvider.interceptor(method, null);
+        MethodInterceptor timed = timedProvider.interceptor(method, null);
+
+        // When
+        timed.invoke(new Invocation.Run(() -> { })
+            .with(new Both(), method, List.of("a", "b"))
+            .wrap(trace));
+        sink.close();
+
+        // Then
+        assertSame(TraceLoggingInterceptor.passThrough(), trace);
+        TimedInterceptor.TimingStat stat = timedProvider.getInterceptor().getAllTimingStats().get("Both.handle");
+        assertEquals(1, stat.getCallCount());
+        assertEquals(2, stat.getItemCount());
+        String written = String.join("\n", output);
+        assertTrue(written.contains("TRACE: Entering Both.handle() with args: [[\"a\", \"b\"]]"), written);
+        assertTrue(written.contains("TRACE: Exiting Both.handle() successfully in"), written);
+    }
+
+    @Test
+    void shouldKeepTracingWhenTimingIsSwitchedOff() throws Throwable {
+        // Given
+        List<String> output = new CopyOnWriteArrayList<>();
+        TraceSink sink = new TraceSink(64, TraceSink.OverflowPolicy.BLOCK, output::add);
+        AspectControl control = new AspectControl();
+        TraceLoggedProvider traceProvider = new TraceLoggedProvider(sink, Optional.empty(), control);
+        TimedProvider timedProvider = new TimedProvider(control, traceProvider);
+        Method method = Both.class.getMethod("handle", List.class);
+        MethodInterceptor timed = timedProvider.interceptor(method, null);
+
+        // When
+        control.disable(AspectControl.TIMED, "Both");
+        timed.invoke(new Invocation.Run(() -> { }).with(new Both(), method, List.of("a")));
+        sink.close();
+
+        // Then
+        assertNull(timedProvider.getInterceptor().getAllTimingStats().get("Both.handle"));
+        assertEquals(1, output.stream().filter(line -> line.contains("Entering Both.handle()")).count());
+    }
+
+    @Timed
+    @TraceLogged
+    public static class Both {
+        public void handle(List<String> values) {
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.demo.aspect;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for double-buffered interval recording and the moving averages.
+ */
+class IntervalRecorderTest {
+
+    @Test
+    void shouldReportOnlyCallsOfTheClosedInterval() {
+        // Given
+        TimedInterceptor.TimingStat stat = new TimedInterceptor.TimingStat();
+        stat.record(1_000_000, 1, false);
+        stat.record(3_000_000, 1, true);
+
+        // When
+        IntervalSnapshot first = stat.rollInterval();
+        stat.record(2_000_000, 5, false);
+        IntervalSnapshot second = stat.rollInterval();
+
+        // Then - intervals are deltas, the stat itself stays cumulative
+        assertEquals(2, first.getCallCount());
+        assertEquals(0.5, first.getErrorRate(), 1e-9);
+        assertEquals(2.0, first.getAverageTimeMs(), 1e-9);
+        assertEquals(1, second.getCallCount());
+        assertEquals(5, second.getItemCount());
+        assertEquals(2.0, second.getPercentileMs(50), 0.02);
+        assertSame(second, stat.getLatestInterval());
+        assertEquals(3, stat.getCallCount());
+    }
+
+    @Test
+    void shouldNotLoseCallsRecordedWhileRolling() throws InterruptedException {
+        // Given
+        TimedInterceptor.TimingStat stat = new TimedInterceptor.TimingStat();
+        int threads = 4;
+        int perThread = 100_000;
+        CountDownLatch done = new CountDownLatch(threads);
+        AtomicBoolean finished = new AtomicBoolean();
+
+        // When - roll continuously while the writers record
+        for (int t = 0; t < threads; t++) {
+            new Thread(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    stat.record(1_000, 1, false);
+                }
+                done.countDown();
+            }).start();
+        }
+        long intervalCalls = 0;
+        while (!finished.get()) {
+            finished.set(done.getCount() == 0);
+            intervalCalls += stat.rollInterval().getCallCount();
+        }
+
+        // Then - every call lands in exactly one interval
+        assertEquals(threads * perThread, intervalCalls);
+        assertEquals(threads * perThread, stat.getCallCount());
+    }
+
+    @Test
+    void shouldConvergeMovingAverageTowardsSteadyRate() {
+        // Given
+        Ewma ewma = Ewma.oneMinute();
+        ewma.update(0, 5);
+
+        // When - 100 calls/s for five minutes in 5 s ticks
+        for (int i = 0; i < 60; i++) {
+            ewma.update(500, 5);
+        }
+
+        // Then
+        assertEquals(100.0, ewma.rate(), 1.0);
+    }
+}
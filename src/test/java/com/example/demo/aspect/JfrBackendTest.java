@@ -0,0 +1,89 @@
+package com.example.demo.aspect;
+
+import io.avaje.inject.aop.Invocation;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.lang.reflect.Method;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the Java Flight Recorder backend of the aspect interceptors.
+ */
+class JfrBackendTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void shouldEmitTimingAndTraceEventsWhileRecording() throws Throwable {
+        // Given
+        TimedInterceptor timed = new TimedInterceptor();
+        Method method = RecordedMethods.class.getMethod("handle", List.class);
+        TimedInterceptor boundTimed = timed.forMethod(method, AspectBackend.JFR);
+        TraceLoggingInterceptor boundTrace = new TraceLoggingInterceptor().forMethodEvents(method, TraceSampler.always());
+        Path file = directory.resolve("aspects.jfr");
+
+        // When
+        try (Recording recording = new Recording()) {
+            recording.enable(MethodTimingEvent.NAME).withThreshold(Duration.ZERO);
+            recording.enable(MethodTraceEvent.NAME).withThreshold(Duration.ZERO);
+            recording.start();
+            boundTimed.invoke(call(method, List.of("a", "b")));
+            boundTrace.invoke(call(method, List.of("c")));
+            recording.stop();
+            recording.dump(file);
+        }
+
+        // Then
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        RecordedEvent timing = single(events, MethodTimingEvent.NAME);
+        assertEquals("RecordedMethods.handle", timing.getString("method"));
+        assertEquals(2, timing.getInt("items"));
+        assertFalse(timing.getBoolean("failed"));
+        RecordedEvent trace = single(events, MethodTraceEvent.NAME);
+        assertEquals("[[\"c\"]]", trace.getString("arguments"));
+        assertNull(trace.getString("exception"));
+        assertEquals(1, timed.getAllTimingStats().get("RecordedMethods.handle").getCallCount());
+    }
+
+    @Test
+    void shouldKeepStatisticsWhenNotRecording() throws Throwable {
+        // Given
+        TimedInterceptor timed = new TimedInterceptor();
+        Method method = RecordedMethods.class.getMethod("handle", List.class);
+        TimedInterceptor bound = timed.forMethod(method, AspectBackend.JFR);
+
+        // When
+        bound.invoke(call(method, List.of("a", "b", "c")));
+
+        // Then
+        assertEquals(1, timed.getAllTimingStats().get("RecordedMethods.handle").getCallCount());
+        assertEquals(3, timed.getAllTimingStats().get("RecordedMethods.handle").getItemCount());
+    }
+
+    private static Invocation call(Method method, List<String> values) {
+        return new Invocation.Run(() -> { }).with(new RecordedMethods(), method, values);
+    }
+
+    private static RecordedEvent single(List<RecordedEvent> events, String name) {
+        List<RecordedEvent> matching = events.stream()
+            .filter(event -> event.getEventType().getName().equals(name))
+            .collect(Collectors.toList());
+        assertEquals(1, matching.size(), name);
+        return matching.get(0);
+    }
+
+    public static class RecordedMethods {
+        public void handle(List<String> values) {
+        }
+    }
+}
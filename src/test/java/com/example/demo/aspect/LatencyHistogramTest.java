@@ -0,0 +1,107 @@
+package com.example.demo.aspect;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the log-bucketed {@link LatencyHistogram}.
+ */
+class LatencyHistogramTest {
+
+    private static final double MAX_RELATIVE_ERROR = 1.0 / (1 << LatencyHistogram.SUB_BUCKET_BITS);
+
+    @Test
+    void shouldReportPercentilesWithinRelativeError() {
+        // Given
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        // When - 1 µs to 100 ms in 1 µs steps
+        for (long micros = 1; micros <= 100_000; micros++) {
+            histogram.record(micros * 1_000);
+        }
+
+        // Then
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(100_000, snapshot.getTotalCount());
+        assertWithinError(50_000_000, snapshot.getValueAtPercentile(50));
+        assertWithinError(99_000_000, snapshot.getValueAtPercentile(99));
+        assertWithinError(99_900_000, snapshot.getValueAtPercentile(99.9));
+        assertEquals(1_000, snapshot.getMin());
+        assertEquals(100_000_000, snapshot.getMax());
+        assertEquals(100_000_000, snapshot.getValueAtPercentile(100));
+        // the live read agrees with the copy
+        for (double percentile : new double[] {0, 50, 99, 99.9, 100}) {
+            assertEquals(snapshot.getValueAtPercentile(percentile), histogram.valueAtPercentile(percentile));
+        }
+        assertEquals(0, new LatencyHistogram().valueAtPercentile(99));
+    }
+
+    @Test
+    void shouldMapEveryValueToABucketThatContainsIt() {
+        for (long value : new long[] {0, 1, 127, 128, 255, 256, 1_000, 123_456_789, 1L << 40}) {
+            int index = LatencyHistogram.indexOf(value);
+            assertTrue(LatencyHistogram.highestValueAt(index) >= value, "value " + value);
+            assertTrue(index == 0 || LatencyHistogram.highestValueAt(index - 1) < value, "value " + value);
+        }
+    }
+
+    @Test
+    void shouldMergeSnapshots() {
+        // Given
+        LatencyHistogram fast = new LatencyHistogram();
+        LatencyHistogram slow = new LatencyHistogram();
+        for (int i = 0; i < 90; i++) {
+            fast.record(1_000);
+        }
+        for (int i = 0; i < 10; i++) {
+            slow.record(1_000_000);
+        }
+
+        // When
+        LatencyHistogram.Snapshot merged = LatencyHistogram.Snapshot.empty()
+            .merge(fast.snapshot())
+            .merge(slow.snapshot());
+
+        // Then
+        assertEquals(100, merged.getTotalCount());
+        assertWithinError(1_000, merged.getValueAtPercentile(90));
+        assertWithinError(1_000_000, merged.getValueAtPercentile(91));
+        assertEquals(1_000, merged.getMin());
+        assertEquals(1_000_000, merged.getMax());
+    }
+
+    @Test
+    void shouldCountEveryValueUnderConcurrentRecording() throws InterruptedException {
+        // Given
+        LatencyHistogram histogram = new LatencyHistogram();
+        int threads = 4;
+        int perThread = 50_000;
+        CountDownLatch done = new CountDownLatch(threads);
+
+        // When
+        for (int t = 0; t < threads; t++) {
+            long offset = t;
+            new Thread(() -> {
+                for (int i = 1; i <= perThread; i++) {
+                    histogram.record(i * 10L + offset);
+                }
+                done.countDown();
+            }).start();
+        }
+        done.await();
+
+        // Then
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(threads * perThread, snapshot.getTotalCount());
+        assertEquals(10, snapshot.getMin());
+        assertEquals(perThread * 10L + threads - 1, snapshot.getMax());
+    }
+
+    private static void assertWithinError(long expected, long actual) {
+        assertTrue(Math.abs(actual - expected) <= expected * MAX_RELATIVE_ERROR,
+            "expected " + expected + " within " + MAX_RELATIVE_ERROR + " but was " + actual);
+    }
+}
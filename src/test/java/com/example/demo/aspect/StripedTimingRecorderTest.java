@@ -0,0 +1,140 @@
+package com.example.demo.aspect;
+
+import io.avaje.inject.aop.Invocation;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for per-thread striped timing statistics.
+ */
+class StripedTimingRecorderTest {
+
+    @Test
+    void shouldMergeEveryThreadsSlotOnRead() throws InterruptedException {
+        // Given
+        StripedTimingRecorder recorder = new StripedTimingRecorder();
+        int threads = 4;
+        int perThread = 10_000;
+        CountDownLatch recorded = new CountDownLatch(threads);
+        CountDownLatch release = new CountDownLatch(1);
+
+        // When - each thread records its own latency and stays alive until released
+        List<Thread> started = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            long latency = (t + 1) * 1_000_000L;
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    recorder.record(latency, 2, i % 10 == 0);
+                }
+                recorded.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            thread.start();
+            started.add(thread);
+        }
+        recorded.await();
+
+        // Then
+        assertEquals(threads, recorder.slotCount());
+        assertEquals(threads * perThread, recorder.calls());
+        assertEquals(2L * threads * perThread, recorder.items());
+        assertEquals(threads * perThread / 10, recorder.failures());
+        assertEquals(1_000_000, recorder.minNanos());
+        assertEquals(4_000_000, recorder.maxNanos());
+        LatencyHistogram.Snapshot latency = recorder.latency();
+        assertEquals(threads * perThread, latency.getTotalCount());
+        assertEquals(2_000_000, latency.getValueAtPercentile(50), 20_000);
+        long[] counts = new long[1];
+        assertEquals(threads * perThread, recorder.cumulativeCounts(new long[] {2_500_000}, counts));
+        assertEquals(2 * perThread, counts[0]);
+
+        release.countDown();
+        for (Thread thread : started) {
+            thread.join();
+        }
+    }
+
+    @Test
+    void shouldReclaimSlotsOfDeadThreadsWithoutLosingCounts() throws InterruptedException {
+        // Given
+        StripedTimingRecorder recorder = new StripedTimingRecorder();
+
+        // When - threads come and go
+        for (int t = 0; t < 20; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 1_000; i++) {
+                    recorder.record(5_000, 1, false);
+                }
+            });
+            thread.start();
+            thread.join();
+        }
+        int slotsAfterChurn = recorder.slotCount();
+        recorder.record(7_000, 1, false);
+
+        // Then - the caller's slot is the only one left, and it started empty
+        assertEquals(0, slotsAfterChurn);
+        assertEquals(1, recorder.slotCount());
+        assertEquals(20_001, recorder.calls());
+        assertEquals(20_000 * 5_000L + 7_000, recorder.totalTimeNanos());
+        assertEquals(7_000, recorder.maxNanos());
+    }
+
+    @Test
+    void shouldNotLoseCallsRecordedWhileRolling() throws InterruptedException {
+        // Given
+        TimedInterceptor.TimingStat stat = new TimedInterceptor.TimingStat(true);
+        int threads = 4;
+        int perThread = 100_000;
+        CountDownLatch done = new CountDownLatch(threads);
+        AtomicBoolean finished = new AtomicBoolean();
+
+        // When - roll continuously while the writers record
+        for (int t = 0; t < threads; t++) {
+            new Thread(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    stat.record(1_000, 1, false);
+                }
+                done.countDown();
+            }).start();
+        }
+        long intervalCalls = 0;
+        long intervalLatencies = 0;
+        while (!finished.get()) {
+            finished.set(done.getCount() == 0);
+            IntervalSnapshot interval = stat.rollInterval();
+            intervalCalls += interval.getCallCount();
+            intervalLatencies += interval.getLatencySnapshot().getTotalCount();
+        }
+
+        // Then - intervals are differences of the merged totals, so they add up exactly
+        assertEquals(threads * perThread, intervalCalls);
+        assertEquals(threads * perThread, intervalLatencies);
+        assertEquals(threads * perThread, stat.getCallCount());
+    }
+
+    @Test
+    void shouldRecordStripedStatisticsThroughTheInterceptor() throws Throwable {
+        // Given
+        TimedInterceptor interceptor = new TimedInterceptor(true);
+        Method single = TimedInterceptorTest.BatchMethods.class.getMethod("single", String.class);
+        TimedInterceptor bound = interceptor.forMethod(single);
+
+        // When
+        bound.invoke(new Invocation.Run(() -> { }).with(new TimedInterceptorTest.BatchMethods(), single, "a"));
+
+        // Then
+        assertEquals(1, interceptor.getAllTimingStats().get("BatchMethods.single").getCallCount());
+    }
+}
@@ -8,6 +8,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.lang.reflect.Method;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -90,6 +91,71 @@ class TimedInterceptorTest {
         assertEquals(0, stats.get("TimedInterceptorTest.multipleCallsMethod").getFailureCount());
     }
 
+    @Test
+    void shouldResolveBatchSizeFromArguments() throws NoSuchMethodException {
+        // Given
+        Method varargs = BatchMethods.class.getMethod("varargs", String[].class);
+        Method list = BatchMethods.class.getMethod("list", List.class);
+        Method single = BatchMethods.class.getMethod("single", String.class);
+
+        // Then - a lone varargs parameter arrives as the arguments array itself
+        assertEquals(3, TimedInterceptor.batchSize(varargs, new Object[] {"a", "b", "c"}));
+        assertEquals(2, TimedInterceptor.batchSize(list, new Object[] {List.of("a", "b")}));
+        assertEquals(1, TimedInterceptor.batchSize(single, new Object[] {"a"}));
+    }
+
+    @Test
+    void shouldTrackItemsPerCall() {
+        // Given
+        TimedInterceptor.TimingStat stat = new TimedInterceptor.TimingStat();
+
+        // When
+        stat.record(4_000_000, 4, false);
+        stat.record(2_000_000, 1, true);
+
+        // Then
+        assertEquals(2, stat.getCallCount());
+        assertEquals(5, stat.getItemCount());
+        assertEquals(1, stat.getFailureCount());
+        assertEquals(1.2, stat.getAverageTimePerItemMs(), 1e-9);
+    }
+
+    @Test
+    void shouldShareStatisticsWithMethodBoundInterceptors() throws Throwable {
+        // Given
+        Method list = BatchMethods.class.getMethod("list", List.class);
+        TimedInterceptor bound = interceptor.forMethod(list);
+        Invocation call = new Invocation.Run(() -> { }).with(new BatchMethods(), list, List.of("a", "b"));
+
+        // When
+        bound.invoke(call);
+        bound.invoke(call);
+
+        // Then - recorded under the same metric name the shared interceptor uses
+        var stat = interceptor.getAllTimingStats().get("BatchMethods.list");
+        assertEquals(2, stat.getCallCount());
+        assertEquals(4, stat.getItemCount());
+    }
+
+    @Test
+    void shouldReportPercentilesAndExtremes() {
+        // Given
+        TimedInterceptor.TimingStat stat = new TimedInterceptor.TimingStat();
+
+        // When - 99 fast calls and one slow outlier
+        for (int i = 0; i < 99; i++) {
+            stat.recordExecution(1_000_000);
+        }
+        stat.recordExecution(50_000_000);
+
+        // Then - the average hides the outlier, the tail percentiles do not
+        assertEquals(1.0, stat.getMinTimeMs(), 1e-9);
+        assertEquals(50.0, stat.getMaxTimeMs(), 1e-9);
+        assertEquals(1.0, stat.getPercentileMs(50), 0.01);
+        assertEquals(1.0, stat.getPercentileMs(99), 0.01);
+        assertEquals(50.0, stat.getPercentileMs(99.9), 0.5);
+    }
+
     @Test
     void shouldLogStatsWithoutCrashing() {
         // Given - interceptor with some statistics
@@ -98,4 +164,15 @@ class TimedInterceptorTest {
         // When/Then - should not throw
         assertDoesNotThrow(() -> interceptor.logAllStats());
     }
+
+    public static class BatchMethods {
+        public void varargs(String... values) {
+        }
+
+        public void list(List<String> values) {
+        }
+
+        public void single(String value) {
+        }
+    }
 }
\ No newline at end of file
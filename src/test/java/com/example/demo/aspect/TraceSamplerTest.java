@@ -0,0 +1,113 @@
+package com.example.demo.aspect;
+
+import com.example.demo.annotation.TraceLogged;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for sampled and rate-limited trace logging.
+ */
+class TraceSamplerTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    void shouldTraceOneInEveryNCalls() {
+        // Given
+        TraceSampler sampler = new TraceSampler(1.0, 4, 0, false, clock::get);
+
+        // When
+        int traced = countTraced(sampler, 100);
+
+        // Then
+        assertEquals(25, traced);
+    }
+
+    @Test
+    void shouldTraceOneInNCallsSpreadOverShortLivedThreads() throws InterruptedException {
+        // Given
+        TraceSampler sampler = new TraceSampler(1.0, 10, 0, false, clock::get);
+        AtomicInteger traced = new AtomicInteger();
+
+        // When - 2000 threads making one call each, as mailbox drains on fresh virtual threads do
+        for (int i = 0; i < 2000; i++) {
+            Thread thread = new Thread(() -> traced.addAndGet(countTraced(sampler, 1)));
+            thread.start();
+            thread.join();
+        }
+
+        // Then - about 200, far from every thread tracing its first call
+        assertTrue(traced.get() > 120 && traced.get() < 280, "traced " + traced.get());
+    }
+
+    @Test
+    void shouldLimitTracedCallsPerSecond() {
+        // Given
+        TraceSampler sampler = new TraceSampler(1.0, 1, 5, false, clock::get);
+
+        // When
+        int firstSecond = countTraced(sampler, 100);
+        clock.addAndGet(SECOND);
+        int secondSecond = countTraced(sampler, 100);
+
+        // Then
+        assertEquals(5, firstSecond);
+        assertEquals(5, secondSecond);
+    }
+
+    @Test
+    void shouldLowerSamplingRateWhenCallRateSpikes() {
+        // Given - a target of 10 traced calls per second
+        TraceSampler sampler = new TraceSampler(1.0, 1, 10, true, clock::get);
+
+        // When - a burst of 1000 calls per second for two seconds, then a quiet second
+        countTraced(sampler, 1000);
+        clock.addAndGet(SECOND);
+        int duringSpike = countTraced(sampler, 1000);
+        int intervalDuringSpike = sampler.adaptiveInterval();
+        clock.addAndGet(SECOND);
+        countTraced(sampler, 5);
+        clock.addAndGet(SECOND);
+        countTraced(sampler, 1);
+
+        // Then
+        assertEquals(100, intervalDuringSpike);
+        assertEquals(10, duringSpike);
+        assertEquals(1, sampler.adaptiveInterval(), "sampling rate should recover");
+    }
+
+    @Test
+    void shouldTraceEveryCallWithoutSamplingAttributes() throws Exception {
+        // Given
+        TraceLogged plain = Plain.class.getAnnotation(TraceLogged.class);
+        TraceLogged sampled = Plain.class.getMethod("sampled").getAnnotation(TraceLogged.class);
+
+        // When / Then
+        assertSame(TraceSampler.always(), TraceSampler.of(plain));
+        assertSame(TraceSampler.always(), TraceSampler.of(null));
+        assertNotSame(TraceSampler.always(), TraceSampler.of(sampled));
+    }
+
+    private static int countTraced(TraceSampler sampler, int calls) {
+        int traced = 0;
+        for (int i = 0; i < calls; i++) {
+            if (sampler.sample()) {
+                traced++;
+            }
+        }
+        return traced;
+    }
+
+    @TraceLogged
+    public static class Plain {
+        @TraceLogged(oneIn = 10, maxPerSecond = 50)
+        public void sampled() {
+        }
+    }
+}
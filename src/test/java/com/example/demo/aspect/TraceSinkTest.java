@@ -0,0 +1,71 @@
+package com.example.demo.aspect;
+
+import com.example.demo.MutableDemoEvent;
+import io.avaje.inject.aop.Invocation;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the asynchronous {@link TraceSink}.
+ */
+class TraceSinkTest {
+
+    @Test
+    void shouldFormatCapturedArgumentsAfterTheCallReturns() throws Throwable {
+        // Given
+        List<String> output = new CopyOnWriteArrayList<>();
+        TraceSink sink = new TraceSink(64, TraceSink.OverflowPolicy.BLOCK, output::add);
+        Method method = TracedMethods.class.getMethod("handle", List.class, MutableDemoEvent.class);
+        TraceLoggingInterceptor interceptor = new TraceLoggingInterceptor().forMethod(method, TraceSampler.always(), sink);
+        List<String> batch = new ArrayList<>(List.of("a", "b", "c"));
+
+        // When - the caller reuses its list and event once the call returns
+        interceptor.invoke(new Invocation.Run(() -> { })
+            .with(new TracedMethods(), method, batch, new MutableDemoEvent(16).set("reused", 1)));
+        batch.clear();
+        sink.close();
+
+        // Then
+        String written = String.join(System.lineSeparator(), output);
+        assertTrue(written.contains("TRACE: Entering TracedMethods.handle() with args: [[\"a\", \"b\", \"c\"], <borrowed event>]"),
+            written);
+        assertTrue(written.contains("TRACE: Exiting TracedMethods.handle() successfully in "), written);
+        assertEquals(0, sink.getDroppedCount());
+    }
+
+    @Test
+    void shouldCountDroppedRecordsWhenRingIsFull() throws Exception {
+        // Given - a writer stalled on its first batch
+        CountDownLatch release = new CountDownLatch(1);
+        TraceSink sink = new TraceSink(4, TraceSink.OverflowPolicy.DROP, text -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        // When
+        for (int i = 0; i < 20; i++) {
+            sink.exit("TracedMethods.handle", i);
+        }
+
+        // Then - at most one batch in flight plus a full ring were kept
+        assertTrue(sink.getDroppedCount() >= 20 - 4 - 4, "dropped " + sink.getDroppedCount());
+        release.countDown();
+        sink.close();
+        assertEquals(0, sink.getPendingCount());
+    }
+
+    public static class TracedMethods {
+        public void handle(List<String> values, MutableDemoEvent event) {
+        }
+    }
+}
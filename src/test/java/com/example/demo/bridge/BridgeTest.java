@@ -0,0 +1,198 @@
+package com.example.demo.bridge;
+
+import com.example.demo.DemoEvent;
+import com.example.demo.EventListener;
+import com.example.demo.dispatch.SubscriptionRegistry;
+import com.example.demo.dispatch.TypedPublisher;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.net.InetSocketAddress;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the cross-process event bridge, run over localhost TCP and a Unix domain socket.
+ */
+class BridgeTest {
+
+    @Test
+    void shouldBridgeEventsInOrderOverTcpInBatchedFrames() throws Exception {
+        // Given
+        EventListener listener = new EventListener(32_768, false);
+        try (BridgeServer server = BridgeServer.bind(new InetSocketAddress("127.0.0.1", 0), listener, 4096, 4)) {
+            BridgeSender sender = BridgeSender.connect(server.localAddress(), 4096, 1_000, 1024);
+
+            // When
+            for (int batch = 0; batch < 100; batch++) {
+                List<DemoEvent> events = new ArrayList<>();
+                for (int i = 0; i < 200; i++) {
+                    events.add(new DemoEvent("Event " + (batch * 200 + i), batch, i % 3 == 0 ? null : "key-" + i));
+                }
+                sender.onEvents(events);
+            }
+            sender.close();
+            await(() -> listener.getEventCount() == 20_000);
+
+            // Then
+            List<DemoEvent> received = listener.getReceivedEvents();
+            for (int i = 0; i < 20_000; i++) {
+                assertEquals("Event " + i, received.get(i).getMessage());
+                assertEquals(i / 200, received.get(i).getTimestamp());
+                assertEquals(i % 200 % 3 == 0 ? null : "key-" + i % 200, received.get(i).getPartitionKey());
+            }
+            assertEquals(20_000, sender.getEventsSent());
+            assertTrue(sender.getFramesSent() < 20_000 / 10, "frames " + sender.getFramesSent());
+            assertEquals(sender.getFramesSent(), server.getFramesReceived());
+        }
+    }
+
+    @Test
+    void shouldBridgeOverUnixSocketIncludingEventsLargerThanAFrame(@TempDir Path dir) throws Exception {
+        // Given
+        EventListener listener = new EventListener(16, false);
+        String large = "x".repeat(1_000);
+        try (BridgeServer server = BridgeServer.bind(UnixDomainSocketAddress.of(dir.resolve("bridge.sock")), listener, 256, 2)) {
+            BridgeSender sender = BridgeSender.connect(server.localAddress(), 256, 1_000, 16);
+
+            // When - the lone event is flushed by the delay, without closing the sender
+            sender.onEvent(new DemoEvent("héllo 😀", 1));
+            await(() -> listener.getEventCount() == 1);
+            sender.onEvent(new DemoEvent(large, 2));
+            sender.onEvent(new DemoEvent(null, 3));
+            sender.onEvent(new DemoEvent("after", 4, "order-1"));
+            sender.close();
+            await(() -> listener.getEventCount() == 4);
+
+            // Then
+            List<DemoEvent> received = listener.getReceivedEvents();
+            assertEquals("héllo 😀", received.get(0).getMessage());
+            assertEquals(large, received.get(1).getMessage());
+            assertNull(received.get(2).getMessage());
+            assertEquals("after", received.get(3).getMessage());
+            assertEquals("order-1", received.get(3).getPartitionKey());
+            assertNull(received.get(0).getPartitionKey());
+        }
+        assertFalse(dir.resolve("bridge.sock").toFile().exists());
+    }
+
+    @Test
+    void shouldHoldTheProducerBackWhenTheReceiverRunsOutOfCredits() throws Exception {
+        // Given - a receiver stuck on its first frame, one frame of window and a tiny sender queue
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> received = new CopyOnWriteArrayList<>();
+        try (BridgeServer server = BridgeServer.bind(new InetSocketAddress("127.0.0.1", 0), event -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            received.add(event.getMessage());
+        }, 64, 1)) {
+            BridgeSender sender = BridgeSender.connect(server.localAddress(), 64, 100, 4);
+            Thread producer = new Thread(() -> {
+                for (int i = 0; i < 100; i++) {
+                    sender.onEvent(new DemoEvent("Event " + i, i));
+                }
+            });
+
+            // When
+            producer.start();
+            producer.join(300);
+            boolean blocked = producer.isAlive();
+            long framesWhileBlocked = server.getFramesReceived();
+            release.countDown();
+            producer.join(TimeUnit.SECONDS.toMillis(10));
+            sender.close();
+            await(() -> received.size() == 100);
+
+            // Then
+            assertTrue(blocked);
+            assertEquals(0, framesWhileBlocked);
+            for (int i = 0; i < 100; i++) {
+                assertEquals("Event " + i, received.get(i));
+            }
+        }
+    }
+
+    @Test
+    void shouldGrantTheWindowAndOneCreditPerFrame() throws Exception {
+        // Given - a raw sender that writes empty frames and reads its credits only at the end
+        int frames = 100_000;
+        try (BridgeServer server = BridgeServer.bind(new InetSocketAddress("127.0.0.1", 0), event -> { }, 64, 4);
+             SocketChannel channel = SocketChannel.open()) {
+            channel.connect(server.localAddress());
+            ByteBuffer frame = ByteBuffer.allocate(BridgeFrames.HEADER_SIZE * 1_000);
+
+            // When
+            for (int sent = 0; sent < frames; sent += 1_000) {
+                frame.clear();
+                while (frame.hasRemaining()) {
+                    channel.write(frame);
+                }
+            }
+            await(() -> server.getFramesReceived() == frames);
+            channel.configureBlocking(false);
+            ByteBuffer credits = ByteBuffer.allocate(4096);
+            long granted = 0;
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (granted < 4 + frames && System.nanoTime() < deadline) {
+                channel.read(credits);
+                credits.flip();
+                while (credits.remaining() >= BridgeFrames.CREDIT_SIZE) {
+                    granted += credits.getInt();
+                }
+                credits.compact();
+            }
+
+            // Then - the window plus one credit per frame, with no bytes left over
+            assertEquals(4 + frames, granted);
+            assertEquals(0, credits.position());
+        }
+    }
+
+    @Test
+    void shouldKeepLocalDeliveryGoingWhenTheReceiverDies() throws Exception {
+        // Given - the sender subscribed ahead of a local listener
+        BridgeServer server = BridgeServer.bind(new InetSocketAddress("127.0.0.1", 0), event -> { }, 64, 4);
+        BridgeSender sender = BridgeSender.connect(server.localAddress(), 64, 100, 4);
+        EventListener local = new EventListener(16, false);
+        SubscriptionRegistry registry = new SubscriptionRegistry();
+        registry.subscribe(DemoEvent.class, sender);
+        registry.subscribe(DemoEvent.class, local);
+        TypedPublisher<DemoEvent> publisher = registry.publisher(DemoEvent.class);
+
+        // When - events keep coming after the receiver is gone
+        server.close();
+        int dispatched = 0;
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while ((sender.getEventsDropped() == 0 || dispatched < 100) && System.nanoTime() < deadline) {
+            publisher.onEvent(new DemoEvent("Event " + dispatched, dispatched));
+            dispatched++;
+        }
+        sender.close();
+
+        // Then - nothing was thrown at the producer, and the local listener saw every event
+        assertTrue(sender.getEventsDropped() > 0);
+        assertEquals(dispatched, local.getReceivedCount());
+        assertEquals(dispatched, sender.getEventsSent() + sender.getEventsDropped());
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "timed out");
+            Thread.sleep(5);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.demo.dispatch;
+
+import com.example.demo.DemoEvent;
+import com.example.demo.EventListener;
+import com.example.demo.EventProducer;
+import com.example.demo.FlyweightEventHandler;
+import com.example.demo.MutableDemoEvent;
+import com.example.demo.dispatch.RingBuffer.ProducerType;
+import io.avaje.inject.BeanScope;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the allocation-free flyweight dispatch mode.
+ */
+class FlyweightEventDispatcherTest {
+
+    private BeanScope beanScope;
+
+    @AfterEach
+    void cleanup() {
+        System.clearProperty("demo.dispatch.mode");
+        if (beanScope != null) {
+            beanScope.close();
+        }
+    }
+
+    @Test
+    void shouldCopyMessagesIntoReusedSlots() {
+        // Given - a handler that keeps copies, and a mutable message reused by the producer
+        List<DemoEvent> copies = new ArrayList<>();
+        List<MutableDemoEvent> slots = new ArrayList<>();
+        FlyweightEventHandler handler = event -> {
+            copies.add(event.toEvent());
+            slots.add(event);
+        };
+        FlyweightEventDispatcher dispatcher = new FlyweightEventDispatcher(
+            handler, 4, 16, ProducerType.SINGLE, WaitStrategy.blocking(), 1);
+        StringBuilder message = new StringBuilder();
+
+        // When - more events than slots, including non-ASCII, null and oversized messages
+        for (int i = 0; i < 10; i++) {
+            message.setLength(0);
+            dispatcher.dispatch(message.append("Event ").append(i), i);
+        }
+        dispatcher.dispatch("größe €", 10);
+        dispatcher.dispatch((CharSequence) null, 11);
+        dispatcher.dispatch("a message longer than sixteen bytes", 12);
+        dispatcher.close();
+
+        // Then
+        assertEquals(13, copies.size());
+        assertEquals("Event 7", copies.get(7).getMessage());
+        assertEquals(7, copies.get(7).getTimestamp());
+        assertEquals("größe €", copies.get(10).getMessage());
+        assertNull(copies.get(11).getMessage());
+        assertEquals("a message longer than sixteen bytes", copies.get(12).getMessage());
+        assertSame(slots.get(0), slots.get(4), "slots should be reused");
+    }
+
+    @Test
+    void shouldCarryPartitionKeysThroughTheSlots() {
+        // Given
+        List<DemoEvent> copies = new ArrayList<>();
+        FlyweightEventDispatcher dispatcher = new FlyweightEventDispatcher(
+            event -> copies.add(event.toEvent()), 4, 16, ProducerType.SINGLE, WaitStrategy.blocking(), 1);
+
+        // When - keyed and unkeyed events share the reused slots
+        dispatcher.dispatch(new DemoEvent("one", 1, "order-1"));
+        assertTrue(dispatcher.tryDispatch(new DemoEvent("two", 2, "order-2")));
+        dispatcher.dispatchBatch(List.of(new DemoEvent("three", 3, "order-3"), new DemoEvent("four", 4),
+            new DemoEvent("five", 5, "order-1")));
+        dispatcher.dispatch("six", 6);
+        dispatcher.close();
+
+        // Then
+        assertEquals(6, copies.size());
+        assertEquals("order-1", copies.get(0).getPartitionKey());
+        assertEquals("order-2", copies.get(1).getPartitionKey());
+        assertEquals("order-3", copies.get(2).getPartitionKey());
+        assertNull(copies.get(3).getPartitionKey());
+        assertEquals("order-1", copies.get(4).getPartitionKey());
+        assertNull(copies.get(5).getPartitionKey(), "a reused slot should not keep the old key");
+    }
+
+    @Test
+    void shouldShareOneCopyWithHandlersWithoutFlyweightSupport() {
+        // Given
+        SubscriptionRegistry registry = new SubscriptionRegistry();
+        EventListener flyweightAware = new EventListener(16, false);
+        List<DemoEvent> first = new ArrayList<>();
+        List<DemoEvent> second = new ArrayList<>();
+        registry.subscribe(DemoEvent.class, flyweightAware);
+        registry.subscribe(DemoEvent.class, first::add);
+        registry.subscribe(DemoEvent.class, second::add);
+
+        // When
+        registry.publisher(DemoEvent.class).onFlyweight(new MutableDemoEvent(32).set("shared", 5));
+
+        // Then
+        assertEquals(1, flyweightAware.getReceivedCount());
+        assertEquals(0, flyweightAware.getEventCount(), "borrowed events are not retained");
+        assertEquals("shared", first.get(0).getMessage());
+        assertSame(first.get(0), second.get(0));
+    }
+
+    @Test
+    void shouldWireFlyweightDispatcherWhenConfigured() throws Exception {
+        // Given
+        System.setProperty("demo.dispatch.mode", "flyweight");
+        beanScope = BeanScope.builder().build();
+        EventProducer producer = beanScope.get(EventProducer.class);
+        EventListener listener = beanScope.get(EventListener.class);
+
+        // When
+        producer.produceEvent("Borrowed");
+        beanScope.get(FlyweightEventDispatcher.class).close();
+
+        // Then
+        assertInstanceOf(FlyweightEventDispatcher.class, beanScope.get(EventDispatcher.class));
+        assertEquals(1, listener.getReceivedCount());
+    }
+}
@@ -0,0 +1,343 @@
+package com.example.demo.dispatch;
+
+import com.example.demo.DemoEvent;
+import com.example.demo.EventHandler;
+import com.example.demo.EventListener;
+import com.example.demo.EventProducer;
+import io.avaje.inject.BeanScope;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the per-handler mailbox dispatch mode.
+ */
+class MailboxEventDispatcherTest {
+
+    private BeanScope beanScope;
+
+    @AfterEach
+    void cleanup() {
+        System.clearProperty("demo.dispatch.mode");
+        if (beanScope != null) {
+            beanScope.close();
+        }
+    }
+
+    @Test
+    void shouldNotLetABlockedHandlerStallTheProducerOrOtherHandlers() throws InterruptedException {
+        // Given
+        SubscriptionRegistry registry = new SubscriptionRegistry();
+        EventListener fast = new EventListener(100, false);
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> slow = new CopyOnWriteArrayList<>();
+        registry.subscribe(DemoEvent.class, fast);
+        registry.subscribe(DemoEvent.class, event -> {
+            awaitQuietly(release);
+            slow.add(event.getMessage());
+        });
+        MailboxEventDispatcher dispatcher = new MailboxEventDispatcher(
+            registry, ListenerThreads.newExecutor(ListenerThreads.Kind.VIRTUAL, 4), 1);
+
+        // When - the slow handler blocks until released
+        for (int i = 0; i < 100; i++) {
+            dispatcher.dispatch(new DemoEvent("Event " + i));
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (fast.getEventCount() < 100 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        int slowBeforeRelease = slow.size();
+        release.countDown();
+        dispatcher.close();
+
+        // Then - the slow handler still sees every event, in order
+        assertEquals(100, fast.getEventCount());
+        assertEquals(0, slowBeforeRelease);
+        assertEquals(100, slow.size());
+        for (int i = 0; i < 100; i++) {
+            assertEquals("Event " + i, slow.get(i));
+        }
+        assertEquals(0, dispatcher.pending());
+        assertThrows(IllegalStateException.class, () -> dispatcher.dispatch(new DemoEvent("late")));
+    }
+
+    @Test
+    void shouldCapConcurrentCallsPerHandler() {
+        // Given
+        SubscriptionRegistry registry = new SubscriptionRegistry();
+        AtomicInteger active = new AtomicInteger();
+        AtomicInteger maxActive = new AtomicInteger();
+        AtomicInteger handled = new AtomicInteger();
+        registry.subscribe(DemoEvent.class, event -> {
+            maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+            sleepQuietly(2);
+            active.decrementAndGet();
+            handled.incrementAndGet();
+        });
+        MailboxEventDispatcher dispatcher = new MailboxEventDispatcher(
+            registry, ListenerThreads.newExecutor(ListenerThreads.Kind.PLATFORM, 8), 3);
+
+        // When
+        for (int i = 0; i < 60; i++) {
+            dispatcher.dispatch(new DemoEvent("Event " + i));
+        }
+        dispatcher.close();
+
+        // Then
+        assertEquals(60, handled.get());
+        assertEquals(3, maxActive.get());
+    }
+
+    @Test
+    void shouldKeepDrainingAfterAHandlerThrowsAnError() throws InterruptedException {
+        // Given
+        SubscriptionRegistry registry = new SubscriptionRegistry();
+        List<String> received = new CopyOnWriteArrayList<>();
+        registry.subscribe(DemoEvent.class, event -> {
+            if (event.getMessage().equals("fatal")) {
+                throw new AssertionError("handler failed");
+            }
+            received.add(event.getMessage());
+        });
+        MailboxEventDispatcher dispatcher = new MailboxEventDispatcher(
+            registry, ListenerThreads.newExecutor(ListenerThreads.Kind.PLATFORM, 2), 1);
+
+        // When
+        dispatcher.dispatch(new DemoEvent("fatal"));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (dispatcher.pending() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        long pendingAfterError = dispatcher.pending();
+        for (int i = 0; i < 20; i++) {
+            dispatcher.dispatch(new DemoEvent("Event " + i));
+        }
+        dispatcher.close();
+
+        // Then - the error neither stranded the mailbox nor left its events pending
+        assertEquals(0, pendingAfterError);
+        assertEquals(20, received.size());
+        assertEquals(0, dispatcher.pending());
+    }
+
+    @Test
+    void shouldDeliverToTheListenerAndDrainOnScopeCloseInMailboxMode() {
+        // Given
+        System.setProperty("demo.dispatch.mode", "mailbox");
+        beanScope = BeanScope.builder().build();
+        EventListener listener = beanScope.get(EventListener.class);
+
+        // When
+        assertInstanceOf(MailboxEventDispatcher.class, beanScope.get(EventDispatcher.class));
+        EventProducer producer = beanScope.get(EventProducer.class);
+        producer.produceEvent("single");
+        producer.produceEvents("one", "two", "three");
+        beanScope.close();
+        beanScope = null;
+
+        // Then
+        assertEquals(4, listener.getEventCount());
+    }
+
+    @Test
+    void shouldApplyOverflowPoliciesToAFullMailbox() throws InterruptedException {
+        // DROP_NEWEST keeps the first events, DROP_OLDEST the last ones
+        assertEquals(List.of("Event 0", "Event 1", "Event 2", "Event 3", "Event 4"),
+            overflow(OverflowPolicy.DROP_NEWEST, 4, 10));
+        assertEquals(List.of("Event 0", "Event 6", "Event 7", "Event 8", "Event 9"),
+            overflow(OverflowPolicy.DROP_OLDEST, 4, 10));
+        // SAMPLE (rate 3) lets events 7 and 10 replace the oldest queued ones
+        assertEquals(List.of("Event 0", "Event 3", "Event 4", "Event 7", "Event 10"),
+            overflow(OverflowPolicy.SAMPLE, 4, 11));
+    }
+
+    @Test
+    void shouldBlockUntilTimeoutThenDropAndReportIt() throws InterruptedException {
+        // Given - a handler stuck on its first event and a full mailbox
+        BlockedHandler handler = new BlockedHandler();
+        MailboxEventDispatcher dispatcher = blockedDispatcher(handler, OverflowPolicy.BLOCK, 2);
+
+        // When
+        long start = System.nanoTime();
+        dispatcher.dispatch(new DemoEvent("late"));
+        long waitedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        handler.release.countDown();
+        dispatcher.close();
+
+        // Then
+        BackpressureStats stats = dispatcher.backpressure();
+        assertTrue(waitedMillis >= 50, "waited " + waitedMillis + " ms");
+        assertEquals(1, stats.getDroppedCount());
+        assertEquals(1, stats.getBlockedCount());
+        assertTrue(stats.getBlockedNanos() >= TimeUnit.MILLISECONDS.toNanos(50));
+        assertEquals(2, stats.getHighWatermark());
+        assertEquals(List.of("Event 0", "Event 1", "Event 2"), handler.received);
+    }
+
+    @Test
+    void shouldRunOnTheCallerBehindTheQueuedEventsWhenADrainSlotIsFree() throws InterruptedException {
+        // Given - a single pooled thread stuck on Event 0, so the drain tasks for Event 1 and
+        // Event 2 are rejected and give their slots back
+        SubscriptionRegistry registry = new SubscriptionRegistry();
+        BlockedHandler handler = new BlockedHandler();
+        registry.subscribe(DemoEvent.class, handler);
+        ExecutorService executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+            new SynchronousQueue<>(), runnable -> new Thread(runnable, ListenerThreads.THREAD_PREFIX + "single"));
+        MailboxEventDispatcher dispatcher = new MailboxEventDispatcher(
+            registry, executor, 2, 2, OverflowPolicy.CALLER_RUNS, 100, 1);
+        dispatcher.dispatch(new DemoEvent("Event 0"));
+        assertTrue(handler.started.await(5, TimeUnit.SECONDS));
+        dispatcher.dispatch(new DemoEvent("Event 1"));
+        dispatcher.dispatch(new DemoEvent("Event 2"));
+
+        // When
+        dispatcher.dispatch(new DemoEvent("overflow"));
+
+        // Then - delivered on this thread after the events queued ahead of it
+        assertEquals(List.of("Event 0", "Event 1", "Event 2", "overflow"), handler.received);
+        handler.release.countDown();
+        dispatcher.close();
+        assertEquals(1, dispatcher.backpressure().getCallerRunsCount());
+        assertEquals(0, dispatcher.pending());
+    }
+
+    @Test
+    void shouldWaitLikeBlockWhenEveryDrainSlotIsBusy() throws InterruptedException {
+        // Given - the only drain slot is held by the task stuck on Event 0
+        BlockedHandler handler = new BlockedHandler();
+        MailboxEventDispatcher dispatcher = blockedDispatcher(handler, OverflowPolicy.CALLER_RUNS, 2);
+        Thread releaser = new Thread(() -> {
+            sleepQuietly(20);
+            handler.release.countDown();
+        });
+
+        // When
+        releaser.start();
+        dispatcher.dispatch(new DemoEvent("overflow"));
+        releaser.join();
+        dispatcher.close();
+
+        // Then - queued once the drain task made room, and delivered in order on the pool
+        assertEquals(List.of("Event 0", "Event 1", "Event 2", "overflow"), handler.received);
+        assertEquals(0, dispatcher.backpressure().getCallerRunsCount());
+        assertEquals(1, dispatcher.backpressure().getBlockedCount());
+        assertEquals(0, dispatcher.backpressure().getDroppedCount());
+    }
+
+    @Test
+    void shouldRefuseTryDispatchForAllHandlersWhenOneMailboxIsFull() throws InterruptedException {
+        // Given - a blocked handler with a full mailbox and an idle one
+        SubscriptionRegistry registry = new SubscriptionRegistry();
+        BlockedHandler blocked = new BlockedHandler();
+        EventListener idle = new EventListener(100, false);
+        registry.subscribe(DemoEvent.class, idle);
+        registry.subscribe(DemoEvent.class, blocked);
+        MailboxEventDispatcher dispatcher = new MailboxEventDispatcher(
+            registry, ListenerThreads.newExecutor(ListenerThreads.Kind.PLATFORM, 4), 1, 1,
+            OverflowPolicy.BLOCK, 1_000, 1);
+        assertTrue(dispatcher.tryDispatch(new DemoEvent("Event 0")));
+        assertTrue(blocked.started.await(5, TimeUnit.SECONDS));
+        awaitCount(idle, 1);
+        assertTrue(dispatcher.tryDispatch(new DemoEvent("Event 1")));
+        awaitCount(idle, 2);
+
+        // When
+        boolean accepted = dispatcher.tryDispatch(new DemoEvent("refused"));
+        blocked.release.countDown();
+        dispatcher.close();
+
+        // Then - neither handler saw the refused event, and the idle one's reservation was undone
+        assertFalse(accepted);
+        assertEquals(1, dispatcher.backpressure().getRejectedCount());
+        assertEquals(List.of("Event 0", "Event 1"), blocked.received);
+        assertEquals(2, idle.getEventCount());
+    }
+
+    private static void awaitCount(EventListener listener, int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (listener.getEventCount() < count && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(count, listener.getEventCount());
+    }
+
+    /**
+     * Dispatch {@code count} events to a handler stuck on the first one, with the given
+     * mailbox capacity, and return what it received once released.
+     */
+    private static List<String> overflow(OverflowPolicy policy, int capacity, int count) throws InterruptedException {
+        BlockedHandler handler = new BlockedHandler();
+        MailboxEventDispatcher dispatcher = blockedDispatcher(handler, policy, capacity);
+        for (int i = capacity + 1; i < count; i++) {
+            dispatcher.dispatch(new DemoEvent("Event " + i));
+        }
+        handler.release.countDown();
+        dispatcher.close();
+        assertEquals(count - capacity - 1, dispatcher.backpressure().getDroppedCount(), policy.name());
+        return handler.received;
+    }
+
+    /**
+     * Dispatcher whose handler has taken {@code Event 0} and blocks on it, with the mailbox
+     * filled by {@code Event 1} to {@code Event capacity}.
+     */
+    private static MailboxEventDispatcher blockedDispatcher(BlockedHandler handler, OverflowPolicy policy,
+                                                            int capacity) throws InterruptedException {
+        SubscriptionRegistry registry = new SubscriptionRegistry();
+        registry.subscribe(DemoEvent.class, handler);
+        MailboxEventDispatcher dispatcher = new MailboxEventDispatcher(
+            registry, ListenerThreads.newExecutor(ListenerThreads.Kind.PLATFORM, 2), 1, capacity, policy, 100, 3);
+        dispatcher.dispatch(new DemoEvent("Event 0"));
+        assertTrue(handler.started.await(5, TimeUnit.SECONDS));
+        for (int i = 1; i <= capacity; i++) {
+            dispatcher.dispatch(new DemoEvent("Event " + i));
+        }
+        return dispatcher;
+    }
+
+    /**
+     * Handler that records messages and blocks on the first event on a pooled thread until released.
+     */
+    private static final class BlockedHandler implements EventHandler<DemoEvent> {
+
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final List<String> received = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void onEvent(DemoEvent event) {
+            received.add(event.getMessage());
+            if (Thread.currentThread().getName().startsWith(ListenerThreads.THREAD_PREFIX)) {
+                started.countDown();
+                awaitQuietly(release);
+            }
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
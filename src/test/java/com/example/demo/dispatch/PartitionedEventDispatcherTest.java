@@ -0,0 +1,159 @@
+package com.example.demo.dispatch;
+
+import com.example.demo.DemoEvent;
+import com.example.demo.EventHandler;
+import com.example.demo.EventListener;
+import com.example.demo.EventProducer;
+import io.avaje.inject.BeanScope;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the key-partitioned lane dispatch mode.
+ */
+class PartitionedEventDispatcherTest {
+
+    private BeanScope beanScope;
+
+    @AfterEach
+    void cleanup() {
+        System.clearProperty("demo.dispatch.mode");
+        if (beanScope != null) {
+            beanScope.close();
+        }
+    }
+
+    @Test
+    void shouldKeepPerKeyOrderAcrossLanesWithConcurrentProducers() throws InterruptedException {
+        // Given
+        OrderRecorder recorder = new OrderRecorder();
+        PartitionedEventDispatcher dispatcher = new PartitionedEventDispatcher(
+            recorder, 4, 64, WaitStrategy.blocking(), 1.5, 0);
+        int producers = 4;
+        int perProducer = 2_000;
+        CountDownLatch done = new CountDownLatch(producers);
+
+        // When - each producer owns its keys and numbers their events
+        for (int p = 0; p < producers; p++) {
+            int id = p;
+            new Thread(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    dispatcher.dispatch(new DemoEvent(Integer.toString(i), 0, "P" + id + "-key" + (i % 10)));
+                }
+                done.countDown();
+            }).start();
+        }
+        done.await();
+        dispatcher.close();
+
+        // Then
+        assertEquals(producers * 10, recorder.sequences.size());
+        recorder.assertInOrder();
+        long delivered = 0;
+        for (int lane = 0; lane < dispatcher.laneCount(); lane++) {
+            delivered += dispatcher.laneDelivered(lane);
+            assertEquals(0, dispatcher.lanePending(lane));
+        }
+        assertEquals(producers * perProducer, delivered);
+    }
+
+    @Test
+    void shouldMoveKeysOffAHotLaneWithoutReordering() {
+        // Given - keys that all start on lane 0
+        OrderRecorder recorder = new OrderRecorder();
+        PartitionedEventDispatcher dispatcher = new PartitionedEventDispatcher(
+            recorder, 4, 256, WaitStrategy.blocking(), 1.5, 0);
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; keys.size() < 16; i++) {
+            if (dispatcher.laneOf("key" + i) == 0) {
+                keys.add("key" + i);
+            }
+        }
+        int sequence = 0;
+        for (int i = 0; i < 1_600; i++) {
+            dispatcher.dispatch(new DemoEvent(Integer.toString(sequence++), 0, keys.get(i % keys.size())));
+        }
+        assertEquals(4.0, dispatcher.skew(), 0.001);
+
+        // When
+        int moved = dispatcher.rebalance();
+        for (int i = 0; i < 1_600; i++) {
+            dispatcher.dispatch(new DemoEvent(Integer.toString(sequence++), 0, keys.get(i % keys.size())));
+        }
+        dispatcher.close();
+
+        // Then
+        assertTrue(moved > 0);
+        Set<Integer> lanes = new HashSet<>();
+        for (String key : keys) {
+            lanes.add(dispatcher.laneOf(key));
+        }
+        assertEquals(4, lanes.size());
+        assertTrue(dispatcher.skew() < 1.5, "skew " + dispatcher.skew());
+        recorder.assertInOrder();
+        assertEquals(3_200, recorder.count());
+    }
+
+    @Test
+    void shouldWirePartitionedDispatcherWhenConfigured() {
+        // Given
+        System.setProperty("demo.dispatch.mode", "partitioned");
+        beanScope = BeanScope.builder().build();
+        EventProducer producer = beanScope.get(EventProducer.class);
+        EventListener listener = beanScope.get(EventListener.class);
+        PartitionedEventDispatcher dispatcher = (PartitionedEventDispatcher) beanScope.get(EventDispatcher.class);
+
+        // When
+        producer.produceKeyedEvent("order-1", "created");
+        producer.produceKeyedEvent("order-1", "paid");
+        producer.produceEvent("unkeyed");
+        dispatcher.close();
+
+        // Then
+        assertEquals(3, listener.getEventCount());
+        List<String> order1 = new ArrayList<>();
+        for (DemoEvent event : listener.getReceivedEvents()) {
+            if ("order-1".equals(event.getPartitionKey())) {
+                order1.add(event.getMessage());
+            }
+        }
+        assertEquals(List.of("created", "paid"), order1);
+    }
+
+    /**
+     * Records the numeric messages received per key.
+     */
+    private static final class OrderRecorder implements EventHandler<DemoEvent> {
+
+        final Map<String, List<Integer>> sequences = new ConcurrentHashMap<>();
+
+        @Override
+        public void onEvent(DemoEvent event) {
+            // one lane delivers a key, so each list is only appended to by one thread at a time
+            sequences.computeIfAbsent(event.getPartitionKey(), key -> new ArrayList<>())
+                .add(Integer.parseInt(event.getMessage()));
+        }
+
+        void assertInOrder() {
+            sequences.forEach((key, received) -> {
+                for (int i = 1; i < received.size(); i++) {
+                    assertTrue(received.get(i - 1) < received.get(i), key + " out of order: " + received);
+                }
+            });
+        }
+
+        int count() {
+            return sequences.values().stream().mapToInt(List::size).sum();
+        }
+    }
+}
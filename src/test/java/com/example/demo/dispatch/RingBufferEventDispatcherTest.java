@@ -0,0 +1,285 @@
+package com.example.demo.dispatch;
+
+import com.example.demo.DemoEvent;
+import com.example.demo.EventListener;
+import com.example.demo.EventProducer;
+import com.example.demo.dispatch.RingBuffer.ProducerType;
+import io.avaje.inject.BeanScope;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the asynchronous ring buffer dispatch mode.
+ */
+class RingBufferEventDispatcherTest {
+
+    private BeanScope beanScope;
+
+    @AfterEach
+    void cleanup() {
+        System.clearProperty("demo.dispatch.mode");
+        if (beanScope != null) {
+            beanScope.close();
+        }
+    }
+
+    @Test
+    void shouldDeliverEventsInOrderWithSingleProducer() {
+        // Given
+        EventListener listener = new EventListener();
+        RingBufferEventDispatcher dispatcher = new RingBufferEventDispatcher(
+            listener, 8, ProducerType.SINGLE, WaitStrategy.blocking(), 1);
+
+        // When - more events than ring slots, so the producer has to wrap
+        for (int i = 0; i < 100; i++) {
+            dispatcher.dispatch(new DemoEvent("Event " + i));
+        }
+        dispatcher.close();
+
+        // Then
+        List<DemoEvent> events = listener.getReceivedEvents();
+        assertEquals(100, events.size());
+        for (int i = 0; i < 100; i++) {
+            assertEquals("Event " + i, events.get(i).getMessage());
+        }
+        assertEquals(0, dispatcher.pending());
+    }
+
+    @Test
+    void shouldDeliverAllEventsFromConcurrentProducers() throws InterruptedException {
+        for (String strategy : new String[] {"busy-spin", "yielding", "blocking"}) {
+            // Given
+            EventListener listener = new EventListener();
+            RingBufferEventDispatcher dispatcher = new RingBufferEventDispatcher(
+                listener, 64, ProducerType.MULTI, WaitStrategy.of(strategy), 1);
+            int producers = 4;
+            int perProducer = 500;
+            CountDownLatch done = new CountDownLatch(producers);
+
+            // When
+            for (int p = 0; p < producers; p++) {
+                int id = p;
+                new Thread(() -> {
+                    for (int i = 0; i < perProducer; i++) {
+                        dispatcher.dispatch(new DemoEvent("P" + id + "-" + i));
+                    }
+                    done.countDown();
+                }).start();
+            }
+            done.await();
+            dispatcher.close();
+
+            // Then
+            assertEquals(producers * perProducer, listener.getEventCount(), "strategy " + strategy);
+        }
+    }
+
+    @Test
+    void shouldDeliverBatchesLargerThanTheRing() {
+        // Given
+        EventListener listener = new EventListener();
+        RingBufferEventDispatcher dispatcher = new RingBufferEventDispatcher(
+            listener, 4, ProducerType.MULTI, WaitStrategy.yielding(), 1);
+        List<DemoEvent> batch = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            batch.add(new DemoEvent("Batch " + i));
+        }
+
+        // When
+        dispatcher.dispatchBatch(batch);
+        dispatcher.close();
+
+        // Then
+        assertEquals(10, listener.getEventCount());
+        assertEquals("Batch 9", listener.getReceivedEvents().get(9).getMessage());
+    }
+
+    @Test
+    void shouldDeliverEveryBatchedEventWithSeveralConsumers() throws InterruptedException {
+        // Given
+        EventListener listener = new EventListener(1024, false);
+        RingBufferEventDispatcher dispatcher = new RingBufferEventDispatcher(
+            listener, 16, ProducerType.MULTI, WaitStrategy.blocking(), 2);
+
+        // When - each run ends in one stripe, so the other consumer must end its batch earlier
+        for (int batch = 0; batch < 25; batch++) {
+            List<DemoEvent> events = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                events.add(new DemoEvent("Batch " + batch + "-" + i));
+            }
+            dispatcher.dispatchBatch(events);
+        }
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (listener.getEventCount() < 100 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        int deliveredBeforeClose = listener.getEventCount();
+        dispatcher.close();
+
+        // Then - delivered without waiting for close
+        assertEquals(100, deliveredBeforeClose);
+        assertEquals(100, listener.getEventCount());
+        assertEquals(0, dispatcher.pending());
+    }
+
+    @Test
+    void shouldStripeWorkAcrossConsumerThreads() throws InterruptedException {
+        // Given
+        AtomicInteger handled = new AtomicInteger();
+        RingBuffer<long[]> ring = RingBuffer.create(ProducerType.SINGLE, () -> new long[1], 16, WaitStrategy.yielding());
+        RingConsumer<long[]> first = new RingConsumer<>(ring, (slot, seq, end) -> handled.incrementAndGet(), 0, 2);
+        RingConsumer<long[]> second = new RingConsumer<>(ring, (slot, seq, end) -> handled.incrementAndGet(), 1, 2);
+        ring.addGatingSequences(first.sequence(), second.sequence());
+        Thread t1 = new Thread(first);
+        Thread t2 = new Thread(second);
+        t1.start();
+        t2.start();
+
+        // When
+        for (int i = 0; i < 1000; i++) {
+            long seq = ring.next();
+            ring.get(seq)[0] = i;
+            ring.publish(seq);
+        }
+        first.halt(ring.cursor().get());
+        second.halt(ring.cursor().get());
+        t1.join();
+        t2.join();
+
+        // Then - every sequence handled exactly once
+        assertEquals(1000, handled.get());
+    }
+
+    @Test
+    void shouldReportFullRingOnTryNext() {
+        // Given - a consumer that never runs
+        RingBuffer<long[]> ring = RingBuffer.create(ProducerType.MULTI, () -> new long[1], 4, WaitStrategy.blocking());
+        ring.addGatingSequences(new Sequence());
+
+        // When
+        for (int i = 0; i < 4; i++) {
+            ring.publish(ring.tryNext());
+        }
+
+        // Then
+        assertEquals(-1, ring.tryNext());
+        assertEquals(0, ring.remainingCapacity());
+    }
+
+    @Test
+    void shouldRefuseTryDispatchWhileTheRingIsFull() throws InterruptedException {
+        // Given - a handler stuck on its first event, holding one of two slots
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> received = new CopyOnWriteArrayList<>();
+        RingBufferEventDispatcher dispatcher = new RingBufferEventDispatcher(event -> {
+            received.add(event.getMessage());
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, 2, ProducerType.MULTI, WaitStrategy.blocking(), 1);
+        assertTrue(dispatcher.tryDispatch(new DemoEvent("Event 0")));
+        started.await();
+
+        // When
+        boolean second = dispatcher.tryDispatch(new DemoEvent("Event 1"));
+        boolean third = dispatcher.tryDispatch(new DemoEvent("Event 2"));
+        release.countDown();
+        dispatcher.close();
+
+        // Then
+        assertTrue(second);
+        assertFalse(third);
+        assertEquals(1, dispatcher.backpressure().getRejectedCount());
+        assertEquals(List.of("Event 0", "Event 1"), received);
+    }
+
+    @Test
+    void shouldRecordDepthAndBlockedTimeOfBatchDispatches() throws InterruptedException {
+        // Given - a handler stuck on its first event, holding one of four slots
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> received = new CopyOnWriteArrayList<>();
+        RingBufferEventDispatcher dispatcher = new RingBufferEventDispatcher(event -> {
+            received.add(event.getMessage());
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, 4, ProducerType.SINGLE, WaitStrategy.blocking(), 1);
+        dispatcher.dispatch(new DemoEvent("Event 0"));
+        started.await();
+
+        // When - a batch fills the ring and the next one waits for room
+        dispatcher.dispatchBatch(List.of(new DemoEvent("Event 1"), new DemoEvent("Event 2"), new DemoEvent("Event 3")));
+        long depthWhenFull = dispatcher.backpressure().getHighWatermark();
+        long blockedWhenFull = dispatcher.backpressure().getBlockedCount();
+        Thread producer = new Thread(() -> dispatcher.dispatchBatch(List.of(new DemoEvent("Event 4"), new DemoEvent("Event 5"))));
+        producer.start();
+        while (producer.getState() != Thread.State.TIMED_WAITING) {
+            Thread.onSpinWait();
+        }
+        Thread.sleep(50);
+        release.countDown();
+        producer.join();
+        dispatcher.close();
+
+        // Then
+        assertEquals(4, depthWhenFull);
+        assertEquals(0, blockedWhenFull);
+        assertEquals(1, dispatcher.backpressure().getBlockedCount());
+        assertTrue(dispatcher.backpressure().getBlockedNanos() >= TimeUnit.MILLISECONDS.toNanos(50));
+        assertEquals(4, dispatcher.backpressure().getHighWatermark());
+        assertEquals(List.of("Event 0", "Event 1", "Event 2", "Event 3", "Event 4", "Event 5"), received);
+    }
+
+    @Test
+    void shouldRejectEventsAfterClose() {
+        RingBufferEventDispatcher dispatcher = new RingBufferEventDispatcher(
+            new EventListener(), 8, ProducerType.MULTI, WaitStrategy.blocking(), 1);
+        dispatcher.close();
+
+        assertThrows(IllegalStateException.class, () -> dispatcher.dispatch(new DemoEvent("late")));
+    }
+
+    @Test
+    void shouldKeepSynchronousDispatcherAsDefault() {
+        // Given
+        beanScope = BeanScope.builder().build();
+
+        // Then
+        assertInstanceOf(SyncEventDispatcher.class, beanScope.get(EventDispatcher.class));
+    }
+
+    @Test
+    void shouldWireAsyncDispatcherWhenConfigured() {
+        // Given
+        System.setProperty("demo.dispatch.mode", "async");
+        beanScope = BeanScope.builder().build();
+        EventProducer producer = beanScope.get(EventProducer.class);
+        EventListener listener = beanScope.get(EventListener.class);
+        RingBufferEventDispatcher dispatcher = (RingBufferEventDispatcher) beanScope.get(EventDispatcher.class);
+
+        // When
+        producer.produceEvents("Async 1", "Async 2", "Async 3");
+        dispatcher.close();
+
+        // Then
+        assertEquals(3, listener.getEventCount());
+        assertEquals("Async 1", listener.getReceivedEvents().get(0).getMessage());
+    }
+}
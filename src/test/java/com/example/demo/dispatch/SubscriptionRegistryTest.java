@@ -0,0 +1,106 @@
+package com.example.demo.dispatch;
+
+import com.example.demo.DemoEvent;
+import com.example.demo.EventHandler;
+import com.example.demo.EventListener;
+import com.example.demo.EventProducer;
+import io.avaje.inject.BeanScope;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for typed subscriptions and fan-out through the {@link SubscriptionRegistry}.
+ */
+class SubscriptionRegistryTest {
+
+    private BeanScope beanScope;
+
+    @AfterEach
+    void cleanup() {
+        if (beanScope != null) {
+            beanScope.close();
+        }
+    }
+
+    @Test
+    void shouldDiscoverHandlerBeansFromScope() {
+        // Given
+        beanScope = BeanScope.builder().build();
+        SubscriptionRegistry registry = beanScope.get(SubscriptionRegistry.class);
+
+        // Then - the EventListener bean is subscribed to DemoEvent
+        assertEquals(1, registry.subscriberCount(DemoEvent.class));
+    }
+
+    @Test
+    void shouldFanOutToHandlersAddedAtRuntime() {
+        // Given
+        beanScope = BeanScope.builder().build();
+        SubscriptionRegistry registry = beanScope.get(SubscriptionRegistry.class);
+        EventProducer producer = beanScope.get(EventProducer.class);
+        EventListener listener = beanScope.get(EventListener.class);
+        List<String> audit = new ArrayList<>();
+
+        // When
+        Subscription subscription = registry.subscribe(DemoEvent.class, event -> audit.add(event.getMessage()));
+        producer.produceEvent("Fan out");
+        subscription.close();
+        producer.produceEvent("After unsubscribe");
+
+        // Then
+        assertEquals(List.of("Fan out"), audit);
+        assertEquals(2, listener.getEventCount());
+    }
+
+    @Test
+    void shouldDeliverSubtypeEventsToSupertypeAndSubtypeHandlers() {
+        // Given
+        SubscriptionRegistry registry = new SubscriptionRegistry();
+        List<String> all = new ArrayList<>();
+        List<String> alerts = new ArrayList<>();
+        registry.subscribe(DemoEvent.class, event -> all.add(event.getMessage()));
+        registry.subscribe(new AlertHandler(alerts));
+        TypedPublisher<DemoEvent> publisher = registry.publisher(DemoEvent.class);
+
+        // When
+        publisher.onEvent(new DemoEvent("plain"));
+        publisher.onEvent(new AlertEvent("alert"));
+
+        // Then
+        assertEquals(List.of("plain", "alert"), all);
+        assertEquals(List.of("alert"), alerts);
+        assertEquals(1, registry.subscriberCount(DemoEvent.class));
+        assertEquals(2, registry.subscriberCount(AlertEvent.class));
+    }
+
+    @Test
+    void shouldResolveDeclaredEventType() {
+        assertEquals(AlertEvent.class, SubscriptionRegistry.resolveEventType(AlertHandler.class));
+        assertEquals(DemoEvent.class, SubscriptionRegistry.resolveEventType(EventListener.class));
+    }
+
+    static class AlertEvent extends DemoEvent {
+        AlertEvent(String message) {
+            super(message);
+        }
+    }
+
+    static class AlertHandler implements EventHandler<AlertEvent> {
+
+        private final List<String> received;
+
+        AlertHandler(List<String> received) {
+            this.received = received;
+        }
+
+        @Override
+        public void onEvent(AlertEvent event) {
+            received.add(event.getMessage());
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.demo.journal;
+
+import com.example.demo.DemoEvent;
+import com.example.demo.EventListener;
+import com.example.demo.EventProducer;
+import com.example.demo.codec.EventCodec;
+import io.avaje.inject.BeanScope;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the memory-mapped {@link EventJournal}: replay, segment rolling and crash recovery.
+ */
+class EventJournalTest {
+
+    private static final int SEGMENT_SIZE = 4096;
+
+    @TempDir
+    Path directory;
+
+    private BeanScope beanScope;
+
+    @AfterEach
+    void cleanup() {
+        System.clearProperty("demo.journal.dir");
+        if (beanScope != null) {
+            beanScope.close();
+        }
+    }
+
+    @Test
+    void shouldReplayEventsBySequenceAfterReopen() throws IOException {
+        // Given
+        try (EventJournal journal = EventJournal.open(directory, SEGMENT_SIZE, ForcePolicy.never())) {
+            journal.append(new DemoEvent("first", 1000));
+            journal.appendAll(List.of(new DemoEvent("second é😀", 2000), new DemoEvent(null, 3000)));
+        }
+
+        // When
+        List<DemoEvent> replayed = new ArrayList<>();
+        try (EventJournal journal = EventJournal.open(directory, SEGMENT_SIZE, ForcePolicy.never())) {
+            assertEquals(3, journal.nextSequence());
+            journal.replay(1, Long.MAX_VALUE, replayed::add);
+        }
+
+        // Then
+        assertEquals(2, replayed.size());
+        assertEquals("second é😀", replayed.get(0).getMessage());
+        assertEquals(2000, replayed.get(0).getTimestamp());
+        assertNull(replayed.get(1).getMessage());
+    }
+
+    @Test
+    void shouldReplayPartitionKeys() throws IOException {
+        // Given
+        try (EventJournal journal = EventJournal.open(directory, SEGMENT_SIZE, ForcePolicy.never())) {
+            journal.append(new DemoEvent("keyed", 1, "order-ü"));
+            journal.append(new DemoEvent(null, 2, "order-2"));
+            journal.append(new DemoEvent("unkeyed", 3));
+        }
+
+        // When
+        List<DemoEvent> replayed = new ArrayList<>();
+        try (EventJournal journal = EventJournal.open(directory, SEGMENT_SIZE, ForcePolicy.never())) {
+            journal.replay(0, Long.MAX_VALUE, replayed::add);
+        }
+
+        // Then
+        assertEquals(3, replayed.size());
+        assertEquals("keyed", replayed.get(0).getMessage());
+        assertEquals("order-ü", replayed.get(0).getPartitionKey());
+        assertNull(replayed.get(1).getMessage());
+        assertEquals("order-2", replayed.get(1).getPartitionKey());
+        assertEquals("unkeyed", replayed.get(2).getMessage());
+        assertNull(replayed.get(2).getPartitionKey());
+    }
+
+    @Test
+    void shouldRollSegmentsAndReplayByTime() throws IOException {
+        // Given - enough events to fill several small segments
+        try (EventJournal journal = EventJournal.open(directory, SEGMENT_SIZE, ForcePolicy.everyRecords(10))) {
+            for (int i = 0; i < 500; i++) {
+                journal.append(new DemoEvent("Event " + i, 10_000 + i));
+            }
+
+            // When
+            List<DemoEvent> replayed = new ArrayList<>();
+            long delivered = journal.replayByTime(10_100, 10_110, replayed::add);
+
+            // Then
+            assertTrue(journal.segmentCount() > 1, "journal should have rolled");
+            assertEquals(10, delivered);
+            assertEquals("Event 100", replayed.get(0).getMessage());
+            assertEquals("Event 109", replayed.get(9).getMessage());
+        }
+        try (EventJournal reopened = EventJournal.open(directory, SEGMENT_SIZE, ForcePolicy.never())) {
+            assertEquals(500, reopened.nextSequence());
+        }
+    }
+
+    @Test
+    void shouldTruncateTornTailOnRecovery() throws IOException {
+        // Given
+        try (EventJournal journal = EventJournal.open(directory, SEGMENT_SIZE, ForcePolicy.always())) {
+            journal.append(new DemoEvent("kept", 1));
+            journal.append(new DemoEvent("torn", 2));
+        }
+        corruptLastRecordBody();
+
+        // When
+        List<DemoEvent> replayed = new ArrayList<>();
+        try (EventJournal journal = EventJournal.open(directory, SEGMENT_SIZE, ForcePolicy.never())) {
+            journal.append(new DemoEvent("after recovery", 3));
+            journal.replay(0, Long.MAX_VALUE, replayed::add);
+        }
+
+        // Then - the torn record is gone and its sequence reused
+        assertEquals(2, replayed.size());
+        assertEquals("kept", replayed.get(0).getMessage());
+        assertEquals("after recovery", replayed.get(1).getMessage());
+    }
+
+    @Test
+    void shouldReplayJournalIntoListenerOnStartup() throws IOException {
+        // Given - a journal written by a previous run
+        System.setProperty("demo.journal.dir", directory.toString());
+        beanScope = BeanScope.builder().build();
+        beanScope.get(EventProducer.class).produceEvents("one", "two");
+        beanScope.close();
+
+        // When
+        beanScope = BeanScope.builder().build();
+        EventListener listener = beanScope.get(EventListener.class);
+
+        // Then - replayed once, and not journaled a second time
+        assertEquals(2, listener.getEventCount());
+        assertEquals("one", listener.getReceivedEvents().get(0).getMessage());
+        assertEquals(2, beanScope.get(EventJournal.class).nextSequence());
+    }
+
+    private void corruptLastRecordBody() throws IOException {
+        Path segment;
+        try (Stream<Path> files = Files.list(directory)) {
+            segment = files.sorted().reduce((a, b) -> b).orElseThrow();
+        }
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer length = ByteBuffer.allocate(Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            channel.read(length, JournalSegment.HEADER_SIZE);
+            long second = JournalSegment.HEADER_SIZE + length.getInt(0);
+            // flip a byte of the message, as if the write had not completed
+            channel.write(ByteBuffer.wrap(new byte[] {'X'}), second + JournalSegment.RECORD_HEADER_SIZE + EventCodec.HEADER_SIZE + 1);
+        }
+    }
+}
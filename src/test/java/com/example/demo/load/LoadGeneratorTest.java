@@ -0,0 +1,79 @@
+package com.example.demo.load;
+
+import com.example.demo.DemoEvent;
+import com.example.demo.EventListener;
+import com.example.demo.EventProducer;
+import com.example.demo.dispatch.Subscription;
+import com.example.demo.dispatch.SubscriptionRegistry;
+import io.avaje.inject.BeanScope;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the load generator and its payload and latency helpers.
+ */
+class LoadGeneratorTest {
+
+    private BeanScope beanScope;
+
+    @AfterEach
+    void cleanup() {
+        System.clearProperty("demo.listener.echo");
+        if (beanScope != null) {
+            beanScope.close();
+        }
+    }
+
+    @Test
+    void shouldDrawPayloadSizesWithinTheSpec() {
+        // Given
+        PayloadSizes fixed = PayloadSizes.parse("fixed:64");
+        PayloadSizes uniform = PayloadSizes.parse("uniform:16:32");
+        PayloadSizes exponential = PayloadSizes.parse("exponential:10");
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        // When / Then
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(64, fixed.next(random));
+            int size = uniform.next(random);
+            assertTrue(size >= 16 && size <= 32, "uniform size " + size);
+            size = exponential.next(random);
+            assertTrue(size >= 0 && size <= 160, "exponential size " + size);
+        }
+        assertThrows(IllegalArgumentException.class, () -> PayloadSizes.parse("uniform:32:16"));
+        assertThrows(IllegalArgumentException.class, () -> PayloadSizes.parse("normal:10"));
+    }
+
+    @Test
+    void shouldMeasureLatencyOfEveryEventSentAtTheTargetRate() throws InterruptedException {
+        // Given
+        System.setProperty("demo.listener.echo", "false");
+        beanScope = BeanScope.builder().build();
+        LatencyProbe probe = new LatencyProbe();
+        Subscription subscription = beanScope.get(SubscriptionRegistry.class).subscribe(DemoEvent.class, probe);
+        LoadConfig config = new LoadConfig(2, 200, 1, 1, PayloadSizes.parse("uniform:0:100"));
+        ByteArrayOutputStream printed = new ByteArrayOutputStream();
+
+        // When
+        LoadGenerator.Summary summary = new LoadGenerator(beanScope.get(EventProducer.class), probe, config, () -> 0)
+            .run(new PrintStream(printed, true, StandardCharsets.UTF_8));
+        subscription.close();
+
+        // Then - roughly 200 events in one second, each one seen by the probe and the listener
+        assertTrue(summary.getSent() > 100 && summary.getSent() <= 200, "sent " + summary.getSent());
+        assertEquals(summary.getSent(), summary.getReceived());
+        assertEquals(summary.getSent(), summary.getLatency().getTotalCount());
+        assertEquals(summary.getSent(), beanScope.get(EventListener.class).getEventCount());
+        assertTrue(summary.getLatency().getValueAtPercentile(50) > 0);
+        String output = printed.toString(StandardCharsets.UTF_8);
+        assertTrue(output.contains("latency ms p50"), output);
+        assertTrue(output.contains("GC: "), output);
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.demo.metrics;
+
+import com.example.demo.EventProducer;
+import io.avaje.inject.BeanScope;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the OpenMetrics endpoint and its writer.
+ */
+class MetricsServerTest {
+
+    private BeanScope beanScope;
+
+    @AfterEach
+    void cleanup() {
+        System.clearProperty("demo.metrics.port");
+        if (beanScope != null) {
+            beanScope.close();
+        }
+    }
+
+    @Test
+    void shouldServeTimingAndEventPathMetrics() throws Exception {
+        // Given
+        System.setProperty("demo.metrics.port", "0");
+        beanScope = BeanScope.builder().build();
+        beanScope.get(EventProducer.class).produceEvents("one", "two", "three");
+        int port = beanScope.get(MetricsServer.class).port();
+
+        // When
+        HttpResponse<String> response = HttpClient.newHttpClient().send(
+            HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/metrics")).build(),
+            HttpResponse.BodyHandlers.ofString());
+
+        // Then
+        String body = response.body();
+        assertEquals(200, response.statusCode());
+        assertTrue(response.headers().firstValue("Content-Type").orElse("").startsWith("application/openmetrics-text"));
+        assertTrue(body.contains("demo_method_calls_total{method=\"EventProducer.produceEvents\"} 1\n"), body);
+        assertTrue(body.contains("demo_method_items_total{method=\"EventListener.onEvents\"} 3\n"), body);
+        assertTrue(body.contains("demo_method_duration_seconds_bucket{method=\"EventListener.onEvents\",le=\"+Inf\"} 1\n"), body);
+        assertTrue(body.contains("demo_events_received_total 3\n"), body);
+        assertTrue(body.contains("demo_dispatch_queue_depth 0\n"), body);
+        assertTrue(body.endsWith("# EOF\n"));
+    }
+
+    @Test
+    void shouldRenderNumbersAndEscapeLabels() {
+        // Given
+        MetricsWriter writer = new MetricsWriter(16);
+
+        // When
+        writer.name("m").label("l", "a\"b\\c\nd").value(-1234567890123L);
+        writer.name("m").value(2.5, 3);
+        writer.name("m").value(-0.0004, 3);
+        writer.name("m").nanosAsSeconds(1_500_000_123L);
+
+        // Then
+        assertEquals("m{l=\"a\\\"b\\\\c\\nd\"} -1234567890123\n"
+            + "m 2.500\n"
+            + "m 0.000\n"
+            + "m 1.500000123\n", writer.toString());
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.demo.output;
+
+import com.example.demo.DemoEvent;
+import com.example.demo.EventProducer;
+import io.avaje.inject.BeanScope;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the listener's echo sinks.
+ */
+class EventSinkTest {
+
+    @AfterEach
+    void cleanup() {
+        System.clearProperty("demo.listener.output");
+        System.clearProperty("demo.listener.outputFile");
+    }
+
+    @Test
+    void shouldFormatLinesLikeToString() {
+        // Given
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BufferedEventSink sink = new BufferedEventSink(Channels.newChannel(out), 64, false);
+        List<DemoEvent> events = List.of(
+            new DemoEvent("hello", 1_700_000_000_000L),
+            new DemoEvent(null, 0),
+            new DemoEvent("héllo 😀 " + "x".repeat(100), -42),
+            new DemoEvent("keyed", Long.MIN_VALUE, "order-1"),
+            new DemoEvent("", Long.MAX_VALUE, "ключ"));
+
+        // When
+        sink.writeAll(events);
+        sink.close();
+
+        // Then
+        StringBuilder expected = new StringBuilder();
+        for (DemoEvent event : events) {
+            expected.append("Received event: ").append(event).append('\n');
+        }
+        assertEquals(expected.toString(), out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void shouldHoldBufferedLinesUntilTheBufferIsFull() {
+        // Given
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BufferedEventSink sink = new BufferedEventSink(Channels.newChannel(out), 4096, false);
+
+        // When
+        sink.write(new DemoEvent("first", 1));
+        int beforeFlush = out.size();
+        sink.flush();
+
+        // Then
+        assertEquals(0, beforeFlush);
+        assertEquals("Received event: DemoEvent{message='first', timestamp=1}\n", out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void shouldAppendLinesFromManyThreadsToTheFile(@TempDir Path dir) throws Exception {
+        // Given
+        Path file = dir.resolve("events.log");
+        AsyncFileEventSink sink = AsyncFileEventSink.open(file, 1024, 1_000);
+        int threads = 4;
+        int perThread = 5_000;
+        CountDownLatch done = new CountDownLatch(threads);
+
+        // When
+        for (int t = 0; t < threads; t++) {
+            String key = "T" + t;
+            new Thread(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    sink.write(Integer.toString(i), i, key);
+                }
+                done.countDown();
+            }).start();
+        }
+        done.await();
+        sink.flush();
+        long flushed = sink.getBytesWritten();
+        sink.close();
+
+        // Then
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(threads * perThread, lines.size());
+        assertEquals(Files.size(file), flushed);
+        int[] next = new int[threads];
+        for (String line : lines) {
+            int thread = line.charAt(line.indexOf("partitionKey='T") + 15) - '0';
+            assertEquals("Received event: " + new DemoEvent(Integer.toString(next[thread]), next[thread], "T" + thread), line);
+            next[thread]++;
+        }
+    }
+
+    @Test
+    void shouldWriteALoneLineAfterTheFlushInterval(@TempDir Path dir) throws Exception {
+        // Given
+        Path file = dir.resolve("events.log");
+        try (AsyncFileEventSink sink = AsyncFileEventSink.open(file, 64 * 1024, 20)) {
+
+            // When
+            sink.write(new DemoEvent("lone", 7));
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (Files.size(file) == 0 && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+
+            // Then
+            assertEquals(List.of("Received event: DemoEvent{message='lone', timestamp=7}"), Files.readAllLines(file));
+        }
+    }
+
+    @Test
+    void shouldEchoToTheConfiguredFile(@TempDir Path dir) throws Exception {
+        // Given
+        Path file = dir.resolve("echo.log");
+        System.setProperty("demo.listener.output", "file");
+        System.setProperty("demo.listener.outputFile", file.toString());
+
+        // When
+        try (BeanScope beanScope = BeanScope.builder().build()) {
+            assertInstanceOf(AsyncFileEventSink.class, beanScope.get(EventSink.class));
+            beanScope.get(EventProducer.class).produceEvent("to file");
+        }
+
+        // Then
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(1, lines.size());
+        assertTrue(lines.get(0).startsWith("Received event: DemoEvent{message='to file', timestamp="), lines.get(0));
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.demo.span;
+
+import com.example.demo.EventProducer;
+import io.avaje.inject.BeanScope;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for span recording, export and analysis.
+ */
+class SpanRecorderTest {
+
+    @TempDir
+    Path directory;
+
+    private BeanScope beanScope;
+
+    @AfterEach
+    void cleanup() {
+        System.clearProperty("demo.trace.spans");
+        if (beanScope != null) {
+            beanScope.close();
+        }
+    }
+
+    @Test
+    void shouldLinkNestedSpansAndKeepOnlyTheLatest() {
+        // Given
+        SpanRecorder recorder = new SpanRecorder(4);
+
+        // When - a root with two children, then enough single spans to wrap the buffer
+        recorder.start("Producer.produce");
+        recorder.start("Listener.onEvent");
+        recorder.end(false);
+        recorder.start("Listener.onEvent");
+        recorder.end(true);
+        recorder.end(false);
+        List<Span> nested = recorder.snapshot();
+        for (int i = 0; i < 5; i++) {
+            recorder.start("Other.call");
+            recorder.end(false);
+        }
+
+        // Then
+        assertEquals(3, nested.size());
+        Span root = nested.get(2);
+        assertTrue(root.isRoot());
+        assertEquals(root.getSpanId(), nested.get(0).getParentId());
+        assertEquals(root.getTraceId(), nested.get(1).getTraceId());
+        assertTrue(nested.get(1).isFailed());
+        assertEquals(4, recorder.snapshot().size());
+        assertEquals(8, recorder.recordedCount());
+    }
+
+    @Test
+    void shouldReportSelfTimeAndCriticalPathAfterExport() throws IOException {
+        // Given - a root of 100 ns whose children take 30 and 50 ns
+        List<Span> spans = List.of(
+            new Span(1, 2, 1, "Listener.onEvent", 10, 30, false),
+            new Span(1, 3, 1, "Listener.onEvent \"quoted\"", 45, 50, true),
+            new Span(1, 1, Span.NO_PARENT, "Producer.produce", 0, 100, false));
+        Path file = directory.resolve("spans.jsonl");
+
+        // When
+        SpanJson.write(spans, file);
+        SpanAnalyzer analyzer = new SpanAnalyzer(SpanJson.read(file));
+        ByteArrayOutputStream printed = new ByteArrayOutputStream();
+        analyzer.print(new PrintStream(printed, true, StandardCharsets.UTF_8));
+
+        // Then
+        Map<String, SpanAnalyzer.MethodTime> times = analyzer.methodTimes();
+        assertEquals(20, times.get("Producer.produce").getSelfNanos());
+        assertEquals(100, times.get("Producer.produce").getTotalNanos());
+        assertEquals("Listener.onEvent \"quoted\"", times.keySet().iterator().next());
+        List<String> path = analyzer.criticalPath(analyzer.slowestRoot()).stream()
+            .map(Span::getName).collect(Collectors.toList());
+        assertEquals(List.of("Producer.produce", "Listener.onEvent", "Listener.onEvent \"quoted\""), path);
+        assertTrue(printed.toString(StandardCharsets.UTF_8).contains("Critical path of slowest trace 0000000000000001"));
+    }
+
+    @Test
+    void shouldRecordSpansAcrossProducerAndListenerWhenEnabled() {
+        // Given
+        System.setProperty("demo.trace.spans", "true");
+        beanScope = BeanScope.builder().build();
+
+        // When
+        beanScope.get(EventProducer.class).produceEvents("one", "two");
+
+        // Then - the listener call is a child of the producer call
+        List<Span> spans = beanScope.get(SpanRecorder.class).snapshot();
+        Span root = spans.stream().filter(Span::isRoot).findFirst().orElseThrow();
+        assertEquals("EventProducer.produceEvents", root.getName());
+        assertTrue(spans.stream().anyMatch(span -> span.getParentId() == root.getSpanId()
+            && span.getName().startsWith("EventListener.")), spans.toString());
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.demo.store;
+
+import com.example.demo.DemoEvent;
+import org.junit.jupiter.api.Test;
+
+import java.util.ConcurrentModificationException;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the bounded lock-free {@link EventStore}.
+ */
+class EventStoreTest {
+
+    @Test
+    void shouldEvictOldestEventsWhenFull() {
+        // Given
+        EventStore store = new EventStore(4);
+
+        // When
+        for (int i = 0; i < 10; i++) {
+            store.append(new DemoEvent("Event " + i));
+        }
+
+        // Then
+        List<DemoEvent> events = store.snapshot();
+        assertEquals(4, events.size());
+        assertEquals("Event 6", events.get(0).getMessage());
+        assertEquals("Event 9", events.get(3).getMessage());
+        assertEquals(10, store.receivedCount());
+        assertEquals(6, store.evictedCount());
+    }
+
+    @Test
+    void shouldRoundCapacityUpToPowerOfTwo() {
+        assertEquals(8, new EventStore(5).capacity());
+        assertEquals(8, new EventStore(8).capacity());
+    }
+
+    @Test
+    void shouldDetectEvictionAfterSnapshot() {
+        // Given
+        EventStore store = new EventStore(2);
+        store.append(new DemoEvent("first"));
+        store.append(new DemoEvent("second"));
+        List<DemoEvent> snapshot = store.snapshot();
+
+        // When - overwrite the first slot
+        store.append(new DemoEvent("third"));
+
+        // Then
+        assertThrows(ConcurrentModificationException.class, () -> snapshot.get(0));
+        assertEquals("second", snapshot.get(1).getMessage());
+    }
+
+    @Test
+    void shouldHideClearedEventsWithoutCountingThemAsEvicted() {
+        // Given
+        EventStore store = new EventStore(2);
+        store.append(new DemoEvent("old 1"));
+        store.append(new DemoEvent("old 2"));
+
+        // When
+        store.clear();
+        store.appendAll(List.of(new DemoEvent("new 1"), new DemoEvent("new 2")));
+
+        // Then
+        assertEquals(2, store.size());
+        assertEquals("new 1", store.snapshot().get(0).getMessage());
+        assertNull(store.get(0));
+        assertEquals(4, store.receivedCount());
+        assertEquals(0, store.evictedCount());
+    }
+
+    @Test
+    void shouldKeepExactCountsUnderConcurrentAppends() throws InterruptedException {
+        // Given
+        EventStore store = new EventStore(1024);
+        int threads = 4;
+        int perThread = 10_000;
+        CountDownLatch done = new CountDownLatch(threads);
+
+        // When
+        for (int t = 0; t < threads; t++) {
+            new Thread(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    store.append(new DemoEvent("e"));
+                }
+                done.countDown();
+            }).start();
+        }
+        done.await();
+
+        // Then
+        assertEquals(threads * perThread, store.receivedCount());
+        assertEquals(threads * perThread - 1024, store.evictedCount());
+        assertEquals(1024, store.size());
+        store.snapshot().forEach(event -> assertNotNull(event));
+    }
+
+    @Test
+    void shouldFindTimestampRangesByBinarySearch() {
+        // Given - timestamps 1000, 1010, ... 1990, half of them evicted
+        EventStore store = new EventStore(64);
+        for (int i = 0; i < 100; i++) {
+            store.append(new DemoEvent("Event " + i, 1_000 + i * 10L));
+        }
+
+        // When
+        List<DemoEvent> range = StreamSupport.stream(store.between(1_500, 1_550), false).collect(Collectors.toList());
+        long parallelCount = StreamSupport.stream(store.between(0, Long.MAX_VALUE), true).count();
+
+        // Then
+        assertEquals(List.of("Event 50", "Event 51", "Event 52", "Event 53", "Event 54"),
+            range.stream().map(DemoEvent::getMessage).collect(Collectors.toList()));
+        assertEquals(64, parallelCount);
+        assertEquals(0, StreamSupport.stream(store.between(1_000, 1_360), false).count());
+        assertEquals(0, store.timestampDisorder());
+    }
+
+    @Test
+    void shouldWidenRangeSearchByObservedDisorder() {
+        // Given - an event appended after newer ones
+        EventStore store = new EventStore(16);
+        for (long timestamp : new long[] {100, 110, 120, 130, 105, 140, 150}) {
+            store.append(new DemoEvent("At " + timestamp, timestamp));
+        }
+
+        // When
+        List<String> range = StreamSupport.stream(store.between(100, 111), false)
+            .map(DemoEvent::getMessage).collect(Collectors.toList());
+
+        // Then
+        assertEquals(25, store.timestampDisorder());
+        assertEquals(List.of("At 100", "At 110", "At 105"), range);
+    }
+
+    @Test
+    void shouldIndexTermsAndDropEvictedSequences() {
+        // Given
+        EventStore store = new EventStore(8);
+        TermIndex index = new TermIndex(store);
+        for (int i = 0; i < 20; i++) {
+            DemoEvent event = new DemoEvent((i % 2 == 0 ? "order created " : "order paid ") + i);
+            index.add(store.append(event), event);
+        }
+
+        // When
+        List<String> paid = StreamSupport.stream(index.withTerm("paid"), false)
+            .map(DemoEvent::getMessage).collect(Collectors.toList());
+        List<String> prefixed = StreamSupport.stream(index.startingWith("order cr"), true)
+            .map(DemoEvent::getMessage).collect(Collectors.toList());
+        List<String> wordPrefix = StreamSupport.stream(index.startingWith("ord"), false)
+            .map(DemoEvent::getMessage).collect(Collectors.toList());
+
+        // Then - only the 8 retained events are found, and numbers of evicted ones were swept
+        assertEquals(List.of("order paid 13", "order paid 15", "order paid 17", "order paid 19"), paid);
+        assertEquals(List.of("order created 12", "order created 14", "order created 16", "order created 18"), prefixed);
+        assertEquals(8, wordPrefix.size());
+        assertTrue(index.termCount() <= 4 + 8 + 8, "terms " + index.termCount());
+    }
+}